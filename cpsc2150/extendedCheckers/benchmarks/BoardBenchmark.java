@@ -0,0 +1,312 @@
+package cpsc2150.extendedCheckers.benchmarks;
+
+import cpsc2150.extendedCheckers.engine.Perft;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.util.DirectionEnum;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Measures the time and memory allocated by each ICheckerBoard operation, for every board implementation and board
+ * size, so the implementations can be compared and regressions tracked between releases. Each benchmark runs a number
+ * of warm-up iterations, then measured iterations of a fixed length, and reports the mean time per operation and the
+ * bytes allocated per operation. The results are written as JSON in the same shape as JMH's JSON output.
+ *
+ * Run from the command line as: BoardBenchmark [output file] [iteration milliseconds]
+ */
+public final class BoardBenchmark {
+    private static final String[] IMPLEMENTATIONS = {"F", "M", "B"};
+    private static final String[] OPERATIONS = {"whatsAtPos", "movePiece", "jumpPiece", "crownPiece",
+            "checkPlayerWin", "getPieceCounts", "scanSurroundingPositions", "scanSurroundingPacked",
+            "scanEachPiece", "scanNeighborhoods", "moveMasks", "toString"};
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int DEFAULT_ITERATION_MILLIS = 200;
+
+    /**
+     * The number of operations run between checks of the clock.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * Collects a value from every operation so the JIT can't remove operations whose results are unused.
+     */
+    private static volatile long sink;
+
+    private BoardBenchmark() {
+    }
+
+    /**
+     * The result of one benchmark.
+     */
+    private static final class Result {
+        final String operation;
+        final String implementation;
+        final int size;
+        final double[] nanosPerOp;
+        final double bytesPerOp;
+
+        Result(String operation, String implementation, int size, double[] nanosPerOp, double bytesPerOp) {
+            this.operation = operation;
+            this.implementation = implementation;
+            this.size = size;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        double mean() {
+            double total = 0;
+            for (double value : nanosPerOp) {
+                total += value;
+            }
+            return total / nanosPerOp.length;
+        }
+    }
+
+    /**
+     * One operation set up on a board so it can be repeated any number of times.
+     */
+    private interface Operation {
+        /**
+         * Runs the operation once and returns a value that depends on its result.
+         */
+        long run();
+    }
+
+    /**
+     * Runs every benchmark, prints a table of the results and writes them as JSON.
+     *
+     * @param args the JSON output file (default board-benchmark.json) and the length of an iteration in milliseconds
+     *
+     * @pre None
+     *
+     * @post [a line is printed for every benchmark and the JSON file holds every result]
+     */
+    public static void main(String[] args) throws IOException {
+        String outputFile = args.length > 0 ? args[0] : "board-benchmark.json";
+        long iterationMillis = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_ITERATION_MILLIS;
+
+        List<Result> results = new ArrayList<>();
+        for (String operation : OPERATIONS) {
+            for (String implementation : IMPLEMENTATIONS) {
+                for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+                    Result result = measure(operation, implementation, size, iterationMillis);
+                    results.add(result);
+                    System.out.printf(Locale.ROOT, "%-26s %s %2d  %10.1f ns/op  %8.1f B/op%n",
+                            operation, implementation, size, result.mean(), result.bytesPerOp);
+                }
+            }
+        }
+
+        try (PrintStream out = new PrintStream(Files.newOutputStream(Paths.get(outputFile)), false,
+                StandardCharsets.UTF_8.name())) {
+            writeJson(results, out);
+        }
+    }
+
+    private static Result measure(String operationName, String implementation, int size, long iterationMillis) {
+        Operation operation = setUp(operationName, Perft.boardFactory(implementation), size);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runIteration(operation, iterationMillis);
+        }
+
+        double[] nanosPerOp = new double[MEASURED_ITERATIONS];
+        long bytesBefore = allocatedBytes();
+        long operations = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            long count = runIteration(operation, iterationMillis);
+            nanosPerOp[i] = (double) (System.nanoTime() - start) / count;
+            operations += count;
+        }
+        double bytesPerOp = (double) (allocatedBytes() - bytesBefore) / operations;
+        return new Result(operationName, implementation, size, nanosPerOp, bytesPerOp);
+    }
+
+    private static long runIteration(Operation operation, long iterationMillis) {
+        long end = System.nanoTime() + iterationMillis * 1_000_000;
+        long count = 0;
+        long total = 0;
+        do {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                total += operation.run();
+            }
+            count += BATCH_SIZE;
+        } while (System.nanoTime() < end);
+        sink += total;
+        return count;
+    }
+
+    /**
+     * Builds a board for an operation and returns the operation. Operations that change the board undo the change
+     * before returning, so the board is the same before every run. A move is undone by moving back, and a jump or
+     * crowning by placing the pieces back, so those operations also include the placePiece calls that restore them.
+     *
+     * @pre operationName is one of OPERATIONS
+     *
+     * @post setUp = [an operation that can be run any number of times on its own board]
+     *
+     * @return The operation.
+     */
+    private static Operation setUp(String operationName, IntFunction<ICheckerBoard> factory, int size) {
+        ICheckerBoard board = factory.apply(size);
+        int middleRow = (size - 2) / 2;
+        int middleCol = middleRow % 2;
+        BoardPosition middle = BoardPosition.of(middleRow, middleCol);
+        switch (operationName) {
+            case "whatsAtPos": {
+                BoardPosition[] positions = new BoardPosition[size * size];
+                for (int i = 0; i < positions.length; i++) {
+                    positions[i] = BoardPosition.of(i / size, i % size);
+                }
+                return () -> {
+                    long total = 0;
+                    for (BoardPosition pos : positions) {
+                        total += board.whatsAtPos(pos);
+                    }
+                    return total;
+                };
+            }
+            case "movePiece": {
+                board.placePiece(middle, 'X');
+                BoardPosition moved = BoardPosition.of(middleRow + 1, middleCol + 1);
+                return () -> {
+                    board.movePiece(middle, DirectionEnum.SE);
+                    board.movePiece(moved, DirectionEnum.NW);
+                    return board.whatsAtPos(middle);
+                };
+            }
+            case "jumpPiece": {
+                clear(board);
+                BoardPosition start = BoardPosition.of(2, 2);
+                BoardPosition over = BoardPosition.of(3, 3);
+                BoardPosition end = BoardPosition.of(4, 4);
+                return () -> {
+                    board.placePiece(start, 'x');
+                    board.placePiece(over, 'o');
+                    board.jumpPiece(start, DirectionEnum.SE);
+                    char jumped = board.whatsAtPos(end);
+                    board.placePiece(end, ICheckerBoard.EMPTY_POS);
+                    return jumped;
+                };
+            }
+            case "crownPiece": {
+                clear(board);
+                BoardPosition last = BoardPosition.of(size - 1, 1);
+                return () -> {
+                    board.placePiece(last, 'x');
+                    board.crownPiece(last);
+                    return board.whatsAtPos(last);
+                };
+            }
+            case "checkPlayerWin":
+                return () -> board.checkPlayerWin('x') ? 1 : 0;
+            case "getPieceCounts":
+                return () -> board.getPieceCounts().size();
+            case "scanSurroundingPositions": {
+                BoardPosition scanned = BoardPosition.of(middleRow, middleCol + 2);
+                return () -> board.scanSurroundingPositions(scanned).size();
+            }
+            case "scanSurroundingPacked": {
+                BoardPosition scanned = BoardPosition.of(middleRow, middleCol + 2);
+                return () -> board.scanSurroundingPacked(scanned);
+            }
+            case "scanEachPiece":
+                return () -> {
+                    long sum = 0;
+                    for (int row = 0; row < size; row++) {
+                        for (int col = row % 2; col < size; col += 2) {
+                            BoardPosition pos = BoardPosition.of(row, col);
+                            if (Character.toLowerCase(board.whatsAtPos(pos)) == 'x') {
+                                sum += board.scanSurroundingPositions(pos).size();
+                            }
+                        }
+                    }
+                    return sum;
+                };
+            case "scanNeighborhoods": {
+                int[] neighborhoods = new int[ICheckerBoard.NEIGHBORHOOD_BUFFER_SIZE];
+                return () -> board.scanNeighborhoods('x', neighborhoods);
+            }
+            case "moveMasks": {
+                long[] mask = new long[ICheckerBoard.SQUARE_MASK_WORDS];
+                return () -> {
+                    board.getMovablePieces('x', mask);
+                    long total = mask[0] ^ mask[1];
+                    board.getCapturingPieces('x', mask);
+                    total ^= mask[0] ^ mask[1];
+                    board.getThreatenedPieces('x', mask);
+                    return total ^ mask[0] ^ mask[1];
+                };
+            }
+            case "toString":
+                return () -> board.toString().length();
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operationName);
+        }
+    }
+
+    private static void clear(ICheckerBoard board) {
+        int size = board.getRowNum();
+        for (int row = 0; row < size; row++) {
+            for (int col = row % 2; col < size; col += 2) {
+                board.placePiece(BoardPosition.of(row, col), ICheckerBoard.EMPTY_POS);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of bytes the current thread has allocated, or 0 if the JVM can't tell.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static void writeJson(List<Result> results, PrintStream out) {
+        out.println("[");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            out.println("    {");
+            out.println("        \"benchmark\" : \"" + BoardBenchmark.class.getName() + "." + result.operation + "\",");
+            out.println("        \"mode\" : \"avgt\",");
+            out.println("        \"warmupIterations\" : " + WARMUP_ITERATIONS + ",");
+            out.println("        \"measurementIterations\" : " + MEASURED_ITERATIONS + ",");
+            out.println("        \"params\" : {");
+            out.println("            \"implementation\" : \"" + result.implementation + "\",");
+            out.println("            \"size\" : \"" + result.size + "\"");
+            out.println("        },");
+            out.println("        \"primaryMetric\" : {");
+            out.printf(Locale.ROOT, "            \"score\" : %.3f,%n", result.mean());
+            out.println("            \"scoreUnit\" : \"ns/op\",");
+            out.print("            \"rawData\" : [ [ ");
+            for (int j = 0; j < result.nanosPerOp.length; j++) {
+                out.printf(Locale.ROOT, j == 0 ? "%.3f" : ", %.3f", result.nanosPerOp[j]);
+            }
+            out.println(" ] ]");
+            out.println("        },");
+            out.println("        \"secondaryMetrics\" : {");
+            out.println("            \"gc.alloc.rate.norm\" : {");
+            out.printf(Locale.ROOT, "                \"score\" : %.3f,%n", result.bytesPerOp);
+            out.println("                \"scoreUnit\" : \"B/op\"");
+            out.println("            }");
+            out.println("        }");
+            out.println(i == results.size() - 1 ? "    }" : "    },");
+        }
+        out.println("]");
+    }
+}
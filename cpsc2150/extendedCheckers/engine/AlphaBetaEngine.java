@@ -0,0 +1,467 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.util.PackedMove;
+
+/**
+ * A computer player that picks moves with an alpha-beta search. The search deepens one ply at a time until its time
+ * or node budget runs out and plays the best move of the deepest search that finished. It works on any ICheckerBoard,
+ * moving pieces with makeMove and unmakeMove so the board is left as it was found. Searched positions are stored in a
+ * TranspositionTable, which several engines searching the same position on different threads may share.
+ *
+ * @invariant 0 <= completedDepth < MAX_PLY
+ * @invariant nodes >= 0
+ */
+public class AlphaBetaEngine implements IMovePolicy {
+    /**
+     * The score of a won position. A win found sooner scores higher.
+     */
+    public static final int WIN_SCORE = 1_000_000;
+
+    /**
+     * The deepest ply the search can reach, counting capture sequences searched past the nominal depth.
+     */
+    public static final int MAX_PLY = 128;
+
+    static final int MAN_VALUE = 100;
+    static final int KING_VALUE = 160;
+
+    private static final int INFINITY = WIN_SCORE + 1;
+
+    /**
+     * Scores within this distance of WIN_SCORE are wins or losses: found by the search within MAX_PLY plies, or
+     * read from an endgame table up to EndgameTablebase.MAX_DISTANCE plies further on.
+     */
+    private static final int WIN_BAND = MAX_PLY + EndgameTablebase.MAX_DISTANCE;
+
+    /**
+     * The size of the table made for an engine that isn't given one, in megabytes.
+     */
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    /**
+     * The limits are checked each time the node count passes a multiple of this value plus one.
+     */
+    private static final int CHECK_INTERVAL = 1023;
+
+    private final long timeLimitMillis;
+    private final long nodeLimit;
+    private final TranspositionTable table;
+
+    /**
+     * The number of this engine among the engines sharing its table, 0 for the engine whose move is played. Helper
+     * engines start at a different depth and with the root moves rotated so they don't all search the same tree.
+     */
+    private final int helperIndex;
+
+    /**
+     * The endgame tables the search looks positions up in, or null if there are none.
+     */
+    private EndgameTablebase tablebase;
+
+    /**
+     * The opening book findBestMove plays from before searching, or null if there is none.
+     */
+    private OpeningBook openingBook;
+
+    /**
+     * A move buffer for every ply, so the search never allocates.
+     */
+    private final int[][] moveBuffers = new int[MAX_PLY][ICheckerBoard.MOVE_BUFFER_SIZE];
+
+    /**
+     * Scratch space for tablebase probes, so probing a position doesn't allocate.
+     */
+    private final int[] probeCounts = new int[EndgameIndex.GROUPS];
+    private final long[] probeMasks = new long[EndgameIndex.GROUPS];
+
+    private long nodes;
+    private long deadline;
+    private volatile boolean stopped;
+    private int completedDepth;
+
+    /**
+     * Constructs an engine with a budget for every move.
+     *
+     * @param timeLimitMillis the most milliseconds the engine may search for one move, or 0 for no limit
+     * @param nodeLimit the most positions the engine may search for one move, or 0 for no limit
+     *
+     * @pre timeLimitMillis >= 0 AND nodeLimit >= 0 AND at least one of them is above 0
+     *
+     * @post [an engine is constructed that stops searching when either limit is reached]
+     */
+    public AlphaBetaEngine(long timeLimitMillis, long nodeLimit) {
+        this(timeLimitMillis, nodeLimit, new TranspositionTable(DEFAULT_TABLE_MEGABYTES), 0);
+    }
+
+    /**
+     * Constructs an engine with a budget for every move that stores positions in a given table.
+     *
+     * @param timeLimitMillis the most milliseconds the engine may search for one move, or 0 for no limit
+     * @param nodeLimit the most positions the engine may search for one move, or 0 for no limit
+     * @param table the table of searched positions, which may be shared with other engines
+     * @param helperIndex 0 for an engine whose move is played, or the number of a helper engine
+     *
+     * @pre timeLimitMillis >= 0 AND nodeLimit >= 0 AND at least one of them is above 0 AND table != null AND
+     *      helperIndex >= 0
+     *
+     * @post [an engine is constructed that stops searching when either limit is reached or stop is called]
+     */
+    AlphaBetaEngine(long timeLimitMillis, long nodeLimit, TranspositionTable table, int helperIndex) {
+        if (timeLimitMillis < 0 || nodeLimit < 0 || (timeLimitMillis == 0 && nodeLimit == 0)) {
+            throw new IllegalArgumentException("Invalid search budget.");
+        }
+        this.timeLimitMillis = timeLimitMillis;
+        this.nodeLimit = nodeLimit;
+        this.table = table;
+        this.helperIndex = helperIndex;
+    }
+
+    @Override
+    public int chooseMove(ICheckerBoard board, char player) {
+        return findBestMove(board, player);
+    }
+
+    /**
+     * Searches for the best move for a player.
+     *
+     * @param board the board to search, which is changed during the search and restored before returning
+     * @param player the player to find a move for
+     *
+     * @pre player is one of the valid player characters
+     *
+     * @post findBestMove = [the heaviest book move if the position is in the opening book, otherwise the best move
+     *       found by the deepest finished search, the only legal move if there is one, or NO_MOVE if the player can't
+     *       move] AND board = #board AND [table holds the positions searched]
+     *
+     * @return The packed move to play, or NO_MOVE.
+     */
+    public int findBestMove(ICheckerBoard board, char player) {
+        if (openingBook != null) {
+            int bookMove = openingBook.getBestMove(board, player);
+            if (bookMove != NO_MOVE) {
+                return bookMove;
+            }
+        }
+        stopped = false;
+        return searchRoot(board, player);
+    }
+
+    /**
+     * Searches for the best move for a player like findBestMove, but gives up straight away if stop was called after
+     * the last call to clearStop, so a helper engine stopped before it got started doesn't search.
+     *
+     * @pre player is one of the valid player characters
+     *
+     * @post searchRoot = [as for findBestMove] AND board = #board
+     *
+     * @return The packed move to play, or NO_MOVE.
+     */
+    int searchRoot(ICheckerBoard board, char player) {
+        long start = System.currentTimeMillis();
+        nodes = 0;
+        completedDepth = 0;
+        deadline = timeLimitMillis > 0 ? start + timeLimitMillis : Long.MAX_VALUE;
+
+        int[] rootMoves = moveBuffers[0];
+        int count = board.generateMoves(player, rootMoves);
+        if (count == 0) {
+            return NO_MOVE;
+        }
+        if (count == 1) {
+            return rootMoves[0];
+        }
+
+        // The position keys only match the table's entries when the board knows whose turn it is
+        char sideBefore = board.getPlayerToMove();
+        board.setPlayerToMove(player);
+        rotate(rootMoves, count, helperIndex % count);
+        int bestMove = rootMoves[0];
+
+        char opponent = board.getOpponent(player);
+        for (int depth = 1 + helperIndex % 2; depth < MAX_PLY; depth++) {
+            int alpha = -INFINITY;
+            int bestIndex = 0;
+            for (int i = 0; i < count && !stopped; i++) {
+                board.makeMove(rootMoves[i]);
+                int score = -search(board, opponent, depth - 1, 1, -INFINITY, -alpha);
+                board.unmakeMove();
+                if (!stopped && score > alpha) {
+                    alpha = score;
+                    bestIndex = i;
+                }
+            }
+            if (stopped) {
+                break;
+            }
+
+            // Search this iteration's best move first in the next one
+            bestMove = rootMoves[bestIndex];
+            System.arraycopy(rootMoves, 0, rootMoves, 1, bestIndex);
+            rootMoves[0] = bestMove;
+            completedDepth = depth;
+            table.store(board.getPositionKey(), bestMove, toTable(alpha, 0), depth, TranspositionTable.EXACT);
+
+            boolean resultKnown = Math.abs(alpha) >= WIN_SCORE - WIN_BAND;
+            boolean noTimeForNextDepth = timeLimitMillis > 0
+                    && System.currentTimeMillis() - start > timeLimitMillis / 2;
+            if (resultKnown || noTimeForNextDepth) {
+                break;
+            }
+        }
+        board.setPlayerToMove(sideBefore);
+        return bestMove;
+    }
+
+    /**
+     * Sets the endgame tables the search reads the results of positions with few pieces from.
+     *
+     * @param tablebase the endgame tables, or null to search without them
+     *
+     * @pre None
+     *
+     * @post [positions covered by tablebase are scored from it instead of being searched]
+     */
+    public void setTablebase(EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Sets the opening book findBestMove plays from while the game is still in it.
+     *
+     * @param openingBook the opening book, or null to always search
+     *
+     * @pre None
+     *
+     * @post [findBestMove plays the book move of positions in openingBook without searching]
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Stops the search at the next limit check, as if its budget had run out. Can be called from any thread.
+     *
+     * @pre None
+     *
+     * @post [the current call to findBestMove returns its best move found so far soon after]
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    void clearStop() {
+        stopped = false;
+    }
+
+    /**
+     * Gets the number of positions searched by the last call to findBestMove.
+     *
+     * @pre None
+     *
+     * @post getNodeCount = nodes AND self = #self
+     *
+     * @return The number of positions searched.
+     */
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Gets the depth of the deepest search that finished during the last call to findBestMove.
+     *
+     * @pre None
+     *
+     * @post getCompletedDepth = completedDepth AND self = #self
+     *
+     * @return The deepest finished depth, or 0 if the move was forced or no depth finished.
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Scores a position from the point of view of the player to move with a negamax alpha-beta search. When the
+     * depth runs out while a capture is pending, the search keeps going until the captures are over.
+     *
+     * @pre 1 <= ply < MAX_PLY AND alpha < beta
+     *
+     * @post search = [the score of the position for player, or 0 if the search was stopped] AND board = #board
+     *
+     * @return The score of the position.
+     */
+    private int search(ICheckerBoard board, char player, int depth, int ply, int alpha, int beta) {
+        nodes++;
+        if ((nodes & CHECK_INTERVAL) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (tablebase != null) {
+            int value = tablebase.probe(board, player, probeCounts, probeMasks);
+            if (value != EndgameTablebase.NOT_FOUND) {
+                return tablebaseScore(value, ply);
+            }
+        }
+
+        long key = board.getPositionKey();
+        int storedDepth = Math.max(depth, 0);
+        long entry = table.probe(key);
+        int tableMove = NO_MOVE;
+        if (entry != 0) {
+            tableMove = TranspositionTable.getMove(entry);
+            if (TranspositionTable.getDepth(entry) >= storedDepth) {
+                int score = fromTable(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = board.generateMoves(player, moves);
+        if (count == 0) {
+            return -WIN_SCORE + ply;
+        }
+        boolean quiet = PackedMove.getCaptureCount(moves[0]) == 0;
+        if ((depth <= 0 && quiet) || ply == MAX_PLY - 1) {
+            return evaluate(board, player);
+        }
+        if (tableMove != NO_MOVE) {
+            moveToFront(moves, count, tableMove);
+        }
+
+        int originalAlpha = alpha;
+        int bestMove = moves[0];
+        char opponent = board.getOpponent(player);
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            int score = -search(board, opponent, depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                table.store(key, moves[i], toTable(score, ply), storedDepth, TranspositionTable.LOWER);
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = moves[i];
+            }
+        }
+        int bound = alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(alpha, ply), storedDepth, bound);
+        return alpha;
+    }
+
+    /**
+     * Converts an endgame table value to a score, so a table win ranks with wins found by the search.
+     *
+     * @pre value is a value returned by EndgameTablebase.probe other than NOT_FOUND AND 0 <= ply < MAX_PLY
+     *
+     * @post tablebaseScore = [0 for a draw, otherwise the score of a win or loss that ends the game getDistance(value)
+     *       plies after ply]
+     *
+     * @return The score of the position.
+     */
+    private static int tablebaseScore(int value, int ply) {
+        if (EndgameTablebase.isWin(value)) {
+            return WIN_SCORE - ply - EndgameTablebase.getDistance(value);
+        }
+        if (EndgameTablebase.isLoss(value)) {
+            return -WIN_SCORE + ply + EndgameTablebase.getDistance(value);
+        }
+        return 0;
+    }
+
+    /**
+     * Converts a score to the form kept in the table. A win or loss is stored as its distance from the stored
+     * position rather than from the root, so it stays correct when the position is reached at another ply.
+     *
+     * @pre 0 <= ply < MAX_PLY
+     *
+     * @post toTable = [score with the ply removed from a win or loss score]
+     *
+     * @return The score to store.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_SCORE - WIN_BAND) {
+            return score + ply;
+        }
+        if (score <= -WIN_SCORE + WIN_BAND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_SCORE - WIN_BAND) {
+            return score - ply;
+        }
+        if (score <= -WIN_SCORE + WIN_BAND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Moves a move to the front of a list, keeping the order of the others, if the move is in the list.
+     *
+     * @pre 0 <= count <= moves.length
+     *
+     * @post [move is at moves[0] if it was among the first count moves, otherwise moves = #moves]
+     */
+    private static void moveToFront(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rotates the first count moves of a list to the left by a number of places.
+     *
+     * @pre 0 <= places < count <= moves.length
+     *
+     * @post [moves[i] = #moves[(i + places) % count] for every i < count]
+     */
+    private static void rotate(int[] moves, int count, int places) {
+        for (int i = 0; i < places; i++) {
+            int first = moves[0];
+            System.arraycopy(moves, 1, moves, 0, count - 1);
+            moves[count - 1] = first;
+        }
+    }
+
+    /**
+     * Scores a position by its material.
+     *
+     * @pre player is one of the valid player characters
+     *
+     * @post evaluate = [player's material minus the opponent's material] AND board = #board
+     *
+     * @return The material balance for player.
+     */
+    static int evaluate(ICheckerBoard board, char player) {
+        char opponent = board.getOpponent(player);
+        int playerKings = board.getKingCount(player);
+        int opponentKings = board.getKingCount(opponent);
+        int playerMen = board.getPieceCount(player) - playerKings;
+        int opponentMen = board.getPieceCount(opponent) - opponentKings;
+        return MAN_VALUE * (playerMen - opponentMen) + KING_VALUE * (playerKings - opponentKings);
+    }
+
+    private void checkLimits() {
+        if ((nodeLimit > 0 && nodes >= nodeLimit) || System.currentTimeMillis() >= deadline) {
+            stopped = true;
+        }
+    }
+}
@@ -0,0 +1,555 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.models.IGameListener;
+import cpsc2150.extendedCheckers.models.PdnReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays every game of a PDN archive and counts, for each board size, the games and their results, the moves, the
+ * pieces captured, the pieces crowned and the average material balance after each ply.
+ *
+ * The archive is mapped into memory and split in half again and again, at the start of a game, until each part is at
+ * most a chunk long. Each part is a task of a ForkJoinPool, read by its own PdnReader onto its own CheckerBoards.
+ * A task counts into plain arrays of its own and adds them to the shared LongAdder counters once, when it ends, so
+ * threads never wait for each other while they count.
+ *
+ * A game starts at a line beginning with '[' that doesn't follow another tag line, so every game of an archive split
+ * in parts must start with a tag, as the games PdnWriter writes do.
+ *
+ * Run from the command line as: ArchiveAnalyzer archive [threads]
+ */
+public final class ArchiveAnalyzer {
+    /**
+     * The number of plies the material balance is followed for. Later plies aren't counted in the balance.
+     */
+    public static final int BALANCE_PLIES = 200;
+
+    /**
+     * The longest part of an archive read by one task.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The longest part of an archive file mapped at once.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * The places of the counts of one board size. The results take RESULTS plus each PdnReader RESULT constant.
+     */
+    private static final int GAMES = 0;
+    private static final int MOVES = 1;
+    private static final int CAPTURES = 2;
+    private static final int CROWNINGS = 3;
+    private static final int RESULTS = 4;
+    private static final int COUNTS = RESULTS + PdnReader.RESULT_DRAW + 1;
+
+    private ArchiveAnalyzer() {
+    }
+
+    /**
+     * The counts of every board size of an archive.
+     *
+     * @invariant [for each size, counts[GAMES] = the sum of its result counts] AND
+     *            balanceCounts[size][ply] <= counts[size][GAMES]
+     */
+    public static final class Result {
+        private final LongAdder[][] counts = new LongAdder[ICheckerBoard.BOARD_MAX_SIZE + 1][];
+        private final LongAdder[][] balanceSums = new LongAdder[ICheckerBoard.BOARD_MAX_SIZE + 1][];
+        private final LongAdder[][] balanceCounts = new LongAdder[ICheckerBoard.BOARD_MAX_SIZE + 1][];
+        private long elapsedNanos;
+
+        Result() {
+            for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+                counts[size] = adders(COUNTS);
+                balanceSums[size] = adders(BALANCE_PLIES + 1);
+                balanceCounts[size] = adders(BALANCE_PLIES + 1);
+            }
+        }
+
+        private static LongAdder[] adders(int length) {
+            LongAdder[] adders = new LongAdder[length];
+            for (int i = 0; i < length; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+
+        /**
+         * Adds the counts of one task.
+         */
+        private void add(Tally tally) {
+            for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+                if (tally.counts[size] == null) {
+                    continue;
+                }
+                for (int i = 0; i < COUNTS; i++) {
+                    counts[size][i].add(tally.counts[size][i]);
+                }
+                for (int ply = 0; ply <= BALANCE_PLIES; ply++) {
+                    balanceSums[size][ply].add(tally.balanceSums[size][ply]);
+                    balanceCounts[size][ply].add(tally.balanceCounts[size][ply]);
+                }
+            }
+        }
+
+        public long getGames(int dimension) {
+            return counts[dimension][GAMES].sum();
+        }
+
+        public long getMoves(int dimension) {
+            return counts[dimension][MOVES].sum();
+        }
+
+        public long getCaptures(int dimension) {
+            return counts[dimension][CAPTURES].sum();
+        }
+
+        public long getCrownings(int dimension) {
+            return counts[dimension][CROWNINGS].sum();
+        }
+
+        /**
+         * Gets the number of games of a size with a result.
+         *
+         * @param dimension the board size
+         * @param result one of the PdnReader RESULT constants
+         *
+         * @pre dimension is a valid board size AND result is a PdnReader RESULT constant
+         *
+         * @post getResultCount = [the number of games of the size that ended with result] AND self = #self
+         *
+         * @return The number of games.
+         */
+        public long getResultCount(int dimension, int result) {
+            return counts[dimension][RESULTS + result].sum();
+        }
+
+        /**
+         * Gets the pieces captured per move.
+         */
+        public double getCaptureRate(int dimension) {
+            long moves = getMoves(dimension);
+            return moves == 0 ? 0 : (double) getCaptures(dimension) / moves;
+        }
+
+        /**
+         * Gets the pieces crowned per game.
+         */
+        public double getCrowningRate(int dimension) {
+            long games = getGames(dimension);
+            return games == 0 ? 0 : (double) getCrownings(dimension) / games;
+        }
+
+        /**
+         * Gets the average material balance after a ply, over the games that lasted that long.
+         *
+         * @param dimension the board size
+         * @param ply the number of plies made, 0 for the starting position
+         *
+         * @pre dimension is a valid board size AND 0 <= ply <= BALANCE_PLIES
+         *
+         * @post getAverageBalance = [the average of player one's pieces minus player two's pieces after ply plies,
+         *       or 0 if no game lasted that long] AND self = #self
+         *
+         * @return The average balance.
+         */
+        public double getAverageBalance(int dimension, int ply) {
+            long games = balanceCounts[dimension][ply].sum();
+            return games == 0 ? 0 : (double) balanceSums[dimension][ply].sum() / games;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        /**
+         * Formats the counts as a report with one line for every board size that had games.
+         *
+         * @pre None
+         *
+         * @post toString = [a line with the games, results, moves, rates and balances of each size with games] AND
+         *       self = #self
+         *
+         * @return The report.
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+                long games = getGames(size);
+                if (games == 0) {
+                    continue;
+                }
+                sb.append(String.format("%dx%d: %d games (player one %d, player two %d, draws %d, unknown %d), "
+                                + "%.1f moves per game, %.3f captures per move, %.2f crownings per game, "
+                                + "balance %.2f at ply 20, %.2f at ply 60%n", size, size, games,
+                        getResultCount(size, PdnReader.RESULT_PLAYER_ONE_WIN),
+                        getResultCount(size, PdnReader.RESULT_PLAYER_TWO_WIN),
+                        getResultCount(size, PdnReader.RESULT_DRAW), getResultCount(size, PdnReader.RESULT_UNKNOWN),
+                        (double) getMoves(size) / games, getCaptureRate(size), getCrowningRate(size),
+                        getAverageBalance(size, 20), getAverageBalance(size, 60)));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Analyzes an archive file.
+     *
+     * @param archive the PDN file
+     * @param pool runs the tasks the archive is split into
+     *
+     * @pre [archive exists] AND [every game of archive starts with a tag]
+     *
+     * @post analyze = [the counts of every game of archive]
+     *
+     * @return The counts.
+     *
+     * @throws IOException if the file can't be read or holds a game that isn't valid
+     */
+    public static Result analyze(Path archive, ForkJoinPool pool) throws IOException {
+        return analyze(archive, pool, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Analyzes an archive file, mapping at most windowSize bytes of it at once.
+     *
+     * @param archive the PDN file
+     * @param pool runs the tasks the archive is split into
+     * @param windowSize the longest part of the file mapped at once
+     *
+     * @pre windowSize >= 1 AND [archive exists] AND [every game of archive starts with a tag]
+     *
+     * @post analyze = [the counts of every game of archive]
+     *
+     * @return The counts.
+     *
+     * @throws IOException if the file can't be read, holds a game that isn't valid or holds a game that doesn't fit in
+     *         one window
+     */
+    public static Result analyze(Path archive, ForkJoinPool pool, int windowSize) throws IOException {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Invalid window size.");
+        }
+        long start = System.nanoTime();
+        Result result = new Result();
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            // Files larger than one mapping are analyzed a window at a time, each ending where a game starts
+            while (position < size) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(size - position, windowSize));
+                int end = window.limit();
+                if (position + end < size) {
+                    end = lastGameStart(window, end);
+                    if (end == 0) {
+                        throw new IOException("A game at byte " + position + " is too long to analyze.");
+                    }
+                }
+                window.limit(end);
+                invoke(pool, new ChunkTask(window, 0, end, DEFAULT_CHUNK_SIZE, result));
+                position += end;
+            }
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Analyzes an archive held in a buffer.
+     *
+     * @param archive the bytes of the archive, from its position to its limit
+     * @param pool runs the tasks the archive is split into
+     * @param chunkSize the longest part of the archive read by one task
+     *
+     * @pre chunkSize >= 1 AND [every game of archive starts with a tag]
+     *
+     * @post analyze = [the counts of every game of archive] AND archive = #archive
+     *
+     * @return The counts.
+     *
+     * @throws IOException if the archive holds a game that isn't valid
+     */
+    public static Result analyze(ByteBuffer archive, ForkJoinPool pool, int chunkSize) throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Invalid chunk size.");
+        }
+        long start = System.nanoTime();
+        Result result = new Result();
+        invoke(pool, new ChunkTask(archive, archive.position(), archive.limit(), chunkSize, result));
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Analyzes an archive and prints the counts.
+     *
+     * @param args the archive's path and the thread count (default one per processor)
+     *
+     * @pre args.length >= 1
+     *
+     * @post [the report and the time taken are printed]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: ArchiveAnalyzer archive [threads]");
+            return;
+        }
+        int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            Result result = analyze(Paths.get(args[0]), pool);
+            System.out.print(result);
+            System.out.printf("analyzed in %.2f s on %d threads%n", result.getElapsedSeconds(), threadCount);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void invoke(ForkJoinPool pool, ChunkTask task) throws IOException {
+        try {
+            pool.invoke(task);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Finds the first game that starts at or after a byte, counting a game that starts on the line the byte is in.
+     *
+     * @pre 0 <= from <= end <= archive.limit()
+     *
+     * @post gameStart = [the offset of the first line at or after the start of from's line that begins with '[' and
+     *       doesn't follow a tag line, or end if there is none before end]
+     *
+     * @return The offset of the game's first tag, or end.
+     */
+    static int gameStart(ByteBuffer archive, int from, int end) {
+        int line = from;
+        while (line > 0 && archive.get(line - 1) != '\n') {
+            line--;
+        }
+        boolean afterTag = previousLineIsTag(archive, line);
+        while (line < end) {
+            int first = line;
+            while (first < end && (archive.get(first) == ' ' || archive.get(first) == '\t' || archive.get(first) == '\r')) {
+                first++;
+            }
+            if (first < end && archive.get(first) == '[') {
+                if (!afterTag) {
+                    return line;
+                }
+                afterTag = true;
+            } else if (first < end && archive.get(first) != '\n') {
+                afterTag = false;
+            }
+            while (line < end && archive.get(line) != '\n') {
+                line++;
+            }
+            line++;
+        }
+        return end;
+    }
+
+    /**
+     * Finds the last game that starts before an offset.
+     *
+     * @return The offset of the game's first tag, or 0 if no game but the first starts before end.
+     */
+    private static int lastGameStart(ByteBuffer archive, int end) {
+        for (int from = Math.max(end - DEFAULT_CHUNK_SIZE, 0); ; from = Math.max(from - DEFAULT_CHUNK_SIZE, 0)) {
+            int last = -1;
+            int start = gameStart(archive, from, end);
+            while (start < end) {
+                last = start;
+                // Searching from the game's own line would find it again, so search from the next line
+                int next = nextLineStart(archive, start, end);
+                start = next < end ? gameStart(archive, next, end) : end;
+            }
+            if (last > 0 || from == 0) {
+                return Math.max(last, 0);
+            }
+        }
+    }
+
+    /**
+     * Finds the start of the line after the one holding a byte.
+     *
+     * @return The offset just past the line's break, or end if the line doesn't end before end.
+     */
+    private static int nextLineStart(ByteBuffer archive, int from, int end) {
+        int line = from;
+        while (line < end && archive.get(line) != '\n') {
+            line++;
+        }
+        return Math.min(line + 1, end);
+    }
+
+    private static boolean previousLineIsTag(ByteBuffer archive, int line) {
+        int i = line - 1;
+        while (i > 0) {
+            // i is on the line break ending the previous line
+            int end = i;
+            int start = i;
+            while (start > 0 && archive.get(start - 1) != '\n') {
+                start--;
+            }
+            for (int c = start; c < end; c++) {
+                byte b = archive.get(c);
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    return b == '[';
+                }
+            }
+            i = start - 1;
+        }
+        return false;
+    }
+
+    /**
+     * Analyzes one part of an archive, splitting it at a game start near its middle while it is longer than a chunk.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer archive;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+        private final Result result;
+
+        ChunkTask(ByteBuffer archive, int start, int end, int chunkSize, Result result) {
+            this.archive = archive;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > chunkSize) {
+                int middle = gameStart(archive, start + (end - start) / 2, end);
+                if (middle > start && middle < end) {
+                    invokeAll(new ChunkTask(archive, start, middle, chunkSize, result),
+                            new ChunkTask(archive, middle, end, chunkSize, result));
+                    return;
+                }
+            }
+            ByteBuffer chunk = archive.duplicate();
+            chunk.limit(end).position(start);
+            Tally tally = new Tally();
+            try (PdnReader reader = new PdnReader(new BufferChannel(chunk), CheckerBoard::new)) {
+                while (reader.readGame(tally)) {
+                    // The tally counts every game as it is replayed
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(new IOException("In the part of the archive at byte " + start + ": "
+                        + e.getMessage(), e));
+            }
+            result.add(tally);
+        }
+    }
+
+    /**
+     * The counts of one task, kept in plain arrays for each board size it has seen.
+     */
+    private static final class Tally implements IGameListener {
+        private final long[][] counts = new long[ICheckerBoard.BOARD_MAX_SIZE + 1][];
+        private final long[][] balanceSums = new long[ICheckerBoard.BOARD_MAX_SIZE + 1][];
+        private final long[][] balanceCounts = new long[ICheckerBoard.BOARD_MAX_SIZE + 1][];
+        private long[] sizeCounts;
+        private long[] sizeBalanceSums;
+        private long[] sizeBalanceCounts;
+        private int ply;
+
+        @Override
+        public void gameStarted(ICheckerBoard board) {
+            int size = board.getRowNum();
+            if (counts[size] == null) {
+                counts[size] = new long[COUNTS];
+                balanceSums[size] = new long[BALANCE_PLIES + 1];
+                balanceCounts[size] = new long[BALANCE_PLIES + 1];
+            }
+            sizeCounts = counts[size];
+            sizeBalanceSums = balanceSums[size];
+            sizeBalanceCounts = balanceCounts[size];
+            ply = 0;
+            countBalance(board);
+        }
+
+        @Override
+        public void moveMade(ICheckerBoard board, int from, int to, int captures, boolean crowned) {
+            sizeCounts[MOVES]++;
+            sizeCounts[CAPTURES] += captures;
+            if (crowned) {
+                sizeCounts[CROWNINGS]++;
+            }
+            ply++;
+            if (ply <= BALANCE_PLIES) {
+                countBalance(board);
+            }
+        }
+
+        @Override
+        public void gameEnded(ICheckerBoard board, int result) {
+            sizeCounts[GAMES]++;
+            sizeCounts[RESULTS + result]++;
+        }
+
+        private void countBalance(ICheckerBoard board) {
+            sizeBalanceSums[ply] += board.getPieceCount(board.getPlayerOne()) - board.getPieceCount(board.getPlayerTwo());
+            sizeBalanceCounts[ply]++;
+        }
+    }
+
+    /**
+     * Reads a buffer as a channel, for a PdnReader.
+     */
+    private static final class BufferChannel implements ReadableByteChannel {
+        private final ByteBuffer source;
+        private boolean open = true;
+
+        BufferChannel(ByteBuffer source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            if (!source.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(dst.remaining(), source.remaining());
+            ByteBuffer part = source.duplicate();
+            part.limit(part.position() + count);
+            dst.put(part);
+            source.position(source.position() + count);
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the endgame tables read by EndgameTablebase, for every 8x8 position with up to a given number of pieces.
+ *
+ * The tables are built one material at a time, fewest pieces first, and with fewer men first among materials with the
+ * same number of pieces. A capture always leads to a material with fewer pieces and a crowning to one with fewer men,
+ * so every table a position can move into is finished before the table of the position itself.
+ *
+ * A table is solved by retrograde analysis, one distance at a time. Positions with no legal move are lost in 0 plies.
+ * In round k, a position is won in k plies if a move leads to a position lost in k - 1 plies or fewer, and lost in k
+ * plies if every move leads to a position won in k - 1 plies or fewer. A position still unsolved once no round finds
+ * anything new is a draw. Each round is split among several threads, each on its own board.
+ *
+ * Run from the command line as: EndgameGenerator [directory] [pieces] [threads]
+ */
+public final class EndgameGenerator {
+    /**
+     * The number of slices each thread's share of a table is split into, so threads that finish early can take more.
+     */
+    private static final int SLICES_PER_THREAD = 16;
+
+    private EndgameGenerator() {
+    }
+
+    /**
+     * Builds every table with up to a number of pieces and writes them to a directory.
+     *
+     * @param args the directory (default EndgameTablebase.DEFAULT_DIRECTORY), the most pieces (default 4) and the
+     *             number of threads (default one per processor)
+     *
+     * @pre None
+     *
+     * @post [the directory holds a table for every material with up to the given number of pieces]
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : EndgameTablebase.DEFAULT_DIRECTORY);
+        int maxPieces = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int threadCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        generate(directory, maxPieces, threadCount, true);
+    }
+
+    /**
+     * Builds every table with up to a number of pieces and writes them to a directory.
+     *
+     * @param directory the directory to write the tables to, created if it doesn't exist
+     * @param maxPieces the most pieces on the board
+     * @param threadCount the number of threads to build each table with
+     * @param verbose true to print a line as each table is finished
+     *
+     * @pre 2 <= maxPieces <= 8 AND threadCount >= 1
+     *
+     * @post [directory holds a table for every material with 2 to maxPieces pieces, each side having at least one]
+     *
+     * @throws IOException if a table can't be written
+     */
+    public static void generate(Path directory, int maxPieces, int threadCount, boolean verbose) throws IOException {
+        if (maxPieces < 2 || maxPieces > 8 || threadCount < 1) {
+            throw new IllegalArgumentException("Invalid tablebase size or thread count.");
+        }
+        Files.createDirectories(directory);
+        HashMap<Integer, byte[]> finished = new HashMap<>();
+        int longestFinished = 0;
+        ExecutorService threads = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int pieces = 2; pieces <= maxPieces; pieces++) {
+                for (int[] counts : materials(pieces)) {
+                    long start = System.nanoTime();
+                    byte[] values = solve(counts, finished, longestFinished, threads, threadCount);
+                    finished.put(EndgameIndex.signature(counts), values);
+                    longestFinished = Math.max(longestFinished, longestDistance(values));
+                    write(directory.resolve(EndgameTablebase.fileName(counts)), counts, values);
+                    if (verbose) {
+                        System.out.printf("%s: %d positions in %.2f s%n", EndgameTablebase.fileName(counts),
+                                values.length, (System.nanoTime() - start) / 1e9);
+                    }
+                }
+            }
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    /**
+     * Lists every material with a number of pieces where both sides have a piece, in the order they must be built.
+     *
+     * @pre pieces >= 2
+     *
+     * @post materials = [every {playerOneMen, playerOneKings, playerTwoMen, playerTwoKings} summing to pieces with
+     *       both players above 0, sorted by the number of men]
+     *
+     * @return The materials.
+     */
+    static List<int[]> materials(int pieces) {
+        List<int[]> materials = new ArrayList<>();
+        for (int men = 0; men <= pieces; men++) {
+            for (int playerOne = 1; playerOne < pieces; playerOne++) {
+                int playerTwo = pieces - playerOne;
+                for (int playerOneMen = 0; playerOneMen <= playerOne; playerOneMen++) {
+                    int playerTwoMen = men - playerOneMen;
+                    if (playerTwoMen >= 0 && playerTwoMen <= playerTwo) {
+                        materials.add(new int[] {playerOneMen, playerOne - playerOneMen,
+                                playerTwoMen, playerTwo - playerTwoMen});
+                    }
+                }
+            }
+        }
+        return materials;
+    }
+
+    /**
+     * Solves every position of one material.
+     *
+     * @pre every table the material's positions can move into is in finished
+     *
+     * @post solve = [the table of the material, as described in EndgameTablebase]
+     *
+     * @return The table.
+     */
+    private static byte[] solve(int[] counts, HashMap<Integer, byte[]> finished, int longestFinished,
+                                ExecutorService threads, int threadCount) throws IOException {
+        long size = 2 * EndgameIndex.placements(counts);
+        if (size > Integer.MAX_VALUE - EndgameTablebase.HEADER_SIZE) {
+            throw new IOException("Endgame table too large.");
+        }
+        byte[] values = new byte[(int) size];
+
+        AtomicBoolean changed = new AtomicBoolean();
+        runRound(counts, values, finished, 0, changed, threads, threadCount);
+        for (int round = 1; round <= EndgameTablebase.MAX_DISTANCE; round++) {
+            changed.set(false);
+            runRound(counts, values, finished, round, changed, threads, threadCount);
+            // Positions moving into other tables can still be solved until the longest distance there has passed
+            if (!changed.get() && round > longestFinished + 1) {
+                break;
+            }
+        }
+        return values;
+    }
+
+    private static void runRound(int[] counts, byte[] values, HashMap<Integer, byte[]> finished, int round,
+                                 AtomicBoolean changed, ExecutorService threads, int threadCount) throws IOException {
+        long sliceSize = Math.max(1, values.length / ((long) threadCount * SLICES_PER_THREAD));
+        AtomicLong nextSlice = new AtomicLong();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            workers.add(threads.submit(() -> {
+                Solver solver = new Solver(counts, values, finished);
+                for (long first = nextSlice.getAndAdd(sliceSize); first < values.length;
+                        first = nextSlice.getAndAdd(sliceSize)) {
+                    long last = Math.min(first + sliceSize, values.length);
+                    for (long index = first; index < last; index++) {
+                        if (solver.solve((int) index, round)) {
+                            changed.set(true);
+                        }
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Tablebase generation was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("A tablebase thread failed.", e.getCause());
+        }
+    }
+
+    private static int longestDistance(byte[] table) {
+        int longest = 0;
+        for (byte value : table) {
+            int unsigned = value & 0xFF;
+            if (unsigned != EndgameTablebase.INVALID && unsigned != EndgameTablebase.DRAW) {
+                longest = Math.max(longest, EndgameTablebase.getDistance(unsigned));
+            }
+        }
+        return longest;
+    }
+
+    private static void write(Path file, int[] counts, byte[] values) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(EndgameTablebase.MAGIC);
+            for (int count : counts) {
+                out.write(count);
+            }
+            out.write(values);
+        }
+    }
+
+    /**
+     * The board and scratch space one thread uses to solve positions of a table.
+     */
+    private static final class Solver {
+        private final int[] counts;
+        private final byte[] values;
+        private final HashMap<Integer, byte[]> finished;
+        private final int signature;
+        private final ICheckerBoard board = new CheckerBoard(EndgameIndex.DIMENSION);
+        private final int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        private final int[] placed = new int[EndgameIndex.SQUARES];
+        private final int[] nextCounts = new int[EndgameIndex.GROUPS];
+        private final long[] masks = new long[EndgameIndex.GROUPS];
+        private final char playerOne = board.getPlayerOne();
+        private final char playerTwo = board.getPlayerTwo();
+
+        Solver(int[] counts, byte[] values, HashMap<Integer, byte[]> finished) {
+            this.counts = counts;
+            this.values = values;
+            this.finished = finished;
+            this.signature = EndgameIndex.signature(counts);
+            for (int square = 0; square < EndgameIndex.SQUARES; square++) {
+                board.placePiece(EndgameIndex.position(square), ICheckerBoard.EMPTY_POS);
+            }
+        }
+
+        /**
+         * Tries to solve one position in a round. Round 0 marks the invalid positions and the positions with no move.
+         *
+         * @pre values[index] = DRAW if the position hasn't been solved
+         *
+         * @post solve = [true if values[index] was set by this round] AND board = #board
+         *
+         * @return true if the position was solved.
+         */
+        boolean solve(int index, int round) {
+            if (values[index] != EndgameTablebase.DRAW) {
+                return false;
+            }
+            int pieces = counts[0] + counts[1] + counts[2] + counts[3];
+            if (!EndgameIndex.setUp(board, counts, index, placed)) {
+                values[index] = (byte) EndgameTablebase.INVALID;
+                return false;
+            }
+            boolean playerTwoToMove = (index & 1) == 1;
+            char player = playerTwoToMove ? playerTwo : playerOne;
+            int count = board.generateMoves(player, moves);
+
+            boolean solved;
+            if (round == 0) {
+                solved = count == 0;
+            } else {
+                boolean win = false;
+                boolean allLost = true;
+                for (int i = 0; i < count && !win; i++) {
+                    board.makeMove(moves[i]);
+                    int next = successorValue(!playerTwoToMove);
+                    board.unmakeMove();
+                    // Only values from earlier rounds count, so every distance comes out exact
+                    boolean known = next != EndgameTablebase.DRAW && next != EndgameTablebase.INVALID
+                            && EndgameTablebase.getDistance(next) < round;
+                    win = known && EndgameTablebase.isLoss(next);
+                    allLost &= known && EndgameTablebase.isWin(next);
+                }
+                solved = win || allLost;
+            }
+            if (solved) {
+                values[index] = (byte) EndgameTablebase.encode(round);
+            }
+            for (int i = 0; i < pieces; i++) {
+                board.placePiece(EndgameIndex.position(placed[i]), ICheckerBoard.EMPTY_POS);
+            }
+            return solved;
+        }
+
+        /**
+         * Gets the value of the position on the board for the player to move next.
+         */
+        private int successorValue(boolean playerTwoToMove) {
+            EndgameIndex.readCounts(board, nextCounts);
+            int moverPieces = playerTwoToMove
+                    ? nextCounts[EndgameIndex.PLAYER_TWO_MEN] + nextCounts[EndgameIndex.PLAYER_TWO_KINGS]
+                    : nextCounts[EndgameIndex.PLAYER_ONE_MEN] + nextCounts[EndgameIndex.PLAYER_ONE_KINGS];
+            if (moverPieces == 0) {
+                return EndgameTablebase.encode(0);
+            }
+            int nextSignature = EndgameIndex.signature(nextCounts);
+            byte[] table = nextSignature == signature ? values : finished.get(nextSignature);
+            return table[(int) EndgameIndex.index(board, nextCounts, playerTwoToMove, masks)] & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.util.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Numbers every placement of a set of pieces on an 8x8 board, so an endgame table can store one value per position
+ * in a plain array. The pieces are split into four groups: player one's men, player one's kings, player two's men and
+ * player two's kings, and a position's material is given by the number of pieces in each group. Each group picks its
+ * squares from the squares the earlier groups left free, and its choice is numbered with the combinatorial number
+ * system, so every placement gets a different index and every index below placements(counts) is used.
+ *
+ * The index of a position is its placement index times two, plus one if player two is to move.
+ *
+ * Men standing on the row where they would be crowned can't occur in a game. Their indexes are still counted, and
+ * setUp reports them as invalid.
+ */
+final class EndgameIndex {
+    static final int DIMENSION = 8;
+    static final int SQUARES = DIMENSION * DIMENSION / 2;
+
+    /**
+     * The piece groups, in the order their squares are chosen.
+     */
+    static final int PLAYER_ONE_MEN = 0;
+    static final int PLAYER_ONE_KINGS = 1;
+    static final int PLAYER_TWO_MEN = 2;
+    static final int PLAYER_TWO_KINGS = 3;
+    static final int GROUPS = 4;
+
+    /**
+     * The binomial coefficients up to SQUARES choose SQUARES.
+     */
+    private static final long[][] CHOOSE = new long[SQUARES + 1][SQUARES + 1];
+
+    static {
+        for (int n = 0; n <= SQUARES; n++) {
+            CHOOSE[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + CHOOSE[n - 1][k];
+            }
+        }
+    }
+
+    private EndgameIndex() {
+    }
+
+    static long choose(int n, int k) {
+        return (k < 0 || k > n) ? 0 : CHOOSE[n][k];
+    }
+
+    /**
+     * Gets the number of ways to place a set of pieces.
+     *
+     * @param counts the number of pieces in each group
+     *
+     * @pre counts.length = GROUPS AND the sum of counts <= SQUARES
+     *
+     * @post placements = [the product over the groups of (free squares choose pieces in the group)]
+     *
+     * @return The number of placements.
+     */
+    static long placements(int[] counts) {
+        long total = 1;
+        int free = SQUARES;
+        for (int count : counts) {
+            total *= choose(free, count);
+            free -= count;
+        }
+        return total;
+    }
+
+    /**
+     * Packs a set of counts into one int, four bits per group, to name an endgame table.
+     *
+     * @pre 0 <= counts[i] < 16
+     *
+     * @post signature = counts[0] + 16 * counts[1] + 256 * counts[2] + 4096 * counts[3]
+     *
+     * @return The signature of the material.
+     */
+    static int signature(int[] counts) {
+        return counts[0] | counts[1] << 4 | counts[2] << 8 | counts[3] << 12;
+    }
+
+    /**
+     * Reads the number of pieces in each group from a board.
+     *
+     * @pre board is 8x8 AND counts.length = GROUPS
+     *
+     * @post [counts holds the number of pieces of each group on board] AND board = #board
+     */
+    static void readCounts(ICheckerBoard board, int[] counts) {
+        char playerOne = board.getPlayerOne();
+        char playerTwo = board.getPlayerTwo();
+        counts[PLAYER_ONE_KINGS] = board.getKingCount(playerOne);
+        counts[PLAYER_ONE_MEN] = board.getPieceCount(playerOne) - counts[PLAYER_ONE_KINGS];
+        counts[PLAYER_TWO_KINGS] = board.getKingCount(playerTwo);
+        counts[PLAYER_TWO_MEN] = board.getPieceCount(playerTwo) - counts[PLAYER_TWO_KINGS];
+    }
+
+    /**
+     * Gets the index of the position on a board.
+     *
+     * @param board the board to index
+     * @param counts the number of pieces of each group on board
+     * @param playerTwoToMove true if player two is to move
+     * @param masks scratch space for the squares of each group
+     *
+     * @pre board is 8x8 AND counts matches board AND masks.length = GROUPS
+     *
+     * @post index = [the index of the position, below 2 * placements(counts)] AND board = #board
+     *
+     * @return The index of the position.
+     */
+    static long index(ICheckerBoard board, int[] counts, boolean playerTwoToMove, long[] masks) {
+        char playerOne = board.getPlayerOne();
+        char playerTwo = board.getPlayerTwo();
+        Arrays.fill(masks, 0);
+        for (int square = 0; square < SQUARES; square++) {
+            int group = groupOf(board.whatsAtPos(position(square)), playerOne, playerTwo);
+            if (group >= 0) {
+                masks[group] |= 1L << square;
+            }
+        }
+
+        long placement = 0;
+        int free = SQUARES;
+        long used = 0;
+        for (int group = 0; group < GROUPS; group++) {
+            long rank = 0;
+            int i = 0;
+            for (long rest = masks[group]; rest != 0; rest &= rest - 1) {
+                int square = Long.numberOfTrailingZeros(rest);
+                int freeRank = square - Long.bitCount(used & ((1L << square) - 1));
+                rank += choose(freeRank, ++i);
+            }
+            used |= masks[group];
+            placement = placement * choose(free, counts[group]) + rank;
+            free -= counts[group];
+        }
+        return placement * 2 + (playerTwoToMove ? 1 : 0);
+    }
+
+    /**
+     * Places the pieces of a position on an empty board.
+     *
+     * @param board an 8x8 board with no pieces on it
+     * @param counts the number of pieces in each group
+     * @param index the index of the position
+     * @param placed receives the squares the pieces were placed on, so they can be cleared again
+     *
+     * @pre 0 <= index < 2 * placements(counts) AND placed.length >= the sum of counts
+     *
+     * @post setUp = [false if a man would be on its crowning row, with nothing placed; otherwise true, with the
+     *       pieces of the position on board and their squares in placed]
+     *
+     * @return true if the position can occur in a game.
+     */
+    static boolean setUp(ICheckerBoard board, int[] counts, long index, int[] placed) {
+        long placement = index >>> 1;
+        int[] groupEnds = new int[GROUPS];
+        int free = SQUARES - counts[0] - counts[1] - counts[2] - counts[3];
+        long[] ranks = new long[GROUPS];
+        for (int group = GROUPS - 1; group >= 0; group--) {
+            free += counts[group];
+            long size = choose(free, counts[group]);
+            ranks[group] = placement % size;
+            placement /= size;
+        }
+
+        // Pick every group's squares before placing anything, so an invalid position leaves the board empty
+        long used = 0;
+        int total = 0;
+        for (int group = 0; group < GROUPS; group++) {
+            long rank = ranks[group];
+            long groupSquares = 0;
+            for (int i = counts[group]; i >= 1; i--) {
+                int freeRank = i - 1;
+                while (choose(freeRank + 1, i) <= rank) {
+                    freeRank++;
+                }
+                rank -= choose(freeRank, i);
+                int square = nthFreeSquare(used, freeRank);
+                if (!canStand(group, square)) {
+                    return false;
+                }
+                groupSquares |= 1L << square;
+                placed[total++] = square;
+            }
+            used |= groupSquares;
+            groupEnds[group] = total;
+        }
+
+        char playerOne = board.getPlayerOne();
+        char playerTwo = board.getPlayerTwo();
+        int start = 0;
+        for (int group = 0; group < GROUPS; group++) {
+            char piece = pieceOf(group, playerOne, playerTwo);
+            for (int i = start; i < groupEnds[group]; i++) {
+                board.placePiece(position(placed[i]), piece);
+            }
+            start = groupEnds[group];
+        }
+        return true;
+    }
+
+    static BoardPosition position(int square) {
+        return BoardPosition.of(PackedMove.squareRow(square, DIMENSION), PackedMove.squareColumn(square, DIMENSION));
+    }
+
+    private static int nthFreeSquare(long used, int n) {
+        long free = ~used;
+        for (int i = 0; i < n; i++) {
+            free &= free - 1;
+        }
+        return Long.numberOfTrailingZeros(free);
+    }
+
+    /**
+     * Returns false for a man on the row where it would have been crowned.
+     */
+    private static boolean canStand(int group, int square) {
+        int row = PackedMove.squareRow(square, DIMENSION);
+        return !(group == PLAYER_ONE_MEN && row == DIMENSION - 1) && !(group == PLAYER_TWO_MEN && row == 0);
+    }
+
+    private static int groupOf(char piece, char playerOne, char playerTwo) {
+        if (piece == playerOne) {
+            return PLAYER_ONE_MEN;
+        } else if (piece == Character.toUpperCase(playerOne)) {
+            return PLAYER_ONE_KINGS;
+        } else if (piece == playerTwo) {
+            return PLAYER_TWO_MEN;
+        } else if (piece == Character.toUpperCase(playerTwo)) {
+            return PLAYER_TWO_KINGS;
+        }
+        return -1;
+    }
+
+    private static char pieceOf(int group, char playerOne, char playerTwo) {
+        switch (group) {
+            case PLAYER_ONE_MEN:
+                return playerOne;
+            case PLAYER_ONE_KINGS:
+                return Character.toUpperCase(playerOne);
+            case PLAYER_TWO_MEN:
+                return playerTwo;
+            default:
+                return Character.toUpperCase(playerTwo);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+/**
+ * Looks up the result of 8x8 endgames in the tables written by EndgameGenerator. Every table file is mapped into
+ * memory with FileChannel.map, so a lookup reads one byte straight from the file's pages without copying it.
+ *
+ * A table holds one byte per position, indexed by EndgameIndex:
+ *  0          the position is a draw
+ *  odd n      the player to move wins in n - 2 moves (plies)
+ *  even n > 0 the player to move loses in n - 2 moves (plies)
+ *  INVALID    the position can't occur in a game
+ * A win always takes an odd number of plies and a loss an even number, so the low bit tells them apart.
+ *
+ * Each file starts with a HEADER_SIZE byte header: the bytes of MAGIC, then the number of pieces in each group.
+ *
+ * @invariant maxPieces >= 0
+ * @invariant [tables maps the signature of every table found to its mapped file]
+ */
+public class EndgameTablebase {
+    /**
+     * Returned by probe for a position the tables don't cover.
+     */
+    public static final int NOT_FOUND = -1;
+
+    public static final int DRAW = 0;
+
+    /**
+     * The longest win or loss a table can record, in plies.
+     */
+    public static final int MAX_DISTANCE = 252;
+
+    /**
+     * The directory the game looks in for tables.
+     */
+    public static final String DEFAULT_DIRECTORY = "tablebase";
+
+    static final int INVALID = 0xFF;
+    static final byte[] MAGIC = {'C', 'K', 'T', 'B'};
+    static final int HEADER_SIZE = MAGIC.length + EndgameIndex.GROUPS;
+
+    private final HashMap<Integer, MappedByteBuffer> tables = new HashMap<>();
+    private int maxPieces;
+
+    /**
+     * Maps every table file in a directory.
+     *
+     * @param directory the directory holding the tables
+     *
+     * @pre [directory exists]
+     *
+     * @post [tables holds every table file in directory AND maxPieces is the number of pieces the tables cover]
+     *
+     * @throws IOException if a file can't be read or isn't a table
+     */
+    public EndgameTablebase(Path directory) throws IOException {
+        maxPieces = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "endgame-*.tb")) {
+            for (Path file : files) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    int[] counts = readHeader(table, file);
+                    tables.put(EndgameIndex.signature(counts), table);
+                    maxPieces = Math.max(maxPieces, counts[0] + counts[1] + counts[2] + counts[3]);
+                }
+            }
+        }
+        // A table set must hold every smaller table too, so cover only the piece count every material has
+        for (int pieces = 2; pieces <= maxPieces; pieces++) {
+            if (!hasEveryTable(pieces)) {
+                maxPieces = pieces - 1;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Gets the result of the position on a board.
+     *
+     * @param board the board to look up
+     * @param player the player to move
+     *
+     * @pre player is one of the valid player characters
+     *
+     * @post probe = [the table byte of the position as an int, or NOT_FOUND if it isn't covered] AND board = #board
+     *
+     * @return The value of the position, read with isWin, isLoss and getDistance, or NOT_FOUND.
+     */
+    public int probe(ICheckerBoard board, char player) {
+        return probe(board, player, new int[EndgameIndex.GROUPS], new long[EndgameIndex.GROUPS]);
+    }
+
+    /**
+     * Gets the result of the position on a board like probe(board, player), using scratch arrays passed in by the
+     * caller so a search can probe at every node without allocating. Each thread needs its own arrays.
+     *
+     * @param board the board to look up
+     * @param player the player to move
+     * @param counts scratch space for the number of pieces in each group
+     * @param masks scratch space for the squares of each group
+     *
+     * @pre player is one of the valid player characters AND counts.length = EndgameIndex.GROUPS AND
+     *      masks.length = EndgameIndex.GROUPS
+     *
+     * @post probe = [as for probe(board, player)] AND board = #board
+     *
+     * @return The value of the position, read with isWin, isLoss and getDistance, or NOT_FOUND.
+     */
+    int probe(ICheckerBoard board, char player, int[] counts, long[] masks) {
+        if (board.getRowNum() != EndgameIndex.DIMENSION) {
+            return NOT_FOUND;
+        }
+        char playerOne = board.getPlayerOne();
+        char playerTwo = board.getPlayerTwo();
+        int playerOneCount = board.getPieceCount(playerOne);
+        int playerTwoCount = board.getPieceCount(playerTwo);
+        if (playerOneCount + playerTwoCount > maxPieces) {
+            return NOT_FOUND;
+        }
+        boolean playerTwoToMove = player == playerTwo;
+        if ((playerTwoToMove ? playerTwoCount : playerOneCount) == 0) {
+            return encode(0);
+        }
+
+        EndgameIndex.readCounts(board, counts);
+        MappedByteBuffer table = tables.get(EndgameIndex.signature(counts));
+        if (table == null) {
+            return NOT_FOUND;
+        }
+        long index = EndgameIndex.index(board, counts, playerTwoToMove, masks);
+        int value = table.get(HEADER_SIZE + (int) index) & 0xFF;
+        return value == INVALID ? NOT_FOUND : value;
+    }
+
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    public static boolean isWin(int value) {
+        return value > 0 && (value & 1) == 1;
+    }
+
+    public static boolean isLoss(int value) {
+        return value > 0 && (value & 1) == 0;
+    }
+
+    /**
+     * Gets the number of plies until a won or lost position's game ends.
+     *
+     * @param value a value returned by probe
+     *
+     * @pre isWin(value) OR isLoss(value)
+     *
+     * @post getDistance = value - 2
+     *
+     * @return The distance to the end of the game in plies.
+     */
+    public static int getDistance(int value) {
+        return value - 2;
+    }
+
+    /**
+     * Gets the table value of a win or loss in a number of plies.
+     *
+     * @pre 0 <= distance <= MAX_DISTANCE
+     *
+     * @post encode = distance + 2
+     *
+     * @return The table value.
+     */
+    static int encode(int distance) {
+        return distance + 2;
+    }
+
+    /**
+     * Gets the name of the file holding the table for some material.
+     *
+     * @pre counts.length = EndgameIndex.GROUPS
+     *
+     * @post fileName = "endgame-" + [the four counts] + ".tb"
+     *
+     * @return The file name.
+     */
+    static String fileName(int[] counts) {
+        return "endgame-" + counts[0] + counts[1] + counts[2] + counts[3] + ".tb";
+    }
+
+    private boolean hasEveryTable(int pieces) {
+        for (int[] counts : EndgameGenerator.materials(pieces)) {
+            if (!tables.containsKey(EndgameIndex.signature(counts))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] readHeader(MappedByteBuffer table, Path file) throws IOException {
+        if (table.capacity() < HEADER_SIZE) {
+            throw new IOException("Not an endgame table: " + file);
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (table.get(i) != MAGIC[i]) {
+                throw new IOException("Not an endgame table: " + file);
+            }
+        }
+        int[] counts = new int[EndgameIndex.GROUPS];
+        int total = 0;
+        for (int group = 0; group < EndgameIndex.GROUPS; group++) {
+            counts[group] = table.get(MAGIC.length + group);
+            total += counts[group];
+            if (counts[group] < 0 || total > EndgameIndex.SQUARES) {
+                throw new IOException("Not an endgame table: " + file);
+            }
+        }
+        if (table.capacity() != HEADER_SIZE + 2 * EndgameIndex.placements(counts)) {
+            throw new IOException("Endgame table has the wrong size: " + file);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,49 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.util.PackedMove;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the move that captures the most pieces, preferring a move that crowns a piece among equal captures. Moves
+ * that are equally good are chosen between at random. A policy keeps its own move buffer and random source, so each
+ * thread needs its own policy.
+ */
+public class GreedyCapturePolicy implements IMovePolicy {
+    private final SplittableRandom random;
+    private final int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+
+    /**
+     * Constructs a policy whose choices between equal moves are fixed by a seed.
+     *
+     * @param seed the seed of the random choices
+     *
+     * @pre None
+     *
+     * @post [a policy is constructed that makes the same choices every time it is given the same seed]
+     */
+    public GreedyCapturePolicy(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int chooseMove(ICheckerBoard board, char player) {
+        int count = board.generateMoves(player, moves);
+        int best = NO_MOVE;
+        int bestGain = -1;
+        int ties = 0;
+        for (int i = 0; i < count; i++) {
+            int gain = 2 * PackedMove.getCaptureCount(moves[i]) + (PackedMove.isPromotion(moves[i]) ? 1 : 0);
+            if (gain > bestGain) {
+                best = moves[i];
+                bestGain = gain;
+                ties = 1;
+            } else if (gain == bestGain && random.nextInt(++ties) == 0) {
+                // Keeps each of the tied moves with an equal chance
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+}
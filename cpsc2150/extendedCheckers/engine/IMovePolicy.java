@@ -0,0 +1,32 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+/**
+ * A way of choosing the move a player makes, such as a search engine.
+ *
+ * @defines board: the board the move is chosen on
+ *          player: the character of the player choosing a move
+ *
+ * @constraints a chosen move is always one of the moves listed by board.generateMoves for player
+ */
+public interface IMovePolicy {
+    /**
+     * Returned by chooseMove when the player has no legal move. No legal packed move is 0.
+     */
+    public static final int NO_MOVE = 0;
+
+    /**
+     * Chooses a move for a player.
+     *
+     * @param board the board to choose a move on
+     * @param player the character of the player to move
+     *
+     * @pre player is one of the valid player characters.
+     *
+     * @post chooseMove = [one of player's legal moves, or NO_MOVE if player has none] AND board = #board
+     *
+     * @return The packed move chosen, or NO_MOVE.
+     */
+    int chooseMove(ICheckerBoard board, char player);
+}
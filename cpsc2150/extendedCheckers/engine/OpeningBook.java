@@ -0,0 +1,195 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Looks up opening moves in the books written by OpeningBookBuilder. There is one book file for each board size, and
+ * every file is mapped into memory with FileChannel.map, so a lookup binary searches the file's pages in place and
+ * allocates nothing.
+ *
+ * A book file starts with a HEADER_SIZE byte header: the bytes of MAGIC, then the board size as an int. After it come
+ * RECORD_SIZE byte records, each a position key (long), a packed move (int) and the move's weight (int). The records
+ * are sorted by key, and the records of one key by weight, heaviest first. A position's key is taken with the player
+ * to move set, as ICheckerBoard.getPositionKey gives it.
+ *
+ * @invariant books[size] = [the mapped book for boards of that size, or null if there is none]
+ */
+public class OpeningBook {
+    /**
+     * The directory the game looks in for books.
+     */
+    public static final String DEFAULT_DIRECTORY = "book";
+
+    static final byte[] MAGIC = {'C', 'K', 'O', 'B'};
+    static final int HEADER_SIZE = MAGIC.length + Integer.BYTES;
+    static final int RECORD_SIZE = Long.BYTES + 2 * Integer.BYTES;
+
+    private static final int MOVE_OFFSET = Long.BYTES;
+    private static final int WEIGHT_OFFSET = MOVE_OFFSET + Integer.BYTES;
+
+    private final MappedByteBuffer[] books = new MappedByteBuffer[ICheckerBoard.BOARD_MAX_SIZE + 1];
+
+    /**
+     * Maps every book file in a directory.
+     *
+     * @param directory the directory holding the books
+     *
+     * @pre [directory exists]
+     *
+     * @post [books holds every book file in directory]
+     *
+     * @throws IOException if a file can't be read or isn't a book
+     */
+    public OpeningBook(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "opening-*.book")) {
+            for (Path file : files) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    MappedByteBuffer book = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    books[readHeader(book, file)] = book;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the heaviest book move for a player.
+     *
+     * @param board the board to look up
+     * @param player the player to move
+     *
+     * @pre player is one of the valid player characters
+     *
+     * @post getBestMove = [the move with the largest weight for the position with player to move, or
+     *       IMovePolicy.NO_MOVE if the position isn't in the book] AND board = #board
+     *
+     * @return The packed move, or IMovePolicy.NO_MOVE.
+     */
+    public int getBestMove(ICheckerBoard board, char player) {
+        MappedByteBuffer book = books[board.getRowNum()];
+        if (book == null) {
+            return IMovePolicy.NO_MOVE;
+        }
+        long key = keyOf(board, player);
+        int record = firstRecord(book, key);
+        return record < 0 ? IMovePolicy.NO_MOVE : book.getInt(offset(record) + MOVE_OFFSET);
+    }
+
+    /**
+     * Lists every book move for a player with its weight, heaviest first.
+     *
+     * @param board the board to look up
+     * @param player the player to move
+     * @param moves receives the moves
+     * @param weights receives the weight of each move
+     *
+     * @pre player is one of the valid player characters AND moves.length >= ICheckerBoard.MOVE_BUFFER_SIZE AND
+     *      weights.length >= ICheckerBoard.MOVE_BUFFER_SIZE
+     *
+     * @post getMoves = [the number of book moves for the position] AND [moves and weights hold them, heaviest
+     *       first] AND board = #board
+     *
+     * @return The number of book moves.
+     */
+    public int getMoves(ICheckerBoard board, char player, int[] moves, int[] weights) {
+        MappedByteBuffer book = books[board.getRowNum()];
+        if (book == null) {
+            return 0;
+        }
+        long key = keyOf(board, player);
+        int count = 0;
+        int records = recordCount(book);
+        int record = firstRecord(book, key);
+        for (; record >= 0 && record < records && book.getLong(offset(record)) == key; record++) {
+            moves[count] = book.getInt(offset(record) + MOVE_OFFSET);
+            weights[count] = book.getInt(offset(record) + WEIGHT_OFFSET);
+            count++;
+        }
+        return count;
+    }
+
+    public boolean hasBook(int dimension) {
+        return dimension >= 0 && dimension < books.length && books[dimension] != null;
+    }
+
+    /**
+     * Gets the name of the file holding the book for a board size.
+     *
+     * @pre BOARD_MIN_SIZE <= dimension <= BOARD_MAX_SIZE
+     *
+     * @post fileName = "opening-" + dimension + ".book"
+     *
+     * @return The file name.
+     */
+    static String fileName(int dimension) {
+        return "opening-" + dimension + ".book";
+    }
+
+    /**
+     * Gets the key of the position on a board with a given player to move.
+     */
+    private static long keyOf(ICheckerBoard board, char player) {
+        char sideBefore = board.getPlayerToMove();
+        if (sideBefore == player) {
+            return board.getPositionKey();
+        }
+        board.setPlayerToMove(player);
+        long key = board.getPositionKey();
+        board.setPlayerToMove(sideBefore);
+        return key;
+    }
+
+    /**
+     * Binary searches a book for the first record of a key.
+     *
+     * @pre [the records of book are sorted by key]
+     *
+     * @post firstRecord = [the number of the first record with key, or -1 if there is none]
+     *
+     * @return The record number, or -1.
+     */
+    private static int firstRecord(MappedByteBuffer book, long key) {
+        int low = 0;
+        int high = recordCount(book);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (book.getLong(offset(middle)) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < recordCount(book) && book.getLong(offset(low)) == key ? low : -1;
+    }
+
+    private static int recordCount(MappedByteBuffer book) {
+        return (book.capacity() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    private static int offset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    private static int readHeader(MappedByteBuffer book, Path file) throws IOException {
+        if (book.capacity() < HEADER_SIZE || (book.capacity() - HEADER_SIZE) % RECORD_SIZE != 0) {
+            throw new IOException("Not an opening book: " + file);
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (book.get(i) != MAGIC[i]) {
+                throw new IOException("Not an opening book: " + file);
+            }
+        }
+        int dimension = book.getInt(MAGIC.length);
+        if (dimension < ICheckerBoard.BOARD_MIN_SIZE || dimension > ICheckerBoard.BOARD_MAX_SIZE) {
+            throw new IOException("Opening book has an invalid board size: " + file);
+        }
+        return dimension;
+    }
+}
@@ -0,0 +1,229 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the opening books read by OpeningBook by playing games of the computer against itself from the starting
+ * position. Every move of the first BOOK_PLIES plies of every game is counted, weighted by how the game went for the
+ * player who made it: WIN_WEIGHT for a win, DRAW_WEIGHT for a draw and nothing for a loss. Moves that never did better
+ * than lose are left out of the book.
+ *
+ * To spread the games over many openings, a random legal move is played instead of the engine's move with a chance of
+ * one in EXPLORE_CHANCE during the book plies. Each game draws its random moves from its own seed.
+ *
+ * Run from the command line as: OpeningBookBuilder [directory] [games per size] [threads] [seed]
+ */
+public final class OpeningBookBuilder {
+    /**
+     * The number of plies from the start of each game that go into the book.
+     */
+    public static final int BOOK_PLIES = 16;
+
+    /**
+     * A game still going after this many plies is scored as a draw.
+     */
+    static final int MAX_GAME_PLIES = 300;
+
+    /**
+     * The number of positions the engine searches for each move of a self-play game.
+     */
+    static final int NODES_PER_MOVE = 2000;
+
+    static final int EXPLORE_CHANCE = 4;
+    static final int WIN_WEIGHT = 2;
+    static final int DRAW_WEIGHT = 1;
+
+    private OpeningBookBuilder() {
+    }
+
+    /**
+     * Builds a book for every board size and writes them to a directory.
+     *
+     * @param args the directory (default OpeningBook.DEFAULT_DIRECTORY), the games to play for each size (default
+     *             1000), the number of threads (default one per processor) and the seed (default 1)
+     *
+     * @pre None
+     *
+     * @post [the directory holds a book for every board size]
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : OpeningBook.DEFAULT_DIRECTORY);
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int threadCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+            long start = System.nanoTime();
+            int records = build(directory, size, games, threadCount, seed);
+            System.out.printf("%s: %d games, %d moves in %.2f s%n", OpeningBook.fileName(size), games, records,
+                    (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    /**
+     * Plays games on one board size and writes the book made from them to a directory.
+     *
+     * @param directory the directory to write the book to, created if it doesn't exist
+     * @param dimension the board size
+     * @param games the number of games to play
+     * @param threadCount the number of threads to play the games on
+     * @param seed the seed of the random moves
+     *
+     * @pre BOARD_MIN_SIZE <= dimension <= BOARD_MAX_SIZE AND dimension is even AND games >= 1 AND threadCount >= 1
+     *
+     * @post build = [the number of moves in the book] AND [directory holds the book for dimension]
+     *
+     * @return The number of moves written.
+     *
+     * @throws IOException if the book can't be written
+     */
+    public static int build(Path directory, int dimension, int games, int threadCount, long seed) throws IOException {
+        if (dimension < ICheckerBoard.BOARD_MIN_SIZE || dimension > ICheckerBoard.BOARD_MAX_SIZE
+                || dimension % 2 != 0 || games < 1 || threadCount < 1) {
+            throw new IllegalArgumentException("Invalid board size, game count or thread count.");
+        }
+        Files.createDirectories(directory);
+
+        AtomicInteger nextGame = new AtomicInteger();
+        List<HashMap<Long, HashMap<Integer, Integer>>> results = new ArrayList<>();
+        ExecutorService threads = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<HashMap<Long, HashMap<Integer, Integer>>>> workers = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                workers.add(threads.submit(() -> {
+                    Player player = new Player(dimension);
+                    for (int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+                        player.play(seed + game);
+                    }
+                    return player.weights;
+                }));
+            }
+            for (Future<HashMap<Long, HashMap<Integer, Integer>>> worker : workers) {
+                results.add(worker.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Opening book build was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("A self-play thread failed.", e.getCause());
+        } finally {
+            threads.shutdown();
+        }
+
+        HashMap<Long, HashMap<Integer, Integer>> weights = results.get(0);
+        for (int i = 1; i < results.size(); i++) {
+            results.get(i).forEach((key, moves) -> moves.forEach((move, weight) ->
+                    weights.computeIfAbsent(key, k -> new HashMap<>()).merge(move, weight, Integer::sum)));
+        }
+        return write(directory.resolve(OpeningBook.fileName(dimension)), dimension, weights);
+    }
+
+    /**
+     * Writes a book's records sorted by key, and by weight, heaviest first, within a key.
+     *
+     * @pre [weights maps position keys to the weight of each move played from them]
+     *
+     * @post write = [the number of records written] AND [file holds the book as described in OpeningBook]
+     *
+     * @return The number of records.
+     */
+    private static int write(Path file, int dimension, HashMap<Long, HashMap<Integer, Integer>> weights)
+            throws IOException {
+        List<long[]> records = new ArrayList<>();
+        weights.forEach((key, moves) -> moves.forEach((move, weight) -> {
+            if (weight > 0) {
+                records.add(new long[] {key, move, weight});
+            }
+        }));
+        records.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.write(OpeningBook.MAGIC);
+            out.writeInt(dimension);
+            for (long[] record : records) {
+                out.writeLong(record[0]);
+                out.writeInt((int) record[1]);
+                out.writeInt((int) record[2]);
+            }
+        }
+        return records.size();
+    }
+
+    /**
+     * The board, engine and counts one thread plays its games with.
+     */
+    private static final class Player {
+        private final int dimension;
+        private final AlphaBetaEngine engine = new AlphaBetaEngine(0, NODES_PER_MOVE);
+        private final int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        private final long[] bookKeys = new long[BOOK_PLIES];
+        private final int[] bookMoves = new int[BOOK_PLIES];
+
+        /**
+         * The weight of each move played from each position in the book plies of this thread's games.
+         */
+        final HashMap<Long, HashMap<Integer, Integer>> weights = new HashMap<>();
+
+        Player(int dimension) {
+            this.dimension = dimension;
+        }
+
+        /**
+         * Plays one game from the starting position and counts its book moves.
+         *
+         * @pre None
+         *
+         * @post [weights holds the book moves of the game, weighted by its result]
+         */
+        void play(long seed) {
+            Random random = new Random(seed);
+            ICheckerBoard board = new CheckerBoard(dimension);
+            char playerOne = board.getPlayerOne();
+            int plies = 0;
+            char loser = 0;
+            while (plies < MAX_GAME_PLIES) {
+                char player = board.getPlayerToMove();
+                int count = board.generateMoves(player, moves);
+                if (count == 0) {
+                    loser = player;
+                    break;
+                }
+                int move;
+                if (plies < BOOK_PLIES && random.nextInt(EXPLORE_CHANCE) == 0) {
+                    move = moves[random.nextInt(count)];
+                } else {
+                    move = engine.findBestMove(board, player);
+                }
+                if (plies < BOOK_PLIES) {
+                    bookKeys[plies] = board.getPositionKey();
+                    bookMoves[plies] = move;
+                }
+                board.makeMove(move);
+                plies++;
+            }
+
+            for (int ply = 0; ply < Math.min(plies, BOOK_PLIES); ply++) {
+                char mover = ply % 2 == 0 ? playerOne : board.getPlayerTwo();
+                int weight = loser == 0 ? DRAW_WEIGHT : (mover == loser ? 0 : WIN_WEIGHT);
+                weights.computeIfAbsent(bookKeys[ply], k -> new HashMap<>()).merge(bookMoves[ply], weight,
+                        Integer::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A computer player that searches with several threads at once. Every thread runs its own AlphaBetaEngine on its own
+ * copy of the board, and all of them share one TranspositionTable. The helper threads start at different depths and
+ * move orders, so the positions they store let the main thread cut its tree short. The main thread's move is played,
+ * and the helpers are stopped as soon as it is found.
+ *
+ * @invariant engines.length = threadCount AND threadCount >= 1
+ */
+public class ParallelSearchEngine implements IMovePolicy {
+    /**
+     * The most search threads an engine may use.
+     */
+    public static final int MAX_THREADS = 64;
+
+    private final int threadCount;
+    private final TranspositionTable table;
+    private final AlphaBetaEngine[] engines;
+
+    /**
+     * Runs the helper engines. The main engine runs on the thread that calls findBestMove.
+     */
+    private final ExecutorService helperThreads;
+
+    private final Future<?>[] helperResults;
+
+    /**
+     * The opening book findBestMove plays from before starting any thread, or null if there is none.
+     */
+    private OpeningBook openingBook;
+
+    /**
+     * Constructs an engine that searches with a number of threads.
+     *
+     * @param threadCount the number of threads that search each move, counting the calling thread
+     * @param timeLimitMillis the most milliseconds to search for one move, or 0 for no limit
+     * @param nodeLimit the most positions each thread may search for one move, or 0 for no limit
+     * @param tableMegabytes the size of the shared table in megabytes
+     *
+     * @pre 1 <= threadCount <= MAX_THREADS AND timeLimitMillis >= 0 AND nodeLimit >= 0 AND at least one of them is
+     *      above 0 AND 1 <= tableMegabytes <= 8192
+     *
+     * @post [an engine is constructed with threadCount - 1 idle helper threads and an empty table]
+     */
+    public ParallelSearchEngine(int threadCount, long timeLimitMillis, long nodeLimit, int tableMegabytes) {
+        if (threadCount < 1 || threadCount > MAX_THREADS) {
+            throw new IllegalArgumentException("Invalid thread count.");
+        }
+        this.threadCount = threadCount;
+        table = new TranspositionTable(tableMegabytes);
+        engines = new AlphaBetaEngine[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            engines[i] = new AlphaBetaEngine(timeLimitMillis, nodeLimit, table, i);
+        }
+        helperResults = new Future<?>[threadCount];
+        helperThreads = threadCount > 1 ? Executors.newFixedThreadPool(threadCount - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    @Override
+    public int chooseMove(ICheckerBoard board, char player) {
+        return findBestMove(board, player);
+    }
+
+    /**
+     * Searches for the best move for a player with every thread.
+     *
+     * @param board the board to search, which is changed during the search and restored before returning
+     * @param player the player to find a move for
+     *
+     * @pre player is one of the valid player characters
+     *
+     * @post findBestMove = [the heaviest book move if the position is in the opening book, otherwise the move the
+     *       main engine found] AND board = #board AND [every helper thread has stopped searching]
+     *
+     * @return The packed move to play, or NO_MOVE.
+     */
+    public int findBestMove(ICheckerBoard board, char player) {
+        if (openingBook != null) {
+            int bookMove = openingBook.getBestMove(board, player);
+            if (bookMove != NO_MOVE) {
+                return bookMove;
+            }
+        }
+        for (AlphaBetaEngine engine : engines) {
+            engine.clearStop();
+        }
+        for (int i = 1; i < threadCount; i++) {
+            AlphaBetaEngine helper = engines[i];
+            ICheckerBoard copy = copyOf(board);
+            helperResults[i] = helperThreads.submit(() -> helper.searchRoot(copy, player));
+        }
+
+        int move = engines[0].searchRoot(board, player);
+
+        for (int i = 1; i < threadCount; i++) {
+            engines[i].stop();
+        }
+        for (int i = 1; i < threadCount; i++) {
+            try {
+                helperResults[i].get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A search thread failed.", e.getCause());
+            }
+            helperResults[i] = null;
+        }
+        return move;
+    }
+
+    /**
+     * Gets the number of positions searched by all threads during the last call to findBestMove.
+     *
+     * @pre None
+     *
+     * @post getNodeCount = [the sum of the node counts of every engine] AND self = #self
+     *
+     * @return The number of positions searched.
+     */
+    public long getNodeCount() {
+        long total = 0;
+        for (AlphaBetaEngine engine : engines) {
+            total += engine.getNodeCount();
+        }
+        return total;
+    }
+
+    /**
+     * Sets the endgame tables every thread's search reads positions with few pieces from.
+     *
+     * @param tablebase the endgame tables, or null to search without them
+     *
+     * @pre None
+     *
+     * @post [every engine searches with tablebase]
+     */
+    public void setTablebase(EndgameTablebase tablebase) {
+        for (AlphaBetaEngine engine : engines) {
+            engine.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Sets the opening book findBestMove plays from while the game is still in it.
+     *
+     * @param openingBook the opening book, or null to always search
+     *
+     * @pre None
+     *
+     * @post [findBestMove plays the book move of positions in openingBook without starting a search]
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    public int getCompletedDepth() {
+        return engines[0].getCompletedDepth();
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Stops the helper threads. The engine can't be used with more than one thread afterwards.
+     *
+     * @pre None
+     *
+     * @post [the helper threads have been told to finish]
+     */
+    public void shutdown() {
+        if (helperThreads != null) {
+            helperThreads.shutdownNow();
+        }
+    }
+
+    /**
+     * Copies the pieces of a board onto a new CheckerBoard of the same size and players.
+     *
+     * @pre None
+     *
+     * @post copyOf = [a board with the same players and the same piece on every playable square as board] AND
+     *       board = #board
+     *
+     * @return The copy.
+     */
+    private static ICheckerBoard copyOf(ICheckerBoard board) {
+        int dimension = board.getRowNum();
+        CheckerBoard copy = new CheckerBoard(dimension, board.getPlayerOne(), board.getPlayerTwo());
+        for (int row = 0; row < dimension; row++) {
+            for (int col = row % 2; col < dimension; col += 2) {
+                BoardPosition pos = BoardPosition.of(row, col);
+                copy.placePiece(pos, board.whatsAtPos(pos));
+            }
+        }
+        copy.setPlayerToMove(board.getPlayerToMove());
+        return copy;
+    }
+}
@@ -0,0 +1,172 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.CheckerBoardBit;
+import cpsc2150.extendedCheckers.models.CheckerBoardMem;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Counts the positions reachable from a board in an exact number of moves (perft). The counts only depend on the rules,
+ * so every ICheckerBoard implementation has to give the same ones, and the time taken measures how fast a board
+ * generates, makes and unmakes moves.
+ *
+ * Run from the command line as: Perft [depth] [F|M|B] [threads]
+ */
+public final class Perft {
+    private Perft() {
+    }
+
+    /**
+     * Counts the positions reached after exactly depth moves. A player with no moves ends the line early, and that
+     * line isn't counted.
+     *
+     * @param board the board to count from, which is changed during the count and restored before returning
+     * @param player the player to move first
+     * @param depth the number of moves to make
+     *
+     * @pre player is one of the valid player characters AND 0 <= depth < AlphaBetaEngine.MAX_PLY
+     *
+     * @post perft = [the number of move sequences of length depth] AND board = #board
+     *
+     * @return The number of positions counted.
+     */
+    public static long perft(ICheckerBoard board, char player, int depth) {
+        return perft(board, player, depth, new int[depth + 1][ICheckerBoard.MOVE_BUFFER_SIZE]);
+    }
+
+    /**
+     * Counts the positions reached after exactly depth moves, splitting the first moves among several threads. Each
+     * thread builds its own starting board with the factory.
+     *
+     * @param factory makes a starting board of a given size
+     * @param dimension the size of the board
+     * @param depth the number of moves to make
+     * @param threadCount the number of threads to count with
+     *
+     * @pre factory builds a board in the starting position AND 1 <= depth < AlphaBetaEngine.MAX_PLY AND
+     *      threadCount >= 1
+     *
+     * @post parallelPerft = perft(factory.apply(dimension), [its player one], depth)
+     *
+     * @return The number of positions counted.
+     */
+    public static long parallelPerft(IntFunction<ICheckerBoard> factory, int dimension, int depth, int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Invalid thread count.");
+        }
+        AtomicInteger nextRootMove = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(threadCount);
+        try {
+            Future<?>[] counts = new Future<?>[threadCount];
+            for (int i = 0; i < threadCount; i++) {
+                counts[i] = threads.submit(() -> {
+                    ICheckerBoard board = factory.apply(dimension);
+                    char player = board.getPlayerOne();
+                    char opponent = board.getPlayerTwo();
+                    int[][] buffers = new int[depth + 1][ICheckerBoard.MOVE_BUFFER_SIZE];
+                    int[] rootMoves = buffers[depth];
+                    int rootCount = board.generateMoves(player, rootMoves);
+                    long nodes = 0;
+                    // Threads take the next unclaimed root move until there are none left
+                    for (int move = nextRootMove.getAndIncrement(); move < rootCount;
+                            move = nextRootMove.getAndIncrement()) {
+                        board.makeMove(rootMoves[move]);
+                        nodes += perft(board, opponent, depth - 1, buffers);
+                        board.unmakeMove();
+                    }
+                    return nodes;
+                });
+            }
+            long total = 0;
+            for (Future<?> count : counts) {
+                total += (Long) count.get();
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Perft was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A perft thread failed.", e.getCause());
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    /**
+     * Gets a factory for one of the board implementations.
+     *
+     * @param implementation F for CheckerBoard, M for CheckerBoardMem or B for CheckerBoardBit
+     *
+     * @pre implementation is F, M or B, in either case
+     *
+     * @post boardFactory = [a function making a starting board of the chosen implementation]
+     *
+     * @return The factory.
+     */
+    public static IntFunction<ICheckerBoard> boardFactory(String implementation) {
+        switch (implementation.toUpperCase()) {
+            case "F":
+                return CheckerBoard::new;
+            case "M":
+                return CheckerBoardMem::new;
+            case "B":
+                return CheckerBoardBit::new;
+            default:
+                throw new IllegalArgumentException("Unknown board implementation: " + implementation);
+        }
+    }
+
+    /**
+     * Counts from the starting position of every board size and prints the counts and speed.
+     *
+     * @param args the depth (default 6), the implementation F, M or B (default F) and the thread count (default 1)
+     *
+     * @pre None
+     *
+     * @post [a line with the count, time and nodes per second is printed for every board size]
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        String implementation = args.length > 1 ? args[1] : "F";
+        int threadCount = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        IntFunction<ICheckerBoard> factory = boardFactory(implementation);
+
+        for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+            long start = System.nanoTime();
+            ICheckerBoard board = factory.apply(size);
+            long nodes = threadCount == 1
+                    ? perft(board, board.getPlayerOne(), depth)
+                    : parallelPerft(factory, size, depth, threadCount);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%dx%d depth %d: %d nodes in %.3f s (%.0f nodes/s)%n",
+                    size, size, depth, nodes, seconds, nodes / Math.max(seconds, 1e-9));
+        }
+    }
+
+    private static long perft(ICheckerBoard board, char player, int depth, int[][] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = buffers[depth - 1];
+        int count = board.generateMoves(player, moves);
+        if (depth == 1) {
+            // The moves at the last level only need counting, not making
+            return count;
+        }
+        char opponent = board.getOpponent(player);
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            nodes += perft(board, opponent, depth - 1, buffers);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+}
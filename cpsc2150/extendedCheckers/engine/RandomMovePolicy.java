@@ -0,0 +1,33 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses one of the legal moves at random. A policy keeps its own move buffer and random source, so each thread needs
+ * its own policy.
+ */
+public class RandomMovePolicy implements IMovePolicy {
+    private final SplittableRandom random;
+    private final int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+
+    /**
+     * Constructs a policy whose choices are fixed by a seed.
+     *
+     * @param seed the seed of the random choices
+     *
+     * @pre None
+     *
+     * @post [a policy is constructed that makes the same choices every time it is given the same seed]
+     */
+    public RandomMovePolicy(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int chooseMove(ICheckerBoard board, char player) {
+        int count = board.generateMoves(player, moves);
+        return count == 0 ? NO_MOVE : moves[random.nextInt(count)];
+    }
+}
@@ -0,0 +1,262 @@
+package cpsc2150.extendedCheckers.engine;
+
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+/**
+ * Plays games between two move policies without any user input, on as many threads as the executor it is given has,
+ * and counts how they went. The games are handed out in tasks of GAMES_PER_TASK, and every task builds its own boards
+ * and its own policies, so no state is shared between threads until the counts are added up.
+ *
+ * A game ends when the player to move has no legal move, and that player loses. A game still going after
+ * MAX_GAME_PLIES plies is counted as a draw.
+ *
+ * Run from the command line as: SelfPlaySimulator [games per size] [threads] [policy one] [policy two] [F|M|B]
+ * where a policy is random, greedy or engine.
+ */
+public final class SelfPlaySimulator {
+    public static final int MAX_GAME_PLIES = 400;
+
+    /**
+     * The number of games each task plays one after another.
+     */
+    static final int GAMES_PER_TASK = 16;
+
+    /**
+     * The number of positions an engine policy searches for each move.
+     */
+    static final int ENGINE_NODES_PER_MOVE = 500;
+
+    /**
+     * The places of the counts in the array a task returns.
+     */
+    private static final int GAMES = 0;
+    private static final int PLIES = 1;
+    private static final int PLAYER_ONE_WINS = 2;
+    private static final int PLAYER_TWO_WINS = 3;
+    private static final int DRAWS = 4;
+
+    private SelfPlaySimulator() {
+    }
+
+    /**
+     * The counts of the games played on one board size.
+     *
+     * @invariant games = playerOneWins + playerTwoWins + draws AND plies >= 0
+     */
+    public static final class Result {
+        private final int dimension;
+        private long games;
+        private long plies;
+        private long playerOneWins;
+        private long playerTwoWins;
+        private long draws;
+        private long elapsedNanos;
+
+        Result(int dimension) {
+            this.dimension = dimension;
+        }
+
+        private void add(long[] counts) {
+            games += counts[GAMES];
+            plies += counts[PLIES];
+            playerOneWins += counts[PLAYER_ONE_WINS];
+            playerTwoWins += counts[PLAYER_TWO_WINS];
+            draws += counts[DRAWS];
+        }
+
+        public int getDimension() {
+            return dimension;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getPlayerOneWins() {
+            return playerOneWins;
+        }
+
+        public long getPlayerTwoWins() {
+            return playerTwoWins;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public double getAverageLength() {
+            return games == 0 ? 0 : (double) plies / games;
+        }
+
+        public double getGamesPerSecond() {
+            return games / Math.max(elapsedNanos / 1e9, 1e-9);
+        }
+
+        /**
+         * Formats the counts as one line of the simulator's report.
+         *
+         * @pre None
+         *
+         * @post toString = [the size, games, games per second, average length and win and draw rates] AND
+         *       self = #self
+         *
+         * @return The line of the report.
+         */
+        @Override
+        public String toString() {
+            double total = Math.max(games, 1);
+            return String.format("%dx%d: %d games, %.1f games/s, %.1f plies on average, player one wins %.1f%%, "
+                            + "player two wins %.1f%%, draws %.1f%%", dimension, dimension, games, getGamesPerSecond(),
+                    getAverageLength(), 100 * playerOneWins / total, 100 * playerTwoWins / total, 100 * draws / total);
+        }
+    }
+
+    /**
+     * Plays a number of games on one board size and counts them.
+     *
+     * @param executor runs the games, which are spread over its threads
+     * @param factory makes a starting board of a given size
+     * @param dimension the size of the boards
+     * @param games the number of games to play
+     * @param playerOne makes player one's policy for one task from a seed
+     * @param playerTwo makes player two's policy for one task from a seed
+     *
+     * @pre factory builds a board in the starting position AND BOARD_MIN_SIZE <= dimension <= BOARD_MAX_SIZE AND
+     *      games >= 0 AND every policy made only chooses legal moves
+     *
+     * @post run = [the counts of the games played] AND [every game has finished]
+     *
+     * @return The counts of the games.
+     */
+    public static Result run(ExecutorService executor, IntFunction<ICheckerBoard> factory, int dimension, int games,
+                             LongFunction<IMovePolicy> playerOne, LongFunction<IMovePolicy> playerTwo) {
+        long start = System.nanoTime();
+        List<Future<long[]>> tasks = new ArrayList<>();
+        for (int first = 0; first < games; first += GAMES_PER_TASK) {
+            int taskGames = Math.min(GAMES_PER_TASK, games - first);
+            long seed = first;
+            tasks.add(executor.submit(() -> playGames(factory, dimension, taskGames,
+                    playerOne.apply(seed), playerTwo.apply(~seed))));
+        }
+
+        Result result = new Result(dimension);
+        try {
+            for (Future<long[]> task : tasks) {
+                result.add(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Self-play was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A self-play game failed.", e.getCause());
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Gets a maker of one of the move policies.
+     *
+     * @param name random, greedy or engine, in any case
+     *
+     * @pre name is random, greedy or engine, in any case
+     *
+     * @post policyFactory = [a function making the named policy from a seed]
+     *
+     * @return The policy maker.
+     */
+    public static LongFunction<IMovePolicy> policyFactory(String name) {
+        switch (name.toLowerCase()) {
+            case "random":
+                return RandomMovePolicy::new;
+            case "greedy":
+                return GreedyCapturePolicy::new;
+            case "engine":
+                // A small table is enough for this budget, and keeps thousands of tasks cheap to start
+                return seed -> new AlphaBetaEngine(0, ENGINE_NODES_PER_MOVE, new TranspositionTable(1), 0);
+            default:
+                throw new IllegalArgumentException("Unknown move policy: " + name);
+        }
+    }
+
+    /**
+     * Plays games between two policies on every board size and prints the counts.
+     *
+     * @param args the games per size (default 1000), the thread count (default one per processor), player one's
+     *             policy (default random), player two's policy (default greedy) and the implementation F, M or B
+     *             (default F)
+     *
+     * @pre None
+     *
+     * @post [a line with the counts is printed for every board size, then one for all of them together]
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        LongFunction<IMovePolicy> playerOne = policyFactory(args.length > 2 ? args[2] : "random");
+        LongFunction<IMovePolicy> playerTwo = policyFactory(args.length > 3 ? args[3] : "greedy");
+        IntFunction<ICheckerBoard> factory = Perft.boardFactory(args.length > 4 ? args[4] : "F");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            long start = System.nanoTime();
+            long totalGames = 0;
+            long totalPlies = 0;
+            for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+                Result result = run(executor, factory, size, games, playerOne, playerTwo);
+                totalGames += result.games;
+                totalPlies += result.plies;
+                System.out.println(result);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("all sizes: %d games in %.2f s, %.1f games/s, %.1f plies on average%n", totalGames,
+                    seconds, totalGames / Math.max(seconds, 1e-9), (double) totalPlies / Math.max(totalGames, 1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Plays games one after another with the same two policies.
+     *
+     * @pre games >= 1
+     *
+     * @post playGames = {games, plies, playerOneWins, playerTwoWins, draws} over the games played
+     *
+     * @return The counts of the games.
+     */
+    private static long[] playGames(IntFunction<ICheckerBoard> factory, int dimension, int games,
+                                    IMovePolicy playerOnePolicy, IMovePolicy playerTwoPolicy) {
+        long[] counts = new long[DRAWS + 1];
+        for (int game = 0; game < games; game++) {
+            ICheckerBoard board = factory.apply(dimension);
+            char playerOne = board.getPlayerOne();
+            int plies = 0;
+            int outcome = DRAWS;
+            while (plies < MAX_GAME_PLIES) {
+                char player = board.getPlayerToMove();
+                IMovePolicy policy = player == playerOne ? playerOnePolicy : playerTwoPolicy;
+                int move = policy.chooseMove(board, player);
+                if (move == IMovePolicy.NO_MOVE) {
+                    outcome = player == playerOne ? PLAYER_TWO_WINS : PLAYER_ONE_WINS;
+                    break;
+                }
+                board.makeMove(move);
+                plies++;
+            }
+            counts[GAMES]++;
+            counts[PLIES] += plies;
+            counts[outcome]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,123 @@
+package cpsc2150.extendedCheckers.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of searched positions that many search threads can share without locks. Each entry is two longs
+ * in one long array: the position key XORed with the data, then the data. A thread reading an entry while another
+ * thread writes it sees a key that doesn't match and treats the entry as missing, so no entry is ever misread.
+ *
+ * The data long is laid out as:
+ *  0-31  the best packed move found
+ *  32-53 the score, stored with an offset so it is never negative
+ *  54-61 the depth the position was searched to
+ *  62-63 the bound the score gives: EXACT, LOWER or UPPER
+ *
+ * @invariant table.length = 2 * [a power of two]
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    private static final int SCORE_SHIFT = 32;
+    private static final int SCORE_BITS = 22;
+    private static final int SCORE_OFFSET = 1 << (SCORE_BITS - 1);
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + SCORE_BITS;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + 8;
+
+    private final long[] table;
+    private final int indexMask;
+
+    /**
+     * Constructs an empty table.
+     *
+     * @param sizeMegabytes the most memory the table may use, in megabytes
+     *
+     * @pre 1 <= sizeMegabytes <= 8192
+     *
+     * @post [a table with the largest power of two number of 16 byte entries that fits in sizeMegabytes]
+     */
+    public TranspositionTable(int sizeMegabytes) {
+        if (sizeMegabytes < 1 || sizeMegabytes > 8192) {
+            throw new IllegalArgumentException("Invalid table size.");
+        }
+        long entries = Long.highestOneBit(sizeMegabytes * (1L << 20) / 16);
+        entries = Math.min(entries, 1L << 29);
+        table = new long[(int) (entries * 2)];
+        indexMask = (int) entries - 1;
+    }
+
+    /**
+     * Finds the data stored for a position.
+     *
+     * @param key the position's key
+     *
+     * @pre None
+     *
+     * @post probe = [the data stored for key, or 0 if there is none] AND self = #self
+     *
+     * @return The data of the entry, read with the getters of this class, or 0.
+     */
+    public long probe(long key) {
+        int index = ((int) key & indexMask) << 1;
+        long checked = table[index];
+        long data = table[index + 1];
+        return (checked ^ data) == key ? data : 0;
+    }
+
+    /**
+     * Stores the result of searching a position. An entry for a different position is always replaced, an entry for
+     * the same position only by a search that is at least as deep.
+     *
+     * @param key the position's key
+     * @param move the best move found, or AlphaBetaEngine.NO_MOVE
+     * @param score the score found
+     * @param depth the depth searched
+     * @param bound EXACT, LOWER or UPPER
+     *
+     * @pre |score| < 2^21 AND 0 <= depth < 256
+     *
+     * @post [the entry for key holds the result unless it already held a deeper search of the same position]
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = ((int) key & indexMask) << 1;
+        long old = table[index + 1];
+        if ((table[index] ^ old) == key && getDepth(old) > depth) {
+            return;
+        }
+        long data = (move & 0xFFFFFFFFL)
+                | ((long) (score + SCORE_OFFSET) << SCORE_SHIFT)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT);
+        table[index + 1] = data;
+        table[index] = key ^ data;
+    }
+
+    /**
+     * Empties every entry of the table.
+     *
+     * @pre None
+     *
+     * @post [every probe returns 0 until the next store]
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    public static int getMove(long data) {
+        return (int) data;
+    }
+
+    public static int getScore(long data) {
+        return (int) ((data >>> SCORE_SHIFT) & ((1L << SCORE_BITS) - 1)) - SCORE_OFFSET;
+    }
+
+    public static int getDepth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int getBound(long data) {
+        return (int) (data >>> BOUND_SHIFT);
+    }
+}
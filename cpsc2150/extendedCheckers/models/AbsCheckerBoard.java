@@ -1,5 +1,10 @@
 package cpsc2150.extendedCheckers.models;
 
+import cpsc2150.extendedCheckers.util.DirectionEnum;
+import cpsc2150.extendedCheckers.util.PackedMove;
+
+import java.util.Arrays;
+
     /**
      * Returns a string representation of the checkerboard.
      *
@@ -15,6 +20,93 @@ package cpsc2150.extendedCheckers.models;
 
     public abstract class AbsCheckerBoard implements ICheckerBoard {
 
+    /**
+     * The packed moves made by makeMove that have not been undone, oldest first.
+     */
+    private int[] undoMoves = new int[64];
+
+    /**
+     * For every move in undoMoves, the character of the moving piece followed by the characters of the pieces it
+     * captured.
+     */
+    private char[] undoPieces = new char[128];
+
+    /**
+     * For every entry of undoPieces, the square the piece stood on, so a long chain is undone without finding its
+     * steps again.
+     */
+    private int[] undoSquares = new int[128];
+
+    private int undoMoveCount;
+    private int undoPieceCount;
+
+    /**
+     * The Zobrist key of the position, kept up to date by pieceChanged and by every change of the player to move.
+     */
+    private long positionKey;
+
+    /**
+     * True while player two is the player to move.
+     */
+    private boolean playerTwoToMove;
+
+    /**
+     * The piece characters of the two players, fixed when the board is made.
+     */
+    private final char playerOne;
+    private final char playerTwo;
+
+    /**
+     * The neighbor table of the board's size, found when the first piece is placed, since a subclass knows its size
+     * only once its own constructor runs.
+     */
+    private NeighborTable neighbors;
+
+    /**
+     * For every playable square, the ZobristKeys kind of its piece plus one, or 0 if it is empty, kept up to date by
+     * pieceChanged so the mobility counts never read the subclass's squares.
+     */
+    private byte[] squareKinds;
+
+    /**
+     * For every playable square, the number of directions its piece can step or jump in.
+     */
+    private byte[] squareMobility;
+
+    /**
+     * The sum of squareMobility over each player's pieces, indexed by 0 for player one and 1 for player two.
+     */
+    private final int[] mobility = new int[2];
+
+    /**
+     * Scratch masks the move masks read both players' pieces into, so computing a mask doesn't allocate.
+     */
+    private final long[][] maskScratch = new long[BoardMasks.SCRATCH_MASKS][SQUARE_MASK_WORDS];
+
+    /**
+     * The steps of the capture being made by makeMove, as found by getMoveSteps.
+     */
+    private final int[] moveSteps = new int[BOARD_MAX_SIZE * BOARD_MAX_SIZE / 2];
+
+    /**
+     * Sets the players of a new board. Every subclass constructor calls this before placing any piece, so the
+     * position key sees the right kind of piece from the first placement.
+     *
+     * @param aPlayerOne player one's piece character
+     * @param aPlayerTwo player two's piece character
+     *
+     * @pre aPlayerOne and aPlayerTwo are different lowercase letters
+     *
+     * @post playerOne = aPlayerOne AND playerTwo = aPlayerTwo AND [player one is to move]
+     */
+    protected AbsCheckerBoard(char aPlayerOne, char aPlayerTwo) {
+        if (aPlayerOne == aPlayerTwo || !Character.isLowerCase(aPlayerOne) || !Character.isLowerCase(aPlayerTwo)) {
+            throw new IllegalArgumentException("Invalid player characters.");
+        }
+        playerOne = aPlayerOne;
+        playerTwo = aPlayerTwo;
+    }
+
     @Override
         public String toString(){
             StringBuilder sb = new StringBuilder();
@@ -37,7 +129,7 @@ package cpsc2150.extendedCheckers.models;
                 sb.append("|" + row);
             }
             for (int col = 0; col < getColNum(); col++) {
-                BoardPosition pos = new BoardPosition(row, col);
+                BoardPosition pos = BoardPosition.of(row, col);
                 sb.append("|");
                 sb.append(whatsAtPos(pos)).append(" ");
             }
@@ -45,5 +137,349 @@ package cpsc2150.extendedCheckers.models;
         }
         return sb.toString();
     }
-}
 
+    /**
+     * Makes a move and records what it changed so unmakeMove can restore the board.
+     *
+     * @param move a packed move, as listed by generateMoves
+     *
+     * @pre move is a legal move for the piece on its starting square
+     *
+     * @post makeMove = [the piece is moved to the move's last square and crowned if the move promotes it, every
+     *       captured piece is removed] AND [the move, the moving piece and the captured pieces are pushed on the undo
+     *       stack]
+     */
+    @Override
+    public void makeMove(int move) {
+        int dimension = getRowNum();
+        int captures = PackedMove.getCaptureCount(move);
+        if (undoMoveCount == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, undoMoves.length * 2);
+        }
+        if (undoPieceCount + captures + 1 > undoPieces.length) {
+            int length = Math.max(undoPieces.length * 2, undoPieceCount + captures + 1);
+            undoPieces = Arrays.copyOf(undoPieces, length);
+            undoSquares = Arrays.copyOf(undoSquares, length);
+        }
+
+        BoardPosition from = squarePosition(PackedMove.getFrom(move), dimension);
+        BoardPosition to = squarePosition(PackedMove.getTo(move), dimension);
+        char piece = whatsAtPos(from);
+        undoMoves[undoMoveCount++] = move;
+        undoSquares[undoPieceCount] = PackedMove.getFrom(move);
+        undoPieces[undoPieceCount++] = piece;
+
+        if (captures > 0) {
+            getMoveSteps(move, moveSteps);
+        }
+        int row = from.getRow();
+        int col = from.getColumn();
+        for (int capture = 0; capture < captures; capture++) {
+            int direction = moveSteps[capture];
+            BoardPosition captured = BoardPosition.of(row + PackedMove.rowStep(direction),
+                    col + PackedMove.colStep(direction));
+            row += 2 * PackedMove.rowStep(direction);
+            col += 2 * PackedMove.colStep(direction);
+            undoSquares[undoPieceCount] = PackedMove.squareIndex(captured.getRow(), captured.getColumn(), dimension);
+            undoPieces[undoPieceCount++] = whatsAtPos(captured);
+            placePiece(captured, EMPTY_POS);
+        }
+        placePiece(from, EMPTY_POS);
+        placePiece(to, PackedMove.isPromotion(move) ? Character.toUpperCase(piece) : piece);
+        switchPlayerToMove();
+    }
+
+    /**
+     * Undoes the last move made by makeMove that has not been undone yet.
+     *
+     * @pre a move made by makeMove has not been undone yet
+     *
+     * @post unmakeMove = [the move that was undone] AND [the board is exactly as it was before that move was made]
+     *       AND [the move is popped off the undo stack]
+     *
+     * @return The packed move that was undone.
+     */
+    @Override
+    public int unmakeMove() {
+        if (undoMoveCount == 0) {
+            throw new IllegalStateException("No move to undo.");
+        }
+        int dimension = getRowNum();
+        int move = undoMoves[--undoMoveCount];
+        int captures = PackedMove.getCaptureCount(move);
+
+        placePiece(squarePosition(PackedMove.getTo(move), dimension), EMPTY_POS);
+        for (int capture = 0; capture < captures; capture++) {
+            undoPieceCount--;
+            placePiece(squarePosition(undoSquares[undoPieceCount], dimension), undoPieces[undoPieceCount]);
+        }
+        undoPieceCount--;
+        placePiece(squarePosition(undoSquares[undoPieceCount], dimension), undoPieces[undoPieceCount]);
+        switchPlayerToMove();
+        return move;
+    }
+
+    /**
+     * Gets the number of moves that can still be undone.
+     *
+     * @pre None.
+     *
+     * @post getUndoCount = [the number of moves on the undo stack] AND self = #self
+     *
+     * @return The number of moves that unmakeMove can undo.
+     */
+    @Override
+    public int getUndoCount() {
+        return undoMoveCount;
+    }
+
+    /**
+     * Gets the Zobrist key of the position.
+     *
+     * @pre None.
+     *
+     * @post getPositionKey = positionKey AND self = #self
+     *
+     * @return The 64 bit key of the pieces on the board and the player to move.
+     */
+    @Override
+    public long getPositionKey() {
+        return positionKey;
+    }
+
+    @Override
+    public final char getPlayerOne() {
+        return playerOne;
+    }
+
+    @Override
+    public final char getPlayerTwo() {
+        return playerTwo;
+    }
+
+    @Override
+    public char getPlayerToMove() {
+        return playerTwoToMove ? playerTwo : playerOne;
+    }
+
+    @Override
+    public void setPlayerToMove(char player) {
+        if ((Character.toLowerCase(player) == playerTwo) != playerTwoToMove) {
+            switchPlayerToMove();
+        }
+    }
+
+    private void switchPlayerToMove() {
+        playerTwoToMove = !playerTwoToMove;
+        positionKey ^= ZobristKeys.SIDE_KEY;
+    }
+
+    /**
+     * Updates the position key after the piece on a square changes. Every subclass calls this each time it changes
+     * what is on a square.
+     *
+     * @param row the row of the square
+     * @param col the column of the square
+     * @param oldPiece the character that was on the square
+     * @param newPiece the character now on the square
+     *
+     * @pre (row, col) is on the board
+     *
+     * @post positionKey = [#positionKey with the key of oldPiece on the square XORed out and the key of newPiece XORed in]
+     *       AND [the mobility of the square's piece and of every piece that could step or jump onto or over the square
+     *       is counted again]
+     */
+    protected final void pieceChanged(int row, int col, char oldPiece, char newPiece) {
+        positionKey ^= ZobristKeys.pieceKey(pieceKind(oldPiece), row, col)
+                ^ ZobristKeys.pieceKey(pieceKind(newPiece), row, col);
+        updateMobility(row, col, newPiece);
+    }
+
+    /**
+     * Gets the number of ways a player's pieces can move, counting each direction a piece can step or jump in once.
+     * Whether a capture forces another piece to move isn't considered. The count is kept up to date as pieces
+     * change, so this takes constant time.
+     *
+     * @param player the player's piece character
+     *
+     * @pre None
+     *
+     * @post getMobility = [the number of pairs of one of player's pieces and a direction it may move in where the
+     *       adjacent square is empty, or holds an opponent's piece with an empty square beyond it, or 0 if player
+     *       isn't a player of the board] AND self = #self
+     *
+     * @return The player's mobility.
+     */
+    public int getMobility(char player) {
+        char man = Character.toLowerCase(player);
+        if (man == playerOne) {
+            return mobility[0];
+        }
+        return man == playerTwo ? mobility[1] : 0;
+    }
+
+    /**
+     * Checks if a player can move, in constant time from the mobility count.
+     *
+     * @param player the player's piece character
+     *
+     * @pre None
+     *
+     * @post hasLegalMove = [getMobility(player) > 0] AND self = #self
+     *
+     * @return true if player has a legal move.
+     */
+    @Override
+    public boolean hasLegalMove(char player) {
+        return getMobility(player) > 0;
+    }
+
+    @Override
+    public void getMovablePieces(char player, long[] mask) {
+        BoardMasks.compute(BoardMasks.MOVABLE, this, player, maskScratch, mask);
+    }
+
+    @Override
+    public void getCapturingPieces(char player, long[] mask) {
+        BoardMasks.compute(BoardMasks.CAPTURING, this, player, maskScratch, mask);
+    }
+
+    @Override
+    public void getThreatenedPieces(char player, long[] mask) {
+        BoardMasks.compute(BoardMasks.THREATENED, this, player, maskScratch, mask);
+    }
+
+    /**
+     * Records the new piece on a square and counts again the mobility of every piece it can affect: its own, and that
+     * of the pieces next to it or two squares away, whose steps and jumps pass over or land on the square.
+     */
+    private void updateMobility(int row, int col, char newPiece) {
+        if (neighbors == null) {
+            neighbors = NeighborTable.of(getRowNum());
+            squareKinds = new byte[neighbors.squareCount()];
+            squareMobility = new byte[neighbors.squareCount()];
+        }
+        int square = neighbors.square(row, col);
+        if (square == NeighborTable.OFF_BOARD) {
+            return;
+        }
+
+        int oldKind = squareKinds[square] - 1;
+        if (oldKind != ZobristKeys.NO_KIND) {
+            mobility[side(oldKind)] -= squareMobility[square];
+            squareMobility[square] = 0;
+        }
+        squareKinds[square] = (byte) (pieceKind(newPiece) + 1);
+
+        countMobility(square);
+        for (int dir = 0; dir < 4; dir++) {
+            int next = neighbors.neighbor(square, dir);
+            if (next != NeighborTable.OFF_BOARD) {
+                countMobility(next);
+                int landing = neighbors.jump(square, dir);
+                if (landing != NeighborTable.OFF_BOARD) {
+                    countMobility(landing);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts again the directions the piece on a square can step or jump in, if there is one.
+     */
+    private void countMobility(int square) {
+        int kind = squareKinds[square] - 1;
+        if (kind == ZobristKeys.NO_KIND) {
+            return;
+        }
+        int side = side(kind);
+        boolean king = kind == ZobristKeys.PLAYER_ONE_KING || kind == ZobristKeys.PLAYER_TWO_KING;
+        int count = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            // Player one's men move down the board, towards SE and SW, and player two's men up it
+            boolean movesDown = dir == DirectionEnum.SE.ordinal() || dir == DirectionEnum.SW.ordinal();
+            int next = neighbors.neighbor(square, dir);
+            if (next == NeighborTable.OFF_BOARD || (!king && movesDown != (side == 0))) {
+                continue;
+            }
+            int nextKind = squareKinds[next] - 1;
+            if (nextKind == ZobristKeys.NO_KIND) {
+                count++;
+            }
+            else if (side(nextKind) != side) {
+                int landing = neighbors.jump(square, dir);
+                if (landing != NeighborTable.OFF_BOARD && squareKinds[landing] == 0) {
+                    count++;
+                }
+            }
+        }
+        mobility[side] += count - squareMobility[square];
+        squareMobility[square] = (byte) count;
+    }
+
+    private static int side(int kind) {
+        return kind == ZobristKeys.PLAYER_ONE_MAN || kind == ZobristKeys.PLAYER_ONE_KING ? 0 : 1;
+    }
+
+    private int pieceKind(char piece) {
+        if (piece == playerOne) {
+            return ZobristKeys.PLAYER_ONE_MAN;
+        }
+        if (piece == playerTwo) {
+            return ZobristKeys.PLAYER_TWO_MAN;
+        }
+        if (Character.isUpperCase(piece) && Character.toLowerCase(piece) == playerOne) {
+            return ZobristKeys.PLAYER_ONE_KING;
+        }
+        if (Character.isUpperCase(piece) && Character.toLowerCase(piece) == playerTwo) {
+            return ZobristKeys.PLAYER_TWO_KING;
+        }
+        return ZobristKeys.NO_KIND;
+    }
+
+    /**
+     * Checks if another board holds the same position. Boards with different keys are told apart without looking at
+     * their squares.
+     *
+     * @param obj The object to compare with.
+     *
+     * @pre None.
+     *
+     * @post equals = [true if obj is an ICheckerBoard of the same size with the same player to move and the same
+     *       piece on every playable square] AND self = #self
+     *
+     * @return true if obj holds the same position, false otherwise.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ICheckerBoard)) {
+            return false;
+        }
+        ICheckerBoard other = (ICheckerBoard) obj;
+        if (other.getPositionKey() != positionKey || other.getRowNum() != getRowNum()
+                || other.getPlayerToMove() != getPlayerToMove()) {
+            return false;
+        }
+        for (int row = 0; row < getRowNum(); row++) {
+            for (int col = row % 2; col < getColNum(); col += 2) {
+                BoardPosition pos = BoardPosition.of(row, col);
+                if (whatsAtPos(pos) != other.whatsAtPos(pos)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(positionKey);
+    }
+
+    private static BoardPosition squarePosition(int square, int dimension) {
+        return BoardPosition.of(PackedMove.squareRow(square, dimension), PackedMove.squareColumn(square, dimension));
+    }
+}
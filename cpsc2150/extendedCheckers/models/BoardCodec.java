@@ -0,0 +1,197 @@
+package cpsc2150.extendedCheckers.models;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes a board's position into a few bytes and reads it back, for save files and for sending positions between
+ * processes. Only the playable squares are written, so a position fits in 14 bytes on an 8x8 board and in 50 bytes on
+ * a 16x16 one.
+ *
+ * An encoded position is laid out as:
+ *  byte 0    the number of rows on the board
+ *  byte 1    bit 0 is set if player two is to move, the other bits are 0
+ *  bytes 2-  three bits per playable square, in the order of PackedMove square indexes, starting at the lowest bit of
+ *            each byte. A square is EMPTY_CODE or one of the piece codes below. The bits left over in the last byte
+ *            are 0.
+ *
+ * The codes name players by their order, not by their characters, so a position can be read into a board whose
+ * players use other characters.
+ */
+public final class BoardCodec {
+    public static final int EMPTY_CODE = 0;
+    public static final int PLAYER_ONE_MAN_CODE = 1;
+    public static final int PLAYER_ONE_KING_CODE = 2;
+    public static final int PLAYER_TWO_MAN_CODE = 3;
+    public static final int PLAYER_TWO_KING_CODE = 4;
+
+    private static final int HEADER_SIZE = 2;
+    private static final int CODE_BITS = 3;
+    private static final int CODE_MASK = (1 << CODE_BITS) - 1;
+    private static final int PLAYER_TWO_TO_MOVE = 1;
+
+    private BoardCodec() {
+    }
+
+    /**
+     * Gets the number of bytes a position of a board size is written in.
+     *
+     * @param dimension the number of rows on the board
+     *
+     * @pre BOARD_MIN_SIZE <= dimension <= BOARD_MAX_SIZE AND dimension is even
+     *
+     * @post encodedSize = 2 + [the bytes holding 3 bits for each of the dimension * dimension / 2 playable squares]
+     *
+     * @return The size of an encoded position.
+     */
+    public static int encodedSize(int dimension) {
+        return HEADER_SIZE + (dimension * dimension / 2 * CODE_BITS + 7) / 8;
+    }
+
+    /**
+     * Writes a board's position at the buffer's position and moves the buffer's position past it.
+     *
+     * @param board the board to write
+     * @param out the buffer to write into
+     *
+     * @pre out.remaining() >= encodedSize(board.getRowNum())
+     *
+     * @post [the encoded position is written into out] AND board = #board
+     *
+     * @throws IllegalArgumentException if out has too little room left
+     */
+    public static void encode(ICheckerBoard board, ByteBuffer out) {
+        int dimension = board.getRowNum();
+        if (out.remaining() < encodedSize(dimension)) {
+            throw new IllegalArgumentException("Buffer too small for a " + dimension + "x" + dimension + " board.");
+        }
+        char playerOne = board.getPlayerOne();
+        char playerOneKing = Character.toUpperCase(playerOne);
+        char playerTwo = board.getPlayerTwo();
+        char playerTwoKing = Character.toUpperCase(playerTwo);
+
+        out.put((byte) dimension);
+        out.put((byte) (board.getPlayerToMove() == playerTwo ? PLAYER_TWO_TO_MOVE : 0));
+        int bits = 0;
+        int bitCount = 0;
+        for (int row = 0; row < dimension; row++) {
+            for (int col = row % 2; col < dimension; col += 2) {
+                char piece = board.whatsAtPos(BoardPosition.of(row, col));
+                int code;
+                if (piece == playerOne) {
+                    code = PLAYER_ONE_MAN_CODE;
+                } else if (piece == playerOneKing) {
+                    code = PLAYER_ONE_KING_CODE;
+                } else if (piece == playerTwo) {
+                    code = PLAYER_TWO_MAN_CODE;
+                } else if (piece == playerTwoKing) {
+                    code = PLAYER_TWO_KING_CODE;
+                } else {
+                    code = EMPTY_CODE;
+                }
+                bits |= code << bitCount;
+                bitCount += CODE_BITS;
+                if (bitCount >= 8) {
+                    out.put((byte) bits);
+                    bits >>>= 8;
+                    bitCount -= 8;
+                }
+            }
+        }
+        if (bitCount > 0) {
+            out.put((byte) bits);
+        }
+    }
+
+    /**
+     * Reads the board size of the encoded position at the buffer's position, so a board of the right size can be
+     * made before decoding into it.
+     *
+     * @param in the buffer holding an encoded position
+     *
+     * @pre in.remaining() >= 1
+     *
+     * @post peekDimension = [the number of rows of the encoded board] AND in = #in
+     *
+     * @return The board size of the encoded position.
+     */
+    public static int peekDimension(ByteBuffer in) {
+        return in.get(in.position()) & 0xFF;
+    }
+
+    /**
+     * Reads an encoded position at the buffer's position into a board, replacing the board's position, and moves the
+     * buffer's position past it. Only the squares that differ are changed and nothing is allocated. The board's undo
+     * stack is left as it is, so moves made before decoding can't be unmade after it.
+     *
+     * @param in the buffer holding an encoded position
+     * @param board the board to read the position into
+     *
+     * @pre in holds a position encoded by encode at its position
+     *
+     * @post [every playable square of board holds the piece of the encoded position] AND
+     *       board.getPlayerToMove() = [the encoded player to move]
+     *
+     * @throws IllegalArgumentException if the position doesn't fit the board or isn't a valid encoding, in which case
+     *         neither board nor in is changed
+     */
+    public static void decode(ByteBuffer in, ICheckerBoard board) {
+        int dimension = board.getRowNum();
+        int size = encodedSize(dimension);
+        int start = in.position();
+        if (in.remaining() < HEADER_SIZE || peekDimension(in) != dimension) {
+            throw new IllegalArgumentException("Encoded position isn't for a " + dimension + "x" + dimension + " board.");
+        }
+        if (in.remaining() < size || (in.get(start + 1) & ~PLAYER_TWO_TO_MOVE) != 0) {
+            throw new IllegalArgumentException("Invalid encoded position.");
+        }
+        int squares = dimension * dimension / 2;
+        for (int square = 0; square < squares; square++) {
+            if (codeAt(in, start, square) > PLAYER_TWO_KING_CODE) {
+                throw new IllegalArgumentException("Invalid encoded position.");
+            }
+        }
+
+        char playerOne = board.getPlayerOne();
+        char playerTwo = board.getPlayerTwo();
+        for (int row = 0, square = 0; row < dimension; row++) {
+            for (int col = row % 2; col < dimension; col += 2, square++) {
+                char piece;
+                switch (codeAt(in, start, square)) {
+                    case PLAYER_ONE_MAN_CODE:
+                        piece = playerOne;
+                        break;
+                    case PLAYER_ONE_KING_CODE:
+                        piece = Character.toUpperCase(playerOne);
+                        break;
+                    case PLAYER_TWO_MAN_CODE:
+                        piece = playerTwo;
+                        break;
+                    case PLAYER_TWO_KING_CODE:
+                        piece = Character.toUpperCase(playerTwo);
+                        break;
+                    default:
+                        piece = ICheckerBoard.EMPTY_POS;
+                }
+                BoardPosition pos = BoardPosition.of(row, col);
+                if (board.whatsAtPos(pos) != piece) {
+                    board.placePiece(pos, piece);
+                }
+            }
+        }
+        board.setPlayerToMove((in.get(start + 1) & PLAYER_TWO_TO_MOVE) != 0 ? playerTwo : playerOne);
+        in.position(start + size);
+    }
+
+    /**
+     * Reads the code of one square without moving the buffer's position. A code may straddle two bytes.
+     */
+    private static int codeAt(ByteBuffer in, int start, int square) {
+        int bit = square * CODE_BITS;
+        int index = start + HEADER_SIZE + (bit >>> 3);
+        int bits = in.get(index) & 0xFF;
+        if ((bit & 7) + CODE_BITS > 8) {
+            bits |= (in.get(index + 1) & 0xFF) << 8;
+        }
+        return (bits >>> (bit & 7)) & CODE_MASK;
+    }
+}
@@ -0,0 +1,132 @@
+package cpsc2150.extendedCheckers.models;
+
+import cpsc2150.extendedCheckers.util.DirectionEnum;
+
+/**
+ * Computes masks of movable, capturing and threatened pieces from the masks of both players' men and kings. Every
+ * mask is moved along the four diagonals with shifts, using the neighbor table's index differences and edge masks,
+ * so the work depends on the number of words in a mask and not on the number of pieces.
+ *
+ * A man moves and jumps only forward: down the board for player one and up the board for player two. Kings move in
+ * every direction.
+ */
+final class BoardMasks {
+    /**
+     * The masks compute can make.
+     */
+    static final int MOVABLE = 0;
+    static final int CAPTURING = 1;
+    static final int THREATENED = 2;
+
+    /**
+     * The number of scratch masks compute needs to read a board's pieces into.
+     */
+    static final int SCRATCH_MASKS = 4;
+
+    private static final int DIRECTION_COUNT = 4;
+
+    private BoardMasks() {
+    }
+
+    /**
+     * Computes a mask of a player's pieces on a board, reading both players' pieces into scratch masks with
+     * getPieceMasks.
+     *
+     * @param kind MOVABLE, CAPTURING or THREATENED
+     * @param board the board to read
+     * @param player the player's piece character
+     * @param scratch SCRATCH_MASKS masks for the player's men and kings and the opponent's men and kings
+     * @param out the mask the result is written into
+     *
+     * @pre scratch.length >= SCRATCH_MASKS AND [out and every scratch mask have MASK_WORDS words]
+     *
+     * @post out = [the mask of kind for player, or empty if player isn't a player of board] AND board = #board
+     */
+    static void compute(int kind, ICheckerBoard board, char player, long[][] scratch, long[] out) {
+        char man = Character.toLowerCase(player);
+        if (man != board.getPlayerOne() && man != board.getPlayerTwo()) {
+            for (int word = 0; word < NeighborTable.MASK_WORDS; word++) {
+                out[word] = 0;
+            }
+            return;
+        }
+        board.getPieceMasks(man, scratch[0], scratch[1]);
+        board.getPieceMasks(board.getOpponent(man), scratch[2], scratch[3]);
+        compute(kind, NeighborTable.of(board.getRowNum()), man == board.getPlayerOne(), scratch[0], scratch[1],
+                scratch[2], scratch[3], out);
+    }
+
+    /**
+     * Computes a mask of a player's pieces.
+     *
+     * @param kind MOVABLE, CAPTURING or THREATENED
+     * @param table the neighbor table of the board's size
+     * @param playerOne true if the player is player one
+     * @param men the player's men
+     * @param kings the player's kings
+     * @param opponentMen the opponent's men
+     * @param opponentKings the opponent's kings
+     * @param out the mask the result is written into
+     *
+     * @pre [every mask has MASK_WORDS words] AND [no square is in more than one of the piece masks]
+     *
+     * @post out = [the squares of the player's pieces that can move, that can jump, or that the opponent can jump,
+     *       by kind]
+     */
+    static void compute(int kind, NeighborTable table, boolean playerOne, long[] men, long[] kings,
+                        long[] opponentMen, long[] opponentKings, long[] out) {
+        long[] board = table.boardMask();
+        long own0 = men[0] | kings[0];
+        long own1 = men[1] | kings[1];
+        long opponent0 = opponentMen[0] | opponentKings[0];
+        long opponent1 = opponentMen[1] | opponentKings[1];
+        long empty0 = board[0] & ~(own0 | opponent0);
+        long empty1 = board[1] & ~(own1 | opponent1);
+
+        if (kind == THREATENED) {
+            long threatened0 = 0;
+            long threatened1 = 0;
+            for (int dir = 0; dir < DIRECTION_COUNT; dir++) {
+                long movers0 = movers(opponentMen, opponentKings, 0, dir, !playerOne);
+                long movers1 = movers(opponentMen, opponentKings, 1, dir, !playerOne);
+                long jumpers0 = movers0 & table.nextWord(own0, own1, 0, dir) & table.landingWord(empty0, empty1, 0, dir);
+                long jumpers1 = movers1 & table.nextWord(own0, own1, 1, dir) & table.landingWord(empty0, empty1, 1, dir);
+                // The jumped piece is the jumper's neighbor, so it is the square whose neighbor the other way jumps
+                int back = opposite(dir);
+                threatened0 |= table.nextWord(jumpers0, jumpers1, 0, back);
+                threatened1 |= table.nextWord(jumpers0, jumpers1, 1, back);
+            }
+            out[0] = threatened0 & own0;
+            out[1] = threatened1 & own1;
+            return;
+        }
+
+        for (int word = 0; word < NeighborTable.MASK_WORDS; word++) {
+            long result = 0;
+            for (int dir = 0; dir < DIRECTION_COUNT; dir++) {
+                long movers = movers(men, kings, word, dir, playerOne);
+                result |= movers & table.nextWord(opponent0, opponent1, word, dir)
+                        & table.landingWord(empty0, empty1, word, dir);
+                if (kind == MOVABLE) {
+                    result |= movers & table.nextWord(empty0, empty1, word, dir);
+                }
+            }
+            out[word] = result;
+        }
+    }
+
+    /**
+     * Gets one word of the mask of a player's pieces that may move in a direction.
+     */
+    private static long movers(long[] men, long[] kings, int word, int dir, boolean playerOne) {
+        boolean movesDown = dir == DirectionEnum.SE.ordinal() || dir == DirectionEnum.SW.ordinal();
+        return movesDown == playerOne ? men[word] | kings[word] : kings[word];
+    }
+
+    /**
+     * Gets the direction opposite a direction: NE and SW, and NW and SE.
+     */
+    private static int opposite(int dir) {
+        return DIRECTION_COUNT - 1 - dir;
+    }
+}
@@ -5,17 +5,41 @@ package cpsc2150.extendedCheckers.models;
  */
 public class BoardPosition{
     public static final int doubleValue = 2;
-    
-    
+
+    /**
+     * The smallest row or column held in the shared table. Two below zero so the offsets of a jump off the top or
+     * left edge are also covered.
+     */
+    private static final int TABLE_MIN = -2;
+
+    /**
+     * The number of rows and columns held in the shared table, reaching two past the edge of the largest board.
+     */
+    private static final int TABLE_SIZE = ICheckerBoard.BOARD_MAX_SIZE + 2 - TABLE_MIN;
+
+    /**
+     * Shared BoardPositions for every square of the largest board, its surrounding border and the direction offsets,
+     * indexed by [row - TABLE_MIN][column - TABLE_MIN].
+     */
+    private static final BoardPosition[][] POSITIONS = new BoardPosition[TABLE_SIZE][TABLE_SIZE];
+
+    static {
+        for (int row = 0; row < TABLE_SIZE; row++) {
+            for (int col = 0; col < TABLE_SIZE; col++) {
+                POSITIONS[row][col] = new BoardPosition(row + TABLE_MIN, col + TABLE_MIN);
+            }
+        }
+    }
+
     /**
      * Row component of the BoardPosition
      */
-    private int row;
+    private final int row;
 
     /**
      * Column component of the BoardPosition
      */
-    private int column;
+    private final int column;
 
     /**
      * Constructor for the BoardPosition object. This should set both the row and column instance variables to their default size.
@@ -31,6 +55,27 @@ public class BoardPosition{
         this.column = aCol;
     }
 
+    /**
+     * Gets the BoardPosition for a row and column. Positions on or next to a board of up to BOARD_MAX_SIZE are shared
+     * instances, so no new object is created for them.
+     *
+     * @param aRow the row of the BoardPosition
+     * @param aCol the column of the BoardPosition
+     *
+     * @return A BoardPosition with the given row and column.
+     *
+     * @pre none.
+     * @post of = [a BoardPosition with row = aRow AND column = aCol, shared if it lies inside the table]
+     */
+    public static BoardPosition of(int aRow, int aCol) {
+        int tableRow = aRow - TABLE_MIN;
+        int tableCol = aCol - TABLE_MIN;
+        if (tableRow >= 0 && tableRow < TABLE_SIZE && tableCol >= 0 && tableCol < TABLE_SIZE) {
+            return POSITIONS[tableRow][tableCol];
+        }
+        return new BoardPosition(aRow, aCol);
+    }
+
     /**
     * Gets the row value of BoardPosition.
     *
@@ -74,7 +119,7 @@ public class BoardPosition{
     public static BoardPosition add(BoardPosition posOne, BoardPosition posTwo) {
         int newRow = posOne.getRow() + posTwo.getRow();
         int newCol = posOne.getColumn() + posTwo.getColumn();
-        return new BoardPosition(newRow, newCol);
+        return of(newRow, newCol);
 
     }
     
@@ -93,7 +138,7 @@ public class BoardPosition{
     public static BoardPosition doubleBoardPosition(BoardPosition pos) {
         int newRow = pos.getRow() * doubleValue;
         int newCol = pos.getColumn() * doubleValue;
-        return new BoardPosition(newRow, newCol);
+        return of(newRow, newCol);
     }
 
     /**
@@ -127,6 +172,7 @@ public class BoardPosition{
      * @post equals = [TRUE if this BoardPosition == Object obj, two BoardPositions are equal if row and column values are the same.]
      * AND row = #row AND column = #column
      */
+    @Override
     public boolean equals(Object obj) {
         if (this == obj){
             return true;
@@ -138,6 +184,21 @@ public class BoardPosition{
         return row == other.row && column == other.column;
     }
 
+    /**
+     * Returns a hash code for the BoardPosition that is consistent with equals.
+     *
+     * @pre none.
+     *
+     * @return A hash code built from the row and column.
+     *
+     * @post hashCode = [the same value for any two BoardPositions with the same row and column]
+     * AND row = #row AND column = #column
+     */
+    @Override
+    public int hashCode() {
+        return 31 * row + column;
+    }
+
     /**
      * Returns a String representation of the BoardPosition.
      *
@@ -148,6 +209,7 @@ public class BoardPosition{
      * @post BoardPosition = [A string representing the current state of BoardPosition in "row, column" format without changing the state.]
      * AND row = #row AND column = #column
      */
+    @Override
     public String toString() {
         return row + "," + column;
     }
@@ -29,11 +29,19 @@ public class CheckerBoard extends AbsCheckerBoard{
      */
     private char[][] board;
 
+
     /**
-     * A HashMap, with a Character key and an Integer value, that is used to map a player's char to the number of
-     * tokens that player still has left on the board.
+     * The number of tokens, kings included, that each player still has left on the board. They are kept up to date
+     * by placePiece, which every move, jump and crowning goes through.
      */
-    private HashMap<Character, Integer> pieceCount;
+    private int playerOneCount;
+    private int playerTwoCount;
+
+    /**
+     * The number of kings that each player has on the board, kept up to date by placePiece.
+     */
+    private int playerOneKings;
+    private int playerTwoKings;
 
     /**
      * A HashMap, with a Character key and an ArrayList of DirectionEnums value, used to map a player (and its king
@@ -53,7 +61,7 @@ public class CheckerBoard extends AbsCheckerBoard{
      * Each player starts with [@value STARTING_COUNT] pieces.
      * Player 1 is represented by [@value PLAYER_ONE] and starts at the top of the board.
      * Player 2 is represented by [@value PLAYER_TWO] and start at the bottom of the board.
-     * [@value pieceCount] maps each players char to the remaining tokens they still have left.
+     * [@value playerOneCount] and [@value playerTwoCount] count the remaining tokens each player still has left.
      * The board positions that dont have a piece are initalized with [@value EMPTY_POS] that represents an open
      * playable position or [@value BLACK_TILE] that represents black tiles.
      * [@value viableDirections] maps each players viable moves. Player 1 is at the top so they can only move
@@ -61,21 +69,34 @@ public class CheckerBoard extends AbsCheckerBoard{
      */
 
     public CheckerBoard(int aDimension) {
+        this(aDimension, CheckersFE.getPlayerOne(), CheckersFE.getPlayerTwo());
+    }
+
+    /**
+     * Constructs a new CheckerBoard object for two players with the given piece characters
+     *
+     * @param aDimension is the dimension of the board
+     * @param aPlayerOne is player one's piece character
+     * @param aPlayerTwo is player two's piece character
+     *
+     * @pre aPlayerOne and aPlayerTwo are different lowercase letters
+     *
+     * @post [as for CheckerBoard(aDimension), with player 1 represented by aPlayerOne and player 2 by aPlayerTwo]
+     */
+    public CheckerBoard(int aDimension, char aPlayerOne, char aPlayerTwo) {
+        super(aPlayerOne, aPlayerTwo);
 
         int rowsPerPlayer = (aDimension - 2) / 2;
         int piecesPerRow = aDimension / 2;
         int STARTING_COUNT = rowsPerPlayer * piecesPerRow;
 
         board = new char[aDimension][aDimension];
-        pieceCount = new HashMap<>();
-        pieceCount.put(CheckersFE.getPlayerOne(), STARTING_COUNT);
-        pieceCount.put(CheckersFE.getPlayerTwo(), STARTING_COUNT);
     
         viableDirections = new HashMap<>();
-        viableDirections.put(CheckersFE.getPlayerOne(), new ArrayList<>());
-        viableDirections.put(Character.toUpperCase(CheckersFE.getPlayerOne()), new ArrayList<>());
-        viableDirections.put(CheckersFE.getPlayerTwo(), new ArrayList<>());
-        viableDirections.put(Character.toUpperCase(CheckersFE.getPlayerTwo()), new ArrayList<>());
+        viableDirections.put(getPlayerOne(), new ArrayList<>());
+        viableDirections.put(Character.toUpperCase(getPlayerOne()), new ArrayList<>());
+        viableDirections.put(getPlayerTwo(), new ArrayList<>());
+        viableDirections.put(Character.toUpperCase(getPlayerTwo()), new ArrayList<>());
 
         if (aDimension < BOARD_MIN_SIZE || aDimension > BOARD_MAX_SIZE || aDimension % 2 != 0) {
             throw new IllegalArgumentException("Invalid board size.");
@@ -96,8 +117,7 @@ public class CheckerBoard extends AbsCheckerBoard{
         for (int row = 0; row < rowsNeeded && piecesPlaced < STARTING_COUNT; row++) {
             for (int col = 0; col < aDimension; col++) {
                 if ((row + col) % 2 == 0 && board[row][col] == EMPTY_POS) {
-                    placePiece(new BoardPosition(row, col), CheckersFE.getPlayerOne());
-                    pieceCount.put(CheckersFE.getPlayerOne(), pieceCount.get(CheckersFE.getPlayerOne()) + ADD_ONE);
+                    placePiece(BoardPosition.of(row, col), getPlayerOne());
                     piecesPlaced++;
                 }
             }
@@ -107,17 +127,16 @@ public class CheckerBoard extends AbsCheckerBoard{
         for (int row = aDimension - 1; row >= aDimension - rowsNeeded && piecesPlaced < STARTING_COUNT; row--) {
             for (int col = 0; col < aDimension; col++) {
                 if ((row + col) % 2 == 0 && board[row][col] == EMPTY_POS) {
-                    placePiece(new BoardPosition(row, col), CheckersFE.getPlayerTwo());
-                    pieceCount.put(CheckersFE.getPlayerTwo(), pieceCount.get(CheckersFE.getPlayerTwo()) + ADD_ONE);
+                    placePiece(BoardPosition.of(row, col), getPlayerTwo());
                     piecesPlaced++;
                 }
             }
         }
     
-        addViableDirections(CheckersFE.getPlayerOne(), DirectionEnum.SE);
-        addViableDirections(CheckersFE.getPlayerOne(), DirectionEnum.SW);
-        addViableDirections(CheckersFE.getPlayerTwo(), DirectionEnum.NE);
-        addViableDirections(CheckersFE.getPlayerTwo(), DirectionEnum.NW);
+        addViableDirections(getPlayerOne(), DirectionEnum.SE);
+        addViableDirections(getPlayerOne(), DirectionEnum.SW);
+        addViableDirections(getPlayerTwo(), DirectionEnum.NE);
+        addViableDirections(getPlayerTwo(), DirectionEnum.NW);
     }
 
     /**
@@ -145,11 +164,80 @@ public class CheckerBoard extends AbsCheckerBoard{
      * @return The HashMap containg the amount of pieces on the baord.
      */
     public HashMap<Character, Integer> getPieceCounts() {
-        return new HashMap<>(pieceCount);
+        HashMap<Character, Integer> pieceCounts = new HashMap<>();
+        pieceCounts.put(getPlayerOne(), playerOneCount);
+        pieceCounts.put(getPlayerTwo(), playerTwoCount);
+        return pieceCounts;
+    }
+
+    @Override
+    public int getPieceCount(char player) {
+        if (Character.toLowerCase(player) == getPlayerOne()) {
+            return playerOneCount;
+        }
+        return Character.toLowerCase(player) == getPlayerTwo() ? playerTwoCount : 0;
+    }
+
+    @Override
+    public int getKingCount(char player) {
+        if (Character.toLowerCase(player) == getPlayerOne()) {
+            return playerOneKings;
+        }
+        return Character.toLowerCase(player) == getPlayerTwo() ? playerTwoKings : 0;
+    }
+
+    /**
+     * Checks to see if the player won the game using the piece counters.
+     *
+     * @param player as a Character to see whoever won.
+     *
+     * @pre player is one of the valid player characters.
+     *
+     * @post checkPlayerWin = [true if player has pieces and the opponent has none; false otherwise] AND board = #board
+     *       AND pieceCounts = #pieceCounts AND viableDirections = #viableDirections
+     *
+     * @return true if the player won the game, false otherwise.
+     */
+    @Override
+    public boolean checkPlayerWin(Character player) {
+        if (player == getPlayerOne()) {
+            return playerOneCount > 0 && playerTwoCount == 0;
+        }
+        return playerTwoCount > 0 && playerOneCount == 0;
     }
 
     public void placePiece(BoardPosition pos, char player) {
+        char replaced = board[pos.getRow()][pos.getColumn()];
         board[pos.getRow()][pos.getColumn()] = player;
+        pieceChanged(pos.getRow(), pos.getColumn(), replaced, player);
+        updateCounts(replaced, -1);
+        updateCounts(player, 1);
+    }
+
+    /**
+     * Adds to the counters of the player that owns a piece.
+     *
+     * @param piece the piece character being added to or removed from the board
+     * @param change 1 if the piece was added, -1 if it was removed
+     *
+     * @pre change is 1 or -1
+     *
+     * @post [the piece and king counters of piece's owner are changed by change, other characters change nothing]
+     */
+    private void updateCounts(char piece, int change) {
+        boolean king = Character.isUpperCase(piece);
+        if (Character.toLowerCase(piece) == getPlayerOne()) {
+            playerOneCount += change;
+            if (king) {
+                playerOneKings += change;
+            }
+        }
+        else if (Character.toLowerCase(piece) == getPlayerTwo()) {
+            playerTwoCount += change;
+            if (king) {
+                playerTwoKings += change;
+            }
+        }
     }
 
     public char whatsAtPos(BoardPosition pos) {
@@ -0,0 +1,598 @@
+package cpsc2150.extendedCheckers.models;
+
+import cpsc2150.extendedCheckers.util.DirectionEnum;
+import cpsc2150.extendedCheckers.util.PackedNeighborhood;
+import cpsc2150.extendedCheckers.views.CheckersFE;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+
+/**
+ * CheckerBoardBit implements the ICheckerBoard interface using bitmasks. Only the playable squares of the board are
+ * stored, one bit per square, in a mask for each player and a mask marking which pieces are kings. A board of
+ * BOARD_MAX_SIZE has 128 playable squares, so every mask is held in two longs.
+ *
+ * Playable squares are numbered row by row, so the square at (row, col) has the index row * (dimension / 2) + col / 2.
+ *
+ * @invariant a player's piece can never move onto a black tile
+ * @invariant a player's piece count can't go below 0
+ * @invariant a player's piece can never move out of bound of the board
+ * @invariant a square is never set in both playerOneMask and playerTwoMask
+ * @invariant a square set in kingMask is also set in playerOneMask or playerTwoMask
+ * @invariant when a player moves a piece, the original position of the piece is changed to an empty position
+ * @invariant when a player jumps a piece, the original position of both pieces is changed to an empty position
+ * @invariant a player can only move a piece to an empty position
+ */
+public class CheckerBoardBit extends AbsCheckerBoard {
+    /**
+     * The number of longs needed to hold one bit for every playable square of the largest board.
+     */
+    private static final int MASK_WORDS = (BOARD_MAX_SIZE * BOARD_MAX_SIZE / 2 + Long.SIZE - 1) / Long.SIZE;
+
+    /**
+     * The number of rows and columns on the board.
+     */
+    private final int dimension;
+
+    /**
+     * The number of playable squares in each row, used to turn a BoardPosition into a square index.
+     */
+    private final int squaresPerRow;
+
+    /**
+     * The neighbor and jump squares of every square, shared by every board of this size.
+     */
+    private final NeighborTable neighbors;
+
+    /**
+     * One bit for every playable square that holds one of player one's pieces.
+     */
+    private final long[] playerOneMask = new long[MASK_WORDS];
+
+    /**
+     * One bit for every playable square that holds one of player two's pieces.
+     */
+    private final long[] playerTwoMask = new long[MASK_WORDS];
+
+    /**
+     * One bit for every playable square that holds a kinged piece of either player.
+     */
+    private final long[] kingMask = new long[MASK_WORDS];
+
+
+    /**
+     * A HashMap, with a Character key and an ArrayList of DirectionEnums value, used to map a player (and its king
+     * representation) to the directions that player can viably move in.
+     */
+    private HashMap<Character, ArrayList<DirectionEnum>> viableDirections;
+
+    /**
+     * Constructs a new CheckerBoardBit object
+     *
+     * @param aDimension is the dimension of the board
+     *
+     * @pre None
+     *
+     * @post [A CheckerBoardBit object is constructed with a board of size aDimension x aDimension. Player 1's pieces
+     * fill the playable squares of the top rows and player 2's pieces fill the playable squares of the bottom rows,
+     * leaving two empty rows between them. viableDirections maps each player to their viable moves.]
+     */
+    public CheckerBoardBit(int aDimension) {
+        this(aDimension, CheckersFE.getPlayerOne(), CheckersFE.getPlayerTwo());
+    }
+
+    /**
+     * Constructs a new CheckerBoardBit object for two players with the given piece characters
+     *
+     * @param aDimension is the dimension of the board
+     * @param aPlayerOne is player one's piece character
+     * @param aPlayerTwo is player two's piece character
+     *
+     * @pre aPlayerOne and aPlayerTwo are different lowercase letters
+     *
+     * @post [as for CheckerBoardBit(aDimension), with player 1 represented by aPlayerOne and player 2 by aPlayerTwo]
+     */
+    public CheckerBoardBit(int aDimension, char aPlayerOne, char aPlayerTwo) {
+        super(aPlayerOne, aPlayerTwo);
+        if (aDimension < BOARD_MIN_SIZE || aDimension > BOARD_MAX_SIZE || aDimension % 2 != 0) {
+            throw new IllegalArgumentException("Invalid board size.");
+        }
+
+        dimension = aDimension;
+        squaresPerRow = aDimension / 2;
+        neighbors = NeighborTable.of(aDimension);
+
+        int rowsPerPlayer = (aDimension - 2) / 2;
+        for (int row = 0; row < rowsPerPlayer; row++) {
+            for (int col = row % 2; col < aDimension; col += 2) {
+                placePiece(BoardPosition.of(row, col), getPlayerOne());
+                placePiece(BoardPosition.of(aDimension - 1 - row, aDimension - 1 - col), getPlayerTwo());
+            }
+        }
+
+        viableDirections = new HashMap<>();
+        addViableDirections(getPlayerOne(), DirectionEnum.SE);
+        addViableDirections(getPlayerOne(), DirectionEnum.SW);
+        addViableDirections(getPlayerTwo(), DirectionEnum.NE);
+        addViableDirections(getPlayerTwo(), DirectionEnum.NW);
+    }
+
+    /**
+     * Returns the viableDirections HashMap
+     *
+     * @pre None
+     *
+     * @post getViableDirections = viableDirections AND self = #self
+     *
+     * @return A map where the keys are piece characters and the values are lists of
+     * viable directions for that piece.
+     */
+    @Override
+    public HashMap<Character, ArrayList<DirectionEnum>> getViableDirections() {
+        return viableDirections;
+    }
+
+    /**
+     * Counts the pieces each player has on the board
+     *
+     * @pre None
+     *
+     * @post getPieceCounts = [a new HashMap mapping each player to the number of set bits in their mask] AND self = #self
+     *
+     * @return The HashMap containing the amount of pieces each player has on the board.
+     */
+    @Override
+    public HashMap<Character, Integer> getPieceCounts() {
+        HashMap<Character, Integer> pieceCounts = new HashMap<>();
+        pieceCounts.put(getPlayerOne(), bitCount(playerOneMask));
+        pieceCounts.put(getPlayerTwo(), bitCount(playerTwoMask));
+        return pieceCounts;
+    }
+
+    @Override
+    public int getPieceCount(char player) {
+        if (Character.toLowerCase(player) == getPlayerOne()) {
+            return bitCount(playerOneMask);
+        }
+        return Character.toLowerCase(player) == getPlayerTwo() ? bitCount(playerTwoMask) : 0;
+    }
+
+    @Override
+    public int getKingCount(char player) {
+        if (Character.toLowerCase(player) == getPlayerOne()) {
+            return bitCountAnd(playerOneMask, kingMask);
+        }
+        return Character.toLowerCase(player) == getPlayerTwo() ? bitCountAnd(playerTwoMask, kingMask) : 0;
+    }
+
+    /**
+     * Places a piece on the board at the given position. Black tiles and positions off the board can't hold a piece,
+     * so placing on them does nothing. Any character other than a player's piece or king empties the position.
+     *
+     * @param pos the position to place the piece
+     * @param player the character of the piece to place
+     *
+     * @pre pos != null
+     *
+     * @post [the bit for pos is cleared in every mask and then set in the masks matching player]
+     */
+    @Override
+    public void placePiece(BoardPosition pos, char player) {
+        if (!isPlayable(pos.getRow(), pos.getColumn())) {
+            return;
+        }
+        int square = squareIndex(pos.getRow(), pos.getColumn());
+        char replaced = pieceAt(square);
+        clearSquare(square);
+
+        if (Character.toLowerCase(player) == getPlayerOne()) {
+            setBit(playerOneMask, square);
+        }
+        else if (Character.toLowerCase(player) == getPlayerTwo()) {
+            setBit(playerTwoMask, square);
+        }
+        if (Character.isUpperCase(player) && isOccupied(square)) {
+            setBit(kingMask, square);
+        }
+        pieceChanged(pos.getRow(), pos.getColumn(), replaced, pieceAt(square));
+    }
+
+    /**
+     * Gets the piece at the given position
+     *
+     * @param pos the position on the board to check.
+     *
+     * @pre pos != null
+     *
+     * @post whatsAtPos = [the piece at pos, BLACK_TILE if pos is not playable, or EMPTY_POS if pos is empty or off
+     *       the board] AND self = #self
+     *
+     * @return The character at the given position.
+     */
+    @Override
+    public char whatsAtPos(BoardPosition pos) {
+        int row = pos.getRow();
+        int col = pos.getColumn();
+        if (row < 0 || row >= dimension || col < 0 || col >= dimension) {
+            return EMPTY_POS;
+        }
+        if ((row + col) % 2 != 0) {
+            return BLACK_TILE;
+        }
+        return pieceAt(squareIndex(row, col));
+    }
+
+    /**
+     * Gets the number of rows on the board.
+     *
+     * @pre None.
+     *
+     * @post getRowNum = dimension AND self = #self
+     *
+     * @return The number of rows on the board.
+     */
+    @Override
+    public int getRowNum() {
+        return dimension;
+    }
+
+    /**
+     * Gets the number of columns on the board.
+     *
+     * @pre None.
+     *
+     * @post getColNum = dimension AND self = #self
+     *
+     * @return The number of columns on the board.
+     */
+    @Override
+    public int getColNum() {
+        return dimension;
+    }
+
+    /**
+     * Checks to see if the player won the game by counting the bits in each player's mask.
+     *
+     * @param player as a Character to see whoever won.
+     *
+     * @pre player is one of the valid player characters.
+     *
+     * @post checkPlayerWin = [true if player has pieces and the opponent has none; false otherwise] AND self = #self
+     *
+     * @return true if the player won the game, false otherwise.
+     */
+    @Override
+    public boolean checkPlayerWin(Character player) {
+        long[] own = Character.toLowerCase(player) == getPlayerOne() ? playerOneMask : playerTwoMask;
+        long[] opponent = own == playerOneMask ? playerTwoMask : playerOneMask;
+        return !isEmpty(own) && isEmpty(opponent);
+    }
+
+    /**
+     * Kings a piece when it reaches the opposite end of the board.
+     *
+     * @param posOfPlayer the board position of the piece to be crowned.
+     *
+     * @pre posOfPlayer != null
+     *
+     * @post [the bit for posOfPlayer is set in kingMask if it holds player one's piece on the last row or player
+     *       two's piece on the first row] AND self = #self otherwise
+     */
+    @Override
+    public void crownPiece(BoardPosition posOfPlayer) {
+        int row = posOfPlayer.getRow();
+        if (!isPlayable(row, posOfPlayer.getColumn())) {
+            return;
+        }
+        int square = squareIndex(row, posOfPlayer.getColumn());
+        if ((row == dimension - 1 && testBit(playerOneMask, square)) || (row == 0 && testBit(playerTwoMask, square))) {
+            char piece = pieceAt(square);
+            setBit(kingMask, square);
+            pieceChanged(row, posOfPlayer.getColumn(), piece, pieceAt(square));
+        }
+    }
+
+    /**
+     * Scans the four squares around a position, reading the neighbors' bits directly.
+     *
+     * @param startingPos a piece's starting position on the board.
+     *
+     * @pre startingPos != null
+     *
+     * @post scanSurroundingPacked = [as for ICheckerBoard.scanSurroundingPacked] AND self = #self
+     *
+     * @return The four neighboring pieces, packed.
+     */
+    @Override
+    public long scanSurroundingPacked(BoardPosition startingPos) {
+        int square = neighbors.square(startingPos);
+        if (square == NeighborTable.OFF_BOARD) {
+            return ICheckerBoard.packSurrounding(EMPTY_POS, EMPTY_POS, EMPTY_POS, EMPTY_POS);
+        }
+
+        long surrounding = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int neighbor = neighbors.neighbor(square, dir);
+            char piece = neighbor == NeighborTable.OFF_BOARD ? EMPTY_POS : pieceAt(neighbor);
+            surrounding |= (long) piece << (Character.SIZE * dir);
+        }
+        return surrounding;
+    }
+
+    /**
+     * Scans the surroundings of every piece of a player a direction at a time. For each direction the player's and the
+     * opponent's masks are shifted onto the squares next to and two away from each square, so the occupancy of every
+     * square's neighbor is found at once, and then read out for each of the player's pieces.
+     *
+     * @param player the player's piece character
+     * @param neighborhoods the buffer the entries are written into, starting at index 0
+     *
+     * @pre neighborhoods.length >= getPieceCount(player)
+     *
+     * @post scanNeighborhoods = [as for ICheckerBoard.scanNeighborhoods] AND self = #self
+     *
+     * @return The number of entries written.
+     */
+    @Override
+    public int scanNeighborhoods(char player, int[] neighborhoods) {
+        char man = Character.toLowerCase(player);
+        long[] own;
+        long[] opponent;
+        if (man == getPlayerOne()) {
+            own = playerOneMask;
+            opponent = playerTwoMask;
+        }
+        else if (man == getPlayerTwo()) {
+            own = playerTwoMask;
+            opponent = playerOneMask;
+        }
+        else {
+            return 0;
+        }
+
+        int count = 0;
+        for (int word = 0; word < MASK_WORDS; word++) {
+            for (long bits = own[word]; bits != 0; bits &= bits - 1) {
+                neighborhoods[count++] = PackedNeighborhood.encode(word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+            }
+        }
+
+        for (int dir = 0; dir < 4; dir++) {
+            long[] hasNeighbor = neighbors.neighborMask(dir);
+            long[] hasLanding = neighbors.jumpMask(dir);
+            int entry = 0;
+            for (int word = 0; word < MASK_WORDS; word++) {
+                // The low bit of an occupancy is set for OWN and OFF_BOARD, the high bit for OPPONENT and OFF_BOARD
+                long nextLow = neighbors.nextWord(own[0], own[1], word, dir) | ~hasNeighbor[word];
+                long nextHigh = neighbors.nextWord(opponent[0], opponent[1], word, dir) | ~hasNeighbor[word];
+                long landingLow = neighbors.landingWord(own[0], own[1], word, dir) | ~hasLanding[word];
+                long landingHigh = neighbors.landingWord(opponent[0], opponent[1], word, dir) | ~hasLanding[word];
+
+                for (long bits = own[word]; bits != 0; bits &= bits - 1) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    int next = (int) (nextLow >>> bit & 1 | (nextHigh >>> bit & 1) << 1);
+                    int landing = (int) (landingLow >>> bit & 1 | (landingHigh >>> bit & 1) << 1);
+                    neighborhoods[entry] = PackedNeighborhood.withDirection(neighborhoods[entry], dir, next, landing);
+                    entry++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the masks of a player's men and kings straight from the board's bits.
+     *
+     * @param player the player's piece character
+     * @param men the mask the men's squares are written into
+     * @param kings the mask the kings' squares are written into
+     *
+     * @pre men.length >= SQUARE_MASK_WORDS AND kings.length >= SQUARE_MASK_WORDS
+     *
+     * @post [men and kings hold the squares of player's men and kings] AND self = #self
+     */
+    @Override
+    public void getPieceMasks(char player, long[] men, long[] kings) {
+        char man = Character.toLowerCase(player);
+        long[] pieces = man == getPlayerOne() ? playerOneMask : man == getPlayerTwo() ? playerTwoMask : null;
+        for (int word = 0; word < MASK_WORDS; word++) {
+            long own = pieces == null ? 0 : pieces[word];
+            men[word] = own & ~kingMask[word];
+            kings[word] = own & kingMask[word];
+        }
+    }
+
+    /**
+     * Moves a piece one square in the given direction if that square is on the board and empty.
+     *
+     * @param startingPos current position of the piece to be moved.
+     * @param dir direction as a DirectionEnum in which to move the piece.
+     *
+     * @pre startingPos != null AND dir != null
+     *
+     * @post movePiece = [the new position of the piece, or startingPos if the move is not valid] AND
+     *       self = [#self with the piece's bits moved from startingPos to the new position]
+     *
+     * @return The new position of the piece after attempting the move.
+     */
+    @Override
+    public BoardPosition movePiece(BoardPosition startingPos, DirectionEnum dir) {
+        int from = neighbors.square(startingPos);
+        if (from == NeighborTable.OFF_BOARD) {
+            return startingPos;
+        }
+        int to = neighbors.neighbor(from, dir.ordinal());
+        if (to == NeighborTable.OFF_BOARD || isOccupied(to)) {
+            return startingPos;
+        }
+        moveBits(from, to);
+        return neighbors.position(to);
+    }
+
+    /**
+     * Moves a piece by jumping the opponent's piece, removing the jumped piece and crowning the jumping piece if it
+     * lands on the opposite end of the board.
+     *
+     * @param startingPos starting position on the board
+     * @param dir direction as a DirectionEnum
+     *
+     * @pre startingPos != null AND dir != null
+     *
+     * @post jumpPiece = [the new position of the piece if the jump is valid, otherwise startingPos] AND
+     *       self = [#self with the jumping piece's bits moved and the jumped piece's bits cleared]
+     *
+     * @return The new position of the piece after the jump, or original position if the jump is invalid.
+     */
+    @Override
+    public BoardPosition jumpPiece(BoardPosition startingPos, DirectionEnum dir) {
+        int from = neighbors.square(startingPos);
+        if (from == NeighborTable.OFF_BOARD) {
+            return startingPos;
+        }
+        int over = neighbors.neighbor(from, dir.ordinal());
+        int to = neighbors.jump(from, dir.ordinal());
+        if (to == NeighborTable.OFF_BOARD) {
+            return startingPos;
+        }
+
+        boolean playerOneJumps = testBit(playerOneMask, from) && testBit(playerTwoMask, over);
+        boolean playerTwoJumps = testBit(playerTwoMask, from) && testBit(playerOneMask, over);
+        if ((!playerOneJumps && !playerTwoJumps) || isOccupied(to)) {
+            return startingPos;
+        }
+
+        moveBits(from, to);
+        BoardPosition overPos = neighbors.position(over);
+        pieceChanged(overPos.getRow(), overPos.getColumn(), pieceAt(over), EMPTY_POS);
+        clearSquare(over);
+
+        BoardPosition finalPos = neighbors.position(to);
+        crownPiece(finalPos);
+        return finalPos;
+    }
+
+    /**
+     * Gets the character of the piece on a playable square.
+     *
+     * @param square the index of a playable square
+     *
+     * @pre 0 <= square < dimension * squaresPerRow
+     *
+     * @post pieceAt = [the character of the piece on square, or EMPTY_POS if it has no piece] AND self = #self
+     *
+     * @return The character of the piece on square.
+     */
+    private char pieceAt(int square) {
+        char piece;
+        if (testBit(playerOneMask, square)) {
+            piece = getPlayerOne();
+        }
+        else if (testBit(playerTwoMask, square)) {
+            piece = getPlayerTwo();
+        }
+        else {
+            return EMPTY_POS;
+        }
+        return testBit(kingMask, square) ? Character.toUpperCase(piece) : piece;
+    }
+
+    /**
+     * Moves every bit of a square to another square.
+     *
+     * @param from the index of the square being emptied
+     * @param to the index of the square being filled
+     *
+     * @pre to is empty
+     *
+     * @post [each mask has the bit of from copied to to and the bit of from cleared]
+     */
+    private void moveBits(int from, int to) {
+        char piece = pieceAt(from);
+        moveBit(playerOneMask, from, to);
+        moveBit(playerTwoMask, from, to);
+        moveBit(kingMask, from, to);
+        pieceChanged(squareRow(from), squareColumn(from), piece, EMPTY_POS);
+        pieceChanged(squareRow(to), squareColumn(to), EMPTY_POS, piece);
+    }
+
+    /**
+     * Clears the bits of a square in every mask without updating the position key.
+     *
+     * @param square the index of the square
+     *
+     * @pre 0 <= square < dimension * squaresPerRow
+     *
+     * @post [the bit of square is cleared in playerOneMask, playerTwoMask and kingMask]
+     */
+    private void clearSquare(int square) {
+        clearBit(playerOneMask, square);
+        clearBit(playerTwoMask, square);
+        clearBit(kingMask, square);
+    }
+
+    private boolean isOccupied(int square) {
+        return testBit(playerOneMask, square) || testBit(playerTwoMask, square);
+    }
+
+    private boolean isPlayable(int row, int col) {
+        return row >= 0 && row < dimension && col >= 0 && col < dimension && (row + col) % 2 == 0;
+    }
+
+    private int squareIndex(int row, int col) {
+        return row * squaresPerRow + col / 2;
+    }
+
+    private int squareRow(int square) {
+        return square / squaresPerRow;
+    }
+
+    private int squareColumn(int square) {
+        int row = squareRow(square);
+        return 2 * (square - row * squaresPerRow) + row % 2;
+    }
+
+    private static boolean testBit(long[] mask, int square) {
+        return (mask[square >>> 6] & (1L << square)) != 0;
+    }
+
+    private static void setBit(long[] mask, int square) {
+        mask[square >>> 6] |= 1L << square;
+    }
+
+    private static void clearBit(long[] mask, int square) {
+        mask[square >>> 6] &= ~(1L << square);
+    }
+
+    private static void moveBit(long[] mask, int from, int to) {
+        if (testBit(mask, from)) {
+            clearBit(mask, from);
+            setBit(mask, to);
+        }
+    }
+
+    private static int bitCount(long[] mask) {
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static int bitCountAnd(long[] mask, long[] other) {
+        int count = 0;
+        for (int word = 0; word < mask.length; word++) {
+            count += Long.bitCount(mask[word] & other[word]);
+        }
+        return count;
+    }
+
+    private static boolean isEmpty(long[] mask) {
+        for (long word : mask) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,6 +1,8 @@
 package cpsc2150.extendedCheckers.models;
 
 import cpsc2150.extendedCheckers.util.DirectionEnum;
+import cpsc2150.extendedCheckers.util.PackedMove;
+import cpsc2150.extendedCheckers.util.PackedNeighborhood;
 import cpsc2150.extendedCheckers.views.CheckersFE;
 
 import java.util.ArrayList;
@@ -12,6 +14,8 @@ import java.util.Map;
 /**
  * CheckerBoardMem implements the ICheckerBoard interface and represents the state of the checkerboard
  * in a checkers game using memory as the underlying storage mechanism.
+ * Each player's pieces are kept in a list of positions, and a byte per square records which list holds the square
+ * and where, so looking up, placing and removing a piece takes constant time.
  * 
  * @invariant A player's piece can never move onto a black tile.
  * @invariant A player's piece count can't go below 0.
@@ -25,10 +29,53 @@ import java.util.Map;
  */
 public class CheckerBoardMem extends AbsCheckerBoard{
 
+    /**
+     * Code stored in squareCodes for a square with no piece. The other codes index pieceChars.
+     */
+    private static final byte NO_PIECE = 0;
+
+    /**
+     * The PackedNeighborhood occupancy of each square code, seen from player one and from player two.
+     */
+    private static final int[][] OCCUPANCIES = {
+            {PackedNeighborhood.EMPTY, PackedNeighborhood.OWN, PackedNeighborhood.OWN,
+                    PackedNeighborhood.OPPONENT, PackedNeighborhood.OPPONENT},
+            {PackedNeighborhood.EMPTY, PackedNeighborhood.OPPONENT, PackedNeighborhood.OPPONENT,
+                    PackedNeighborhood.OWN, PackedNeighborhood.OWN}};
+
     private Map<Character, List<BoardPosition>> playerPositionsMap;
-    private HashMap<Character, Integer> pieceCount;
-    private char playerOne;
-    private char playerTwo;
+
+    /**
+     * The number of rows and columns on the board.
+     */
+    private final int dimension;
+
+    /**
+     * The neighbor and jump squares of every square, shared by every board of this size.
+     */
+    private final NeighborTable neighbors;
+
+    /**
+     * The piece character for each square code: EMPTY_POS, player one, player one's king, player two and
+     * player two's king.
+     */
+    private final char[] pieceChars = new char[5];
+
+    /**
+     * One byte per square, indexed by row * dimension + column, holding the code of the piece on that square.
+     */
+    private final byte[] squareCodes;
+
+    /**
+     * One short per square holding where that square's BoardPosition sits in its player's list of positions, wide
+     * enough for a list of every square of any board. It lets a piece be removed from its list without searching it.
+     */
+    private final short[] listSlots;
+
+    /**
+     * The number of squares holding each piece code, kept up to date by placePiece. Empty squares aren't counted.
+     */
+    private final int[] codeCounts = new int[5];
 
     /**
      * @pre none
@@ -39,45 +86,37 @@ public class CheckerBoardMem extends AbsCheckerBoard{
      * Each player's piece is represented by their respective characters on the board.]
      */
     public CheckerBoardMem(int aDimension) {
-        super();
+        this(aDimension, CheckersFE.getPlayerOne(), CheckersFE.getPlayerTwo());
+    }
+
+    /**
+     * @pre aPlayerOne and aPlayerTwo are different lowercase letters
+     * @param aDimension is the dimension of the board
+     * @param aPlayerOne is player one's piece character
+     * @param aPlayerTwo is player two's piece character
+     * @return none
+     * @post [as for CheckerBoardMem(aDimension), with player 1 represented by aPlayerOne and player 2 by aPlayerTwo]
+     */
+    public CheckerBoardMem(int aDimension, char aPlayerOne, char aPlayerTwo) {
+        super(aPlayerOne, aPlayerTwo);
 
         if (aDimension < BOARD_MIN_SIZE || aDimension > BOARD_MAX_SIZE || aDimension % 2 != 0) {
             throw new IllegalArgumentException("Invalid board size.");
         }
 
+        dimension = aDimension;
+        neighbors = NeighborTable.of(aDimension);
+        squareCodes = new byte[aDimension * aDimension];
+        listSlots = new short[aDimension * aDimension];
         playerPositionsMap = new HashMap<>();
-        pieceCount = new HashMap<>();
-        // Initialize player one and player two characters
-        playerOne = CheckersFE.getPlayerOne();
-        playerTwo = CheckersFE.getPlayerTwo();
-        // Initialize piece counts for player one and player two
-        pieceCount.put(playerOne, 0);
-        pieceCount.put(playerTwo, 0);
+        pieceChars[NO_PIECE] = EMPTY_POS;
+        pieceChars[1] = aPlayerOne;
+        pieceChars[2] = Character.toUpperCase(aPlayerOne);
+        pieceChars[3] = aPlayerTwo;
+        pieceChars[4] = Character.toUpperCase(aPlayerTwo);
         initializePlayerPositions(aDimension);
     }
 
-    /**
-     * Gets player one's piece character
-     * @pre None
-     * @param playerOne
-     * @return a character piece
-     * @post [playerOne's piece character]
-     */
-    public void setplayerOne(char playerOne) {
-        this.playerOne = playerOne;
-    }
-
-    /**
-     * Gets player two's piece character
-     * @pre None
-     * @param playerOne
-     * @return a character piece
-     * @post [playerTwo's piece character]
-     */
-    public void setplayerTwo(char playerTwo) {
-        this.playerTwo = playerTwo;
-    }   
-
     /**
      * Initializes player positions based on size of board
      * @pre aDimension != null
@@ -95,41 +134,84 @@ public class CheckerBoardMem extends AbsCheckerBoard{
                 if ((row + col) % 2 == 0) { // Check if position is playable
                     char player;
                     if (row < midRow - 1) {
-                        player = playerOne; // Player One's pieces in the top rows
+                        player = getPlayerOne(); // Player One's pieces in the top rows
                     } else if (row >= midRow + 1) {
-                        player = playerTwo; // Player Two's pieces in the bottom rows
+                        player = getPlayerTwo(); // Player Two's pieces in the bottom rows
                     } else {
                         continue; // Skip empty rows between players
                     }
-                    placePiece(new BoardPosition(row, col), player); // Place the piece on the board
+                    placePiece(BoardPosition.of(row, col), player); // Place the piece on the board
                 }
             }
         }
     }
     /**
-     * Places a piece on the board at the given position
+     * Places a piece on the board at the given position. Any piece already at the position is removed from its
+     * player's list first, using listSlots so no list is searched.
      * @pre newPos!= null AND player!= null
      * @param newPos is the position to place the piece
      * @param player is the player to place the piece
      * @return A piece is placed on the board at the given position
-     * @post [A piece is placed on the board at the given position for the given player character
-     *         the piece count is incremented and the board is updated to reflect the change]
+     * @post [A piece is placed on the board at the given position for the given player character or king,
+     *         any character that isn't a player's piece or king empties the position]
      */
     @Override
     public void placePiece(BoardPosition newPos, char player) {
-        for (List<BoardPosition> positions : playerPositionsMap.values()) {
-            positions.removeIf(pos -> pos.equals(newPos));
+        if (!isWithinBounds(newPos)) {
+            return;
         }
+        int square = squareIndex(newPos);
+        if (squareCodes[square] != NO_PIECE) {
+            removeFromList(square);
+            codeCounts[squareCodes[square]]--;
+        }
+
+        byte code = pieceCode(player);
+        pieceChanged(newPos.getRow(), newPos.getColumn(), pieceChars[squareCodes[square]], pieceChars[code]);
+        squareCodes[square] = code;
+        if (code != NO_PIECE) {
+            codeCounts[code]++;
+            List<BoardPosition> positions = playerPositionsMap.computeIfAbsent(player, k -> new ArrayList<>());
+            listSlots[square] = (short) positions.size();
+            positions.add(BoardPosition.of(newPos.getRow(), newPos.getColumn()));
+        }
+    }
 
-        // Add the piece to the new position
-        if (player == CheckersFE.getPlayerOne() || player == CheckersFE.getPlayerTwo()) {
-            // Check if the player character is valid
+    /**
+     * Removes the piece on a square from its player's list by moving the last position of the list into its slot.
+     * @pre squareCodes[square] != NO_PIECE
+     * @param square the index of the square whose piece is removed
+     * @return none
+     * @post [the square's position is no longer in its player's list and the moved position's slot is updated]
+     */
+    private void removeFromList(int square) {
+        List<BoardPosition> positions = playerPositionsMap.get(pieceChars[squareCodes[square]]);
+        int slot = listSlots[square];
+        BoardPosition last = positions.remove(positions.size() - 1);
+        if (slot < positions.size()) {
+            positions.set(slot, last);
+            listSlots[squareIndex(last)] = (short) slot;
+        }
+    }
 
-            if (!playerPositionsMap.containsKey(player)) {
-                playerPositionsMap.put(player, new ArrayList<>());
+    /**
+     * Gets the square code for a piece character
+     * @pre None
+     * @param piece the piece character
+     * @return the index of piece in pieceChars, or NO_PIECE if it isn't a player's piece or king
+     * @post [the code of piece is returned, no data is altered]
+     */
+    private byte pieceCode(char piece) {
+        for (byte code = 1; code < pieceChars.length; code++) {
+            if (pieceChars[code] == piece) {
+                return code;
             }
-            playerPositionsMap.get(player).add(newPos);
         }
+        return NO_PIECE;
+    }
+
+    private int squareIndex(BoardPosition pos) {
+        return pos.getRow() * dimension + pos.getColumn();
     }
     /**
      * Gets the piece at the given position
@@ -141,15 +223,10 @@ public class CheckerBoardMem extends AbsCheckerBoard{
 
     
     public char whatsAtPos(BoardPosition pos) {
-    
-        for (Map.Entry<Character, List<BoardPosition>> entry : playerPositionsMap.entrySet()) {
-            for (BoardPosition piecePos : entry.getValue()) {
-                if (piecePos.equals(pos)) {
-                    return entry.getKey();
-                }
-            }
+        if (!isWithinBounds(pos)) {
+            return EMPTY_POS;
         }
-        return ' ';
+        return pieceChars[squareCodes[squareIndex(pos)]];
     }
     /**
      * Gets the number of pieces each player has remaining on the board
@@ -161,22 +238,52 @@ public class CheckerBoardMem extends AbsCheckerBoard{
     @Override
     public HashMap<Character, Integer> getPieceCounts() {
         HashMap<Character, Integer> pieceCounts = new HashMap<>();
-        pieceCounts.put(CheckersFE.getPlayerOne(), 0);
-        pieceCounts.put(CheckersFE.getPlayerTwo(), 0);
+        pieceCounts.put(getPlayerOne(), getPieceCount(getPlayerOne()));
+        pieceCounts.put(getPlayerTwo(), getPieceCount(getPlayerTwo()));
+        return pieceCounts;
+    }
 
-        for (int row = 0; row < getRowNum(); row++) {
-            for (int col = 0; col < getColNum(); col++) {
-                char piece = whatsAtPos(new BoardPosition(row, col));
-                if (piece == CheckersFE.getPlayerOne() || piece == Character.toUpperCase(CheckersFE.getPlayerOne())) {
-                    pieceCounts.put(CheckersFE.getPlayerOne(), pieceCounts.get(CheckersFE.getPlayerOne()) + 1);
-                } 
-                else if (piece == CheckersFE.getPlayerTwo() || piece == Character.toUpperCase(CheckersFE.getPlayerTwo())) {
-                    pieceCounts.put(CheckersFE.getPlayerTwo(), pieceCounts.get(CheckersFE.getPlayerTwo()) + 1);
-                }
-            }
+    /**
+     * Gets the number of pieces a player has from the code counters
+     * @pre None
+     * @param player the player's piece character
+     * @return the number of pieces, kings included, that player has on the board
+     * @post [the sum of the counters for player's piece and king codes, no data is altered]
+     */
+    @Override
+    public int getPieceCount(char player) {
+        if (Character.toLowerCase(player) == getPlayerOne()) {
+            return codeCounts[1] + codeCounts[2];
         }
+        return Character.toLowerCase(player) == getPlayerTwo() ? codeCounts[3] + codeCounts[4] : 0;
+    }
 
-        return pieceCounts;        
+    /**
+     * Gets the number of kings a player has from the code counters
+     * @pre None
+     * @param player the player's piece character
+     * @return the number of kings player has on the board
+     * @post [the counter for player's king code, no data is altered]
+     */
+    @Override
+    public int getKingCount(char player) {
+        if (Character.toLowerCase(player) == getPlayerOne()) {
+            return codeCounts[2];
+        }
+        return Character.toLowerCase(player) == getPlayerTwo() ? codeCounts[4] : 0;
+    }
+
+    /**
+     * Checks if a player won the game using the code counters
+     * @pre player is one of the valid player characters
+     * @param player the player to check
+     * @return true if player has pieces and the opponent has none, false otherwise
+     * @post [the result is returned without scanning the board, no data is altered]
+     */
+    @Override
+    public boolean checkPlayerWin(Character player) {
+        char opponent = (player == getPlayerOne()) ? getPlayerTwo() : getPlayerOne();
+        return getPieceCount(player) > 0 && getPieceCount(opponent) == 0;
     }
 
     /**
@@ -195,10 +302,10 @@ public class CheckerBoardMem extends AbsCheckerBoard{
             ArrayList<DirectionEnum> directions = new ArrayList<>();
     
             // Determines player's piece directions
-            if (Character.toLowerCase(player) == playerOne) {
+            if (Character.toLowerCase(player) == getPlayerOne()) {
                 directions.add(DirectionEnum.SW);
                 directions.add(DirectionEnum.SE);
-            } else if (Character.toLowerCase(player) == playerTwo) {
+            } else if (Character.toLowerCase(player) == getPlayerTwo()) {
                 directions.add(DirectionEnum.NW);
                 directions.add(DirectionEnum.NE);
             }
@@ -217,14 +324,7 @@ public class CheckerBoardMem extends AbsCheckerBoard{
      */
     @Override
     public int getRowNum() {
-        int maxRow = 0;
-        for (List<BoardPosition> positions : playerPositionsMap.values()) {
-            for (BoardPosition pos : positions) {
-                maxRow = Math.max(maxRow, pos.getRow());
-            }
-        }
-        // Adding 1 to account for 0-based indexing
-        return maxRow + 1;
+        return dimension;
     }
     /**
      * Gets the column number of the board
@@ -235,13 +335,7 @@ public class CheckerBoardMem extends AbsCheckerBoard{
      */
     @Override
     public int getColNum() {
-        int maxCols = 0;
-        for (List<BoardPosition> positions : playerPositionsMap.values()) {
-            for (BoardPosition pos : positions) {
-                maxCols = Math.max(maxCols, pos.getColumn() + 1); // Increment by 1 to account for 0-based indexing
-            }
-        }
-        return maxCols;
+        return dimension;
     }
     /**
      * Creates a string to represent the state of the board
@@ -270,7 +364,7 @@ public class CheckerBoardMem extends AbsCheckerBoard{
                 sb.append("|" + row);
             }
             for (int col = 0; col < getColNum(); col++) {
-                BoardPosition pos = new BoardPosition(row, col);
+                BoardPosition pos = BoardPosition.of(row, col);
                 char piece = whatsAtPos(pos);
                 if ((row + col) % 2 != 0 && piece == EMPTY_POS) {
                     sb.append("|* ");
@@ -282,6 +376,84 @@ public class CheckerBoardMem extends AbsCheckerBoard{
         }
         return sb.toString();
     }
+    /**
+     * Scans the surroundings of every piece of a player, reading the square codes directly. A neighbor's code sits a
+     * fixed distance from the piece's code in each direction, so only the check that it is on the board comes from the
+     * neighbor table.
+     * @pre neighborhoods.length >= getPieceCount(player)
+     * @param player the player's piece character
+     * @param neighborhoods the buffer the entries are written into
+     * @return the number of entries written
+     * @post [as for ICheckerBoard.scanNeighborhoods]
+     */
+    @Override
+    public int scanNeighborhoods(char player, int[] neighborhoods) {
+        char man = Character.toLowerCase(player);
+        if (man != getPlayerOne() && man != getPlayerTwo()) {
+            return 0;
+        }
+        int[] occupancies = OCCUPANCIES[man == getPlayerOne() ? 0 : 1];
+        int ownCode = man == getPlayerOne() ? 1 : 3;
+
+        int count = 0;
+        for (int square = 0; square < neighbors.squareCount(); square++) {
+            int index = squareIndex(neighbors.position(square));
+            int code = squareCodes[index];
+            if (code != ownCode && code != ownCode + 1) {
+                continue;
+            }
+            int entry = PackedNeighborhood.encode(square);
+            for (int dir = 0; dir < 4; dir++) {
+                int offset = PackedMove.rowStep(dir) * dimension + PackedMove.colStep(dir);
+                int next = neighbors.neighbor(square, dir) == NeighborTable.OFF_BOARD ? PackedNeighborhood.OFF_BOARD
+                        : occupancies[squareCodes[index + offset]];
+                int landing = neighbors.jump(square, dir) == NeighborTable.OFF_BOARD ? PackedNeighborhood.OFF_BOARD
+                        : occupancies[squareCodes[index + 2 * offset]];
+                entry = PackedNeighborhood.withDirection(entry, dir, next, landing);
+            }
+            neighborhoods[count++] = entry;
+        }
+        return count;
+    }
+    /**
+     * Gets the masks of a player's men and kings from the player's lists of positions, without scanning the board.
+     * @pre men.length >= SQUARE_MASK_WORDS AND kings.length >= SQUARE_MASK_WORDS
+     * @param player the player's piece character
+     * @param men the mask the men's squares are written into
+     * @param kings the mask the kings' squares are written into
+     * @return none
+     * @post [men and kings hold the squares of player's men and kings, no data is altered]
+     */
+    @Override
+    public void getPieceMasks(char player, long[] men, long[] kings) {
+        for (int word = 0; word < SQUARE_MASK_WORDS; word++) {
+            men[word] = 0;
+            kings[word] = 0;
+        }
+        char man = Character.toLowerCase(player);
+        if (man == getPlayerOne() || man == getPlayerTwo()) {
+            addToMask(playerPositionsMap.get(man), men);
+            addToMask(playerPositionsMap.get(Character.toUpperCase(man)), kings);
+        }
+    }
+
+    /**
+     * Sets the bit of every position of a list in a mask
+     * @pre mask.length >= SQUARE_MASK_WORDS
+     * @param positions the positions, or null for none
+     * @param mask the mask to add the squares to
+     * @return none
+     * @post [mask = #mask with the square of every position in positions set]
+     */
+    private void addToMask(List<BoardPosition> positions, long[] mask) {
+        if (positions == null) {
+            return;
+        }
+        for (int i = 0; i < positions.size(); i++) {
+            int square = neighbors.square(positions.get(i));
+            mask[square / Long.SIZE] |= 1L << square;
+        }
+    }
     /**
      * Moves a piece on the board
      * @pre Board is not null
@@ -292,23 +464,23 @@ public class CheckerBoardMem extends AbsCheckerBoard{
      */
     @Override
     public BoardPosition movePiece(BoardPosition startingPos, DirectionEnum dir) {
-        BoardPosition direction = getDirection(dir);
+        int from = neighbors.square(startingPos);
+        int to = from == NeighborTable.OFF_BOARD ? NeighborTable.OFF_BOARD : neighbors.neighbor(from, dir.ordinal());
     
-        int newRow = startingPos.getRow() + direction.getRow();
-        int newCol = startingPos.getColumn() + direction.getColumn();
-    
-        if (newRow >= 0 && newRow < getRowNum() && newCol >= 0 && newCol < getColNum()) {
+        if (to != NeighborTable.OFF_BOARD) {
             char piece = whatsAtPos(startingPos);
+            BoardPosition newPos = neighbors.position(to);
     
             // Check if the new position is empty
-            if (whatsAtPos(new BoardPosition(newRow, newCol)) == EMPTY_POS) {
+            if (whatsAtPos(newPos) == EMPTY_POS) {
                 // Update player map
-                updatePlayerMap(startingPos, new BoardPosition(newRow, newCol), piece);
+                placePiece(newPos, piece);
+                placePiece(startingPos, EMPTY_POS);
                 
                 // Check if the piece can be crowned
-                crownPiece(new BoardPosition(newRow, newCol));
+                crownPiece(newPos);
     
-                return new BoardPosition(newRow, newCol);
+                return newPos;
             }
         }
     
@@ -326,34 +498,25 @@ public class CheckerBoardMem extends AbsCheckerBoard{
      */
     @Override
     public BoardPosition jumpPiece(BoardPosition startingPos, DirectionEnum dir) {
+        int from = neighbors.square(startingPos);
+        int to = from == NeighborTable.OFF_BOARD ? NeighborTable.OFF_BOARD : neighbors.jump(from, dir.ordinal());
 
-        BoardPosition jumpOverPosRel = getDirection(dir);
-
-        int jumpOverRow = startingPos.getRow() + jumpOverPosRel.getRow();
-        int jumpOverCol = startingPos.getColumn() + jumpOverPosRel.getColumn();
-        BoardPosition jumpOverPos = new BoardPosition(jumpOverRow, jumpOverCol);
-
-        int finalRow = jumpOverRow + jumpOverPosRel.getRow();
-        int finalCol = jumpOverCol + jumpOverPosRel.getColumn();
-        BoardPosition finalPos = new BoardPosition(finalRow, finalCol);
-
-        // Check if jumpOverPos and finalPos are within bounds of the board
-        if (isWithinBounds(jumpOverPos) && isWithinBounds(finalPos)) {
+        // Check if the landing square is on the board
+        if (to != NeighborTable.OFF_BOARD) {
+            BoardPosition jumpOverPos = neighbors.position(neighbors.neighbor(from, dir.ordinal()));
+            BoardPosition finalPos = neighbors.position(to);
+            char jumpedPiece = whatsAtPos(jumpOverPos);
+            char currentPiece = whatsAtPos(startingPos);
 
             // Ensure jumping over an opponent's piece and landing on an empty position
-            if (finalRow >= 0 && finalRow < getRowNum() && finalCol >= 0 && finalCol < getColNum()) {
-                char opponentPiece = whatsAtPos(jumpOverPos);
-                char currentPiece = whatsAtPos(startingPos);
-            
-                // Ensure jumping over an opponent's piece and landing on an empty position
-                if (opponentPiece != currentPiece && opponentPiece != EMPTY_POS && whatsAtPos(finalPos) == EMPTY_POS) {
-                    // Jump is valid
-                    placePiece(finalPos, currentPiece);
-                    placePiece(jumpOverPos, EMPTY_POS);
-                    placePiece(startingPos, EMPTY_POS);
-                    crownPiece(finalPos); // Crown the piece if it reaches the opposite end
-                    return finalPos;
-                }
+            if (currentPiece != EMPTY_POS && Character.toLowerCase(jumpedPiece) == getOpponent(currentPiece)
+                    && whatsAtPos(finalPos) == EMPTY_POS) {
+                // Jump is valid
+                placePiece(finalPos, currentPiece);
+                placePiece(jumpOverPos, EMPTY_POS);
+                placePiece(startingPos, EMPTY_POS);
+                crownPiece(finalPos); // Crown the piece if it reaches the opposite end
+                return finalPos;
             }
         }
 
@@ -374,15 +537,9 @@ public class CheckerBoardMem extends AbsCheckerBoard{
         char piece = whatsAtPos(pos);
 
         // Check if the piece is at the opposite end of the board
-        if ((piece == playerOne && row == getRowNum() - 1) || (piece == playerTwo && row == 0)) {
+        if ((piece == getPlayerOne() && row == getRowNum() - 1) || (piece == getPlayerTwo() && row == 0)) {
             // Crown the piece
-            playerPositionsMap.get(piece).remove(pos);
-            char crownedPiece = Character.toUpperCase(piece);
-            if (!playerPositionsMap.containsKey(crownedPiece)) {
-                playerPositionsMap.put(crownedPiece, new ArrayList<>());
-            }
-            placePiece(pos, crownedPiece);
-            playerPositionsMap.get(crownedPiece).add(pos);
+            placePiece(pos, Character.toUpperCase(piece));
         }
     }
     /**
@@ -396,43 +553,6 @@ public class CheckerBoardMem extends AbsCheckerBoard{
     private boolean isWithinBounds(BoardPosition pos) {
         int row = pos.getRow();
         int col = pos.getColumn();
-        return row >= 0 && row < getRowNum() && col >= 0 && col < getColNum();
-    }
-    /**
-     * Updates the player map
-     * @pre none
-     * @param startingPos the starting position of the piece
-     * @param newPos the new position of the piece
-     * @param piece the character piece to be updated
-     * @return none
-     * @post [Updates the player map with the new position of the piece and the piece to be updated.]
-     */
-    private void updatePlayerMap(BoardPosition startingPos, BoardPosition newPos, char piece) {
-        List<BoardPosition> positions = playerPositionsMap.get(piece);
-        if (positions != null) {
-            positions.remove(startingPos);
-            positions.add(newPos);
-        }
-    }
-    /**
-     * Defines the directions of each cardinal direction
-     * @pre none
-     * @param dir the direction of the piece
-     * @return the direction of each cardinal direction
-     * @post [A BoardPosition object representing the direction of each cardinal direction is returned.]
-     */
-    private BoardPosition getDirection(DirectionEnum dir) {
-        switch (dir) {
-            case SW:
-                return new BoardPosition(1, -1);
-            case SE:
-                return new BoardPosition(1, 1);
-            case NW:
-                return new BoardPosition(-1, -1);
-            case NE:
-                return new BoardPosition(-1, 1);
-            default:
-                throw new IllegalArgumentException("Invalid direction.");
-        }
+        return row >= 0 && row < dimension && col >= 0 && col < dimension;
     }
 }
@@ -0,0 +1,494 @@
+package cpsc2150.extendedCheckers.models;
+
+import cpsc2150.extendedCheckers.util.DirectionEnum;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An append-only log of what happens in every game of a process, kept so the games can be rebuilt after the process
+ * dies. Games write a snapshot of their board when they start and every SNAPSHOT_INTERVAL moves, and a small record
+ * for each move in between, so rebuilding a game replays at most SNAPSHOT_INTERVAL moves after its last snapshot.
+ *
+ * The log is a series of segment files, each mapped into memory with FileChannel.map, so appending a record copies a
+ * few bytes into the mapped pages and makes no system call. A background thread forces the pages written since its
+ * last run to disk every force interval, so many appends share one force and no game thread waits for the disk. If
+ * the process dies, every record is still in the operating system's pages; if the machine dies, at most the last
+ * force interval of records is lost. A record cut off mid-write is recognized by its checksum and ignored.
+ *
+ * A segment starts with a SLOT_SIZE byte header: the bytes of MAGIC, then the segment's number as an int. After it
+ * come records of one or more SLOT_SIZE byte slots. The first slot of a record holds:
+ *  int   the record kind in bits 24-31, the number of slots after the first in bits 16-23, and a checksum of the
+ *        record in bits 0-15
+ *  int   the record's value: a packed move, a step, or the length of a snapshot
+ *  long  the game's id
+ * A snapshot's slots after the first hold player one's and player two's characters and the board as written by
+ * BoardCodec. The first slot that is all 0 ends the segment.
+ *
+ * A journal never appends to segments that existed when it was opened. recover rebuilds the games they hold, and
+ * deleteRecoveredSegments drops them once the games have been written to the new segment.
+ *
+ * @invariant [every record before writeOffset in segment is complete] AND recoveredSegments holds the segments that
+ *            existed when the journal was opened, oldest first
+ */
+public class GameJournal implements Closeable {
+    /**
+     * The directory the game keeps its journal in.
+     */
+    public static final String DEFAULT_DIRECTORY = "journal";
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_FORCE_INTERVAL_MILLIS = 50;
+
+    /**
+     * The number of moves a game makes between snapshots.
+     */
+    public static final int SNAPSHOT_INTERVAL = 64;
+
+    static final byte[] MAGIC = {'C', 'K', 'G', 'J'};
+    static final int SLOT_SIZE = 16;
+
+    private static final int SNAPSHOT = 1;
+    private static final int MOVE = 2;
+    private static final int STEP = 3;
+    private static final int END = 4;
+
+    private static final int VALUE_OFFSET = Integer.BYTES;
+    private static final int ID_OFFSET = 2 * Integer.BYTES;
+    private static final int MAX_SNAPSHOT_LENGTH = 2 + BoardCodec.encodedSize(ICheckerBoard.BOARD_MAX_SIZE);
+    private static final DirectionEnum[] DIRECTIONS = DirectionEnum.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Path> recoveredSegments;
+    private int nextSegmentNumber;
+
+    private MappedByteBuffer segment;
+    private int writeOffset;
+
+    /**
+     * Segments that filled up since the last force and still have to be forced once more.
+     */
+    private final List<MappedByteBuffer> filledSegments = new ArrayList<>();
+    private boolean dirty;
+    private boolean closed;
+    private final Object forceLock = new Object();
+
+    /**
+     * Holds a snapshot while it is encoded, before it is copied into the segment.
+     */
+    private final ByteBuffer snapshotBuffer = ByteBuffer.allocate(MAX_SNAPSHOT_LENGTH);
+
+    private final ScheduledExecutorService forcer;
+
+    /**
+     * Opens a journal in a directory with the default segment size and force interval.
+     *
+     * @param directory the directory holding the segments
+     *
+     * @pre [directory exists]
+     *
+     * @post [a new segment is mapped for appending] AND [the segments already in directory are kept for recover]
+     *
+     * @throws IOException if a segment can't be read or created
+     */
+    public GameJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_FORCE_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens a journal in a directory.
+     *
+     * @param directory the directory holding the segments
+     * @param segmentSize the size of each segment file in bytes
+     * @param forceIntervalMillis the time between forces of the written pages to disk
+     *
+     * @pre [directory exists] AND segmentSize >= 4096 AND segmentSize % SLOT_SIZE = 0 AND forceIntervalMillis > 0
+     *
+     * @post [a new segment is mapped for appending] AND [the segments already in directory are kept for recover]
+     *
+     * @throws IOException if a segment can't be read or created
+     */
+    public GameJournal(Path directory, int segmentSize, long forceIntervalMillis) throws IOException {
+        if (segmentSize < 4096 || segmentSize % SLOT_SIZE != 0) {
+            throw new IllegalArgumentException("Invalid segment size.");
+        }
+        if (forceIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Invalid force interval.");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "journal-*.seg")) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments);
+        recoveredSegments = segments;
+        nextSegmentNumber = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1)) + 1;
+        openSegment();
+
+        forcer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-forcer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        forcer.scheduleWithFixedDelay(this::force, forceIntervalMillis, forceIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a game's whole position.
+     *
+     * @param gameId the game's id
+     * @param board the game's board
+     *
+     * @pre [the journal isn't closed]
+     *
+     * @post [a snapshot of board and its player to move is appended]
+     */
+    public synchronized void snapshot(long gameId, ICheckerBoard board) {
+        snapshotBuffer.clear();
+        snapshotBuffer.put((byte) board.getPlayerOne());
+        snapshotBuffer.put((byte) board.getPlayerTwo());
+        BoardCodec.encode(board, snapshotBuffer);
+        int length = snapshotBuffer.position();
+
+        int offset = reserve(SLOT_SIZE + (length + SLOT_SIZE - 1) / SLOT_SIZE * SLOT_SIZE);
+        for (int i = 0; i < length; i++) {
+            segment.put(offset + SLOT_SIZE + i, snapshotBuffer.get(i));
+        }
+        writeFirstSlot(offset, SNAPSHOT, (length + SLOT_SIZE - 1) / SLOT_SIZE, length, gameId,
+                checksum(snapshotBuffer, 0, length));
+    }
+
+    /**
+     * Records a packed move made with ICheckerBoard.makeMove.
+     *
+     * @param gameId the game's id
+     * @param move the packed move
+     *
+     * @pre [the journal isn't closed] AND [the game has a snapshot in the journal]
+     *
+     * @post [a move record is appended]
+     */
+    public synchronized void move(long gameId, int move) {
+        writeFirstSlot(reserve(SLOT_SIZE), MOVE, 0, move, gameId, 0);
+    }
+
+    /**
+     * Records a move or jump made with GameSession.movePiece.
+     *
+     * @param gameId the game's id
+     * @param startPos the position the piece moved from
+     * @param dir the direction it moved in
+     *
+     * @pre [the journal isn't closed] AND [the game has a snapshot in the journal]
+     *
+     * @post [a step record is appended]
+     */
+    public synchronized void step(long gameId, BoardPosition startPos, DirectionEnum dir) {
+        int value = startPos.getRow() << 16 | startPos.getColumn() << 8 | dir.ordinal();
+        writeFirstSlot(reserve(SLOT_SIZE), STEP, 0, value, gameId, 0);
+    }
+
+    /**
+     * Records that a game has ended and needn't be rebuilt.
+     *
+     * @param gameId the game's id
+     *
+     * @pre [the journal isn't closed]
+     *
+     * @post [an end record is appended]
+     */
+    public synchronized void end(long gameId) {
+        writeFirstSlot(reserve(SLOT_SIZE), END, 0, 0, gameId, 0);
+    }
+
+    /**
+     * Rebuilds every game that hadn't ended in the segments that existed when the journal was opened. Each game's
+     * board is decoded from its last snapshot and the moves after it are replayed.
+     *
+     * @param implementation F for CheckerBoard, M for CheckerBoardMem or B for CheckerBoardBit
+     *
+     * @pre implementation is F, M or B, in either case
+     *
+     * @post recover = [a map from the id of every game that hadn't ended to its rebuilt board] AND
+     *       [the journal's segments are unchanged]
+     *
+     * @return The rebuilt boards by game id.
+     *
+     * @throws IOException if a segment can't be read or isn't a journal segment
+     */
+    public Map<Long, ICheckerBoard> recover(String implementation) throws IOException {
+        MappedByteBuffer[] segments = new MappedByteBuffer[recoveredSegments.size()];
+        for (int i = 0; i < segments.length; i++) {
+            Path file = recoveredSegments.get(i);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (segments[i].limit() < SLOT_SIZE || !hasMagic(segments[i])) {
+                throw new IOException(file + " isn't a journal segment.");
+            }
+        }
+
+        // The first pass finds where each game's last snapshot is, as its segment and offset
+        HashMap<Long, Long> lastSnapshots = new HashMap<>();
+        for (int i = 0; i < segments.length; i++) {
+            for (int offset = SLOT_SIZE, next; (next = recordEnd(segments[i], offset)) > 0; offset = next) {
+                long gameId = segments[i].getLong(offset + ID_OFFSET);
+                int kind = segments[i].getInt(offset) >>> 24;
+                if (kind == SNAPSHOT) {
+                    lastSnapshots.put(gameId, (long) i << 32 | offset);
+                } else if (kind == END) {
+                    lastSnapshots.remove(gameId);
+                }
+            }
+        }
+
+        // The second pass makes each board at its last snapshot, so only the moves after it find a board to replay on
+        HashMap<Long, ICheckerBoard> boards = new HashMap<>();
+        for (int i = 0; i < segments.length; i++) {
+            MappedByteBuffer records = segments[i];
+            for (int offset = SLOT_SIZE, next; (next = recordEnd(records, offset)) > 0; offset = next) {
+                long gameId = records.getLong(offset + ID_OFFSET);
+                int kind = records.getInt(offset) >>> 24;
+                int value = records.getInt(offset + VALUE_OFFSET);
+                if (kind == SNAPSHOT) {
+                    Long last = lastSnapshots.get(gameId);
+                    if (last != null && last == ((long) i << 32 | offset)) {
+                        boards.put(gameId, readSnapshot(records, offset, implementation));
+                    }
+                    continue;
+                }
+                ICheckerBoard board = boards.get(gameId);
+                if (board == null) {
+                    continue;
+                }
+                if (kind == MOVE) {
+                    board.makeMove(value);
+                } else if (kind == STEP) {
+                    GameSession.movePiece(board, BoardPosition.of(value >>> 16, value >>> 8 & 0xFF),
+                            DIRECTIONS[value & 0xFF]);
+                } else {
+                    boards.remove(gameId);
+                }
+            }
+        }
+        return boards;
+    }
+
+    /**
+     * Deletes the segments that existed when the journal was opened. Call it once every game rebuilt by recover has
+     * been written to this journal and forced, so the old segments are no longer needed.
+     *
+     * @pre None
+     *
+     * @post [the segments that existed when the journal was opened are deleted]
+     *
+     * @throws IOException if a segment can't be deleted
+     */
+    public void deleteRecoveredSegments() throws IOException {
+        for (Path file : recoveredSegments) {
+            Files.deleteIfExists(file);
+        }
+        recoveredSegments.clear();
+    }
+
+    /**
+     * Forces every record appended so far to disk and waits for it.
+     *
+     * @pre None
+     *
+     * @post [every record appended before the call is on disk]
+     */
+    public void sync() {
+        force();
+    }
+
+    /**
+     * Stops the background forces, forces the last records and stops the journal taking records.
+     *
+     * @pre None
+     *
+     * @post [every record appended is on disk] AND [appending throws IllegalStateException]
+     */
+    @Override
+    public void close() {
+        forcer.shutdown();
+        try {
+            forcer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        force();
+        synchronized (this) {
+            closed = true;
+        }
+    }
+
+    /**
+     * Forces the pages written since the last force. The pages are taken under the journal's lock, but forced outside
+     * it, so games keep appending while the disk works. Forces run one at a time, so sync returns only after any force
+     * already running has finished.
+     */
+    private void force() {
+        synchronized (forceLock) {
+            MappedByteBuffer[] pages;
+            synchronized (this) {
+                if (!dirty || closed) {
+                    return;
+                }
+                dirty = false;
+                pages = filledSegments.toArray(new MappedByteBuffer[filledSegments.size() + 1]);
+                pages[pages.length - 1] = segment;
+                filledSegments.clear();
+            }
+            for (MappedByteBuffer page : pages) {
+                page.force();
+            }
+        }
+    }
+
+    /**
+     * Finds room for a record, moving on to a new segment if the current one hasn't enough left.
+     */
+    private int reserve(int size) {
+        if (closed) {
+            throw new IllegalStateException("The journal is closed.");
+        }
+        if (writeOffset + size > segmentSize) {
+            filledSegments.add(segment);
+            try {
+                openSegment();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't open a new journal segment.", e);
+            }
+        }
+        int offset = writeOffset;
+        writeOffset += size;
+        dirty = true;
+        return offset;
+    }
+
+    /**
+     * Writes the first slot of a record. The header goes last, so a reader never sees a header whose value, id or
+     * payload is missing.
+     */
+    private void writeFirstSlot(int offset, int kind, int extraSlots, int value, long gameId, int payloadChecksum) {
+        segment.putInt(offset + VALUE_OFFSET, value);
+        segment.putLong(offset + ID_OFFSET, gameId);
+        segment.putInt(offset, header(kind, extraSlots, value, gameId, payloadChecksum));
+    }
+
+    private void openSegment() throws IOException {
+        Path file = directory.resolve(String.format("journal-%08d.seg", nextSegmentNumber));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment.put(MAGIC);
+        segment.putInt(nextSegmentNumber);
+        segment.clear();
+        writeOffset = SLOT_SIZE;
+        nextSegmentNumber++;
+    }
+
+    /**
+     * Checks the record at an offset.
+     *
+     * @return The offset after the record, or -1 if there is no complete record at the offset.
+     */
+    private static int recordEnd(MappedByteBuffer records, int offset) {
+        if (offset + SLOT_SIZE > records.limit()) {
+            return -1;
+        }
+        int header = records.getInt(offset);
+        int kind = header >>> 24;
+        int extraSlots = header >>> 16 & 0xFF;
+        int end = offset + (1 + extraSlots) * SLOT_SIZE;
+        if (kind < SNAPSHOT || kind > END || end > records.limit()) {
+            return -1;
+        }
+        int payloadChecksum = 0;
+        if (kind == SNAPSHOT) {
+            int length = records.getInt(offset + VALUE_OFFSET);
+            if (length < 0 || length > extraSlots * SLOT_SIZE) {
+                return -1;
+            }
+            payloadChecksum = checksum(records, offset + SLOT_SIZE, length);
+        }
+        int expected = header(kind, extraSlots, records.getInt(offset + VALUE_OFFSET),
+                records.getLong(offset + ID_OFFSET), payloadChecksum);
+        return expected == header ? end : -1;
+    }
+
+    private static ICheckerBoard readSnapshot(MappedByteBuffer records, int offset, String implementation) {
+        char playerOne = (char) records.get(offset + SLOT_SIZE);
+        char playerTwo = (char) records.get(offset + SLOT_SIZE + 1);
+        ByteBuffer encoded = records.duplicate();
+        encoded.position(offset + SLOT_SIZE + 2);
+        ICheckerBoard board = newBoard(implementation, BoardCodec.peekDimension(encoded), playerOne, playerTwo);
+        BoardCodec.decode(encoded, board);
+        return board;
+    }
+
+    private static ICheckerBoard newBoard(String implementation, int dimension, char playerOne, char playerTwo) {
+        switch (implementation.toUpperCase()) {
+            case "F":
+                return new CheckerBoard(dimension, playerOne, playerTwo);
+            case "M":
+                return new CheckerBoardMem(dimension, playerOne, playerTwo);
+            case "B":
+                return new CheckerBoardBit(dimension, playerOne, playerTwo);
+            default:
+                throw new IllegalArgumentException("Unknown board implementation: " + implementation);
+        }
+    }
+
+    private static int header(int kind, int extraSlots, int value, long gameId, int payloadChecksum) {
+        long h = gameId * 0x9E3779B97F4A7C15L ^ (value + ((long) kind << 32)) * 0xC2B2AE3D27D4EB4FL ^ payloadChecksum;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        int check = (int) (h ^ h >>> 16 ^ h >>> 32 ^ h >>> 48) & 0xFFFF;
+        return kind << 24 | extraSlots << 16 | check;
+    }
+
+    private static int checksum(ByteBuffer payload, int start, int length) {
+        int h = 0x811C9DC5;
+        for (int i = start; i < start + length; i++) {
+            h = (h ^ payload.get(i)) * 0x01000193;
+        }
+        return h;
+    }
+
+    private static boolean hasMagic(MappedByteBuffer records) {
+        byte[] magic = new byte[MAGIC.length];
+        for (int i = 0; i < magic.length; i++) {
+            magic[i] = records.get(i);
+        }
+        return Arrays.equals(magic, MAGIC);
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring("journal-".length(), name.length() - ".seg".length()));
+    }
+}
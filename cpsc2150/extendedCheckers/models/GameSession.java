@@ -0,0 +1,205 @@
+package cpsc2150.extendedCheckers.models;
+
+import cpsc2150.extendedCheckers.util.DirectionEnum;
+
+/**
+ * One game of checkers: its board, whose turn it is and the characters of its two players. The board keeps the turn
+ * and the player characters, so a session holds no state of its own besides its id, and any number of sessions can
+ * be played in one process.
+ *
+ * A session isn't safe to use from several threads at once. GameSessionRegistry runs every use of a session it holds
+ * under that session's lock.
+ *
+ * A session given a journal records every move in it, and a snapshot of its board every
+ * GameJournal.SNAPSHOT_INTERVAL moves, so the game can be rebuilt if the process dies.
+ *
+ * @invariant [board is the only board of this session] AND getCurrentPlayer() is getPlayerOne() or getPlayerTwo()
+ *            AND 0 <= movesSinceSnapshot < GameJournal.SNAPSHOT_INTERVAL
+ */
+public class GameSession {
+    private final long id;
+    private final ICheckerBoard board;
+
+    /**
+     * The journal the session records its moves in, or null if it isn't recorded.
+     */
+    private final GameJournal journal;
+    private int movesSinceSnapshot;
+
+    /**
+     * Constructs a session for a board, with player one to move.
+     *
+     * @param id the number that identifies the session
+     * @param board the board the game is played on
+     *
+     * @pre board != null
+     *
+     * @post getId() = id AND getBoard() = board AND getCurrentPlayer() = board.getPlayerOne()
+     */
+    public GameSession(long id, ICheckerBoard board) {
+        this.id = id;
+        this.board = board;
+        this.journal = null;
+        board.setPlayerToMove(board.getPlayerOne());
+    }
+
+    /**
+     * Constructs a session that records its game in a journal, for a board in any position. The board's player to
+     * move keeps the turn, so a game rebuilt from a journal goes on where it stopped.
+     *
+     * @param id the number that identifies the session
+     * @param board the board the game is played on
+     * @param journal the journal to record the game in
+     *
+     * @pre board != null AND journal != null
+     *
+     * @post getId() = id AND getBoard() = board AND getCurrentPlayer() = board.getPlayerToMove() AND
+     *       [a snapshot of board is appended to journal]
+     */
+    public GameSession(long id, ICheckerBoard board, GameJournal journal) {
+        this.id = id;
+        this.board = board;
+        this.journal = journal;
+        journal.snapshot(id, board);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public ICheckerBoard getBoard() {
+        return board;
+    }
+
+    public char getPlayerOne() {
+        return board.getPlayerOne();
+    }
+
+    public char getPlayerTwo() {
+        return board.getPlayerTwo();
+    }
+
+    public char getCurrentPlayer() {
+        return board.getPlayerToMove();
+    }
+
+    /**
+     * Moves or jumps one of the current player's pieces in a direction, crowns it if it reaches the far row and passes
+     * the turn.
+     *
+     * @param startPos the position of the piece to move
+     * @param dir the direction to move the piece in
+     *
+     * @pre dir is one of the viable directions of the piece on startPos
+     *
+     * @post movePiece = [true if the piece on startPos is the current player's and could move or jump in dir] AND
+     *       [if true, the piece is moved, crowned if it reached the far row, and the turn is passed; otherwise
+     *       self = #self]
+     *
+     * @return true if the piece was moved.
+     */
+    public boolean movePiece(BoardPosition startPos, DirectionEnum dir) {
+        if (!movePiece(board, startPos, dir)) {
+            return false;
+        }
+        if (journal != null && !snapshotIfDue()) {
+            journal.step(id, startPos, dir);
+        }
+        return true;
+    }
+
+    /**
+     * Moves or jumps a piece of the player to move on a board the way movePiece does, for replaying a journal.
+     */
+    static boolean movePiece(ICheckerBoard board, BoardPosition startPos, DirectionEnum dir) {
+        char piece = board.whatsAtPos(startPos);
+        if (Character.toLowerCase(piece) != board.getPlayerToMove()) {
+            return false;
+        }
+
+        BoardPosition newPos = board.movePiece(startPos, dir);
+        if (newPos.equals(startPos)) {
+            newPos = board.jumpPiece(startPos, dir);
+        }
+        if (newPos.equals(startPos)) {
+            return false;
+        }
+        board.crownPiece(newPos);
+        board.setPlayerToMove(board.getOpponent(piece));
+        return true;
+    }
+
+    /**
+     * Makes a packed move for the current player, which passes the turn.
+     *
+     * @param move a packed move, as listed by board.generateMoves for the current player
+     *
+     * @pre move is a legal move for the current player
+     *
+     * @post [the move is made on board] AND getCurrentPlayer() = [the other player]
+     */
+    public void makeMove(int move) {
+        board.makeMove(move);
+        if (journal != null && !snapshotIfDue()) {
+            journal.move(id, move);
+        }
+    }
+
+    /**
+     * Gives the turn to the other player without a move, as when the current player can't move.
+     *
+     * @pre None
+     *
+     * @post getCurrentPlayer() = [the other player] AND board = #board
+     */
+    public void passTurn() {
+        board.setPlayerToMove(board.getOpponent(getCurrentPlayer()));
+        if (journal != null) {
+            journal.snapshot(id, board);
+            movesSinceSnapshot = 0;
+        }
+    }
+
+    /**
+     * Counts a move and writes a snapshot in place of its move record once SNAPSHOT_INTERVAL moves have been made
+     * since the last one.
+     *
+     * @return true if a snapshot was written.
+     */
+    private boolean snapshotIfDue() {
+        if (++movesSinceSnapshot < GameJournal.SNAPSHOT_INTERVAL) {
+            return false;
+        }
+        journal.snapshot(id, board);
+        movesSinceSnapshot = 0;
+        return true;
+    }
+
+    public boolean isGameOver() {
+        return getWinner() != 0;
+    }
+
+    /**
+     * Gets the player who has won the game: the player who has taken every piece of the other, or the player whose
+     * opponent is to move but has no legal move. The check takes constant time on boards that keep a mobility count.
+     *
+     * @pre None
+     *
+     * @post getWinner = [the character of the player who has taken every piece of the other, or else of the player
+     *       who isn't to move if the current player can't move, or 0 if neither] AND self = #self
+     *
+     * @return The winner's character, or 0.
+     */
+    public char getWinner() {
+        if (board.checkPlayerWin(board.getPlayerOne())) {
+            return board.getPlayerOne();
+        }
+        if (board.checkPlayerWin(board.getPlayerTwo())) {
+            return board.getPlayerTwo();
+        }
+        if (!board.hasLegalMove(getCurrentPlayer())) {
+            return board.getOpponent(getCurrentPlayer());
+        }
+        return 0;
+    }
+}
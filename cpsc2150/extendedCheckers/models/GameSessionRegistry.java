@@ -0,0 +1,232 @@
+package cpsc2150.extendedCheckers.models;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Holds the sessions of every game hosted by one process, looked up by game id. The sessions are split over a fixed
+ * number of stripes, each a map guarded by its own lock, and a game's id picks its stripe. Threads working on games of
+ * different stripes never wait for each other, and every use of a session runs under its stripe's lock, so a session
+ * is only ever touched by one thread at a time.
+ *
+ * A registry made with a journal records every game it holds in it, and recover rebuilds the games a journal held
+ * when the process last stopped.
+ *
+ * @invariant stripeSessions.length = stripeLocks.length = [a power of two] AND
+ *            [every session is in the map of the stripe its id picks]
+ */
+public class GameSessionRegistry {
+    /**
+     * The number of stripes of a registry made without a count.
+     */
+    public static final int DEFAULT_STRIPES = 256;
+
+    private final ReentrantLock[] stripeLocks;
+    private final HashMap<Long, GameSession>[] stripeSessions;
+    private final int stripeShift;
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * The journal every session is recorded in, or null if the games aren't recorded.
+     */
+    private final GameJournal journal;
+
+    public GameSessionRegistry() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public GameSessionRegistry(int stripes) {
+        this(stripes, null);
+    }
+
+    /**
+     * Constructs an empty registry.
+     *
+     * @param stripes the number of locks to split the sessions over
+     * @param journal the journal to record every game in, or null to record none
+     *
+     * @pre stripes is a power of two AND 1 <= stripes <= 65536
+     *
+     * @post [a registry with no sessions and stripes stripes]
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public GameSessionRegistry(int stripes, GameJournal journal) {
+        if (stripes < 1 || stripes > 65536 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Invalid stripe count.");
+        }
+        stripeLocks = new ReentrantLock[stripes];
+        stripeSessions = new HashMap[stripes];
+        for (int i = 0; i < stripes; i++) {
+            stripeLocks[i] = new ReentrantLock();
+            stripeSessions[i] = new HashMap<>();
+        }
+        stripeShift = 64 - Integer.numberOfTrailingZeros(stripes);
+        this.journal = journal;
+    }
+
+    /**
+     * Starts a new game on a board and gives it an id no other game of this registry has had.
+     *
+     * @param board the board the game is played on, used by no other session
+     *
+     * @pre board != null
+     *
+     * @post create = [the new game's id] AND [the registry holds a session for it with player one to move]
+     *
+     * @return The id of the new game.
+     */
+    public long create(ICheckerBoard board) {
+        long id = nextId.getAndIncrement();
+        GameSession session;
+        if (journal == null) {
+            session = new GameSession(id, board);
+        } else {
+            board.setPlayerToMove(board.getPlayerOne());
+            session = new GameSession(id, board, journal);
+        }
+        add(session);
+        return id;
+    }
+
+    /**
+     * Rebuilds the games held in the segments the registry's journal found when it was opened, and holds them under
+     * their old ids. Each game is written to the journal again, after which the old segments are deleted.
+     *
+     * @param implementation F for CheckerBoard, M for CheckerBoardMem or B for CheckerBoardBit
+     *
+     * @pre [the registry has a journal] AND implementation is F, M or B, in either case
+     *
+     * @post recover = [the number of games rebuilt] AND [the registry holds a session for each] AND
+     *       [ids given by create are larger than every rebuilt id]
+     *
+     * @return The number of games rebuilt.
+     *
+     * @throws IOException if the journal can't be read or its old segments can't be deleted
+     */
+    public int recover(String implementation) throws IOException {
+        if (journal == null) {
+            throw new IllegalStateException("The registry has no journal.");
+        }
+        Map<Long, ICheckerBoard> boards = journal.recover(implementation);
+        for (Map.Entry<Long, ICheckerBoard> game : boards.entrySet()) {
+            long id = game.getKey();
+            add(new GameSession(id, game.getValue(), journal));
+            nextId.accumulateAndGet(id + 1, Math::max);
+        }
+        journal.sync();
+        journal.deleteRecoveredSegments();
+        return boards.size();
+    }
+
+    private void add(GameSession session) {
+        long id = session.getId();
+        int stripe = stripeOf(id);
+        stripeLocks[stripe].lock();
+        try {
+            stripeSessions[stripe].put(id, session);
+        } finally {
+            stripeLocks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Runs an action on a game's session while holding its stripe's lock. The action must not keep the session to use
+     * after it returns.
+     *
+     * @param id the game's id
+     * @param action what to do with the session
+     *
+     * @pre contains(id) AND action != null
+     *
+     * @post withSession = [the value action returned] AND [no other thread used the stripe's sessions meanwhile]
+     *
+     * @return The value the action returned.
+     *
+     * @throws IllegalArgumentException if there is no game with the id
+     */
+    public <T> T withSession(long id, Function<GameSession, T> action) {
+        int stripe = stripeOf(id);
+        stripeLocks[stripe].lock();
+        try {
+            GameSession session = stripeSessions[stripe].get(id);
+            if (session == null) {
+                throw new IllegalArgumentException("No game with id " + id + ".");
+            }
+            return action.apply(session);
+        } finally {
+            stripeLocks[stripe].unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        int stripe = stripeOf(id);
+        stripeLocks[stripe].lock();
+        try {
+            return stripeSessions[stripe].containsKey(id);
+        } finally {
+            stripeLocks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Ends a game and drops its session.
+     *
+     * @param id the game's id
+     *
+     * @pre None
+     *
+     * @post remove = [true if there was a game with the id] AND NOT contains(id)
+     *
+     * @return true if a game was removed.
+     */
+    public boolean remove(long id) {
+        int stripe = stripeOf(id);
+        stripeLocks[stripe].lock();
+        try {
+            if (stripeSessions[stripe].remove(id) == null) {
+                return false;
+            }
+        } finally {
+            stripeLocks[stripe].unlock();
+        }
+        if (journal != null) {
+            journal.end(id);
+        }
+        return true;
+    }
+
+    /**
+     * Counts the games in the registry, one stripe at a time, so games created or removed meanwhile may or may not be
+     * counted.
+     *
+     * @pre None
+     *
+     * @post size = [the number of sessions held]
+     *
+     * @return The number of games.
+     */
+    public int size() {
+        int total = 0;
+        for (int stripe = 0; stripe < stripeLocks.length; stripe++) {
+            stripeLocks[stripe].lock();
+            try {
+                total += stripeSessions[stripe].size();
+            } finally {
+                stripeLocks[stripe].unlock();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Picks the stripe of an id by the top bits of a multiplicative hash, so consecutive ids land on different
+     * stripes.
+     */
+    private int stripeOf(long id) {
+        return stripeShift == 64 ? 0 : (int) ((id * 0x9E3779B97F4A7C15L) >>> stripeShift);
+    }
+}
@@ -1,7 +1,8 @@
 package cpsc2150.extendedCheckers.models;
 
 import cpsc2150.extendedCheckers.util.DirectionEnum;
-import cpsc2150.extendedCheckers.views.CheckersFE;
+import cpsc2150.extendedCheckers.util.PackedMove;
+import cpsc2150.extendedCheckers.util.PackedNeighborhood;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -43,6 +44,22 @@ public interface ICheckerBoard {
 
     public static final int ADD_ONE = 1;
 
+    /**
+     * A move buffer of this size holds every legal move of any position reachable in a normal game.
+     */
+    public static final int MOVE_BUFFER_SIZE = 512;
+
+    /**
+     * A neighborhood buffer of this size holds an entry for every piece a player can have on any board.
+     */
+    public static final int NEIGHBORHOOD_BUFFER_SIZE = BOARD_MAX_SIZE * BOARD_MAX_SIZE / 2;
+
+    /**
+     * A square mask of this many longs has one bit for every playable square of the largest board, numbered as in
+     * PackedMove: square s is bit s % 64 of word s / 64.
+     */
+    public static final int SQUARE_MASK_WORDS = 2;
+
     /**
     * Places a player's piece on the board at the specified position.
     *
@@ -100,6 +117,57 @@ public interface ICheckerBoard {
     */
     HashMap<Character, Integer> getPieceCounts();
 
+    /**
+    * Gets the number of pieces, kings included, that a player has on the board.
+    *
+    * @param player the player's piece character
+    *
+    * @pre None
+    *
+    * @post getPieceCount = [the number of positions holding player's piece or king] AND self = #self AND
+    *       pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    * @return The number of pieces player has on the board.
+    *
+    */
+    default int getPieceCount(char player) {
+        int count = 0;
+        for (int row = 0; row < getRowNum(); row++) {
+            for (int col = 0; col < getColNum(); col++) {
+                if (Character.toLowerCase(whatsAtPos(BoardPosition.of(row, col))) == Character.toLowerCase(player)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+    * Gets the number of kings that a player has on the board.
+    *
+    * @param player the player's piece character
+    *
+    * @pre None
+    *
+    * @post getKingCount = [the number of positions holding player's king] AND self = #self AND
+    *       pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    * @return The number of kings player has on the board.
+    *
+    */
+    default int getKingCount(char player) {
+        char king = Character.toUpperCase(player);
+        int count = 0;
+        for (int row = 0; row < getRowNum(); row++) {
+            for (int col = 0; col < getColNum(); col++) {
+                if (whatsAtPos(BoardPosition.of(row, col)) == king) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
       /**
     * Gets the number of rows on the board.
     *
@@ -209,7 +277,7 @@ public interface ICheckerBoard {
         int opponentCount = 0;
         
         // Determine the opponent's character
-        char opponent = (player == CheckersFE.getPlayerOne()) ? CheckersFE.getPlayerTwo() : CheckersFE.getPlayerOne();
+        char opponent = getOpponent(player);
         
         // Convert player and opponent to uppercase to correctly identify kinged pieces
         char playerKing = Character.toUpperCase(player);
@@ -217,7 +285,7 @@ public interface ICheckerBoard {
     
         for (int row = 0; row < getRowNum(); row++) {
             for (int col = 0; col < getColNum(); col++) {
-                char piece = whatsAtPos(new BoardPosition(row, col));
+                char piece = whatsAtPos(BoardPosition.of(row, col));
                 
                 // Check for both regular and kinged pieces of the player
                 if (piece == player || piece == playerKing) {
@@ -249,10 +317,10 @@ public interface ICheckerBoard {
     default void crownPiece(BoardPosition posOfPlayer) {
         char currentPiece = whatsAtPos(posOfPlayer);
         if (Character.isLowerCase(currentPiece)) {
-            if (currentPiece == CheckersFE.getPlayerOne() && posOfPlayer.getRow() == getRowNum() - 1) {
+            if (currentPiece == getPlayerOne() && posOfPlayer.getRow() == getRowNum() - 1) {
                 placePiece(posOfPlayer, Character.toUpperCase(currentPiece));
             }
-            else if (currentPiece == CheckersFE.getPlayerTwo() && posOfPlayer.getRow() == 0) {
+            else if (currentPiece == getPlayerTwo() && posOfPlayer.getRow() == 0) {
                 placePiece(posOfPlayer, Character.toUpperCase(currentPiece));
             }
         }
@@ -273,18 +341,21 @@ public interface ICheckerBoard {
     *
     */
     default BoardPosition movePiece(BoardPosition startingPos, DirectionEnum dir) {
-        BoardPosition direction = getDirection(dir);
-
-        int newRow = startingPos.getRow() + direction.getRow();
-        int newCol = startingPos.getColumn() + direction.getColumn();
+        NeighborTable table = NeighborTable.of(getRowNum());
+        int from = table.square(startingPos);
+        if (from == NeighborTable.OFF_BOARD) {
+            return startingPos;
+        }
+        int to = table.neighbor(from, dir.ordinal());
 
-        if (newRow >= 0 && newRow < getRowNum() && newCol >= 0 && newCol < getColNum()) {
+        if (to != NeighborTable.OFF_BOARD) {
             char piece = whatsAtPos(startingPos);
-            
-            if (whatsAtPos(new BoardPosition(newRow, newCol)) == EMPTY_POS) {
-                placePiece(new BoardPosition(newRow, newCol), piece);
+            BoardPosition newPos = table.position(to);
+
+            if (whatsAtPos(newPos) == EMPTY_POS) {
+                placePiece(newPos, piece);
                 placePiece(startingPos, EMPTY_POS);
-                return new BoardPosition(newRow, newCol);
+                return newPos;
             }
         }
         return startingPos;
@@ -307,24 +378,24 @@ public interface ICheckerBoard {
     *
     */
     default BoardPosition jumpPiece(BoardPosition startingPos, DirectionEnum dir) {
-    
-        BoardPosition jumpOverPosRel = getDirection(dir); 
-    
-        int jumpOverRow = startingPos.getRow() + jumpOverPosRel.getRow();
-        int jumpOverCol = startingPos.getColumn() + jumpOverPosRel.getColumn();
-        BoardPosition jumpOverPos = new BoardPosition(jumpOverRow, jumpOverCol);
-    
-        int finalRow = jumpOverRow + jumpOverPosRel.getRow();
-        int finalCol = jumpOverCol + jumpOverPosRel.getColumn();
-        BoardPosition finalPos = new BoardPosition(finalRow, finalCol);
-    
-        if (finalRow >= 0 && finalRow < getRowNum() && finalCol >= 0 && finalCol < getColNum()) {
-            char opponentPiece = whatsAtPos(jumpOverPos);
+        NeighborTable table = NeighborTable.of(getRowNum());
+        int from = table.square(startingPos);
+        if (from == NeighborTable.OFF_BOARD) {
+            return startingPos;
+        }
+        int over = table.neighbor(from, dir.ordinal());
+        int to = table.jump(from, dir.ordinal());
+
+        if (to != NeighborTable.OFF_BOARD) {
+            BoardPosition jumpOverPos = table.position(over);
+            BoardPosition finalPos = table.position(to);
+            char jumpedPiece = whatsAtPos(jumpOverPos);
             char currentPiece = whatsAtPos(startingPos);
-    
+
             // Ensure jumping over an opponent's piece and landing on an empty position
-            if (opponentPiece != currentPiece && opponentPiece != EMPTY_POS && whatsAtPos(finalPos) == EMPTY_POS) {
-    
+            if (currentPiece != EMPTY_POS && Character.toLowerCase(jumpedPiece) == getOpponent(currentPiece)
+                    && whatsAtPos(finalPos) == EMPTY_POS) {
+
                 placePiece(finalPos, currentPiece);
                 placePiece(jumpOverPos, EMPTY_POS);
                 placePiece(startingPos, EMPTY_POS);
@@ -352,22 +423,698 @@ public interface ICheckerBoard {
     */
     default HashMap<DirectionEnum, Character> scanSurroundingPositions(BoardPosition startingPos) {
         HashMap<DirectionEnum, Character> surroundingPieces = new HashMap<>();
+        long surrounding = scanSurroundingPacked(startingPos);
+
+        for (DirectionEnum dir : DirectionEnum.values()) {
+            surroundingPieces.put(dir, surroundingPiece(surrounding, dir));
+        }
+        return surroundingPieces;
+    }
+
+    /**
+    * Scans the four squares around a position without allocating, packing the piece in each direction into one long.
+    * The piece in a direction is read back with surroundingPiece.
+    *
+    * @param startingPos a piece's starting position on the board.
+    *
+    * @pre startingPos != null
+    *
+    * @post scanSurroundingPacked = [for each DirectionEnum dir, the character of the piece next to startingPos in dir,
+    *       or EMPTY_POS if that square is empty, off the board or startingPos isn't a playable square, in the 16 bits
+    *       starting at bit 16 * dir.ordinal()] AND self = #self AND pieceCounts = #pieceCounts AND
+    *       viableDirections = #viableDirections.
+    *
+    * @return The four neighboring pieces, packed.
+    *
+    */
+    default long scanSurroundingPacked(BoardPosition startingPos) {
+        NeighborTable table = NeighborTable.of(getRowNum());
+        int square = table.square(startingPos);
+        if (square == NeighborTable.OFF_BOARD) {
+            return packSurrounding(EMPTY_POS, EMPTY_POS, EMPTY_POS, EMPTY_POS);
+        }
+
+        long surrounding = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int neighbor = table.neighbor(square, dir);
+            char piece = neighbor == NeighborTable.OFF_BOARD ? EMPTY_POS : whatsAtPos(table.position(neighbor));
+            surrounding |= (long) piece << (Character.SIZE * dir);
+        }
+        return surrounding;
+    }
+
+    /**
+    * Reads the piece in one direction from the result of scanSurroundingPacked.
+    *
+    * @param surrounding four pieces packed by scanSurroundingPacked
+    * @param dir the direction to read
+    *
+    * @pre dir != null
+    *
+    * @post surroundingPiece = [the character packed for dir in surrounding]
+    *
+    * @return The piece in direction dir.
+    *
+    */
+    static char surroundingPiece(long surrounding, DirectionEnum dir) {
+        return (char) (surrounding >>> (Character.SIZE * dir.ordinal()));
+    }
+
+    /**
+    * Packs four pieces as scanSurroundingPacked returns them.
+    *
+    * @pre None
+    *
+    * @post packSurrounding = [ne, nw, se and sw packed in DirectionEnum order]
+    *
+    * @return The packed pieces.
+    *
+    */
+    static long packSurrounding(char ne, char nw, char se, char sw) {
+        return ne | (long) nw << Character.SIZE | (long) se << (2 * Character.SIZE) | (long) sw << (3 * Character.SIZE);
+    }
+
+    /**
+    * Scans the surroundings of every piece of a player in one pass, writing one PackedNeighborhood entry per piece
+    * with the occupancy of the adjacent and landing squares in each direction.
+    *
+    * @param player the player's piece character
+    * @param neighborhoods the buffer the entries are written into, starting at index 0
+    *
+    * @pre neighborhoods.length >= getPieceCount(player), which NEIGHBORHOOD_BUFFER_SIZE always is.
+    *
+    * @post scanNeighborhoods = [the number of player's pieces, or 0 if player isn't a player of the board] AND
+    *       [neighborhoods holds an entry for each of player's pieces, men and kings, in increasing square order] AND
+    *       self = #self AND pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    * @return The number of entries written.
+    *
+    */
+    default int scanNeighborhoods(char player, int[] neighborhoods) {
+        NeighborTable table = NeighborTable.of(getRowNum());
+        char man = Character.toLowerCase(player);
+        if (man != getPlayerOne() && man != getPlayerTwo()) {
+            return 0;
+        }
+
+        int count = 0;
+        for (int square = 0; square < table.squareCount(); square++) {
+            if (Character.toLowerCase(whatsAtPos(table.position(square))) != man) {
+                continue;
+            }
+            int entry = PackedNeighborhood.encode(square);
+            for (int dir = 0; dir < 4; dir++) {
+                entry = PackedNeighborhood.withDirection(entry, dir, occupancy(table, table.neighbor(square, dir), man),
+                        occupancy(table, table.jump(square, dir), man));
+            }
+            neighborhoods[count++] = entry;
+        }
+        return count;
+    }
+
+    /**
+    * Gets the occupancy of a square, seen from a player.
+    *
+    * @pre man is a player's piece character
+    *
+    * @post occupancy = [the PackedNeighborhood occupancy of square]
+    *
+    * @return The occupancy.
+    */
+    private int occupancy(NeighborTable table, int square, char man) {
+        if (square == NeighborTable.OFF_BOARD) {
+            return PackedNeighborhood.OFF_BOARD;
+        }
+        char piece = whatsAtPos(table.position(square));
+        if (piece == EMPTY_POS) {
+            return PackedNeighborhood.EMPTY;
+        }
+        return Character.toLowerCase(piece) == man ? PackedNeighborhood.OWN : PackedNeighborhood.OPPONENT;
+    }
+
+    /**
+    * Gets the masks of the squares holding a player's men and kings.
+    *
+    * @param player the player's piece character
+    * @param men the mask the men's squares are written into
+    * @param kings the mask the kings' squares are written into
+    *
+    * @pre men.length >= SQUARE_MASK_WORDS AND kings.length >= SQUARE_MASK_WORDS
+    *
+    * @post [men and kings hold the squares of player's men and kings, and nothing else] AND self = #self AND
+    *       pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    */
+    default void getPieceMasks(char player, long[] men, long[] kings) {
+        NeighborTable table = NeighborTable.of(getRowNum());
+        char man = Character.toLowerCase(player);
+        for (int word = 0; word < SQUARE_MASK_WORDS; word++) {
+            men[word] = 0;
+            kings[word] = 0;
+        }
+        for (int square = 0; square < table.squareCount(); square++) {
+            char piece = whatsAtPos(table.position(square));
+            if (piece == man) {
+                men[square / Long.SIZE] |= 1L << square;
+            }
+            else if (Character.toLowerCase(piece) == man) {
+                kings[square / Long.SIZE] |= 1L << square;
+            }
+        }
+    }
+
+    /**
+    * Gets the mask of a player's pieces that can move, stepping to an empty square or jumping, in a direction they may
+    * move in. Whether a capture elsewhere forces another piece to move isn't considered, so a player has a legal move
+    * exactly when the mask isn't empty.
+    *
+    * @param player the player's piece character
+    * @param mask the square mask the pieces are written into
+    *
+    * @pre mask.length >= SQUARE_MASK_WORDS
+    *
+    * @post [mask holds the squares of player's pieces that can step or jump, and nothing else] AND self = #self AND
+    *       pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    */
+    default void getMovablePieces(char player, long[] mask) {
+        computeMask(BoardMasks.MOVABLE, player, mask);
+    }
+
+    /**
+    * Gets the mask of a player's pieces that can capture: an opponent's piece is next to them, in a direction they
+    * may move in, with an empty square beyond it.
+    *
+    * @param player the player's piece character
+    * @param mask the square mask the pieces are written into
+    *
+    * @pre mask.length >= SQUARE_MASK_WORDS
+    *
+    * @post [mask holds the squares of player's pieces that can jump, and nothing else] AND self = #self AND
+    *       pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    */
+    default void getCapturingPieces(char player, long[] mask) {
+        computeMask(BoardMasks.CAPTURING, player, mask);
+    }
+
+    /**
+    * Gets the mask of a player's pieces that the opponent could capture with its next jump.
+    *
+    * @param player the player's piece character
+    * @param mask the square mask the pieces are written into
+    *
+    * @pre mask.length >= SQUARE_MASK_WORDS
+    *
+    * @post [mask holds the squares of player's pieces that an opponent's piece can jump, and nothing else] AND
+    *       self = #self AND pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    */
+    default void getThreatenedPieces(char player, long[] mask) {
+        computeMask(BoardMasks.THREATENED, player, mask);
+    }
+
+    /**
+    * Checks if a player has any legal move: a piece that can step to an empty square or jump in a direction it may
+    * move in.
+    *
+    * @param player the player's piece character
+    *
+    * @pre None
+    *
+    * @post hasLegalMove = [true if getMovablePieces(player) isn't empty] AND self = #self AND
+    *       pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    * @return true if player can move.
+    *
+    */
+    default boolean hasLegalMove(char player) {
+        long[] mask = new long[SQUARE_MASK_WORDS];
+        getMovablePieces(player, mask);
+        for (long word : mask) {
+            if (word != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+    * Computes a mask from the pieces of both players, reading them into newly made scratch masks. Implementations
+    * that keep state override the mask methods to reuse their own.
+    *
+    * @pre kind is one of the BoardMasks kinds AND mask.length >= SQUARE_MASK_WORDS
+    *
+    * @post [mask holds the mask of kind for player, or is empty if player isn't a player of the board]
+    */
+    private void computeMask(int kind, char player, long[] mask) {
+        BoardMasks.compute(kind, this, player, new long[BoardMasks.SCRATCH_MASKS][SQUARE_MASK_WORDS], mask);
+    }
+
+    /**
+    * Makes a move and remembers what it changed so it can be undone.
+    *
+    * @param move a packed move, as listed by generateMoves
+    *
+    * @pre move is a legal move for the piece on its starting square.
+    *
+    * @post makeMove = [the piece is moved to the move's last square and crowned if the move promotes it, and every
+    *       piece it captures is removed] AND pieceCounts = [#pieceCounts less the captured pieces] AND
+    *       viableDirections = #viableDirections.
+    *
+    */
+    void makeMove(int move);
+
+    /**
+    * Undoes the last move made by makeMove that hasn't been undone yet.
+    *
+    * @pre getUndoCount() > 0
+    *
+    * @post unmakeMove = [the move that was undone] AND self = [the board as it was before that move was made] AND
+    *       pieceCounts = [the counts before that move was made] AND viableDirections = #viableDirections.
+    *
+    * @return The packed move that was undone.
+    *
+    */
+    int unmakeMove();
 
-        DirectionEnum[] directions = {DirectionEnum.NE, DirectionEnum.NW, DirectionEnum.SE, DirectionEnum.SW};
+    /**
+    * Gets the number of moves made by makeMove that can still be undone.
+    *
+    * @pre None
+    *
+    * @post getUndoCount = [the number of moves unmakeMove can undo] AND self = #self AND pieceCounts = #pieceCounts
+    *       AND viableDirections = #viableDirections.
+    *
+    * @return The number of moves that can be undone.
+    *
+    */
+    int getUndoCount();
 
-        for (DirectionEnum dir : directions) {
-            int newRow = startingPos.getRow() + getDirection(dir).getRow();
-            int newCol = startingPos.getColumn() + getDirection(dir).getColumn();
+    /**
+    * Gets the Zobrist key of the position: a 64 bit hash of every piece on the board and the player to move that is
+    * updated as pieces are placed, moved, jumped and crowned. Equal positions always have equal keys.
+    *
+    * @pre None
+    *
+    * @post getPositionKey = [the key of the current position] AND self = #self AND pieceCounts = #pieceCounts AND
+    *       viableDirections = #viableDirections.
+    *
+    * @return The key of the current position.
+    *
+    */
+    long getPositionKey();
 
-            if (newRow >= 0 && newRow < getRowNum() && newCol >= 0 && newCol < getColNum()) {
-                char piece = whatsAtPos(new BoardPosition(newRow, newCol));
-                surroundingPieces.put(dir, piece);
+    /**
+    * Gets the character of player one, whose men start at the top of the board and move down it. Each board keeps
+    * the characters it was made with, so boards of different games can use different characters.
+    *
+    * @pre None
+    *
+    * @post getPlayerOne = [player one's lowercase piece character] AND self = #self AND pieceCounts = #pieceCounts AND
+    *       viableDirections = #viableDirections.
+    *
+    * @return The character of player one.
+    *
+    */
+    char getPlayerOne();
+
+    /**
+    * Gets the character of player two, whose men start at the bottom of the board and move up it.
+    *
+    * @pre None
+    *
+    * @post getPlayerTwo = [player two's lowercase piece character] AND self = #self AND pieceCounts = #pieceCounts AND
+    *       viableDirections = #viableDirections.
+    *
+    * @return The character of player two.
+    *
+    */
+    char getPlayerTwo();
+
+    /**
+    * Gets the other player of this board.
+    *
+    * @param player the character of a player, or of one of their kings
+    *
+    * @pre player is one of the valid player characters.
+    *
+    * @post getOpponent = [getPlayerTwo() if player is player one's man or king, otherwise getPlayerOne()] AND
+    *       self = #self AND pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    * @return The character of the opponent.
+    *
+    */
+    default char getOpponent(char player) {
+        return Character.toLowerCase(player) == getPlayerOne() ? getPlayerTwo() : getPlayerOne();
+    }
+
+    /**
+    * Gets the player whose turn it is. Player one moves first, and makeMove and unmakeMove switch the turn.
+    *
+    * @pre None
+    *
+    * @post getPlayerToMove = [the character of the player to move] AND self = #self AND pieceCounts = #pieceCounts AND
+    *       viableDirections = #viableDirections.
+    *
+    * @return The character of the player to move.
+    *
+    */
+    char getPlayerToMove();
+
+    /**
+    * Sets the player whose turn it is, for moves made with movePiece and jumpPiece.
+    *
+    * @param player the character of the player to move
+    *
+    * @pre player is one of the valid player characters.
+    *
+    * @post getPlayerToMove() = player AND [the position key reflects the new player to move] AND
+    *       pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    */
+    void setPlayerToMove(char player);
+
+    /**
+    * Lists every legal move a player can make, packed as described by PackedMove. Captures are mandatory, so if any
+    * piece can jump only the jumping moves are listed. A jump continues as long as the piece can keep jumping, and
+    * every way of continuing is listed as its own move. A man that is crowned by a jump stops there.
+    *
+    * @param player the player's piece character
+    * @param moves the buffer the moves are written into, starting at index 0
+    *
+    * @pre player is one of the valid player characters AND moves.length >= the number of legal moves, which
+    *      MOVE_BUFFER_SIZE is for every position of a normal game.
+    *
+    * @post generateMoves = [the number of legal moves written to moves] AND self = #self AND
+    *       pieceCounts = #pieceCounts AND viableDirections = #viableDirections.
+    *
+    * @return The number of moves written to moves.
+    *
+    * @throws IllegalArgumentException if moves is too short to hold every legal move, or if more than
+    *         PackedMove.MAX_CHAIN_ORDINALS long chains share their squares and captures
+    */
+    default int generateMoves(char player, int[] moves) {
+        char owner = Character.toLowerCase(player);
+        char opponent = getOpponent(owner);
+        int dimension = getRowNum();
+        int count = 0;
+
+        for (int row = 0; row < dimension; row++) {
+            for (int col = row % 2; col < dimension; col += 2) {
+                char piece = whatsAtPos(BoardPosition.of(row, col));
+                if (Character.toLowerCase(piece) == owner) {
+                    count = generateJumps(piece, opponent, row, col, row, col, 0, 0, 0, 0, moves, count);
+                }
+            }
+        }
+        if (count > 0) {
+            return count;
+        }
+
+        for (int row = 0; row < dimension; row++) {
+            for (int col = row % 2; col < dimension; col += 2) {
+                char piece = whatsAtPos(BoardPosition.of(row, col));
+                if (Character.toLowerCase(piece) != owner) {
+                    continue;
+                }
+                for (int dir = 0; dir < 4; dir++) {
+                    int newRow = row + PackedMove.rowStep(dir);
+                    int newCol = col + PackedMove.colStep(dir);
+                    if (canStep(piece, dir) && newRow >= 0 && newRow < dimension && newCol >= 0 && newCol < dimension
+                            && whatsAtPos(BoardPosition.of(newRow, newCol)) == EMPTY_POS) {
+                        count = addMove(moves, count, PackedMove.encode(PackedMove.squareIndex(row, col, dimension),
+                                PackedMove.squareIndex(newRow, newCol, dimension), isPromotionRow(piece, newRow),
+                                0, PackedMove.withStep(0, 0, dir)));
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+    * Lists every jump that continues a capture already made by a piece, writing the finished captures into moves.
+    * The first MAX_PATH_CAPTURES steps of the capture are kept in path, and the squares it has jumped in
+    * capturedLow and capturedHigh, the bits of squares 0 to 63 and 64 to 127.
+    *
+    * @pre the piece started at (fromRow, fromCol), has made captures jumps along path, jumping the squares in
+    *      capturedLow and capturedHigh, and now stands on (row, col).
+    *
+    * @post generateJumps = [count plus the number of finished captures written to moves] AND self = #self
+    *
+    * @return The number of moves in moves after the captures are added.
+    */
+    private int generateJumps(char piece, char opponent, int fromRow, int fromCol, int row, int col,
+                              int captures, int path, long capturedLow, long capturedHigh, int[] moves, int count) {
+        int dimension = getRowNum();
+        boolean jumped = false;
+
+        for (int dir = 0; dir < 4; dir++) {
+            int over = jumpedSquare(piece, opponent, fromRow, fromCol, row, col, dir, capturedLow, capturedHigh);
+            if (over < 0) {
+                continue;
+            }
+            int landRow = row + 2 * PackedMove.rowStep(dir);
+            int landCol = col + 2 * PackedMove.colStep(dir);
+
+            jumped = true;
+            int newPath = captures < PackedMove.MAX_PATH_CAPTURES ? PackedMove.withStep(path, captures, dir) : path;
+            long newLow = over < 64 ? capturedLow | 1L << over : capturedLow;
+            long newHigh = over < 64 ? capturedHigh : capturedHigh | 1L << (over - 64);
+            if (isPromotionRow(piece, landRow)) {
+                count = addCapture(moves, count, PackedMove.squareIndex(fromRow, fromCol, dimension),
+                        PackedMove.squareIndex(landRow, landCol, dimension), true, captures + 1, newPath);
             }
             else {
-                surroundingPieces.put(dir, EMPTY_POS);
+                count = generateJumps(piece, opponent, fromRow, fromCol, landRow, landCol, captures + 1, newPath,
+                        newLow, newHigh, moves, count);
             }
         }
-        return surroundingPieces;
+
+        if (!jumped && captures > 0) {
+            count = addCapture(moves, count, PackedMove.squareIndex(fromRow, fromCol, dimension),
+                    PackedMove.squareIndex(row, col, dimension), false, captures, path);
+        }
+        return count;
+    }
+
+    /**
+    * Writes a finished capture into moves, as a long chain numbered after the ones already listed with the same
+    * squares and captures if it has more steps than path holds.
+    *
+    * @pre path holds the first min(captures, MAX_PATH_CAPTURES) steps.
+    *
+    * @post addCapture = count + 1 AND moves[count] = [the packed capture]
+    *
+    * @return The number of moves in moves after the capture is added.
+    *
+    * @throws IllegalArgumentException if moves is already full or already holds MAX_CHAIN_ORDINALS long chains like
+    *         this one
+    */
+    private static int addCapture(int[] moves, int count, int from, int to, boolean promotion, int captures,
+                                  int path) {
+        if (captures <= PackedMove.MAX_PATH_CAPTURES) {
+            return addMove(moves, count, PackedMove.encode(from, to, promotion, captures, path));
+        }
+        int ordinal = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (PackedMove.isLongChain(move) && move == PackedMove.encodeLongChain(from, to, promotion, captures,
+                    PackedMove.getChainOrdinal(move))) {
+                ordinal++;
+            }
+        }
+        if (ordinal == PackedMove.MAX_CHAIN_ORDINALS) {
+            throw new IllegalArgumentException("Too many long chains between the same squares.");
+        }
+        return addMove(moves, count, PackedMove.encodeLongChain(from, to, promotion, captures, ordinal));
+    }
+
+    /**
+    * Writes a move into moves.
+    *
+    * @pre None
+    *
+    * @post addMove = count + 1 AND moves[count] = move
+    *
+    * @return The number of moves in moves after the move is added.
+    *
+    * @throws IllegalArgumentException if moves is already full
+    */
+    private static int addMove(int[] moves, int count, int move) {
+        if (count == moves.length) {
+            throw new IllegalArgumentException("The move buffer can't hold every legal move.");
+        }
+        moves[count] = move;
+        return count + 1;
+    }
+
+    /**
+    * Finds the steps of a move listed by generateMoves. A long chain's steps aren't in the move, so they are found
+    * again by listing the captures of the piece on its first square, in the order generateMoves lists them.
+    *
+    * @param move a packed move, as listed by generateMoves for this position
+    * @param steps the buffer the DirectionEnum ordinal of each step is written into, starting at index 0
+    *
+    * @pre steps.length >= PackedMove.getStepCount(move)
+    *
+    * @post getMoveSteps = PackedMove.getStepCount(move) AND [steps holds the move's steps] AND self = #self
+    *
+    * @return The number of steps written to steps.
+    *
+    * @throws IllegalArgumentException if move is a long chain that isn't listed for this position
+    */
+    default int getMoveSteps(int move, int[] steps) {
+        int count = PackedMove.getStepCount(move);
+        if (!PackedMove.isLongChain(move)) {
+            for (int step = 0; step < count; step++) {
+                steps[step] = PackedMove.getStepOrdinal(move, step);
+            }
+            return count;
+        }
+        int dimension = getRowNum();
+        int row = PackedMove.squareRow(PackedMove.getFrom(move), dimension);
+        int col = PackedMove.squareColumn(PackedMove.getFrom(move), dimension);
+        char piece = whatsAtPos(BoardPosition.of(row, col));
+        if (piece != EMPTY_POS
+                && findChain(piece, getOpponent(piece), row, col, row, col, 0, 0, 0, move,
+                        PackedMove.getChainOrdinal(move), steps) < 0) {
+            return count;
+        }
+        throw new IllegalArgumentException("The long chain isn't a move of this position.");
+    }
+
+    /**
+    * Walks the captures of a piece in the order generateJumps lists them, writing the steps of the one it is on into
+    * steps, until it finishes the long chain move after skipping the given number of chains just like it.
+    *
+    * @pre the piece started at (fromRow, fromCol), has made captures jumps along steps, jumping the squares in
+    *      capturedLow and capturedHigh, and now stands on (row, col).
+    *
+    * @post findChain = [-1 if move was finished, with its steps in steps, otherwise skip less the number of chains
+    *       like move finished] AND self = #self
+    *
+    * @return -1 once the chain is found, otherwise the number of chains like move still to skip.
+    */
+    private int findChain(char piece, char opponent, int fromRow, int fromCol, int row, int col, int captures,
+                          long capturedLow, long capturedHigh, int move, int skip, int[] steps) {
+        int dimension = getRowNum();
+        boolean jumped = false;
+
+        for (int dir = 0; dir < 4 && skip >= 0; dir++) {
+            int over = jumpedSquare(piece, opponent, fromRow, fromCol, row, col, dir, capturedLow, capturedHigh);
+            if (over < 0) {
+                continue;
+            }
+            int landRow = row + 2 * PackedMove.rowStep(dir);
+            int landCol = col + 2 * PackedMove.colStep(dir);
+
+            jumped = true;
+            if (captures < PackedMove.getCaptureCount(move)) {
+                steps[captures] = dir;
+            }
+            if (isPromotionRow(piece, landRow)) {
+                skip = finishChain(move, PackedMove.squareIndex(landRow, landCol, dimension), true, captures + 1,
+                        skip);
+            }
+            else {
+                skip = findChain(piece, opponent, fromRow, fromCol, landRow, landCol, captures + 1,
+                        over < 64 ? capturedLow | 1L << over : capturedLow,
+                        over < 64 ? capturedHigh : capturedHigh | 1L << (over - 64), move, skip, steps);
+            }
+        }
+
+        if (!jumped && captures > 0) {
+            skip = finishChain(move, PackedMove.squareIndex(row, col, dimension), false, captures, skip);
+        }
+        return skip;
+    }
+
+    /**
+    * Counts a finished capture found by findChain against the chains like move still to skip.
+    *
+    * @pre skip >= 0
+    *
+    * @post finishChain = [skip - 1 if the capture ends on the same square with the same crowning and captures as
+    *       move, otherwise skip]
+    *
+    * @return The number of chains like move still to skip, or -1 if this capture is move.
+    */
+    private static int finishChain(int move, int to, boolean promotion, int captures, int skip) {
+        if (to == PackedMove.getTo(move) && promotion == PackedMove.isPromotion(move)
+                && captures == PackedMove.getCaptureCount(move)) {
+            return skip - 1;
+        }
+        return skip;
+    }
+
+    /**
+    * Checks if a piece partway through a capture can jump in a direction.
+    *
+    * @pre the piece started at (fromRow, fromCol), has jumped the squares in capturedLow and capturedHigh, and now
+    *      stands on (row, col). AND 0 <= dir < 4
+    *
+    * @post jumpedSquare = [the square of the piece jumped if the piece may jump an opponent's piece it hasn't
+    *       jumped yet in direction dir and land on an empty square or its first square, otherwise -1] AND
+    *       self = #self
+    *
+    * @return The index of the square jumped, or -1 if the piece can't jump that way.
+    */
+    private int jumpedSquare(char piece, char opponent, int fromRow, int fromCol, int row, int col, int dir,
+                             long capturedLow, long capturedHigh) {
+        int dimension = getRowNum();
+        int overRow = row + PackedMove.rowStep(dir);
+        int overCol = col + PackedMove.colStep(dir);
+        int landRow = overRow + PackedMove.rowStep(dir);
+        int landCol = overCol + PackedMove.colStep(dir);
+        if (!canStep(piece, dir) || landRow < 0 || landRow >= dimension || landCol < 0 || landCol >= dimension) {
+            return -1;
+        }
+        int over = PackedMove.squareIndex(overRow, overCol, dimension);
+        boolean captured = over < 64 ? (capturedLow & 1L << over) != 0 : (capturedHigh & 1L << (over - 64)) != 0;
+        if (Character.toLowerCase(whatsAtPos(BoardPosition.of(overRow, overCol))) != opponent || captured) {
+            return -1;
+        }
+        boolean backToStart = landRow == fromRow && landCol == fromCol;
+        if (!backToStart && whatsAtPos(BoardPosition.of(landRow, landCol)) != EMPTY_POS) {
+            return -1;
+        }
+        return over;
+    }
+
+    /**
+    * Checks if a piece may move in a direction. Kings move in every direction, player one's men move down the board
+    * and player two's men move up the board.
+    *
+    * @pre 0 <= dir < 4
+    *
+    * @post canStep = [true if piece may move in the direction with ordinal dir]
+    *
+    * @return true if piece may move in the direction.
+    */
+    private boolean canStep(char piece, int dir) {
+        if (Character.isUpperCase(piece)) {
+            return true;
+        }
+        boolean movesDown = DirectionEnum.SE.ordinal() == dir || DirectionEnum.SW.ordinal() == dir;
+        return movesDown == (piece == getPlayerOne());
+    }
+
+    /**
+    * Checks if a man reaching a row is crowned.
+    *
+    * @pre None
+    *
+    * @post isPromotionRow = [true if piece is a man and row is the far row for its player]
+    *
+    * @return true if piece is crowned on row.
+    */
+    private boolean isPromotionRow(char piece, int row) {
+        if (Character.isUpperCase(piece)) {
+            return false;
+        }
+        return (piece == getPlayerOne()) ? row == getRowNum() - 1 : row == 0;
     }
 
     /**
@@ -377,7 +1124,7 @@ public interface ICheckerBoard {
     *
     * @pre dir is one of the valid DirectionEnum values
     *
-    * @post getDirection = [a new BoardPosition representing the offset for moving one space in the given direction. dir]
+    * @post getDirection = [the shared BoardPosition representing the offset for moving one space in the given direction. dir]
     *
     * @return a BoardPostion representing the offset for moving one space in the given direction specified by dir.
     *
@@ -404,7 +1151,7 @@ public interface ICheckerBoard {
                 colChange = -1;
                 break;
         }
-        return new BoardPosition(rowChange, colChange);
+        return BoardPosition.of(rowChange, colChange);
     }
 }
 
@@ -0,0 +1,52 @@
+package cpsc2150.extendedCheckers.models;
+
+/**
+ * Receives the games read by PdnReader as they are replayed, one event at a time. The board passed to each event is
+ * the one the game is replayed on; it belongs to the reader and changes with the next move, so a listener that wants
+ * to keep a position must copy it.
+ *
+ * Every method does nothing by default, so a listener only implements the events it needs.
+ */
+public interface IGameListener {
+
+    /**
+     * Called when a game's tags have been read and its starting position set up.
+     *
+     * @param board the board the game is replayed on, with its starting position and player to move
+     *
+     * @pre None
+     *
+     * @post [the listener has seen the start of the game]
+     */
+    default void gameStarted(ICheckerBoard board) {
+    }
+
+    /**
+     * Called after each move of a game is made on the board.
+     *
+     * @param board the board the game is replayed on, after the move and with the turn passed
+     * @param from the PackedMove square index the piece moved from
+     * @param to the PackedMove square index the piece ended on
+     * @param captures the number of pieces the move captured
+     * @param crowned true if the move crowned the piece
+     *
+     * @pre None
+     *
+     * @post [the listener has seen the move]
+     */
+    default void moveMade(ICheckerBoard board, int from, int to, int captures, boolean crowned) {
+    }
+
+    /**
+     * Called when a game's moves have all been made.
+     *
+     * @param board the board the game was replayed on, in its final position
+     * @param result the game's result, one of the PdnReader RESULT constants
+     *
+     * @pre None
+     *
+     * @post [the listener has seen the end of the game]
+     */
+    default void gameEnded(ICheckerBoard board, int result) {
+    }
+}
@@ -0,0 +1,312 @@
+package cpsc2150.extendedCheckers.models;
+
+import cpsc2150.extendedCheckers.util.PackedMove;
+
+/**
+ * Holds, for one board size, the square next to every playable square in each direction and the square a jump in
+ * that direction lands on, so a board can step across squares with array loads instead of row and column arithmetic.
+ * Squares are numbered as in PackedMove, and directions by their DirectionEnum ordinal. A step that leaves the board
+ * gives OFF_BOARD.
+ *
+ * For boards that keep one bit per square, the table also holds masks of the squares that have a neighbor or a landing
+ * square in each direction and of the squares on odd rows, two longs each, with the index difference between a square
+ * and its neighbor, so whole masks can be stepped at once with shifts.
+ *
+ * There is one table for each board size, made when the class is loaded and shared by every board of that size.
+ *
+ * @invariant neighbor(square, dir) and jump(square, dir) are OFF_BOARD or in [0, squareCount)
+ */
+final class NeighborTable {
+    /**
+     * The square given for a step off the board, and by square for a position that isn't a playable square.
+     */
+    static final int OFF_BOARD = -1;
+
+    private static final int DIRECTION_BITS = 2;
+    private static final int DIRECTION_COUNT = 1 << DIRECTION_BITS;
+
+    /**
+     * The number of longs in a mask with one bit for every playable square of the largest board.
+     */
+    static final int MASK_WORDS = ICheckerBoard.SQUARE_MASK_WORDS;
+
+    private static final NeighborTable[] TABLES = new NeighborTable[ICheckerBoard.BOARD_MAX_SIZE + 1];
+
+    static {
+        for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+            TABLES[size] = new NeighborTable(size);
+        }
+    }
+
+    private final int dimension;
+
+    /**
+     * The neighbor and jump landing squares, indexed by [square << DIRECTION_BITS | direction].
+     */
+    private final int[] neighbors;
+    private final int[] jumps;
+
+    /**
+     * The position of every square.
+     */
+    private final BoardPosition[] positions;
+
+    /**
+     * Masks of the squares with a neighbor and with a landing square, indexed by [direction], and of the squares on
+     * odd rows.
+     */
+    private final long[][] neighborMasks = new long[DIRECTION_COUNT][MASK_WORDS];
+    private final long[][] jumpMasks = new long[DIRECTION_COUNT][MASK_WORDS];
+    private final long[] oddRowMask = new long[MASK_WORDS];
+    private final long[] boardMask = new long[MASK_WORDS];
+
+    private NeighborTable(int aDimension) {
+        dimension = aDimension;
+        int squares = aDimension * aDimension / 2;
+        neighbors = new int[squares << DIRECTION_BITS];
+        jumps = new int[squares << DIRECTION_BITS];
+        positions = new BoardPosition[squares];
+        for (int square = 0; square < squares; square++) {
+            int row = PackedMove.squareRow(square, aDimension);
+            int col = PackedMove.squareColumn(square, aDimension);
+            positions[square] = BoardPosition.of(row, col);
+            for (int dir = 0; dir < DIRECTION_COUNT; dir++) {
+                int rowStep = PackedMove.rowStep(dir);
+                int colStep = PackedMove.colStep(dir);
+                neighbors[square << DIRECTION_BITS | dir] = squareAt(row + rowStep, col + colStep);
+                jumps[square << DIRECTION_BITS | dir] = squareAt(row + 2 * rowStep, col + 2 * colStep);
+                if (neighbor(square, dir) != OFF_BOARD) {
+                    neighborMasks[dir][square / Long.SIZE] |= 1L << square;
+                }
+                if (jump(square, dir) != OFF_BOARD) {
+                    jumpMasks[dir][square / Long.SIZE] |= 1L << square;
+                }
+            }
+            if (row % 2 == 1) {
+                oddRowMask[square / Long.SIZE] |= 1L << square;
+            }
+            boardMask[square / Long.SIZE] |= 1L << square;
+        }
+    }
+
+    /**
+     * Gets the table for a board size.
+     *
+     * @param dimension the number of rows and columns of the board
+     *
+     * @pre BOARD_MIN_SIZE <= dimension <= BOARD_MAX_SIZE AND dimension % 2 = 0
+     *
+     * @post of = [the shared table for dimension]
+     *
+     * @return The table.
+     */
+    static NeighborTable of(int dimension) {
+        return TABLES[dimension];
+    }
+
+    /**
+     * Gets the square at a position.
+     *
+     * @pre pos != null
+     *
+     * @post square = [the PackedMove index of pos, or OFF_BOARD if pos isn't a playable square of the board]
+     *
+     * @return The square.
+     */
+    int square(BoardPosition pos) {
+        return squareAt(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Gets the square at a row and column.
+     *
+     * @pre None
+     *
+     * @post square = [the PackedMove index of (row, col), or OFF_BOARD if it isn't a playable square of the board]
+     *
+     * @return The square.
+     */
+    int square(int row, int col) {
+        return squareAt(row, col);
+    }
+
+    /**
+     * Gets the square next to a square in a direction.
+     *
+     * @pre 0 <= square < [the number of squares] AND 0 <= direction < 4
+     *
+     * @post neighbor = [the adjacent square in direction, or OFF_BOARD if there is none]
+     *
+     * @return The square.
+     */
+    int neighbor(int square, int direction) {
+        return neighbors[square << DIRECTION_BITS | direction];
+    }
+
+    /**
+     * Gets the square a jump from a square in a direction lands on.
+     *
+     * @pre 0 <= square < [the number of squares] AND 0 <= direction < 4
+     *
+     * @post jump = [the square two steps away in direction, or OFF_BOARD if there is none]
+     *
+     * @return The square.
+     */
+    int jump(int square, int direction) {
+        return jumps[square << DIRECTION_BITS | direction];
+    }
+
+    /**
+     * Gets the shared position of a square.
+     *
+     * @pre 0 <= square < [the number of squares]
+     *
+     * @post position = [the BoardPosition of square]
+     *
+     * @return The position.
+     */
+    BoardPosition position(int square) {
+        return positions[square];
+    }
+
+    /**
+     * Gets the number of playable squares.
+     *
+     * @pre None
+     *
+     * @post squareCount = [dimension * dimension / 2]
+     *
+     * @return The number of squares.
+     */
+    int squareCount() {
+        return positions.length;
+    }
+
+    /**
+     * Gets the mask of the squares that have a neighbor in a direction. The mask is shared and must not be changed.
+     *
+     * @pre 0 <= direction < 4
+     *
+     * @post neighborMask = [MASK_WORDS longs with the bit of every square whose neighbor in direction is on the board]
+     *
+     * @return The mask.
+     */
+    long[] neighborMask(int direction) {
+        return neighborMasks[direction];
+    }
+
+    /**
+     * Gets the mask of the squares that have a landing square in a direction. The mask is shared and must not be
+     * changed.
+     *
+     * @pre 0 <= direction < 4
+     *
+     * @post jumpMask = [MASK_WORDS longs with the bit of every square whose landing square in direction is on the board]
+     *
+     * @return The mask.
+     */
+    long[] jumpMask(int direction) {
+        return jumpMasks[direction];
+    }
+
+    /**
+     * Gets the mask of the squares on odd rows. The mask is shared and must not be changed.
+     *
+     * @return The mask.
+     */
+    long[] oddRowMask() {
+        return oddRowMask;
+    }
+
+    /**
+     * Gets the mask of every playable square. The mask is shared and must not be changed.
+     *
+     * @return The mask.
+     */
+    long[] boardMask() {
+        return boardMask;
+    }
+
+    /**
+     * Gets one word of the mask of the squares whose neighbor in a direction is in a mask given as its two words.
+     *
+     * @pre 0 <= word < MASK_WORDS AND 0 <= direction < 4
+     *
+     * @post nextWord = [word word of the mask with the bit of every square that has a neighbor in direction whose bit
+     *       is set in (word0, word1)]
+     *
+     * @return The word.
+     */
+    long nextWord(long word0, long word1, int word, int direction) {
+        long odd = oddRowMask[word];
+        return (shifted(word0, word1, word, neighborDelta(direction, false)) & ~odd
+                | shifted(word0, word1, word, neighborDelta(direction, true)) & odd) & neighborMasks[direction][word];
+    }
+
+    /**
+     * Gets one word of the mask of the squares whose landing square in a direction is in a mask given as its two
+     * words.
+     *
+     * @pre 0 <= word < MASK_WORDS AND 0 <= direction < 4
+     *
+     * @post landingWord = [word word of the mask with the bit of every square that has a landing square in direction
+     *       whose bit is set in (word0, word1)]
+     *
+     * @return The word.
+     */
+    long landingWord(long word0, long word1, int word, int direction) {
+        return shifted(word0, word1, word, jumpDelta(direction)) & jumpMasks[direction][word];
+    }
+
+    /**
+     * Gets one word of a two word mask moved so that each square's bit holds the bit of the square delta after it.
+     *
+     * @pre MASK_WORDS = 2 AND 0 <= word < 2 AND 0 < |delta| < Long.SIZE
+     *
+     * @post shifted = [word word of (word0, word1) shifted by delta squares, with zeros shifted in]
+     *
+     * @return The shifted word.
+     */
+    static long shifted(long word0, long word1, int word, int delta) {
+        if (delta > 0) {
+            return word == 0 ? word0 >>> delta | word1 << (Long.SIZE - delta) : word1 >>> delta;
+        }
+        return word == 0 ? word0 << -delta : word1 << -delta | word0 >>> (Long.SIZE + delta);
+    }
+
+    /**
+     * Gets the difference between the index of a square's neighbor in a direction and the square's own index, which
+     * depends only on whether the square's row is odd.
+     *
+     * @pre 0 <= direction < 4
+     *
+     * @post neighborDelta = [neighbor(square, direction) - square for every square on a row of that parity with a
+     *       neighbor in direction]
+     *
+     * @return The index difference.
+     */
+    int neighborDelta(int direction, boolean oddRow) {
+        return PackedMove.rowStep(direction) * (dimension / 2)
+                + Math.floorDiv(PackedMove.colStep(direction) + (oddRow ? 1 : 0), 2);
+    }
+
+    /**
+     * Gets the difference between the index of a square's landing square in a direction and the square's own index.
+     *
+     * @pre 0 <= direction < 4
+     *
+     * @post jumpDelta = [jump(square, direction) - square for every square with a landing square in direction]
+     *
+     * @return The index difference.
+     */
+    int jumpDelta(int direction) {
+        return 2 * PackedMove.rowStep(direction) * (dimension / 2) + PackedMove.colStep(direction);
+    }
+
+    private int squareAt(int row, int col) {
+        if (row < 0 || row >= dimension || col < 0 || col >= dimension || (row + col) % 2 != 0) {
+            return OFF_BOARD;
+        }
+        return PackedMove.squareIndex(row, col, dimension);
+    }
+}
@@ -0,0 +1,638 @@
+package cpsc2150.extendedCheckers.models;
+
+import cpsc2150.extendedCheckers.util.DirectionEnum;
+import cpsc2150.extendedCheckers.util.PackedMove;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.IntFunction;
+
+/**
+ * Reads games in Portable Draughts Notation from a channel and replays each one on a board, one game at a time. The
+ * channel is read through a fixed buffer, so a file of any size is read in one pass, and the parser works on the bytes
+ * of that buffer without making a String for any tag or move. Each move is made with movePiece or jumpPiece and passed
+ * to an IGameListener.
+ *
+ * Squares are numbered from 1 over the playable squares, row by row from player one's side. PDN numbers each row from
+ * the opposite end to PackedMove, so square 1 is the last playable square of PackedMove's first row, and square 9 of an
+ * 8x8 board is b6. Player one is Black, who moves first, and player two is White. The board size comes from the third
+ * field of a GameType tag, such as "21,B,10,10,N2,0", and is 8 if there is none. A FEN tag, such as
+ * "B:W21,22,K30:B1-12", sets up the starting position. A jump may be written with every landing square or with only
+ * the first and last, such as 9x18x27 or 9x27. Comments, variations, move numbers and annotations are skipped. A
+ * result of 1-0 or 2-0 is a win for White, 0-1 or 0-2 a win for Black, and 1-1 or 1/2-1/2 a draw.
+ *
+ * The reader keeps one board for each board size and replays every game of that size on it, so reading a game
+ * allocates nothing once every size in the file has been seen.
+ *
+ * @invariant 0 <= position <= limit <= BUFFER_SIZE AND [bytes[position, limit) are the bytes read but not yet parsed]
+ */
+public class PdnReader implements Closeable {
+    public static final int RESULT_UNKNOWN = 0;
+    public static final int RESULT_PLAYER_ONE_WIN = 1;
+    public static final int RESULT_PLAYER_TWO_WIN = 2;
+    public static final int RESULT_DRAW = 3;
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_TAG_LENGTH = 2048;
+
+    /**
+     * The most squares one move may list, enough for a king jumping every piece of the largest board.
+     */
+    private static final int MAX_PATH = 64;
+
+    private static final byte[] GAME_TYPE_TAG = {'G', 'a', 'm', 'e', 'T', 'y', 'p', 'e'};
+    private static final byte[] FEN_TAG = {'F', 'E', 'N'};
+
+    private final ReadableByteChannel channel;
+    private final IntFunction<ICheckerBoard> boardFactory;
+
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int position;
+    private int limit;
+
+    private final byte[] tagName = new byte[MAX_TAG_LENGTH];
+    private int tagNameLength;
+    private final byte[] tagValue = new byte[MAX_TAG_LENGTH];
+    private int tagValueLength;
+    private final byte[] fen = new byte[MAX_TAG_LENGTH];
+    private int fenLength;
+
+    /**
+     * The board games of each size are replayed on, and the encoded starting position it is reset to, by size.
+     */
+    private final ICheckerBoard[] boards = new ICheckerBoard[ICheckerBoard.BOARD_MAX_SIZE + 1];
+    private final ByteBuffer[] startPositions = new ByteBuffer[ICheckerBoard.BOARD_MAX_SIZE + 1];
+
+    private final int[] path = new int[MAX_PATH];
+    private final int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+    private final int[] steps = new int[ICheckerBoard.BOARD_MAX_SIZE * ICheckerBoard.BOARD_MAX_SIZE / 2];
+    private long gameCount;
+
+    /**
+     * Constructs a reader that replays games on CheckerBoards.
+     *
+     * @param channel the channel to read games from
+     *
+     * @pre channel != null AND [channel is open]
+     *
+     * @post [the reader is ready to read the first game]
+     */
+    public PdnReader(ReadableByteChannel channel) {
+        this(channel, CheckerBoard::new);
+    }
+
+    /**
+     * Constructs a reader.
+     *
+     * @param channel the channel to read games from
+     * @param boardFactory makes the board games of a size are replayed on, given the size
+     *
+     * @pre channel != null AND [channel is open] AND boardFactory != null
+     *
+     * @post [the reader is ready to read the first game]
+     */
+    public PdnReader(ReadableByteChannel channel, IntFunction<ICheckerBoard> boardFactory) {
+        this.channel = channel;
+        this.boardFactory = boardFactory;
+    }
+
+    /**
+     * Reads the next game and replays it, telling a listener each step.
+     *
+     * @param listener receives the game's start, moves and end
+     *
+     * @pre listener != null
+     *
+     * @post readGame = [true if there was another game in the channel] AND [if true, the game has been replayed on the
+     *       reader's board of its size and listener has seen every step of it]
+     *
+     * @return true if a game was read, false at the end of the channel.
+     *
+     * @throws IOException if the channel can't be read, or the game isn't valid PDN or has an illegal move
+     */
+    public boolean readGame(IGameListener listener) throws IOException {
+        int c = skipSeparators();
+        if (c < 0) {
+            return false;
+        }
+        gameCount++;
+        int dimension = 8;
+        fenLength = 0;
+        while (c == '[') {
+            readTag();
+            if (isTag(GAME_TYPE_TAG)) {
+                dimension = gameTypeSize();
+            } else if (isTag(FEN_TAG)) {
+                System.arraycopy(tagValue, 0, fen, 0, tagValueLength);
+                fenLength = tagValueLength;
+            }
+            c = skipSeparators();
+        }
+
+        ICheckerBoard board = startBoard(dimension);
+        if (fenLength > 0) {
+            setUpFen(board);
+        }
+        listener.gameStarted(board);
+        int result = readMoves(board, listener);
+        listener.gameEnded(board, result);
+        return true;
+    }
+
+    /**
+     * Gets the number of games read so far, counting one that failed.
+     *
+     * @pre None
+     *
+     * @post getGameCount = [the number of games readGame has started] AND self = #self
+     *
+     * @return The number of games read.
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Replays a game's moves up to its result, the next game's tags or the end of the channel.
+     */
+    private int readMoves(ICheckerBoard board, IGameListener listener) throws IOException {
+        while (true) {
+            int c = skipSeparators();
+            if (c < 0 || c == '[') {
+                return RESULT_UNKNOWN;
+            }
+            next();
+            if (c == '*') {
+                return RESULT_UNKNOWN;
+            }
+            if (c < '0' || c > '9') {
+                skipToken();
+                continue;
+            }
+
+            int first = readNumber(c);
+            int separator = peek();
+            if (separator == '.' || separator <= ' ') {
+                // A move number
+                while (peek() == '.') {
+                    next();
+                }
+                continue;
+            }
+            if (separator == '/') {
+                skipToken();
+                return RESULT_DRAW;
+            }
+            if (separator != '-' && separator != 'x' && separator != 'X') {
+                throw invalid("unexpected character after " + first);
+            }
+            next();
+            int second = readNumber(next());
+            if (first == 0 || second == 0 || (separator == '-' && first == second)) {
+                skipToken();
+                return first > second ? RESULT_PLAYER_TWO_WIN
+                        : first < second ? RESULT_PLAYER_ONE_WIN : RESULT_DRAW;
+            }
+
+            path[0] = first;
+            path[1] = second;
+            int length = 2;
+            while (separator != '-' && (peek() == 'x' || peek() == 'X')) {
+                next();
+                if (length == MAX_PATH) {
+                    throw invalid("jump with too many squares");
+                }
+                path[length++] = readNumber(next());
+            }
+            makeMove(board, length, separator != '-', listener);
+            skipToken();
+        }
+    }
+
+    /**
+     * Makes the move held in path on the board and passes the turn.
+     */
+    private void makeMove(ICheckerBoard board, int length, boolean capture, IGameListener listener)
+            throws IOException {
+        int dimension = board.getRowNum();
+        int squares = dimension * dimension / 2;
+        for (int i = 0; i < length; i++) {
+            if (path[i] < 1 || path[i] > squares) {
+                throw invalid("square " + path[i] + " isn't on the board");
+            }
+        }
+        int from = packedSquare(path[0], dimension);
+        int to = packedSquare(path[length - 1], dimension);
+        BoardPosition start = squarePosition(from, dimension);
+        char piece = board.whatsAtPos(start);
+        char player = board.getPlayerToMove();
+        if (Character.toLowerCase(piece) != player) {
+            throw invalid("no piece of the player to move on " + path[0]);
+        }
+
+        int captures;
+        if (!capture) {
+            if (length != 2) {
+                throw invalid("move with more than two squares");
+            }
+            step(board, start, squarePosition(to, dimension), piece, 1);
+            captures = 0;
+        } else if (everyHopIsAJump(length, dimension)) {
+            BoardPosition pos = start;
+            for (int i = 1; i < length; i++) {
+                pos = step(board, pos, squarePosition(packedSquare(path[i], dimension), dimension), piece, 2);
+            }
+            captures = length - 1;
+        } else {
+            captures = jumpAsGenerated(board, player, start, from, to);
+        }
+
+        BoardPosition end = squarePosition(to, dimension);
+        board.crownPiece(end);
+        boolean crowned = Character.isLowerCase(piece) && Character.isUpperCase(board.whatsAtPos(end));
+        board.setPlayerToMove(board.getOpponent(player));
+        listener.moveMade(board, from, to, captures, crowned);
+    }
+
+    /**
+     * Moves a piece one square, or jumps it two, towards a square, checking the piece may go that way.
+     *
+     * @return The position the piece ended on.
+     */
+    private BoardPosition step(ICheckerBoard board, BoardPosition start, BoardPosition target, char piece, int distance)
+            throws IOException {
+        int rowChange = target.getRow() - start.getRow();
+        int colChange = target.getColumn() - start.getColumn();
+        if (Math.abs(rowChange) != distance || Math.abs(colChange) != distance) {
+            int dimension = board.getRowNum();
+            throw invalid("squares " + pdnSquare(PackedMove.squareIndex(start.getRow(), start.getColumn(), dimension),
+                    dimension) + " and " + pdnSquare(PackedMove.squareIndex(target.getRow(), target.getColumn(),
+                    dimension), dimension)
+                    + " aren't a move apart");
+        }
+        char man = Character.toLowerCase(piece);
+        if (Character.isLowerCase(board.whatsAtPos(start)) && (man == board.getPlayerOne()) != (rowChange > 0)) {
+            throw invalid("a man can't move backwards");
+        }
+        DirectionEnum dir = direction(rowChange, colChange);
+        BoardPosition end;
+        if (distance == 1) {
+            end = board.movePiece(start, dir);
+        } else {
+            char jumped = board.whatsAtPos(BoardPosition.of(start.getRow() + rowChange / 2,
+                    start.getColumn() + colChange / 2));
+            if (Character.toLowerCase(jumped) != board.getOpponent(man)) {
+                throw invalid("no piece of the opponent to jump");
+            }
+            end = board.jumpPiece(start, dir);
+        }
+        if (!end.equals(target)) {
+            throw invalid("the move's last square isn't empty");
+        }
+        return end;
+    }
+
+    /**
+     * Makes a jump written with only some of its landing squares by finding the legal jump between its first and last
+     * square.
+     *
+     * @return The number of pieces captured.
+     */
+    private int jumpAsGenerated(ICheckerBoard board, char player, BoardPosition start, int from, int to)
+            throws IOException {
+        int count = board.generateMoves(player, moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (PackedMove.getFrom(move) == from && PackedMove.getTo(move) == to && PackedMove.getCaptureCount(move) > 0) {
+                BoardPosition pos = start;
+                int stepCount = board.getMoveSteps(move, steps);
+                for (int s = 0; s < stepCount; s++) {
+                    pos = board.jumpPiece(pos, direction(PackedMove.rowStep(steps[s]), PackedMove.colStep(steps[s])));
+                }
+                return PackedMove.getCaptureCount(move);
+            }
+        }
+        int dimension = board.getRowNum();
+        throw invalid("no jump from " + pdnSquare(from, dimension) + " to " + pdnSquare(to, dimension));
+    }
+
+    private boolean everyHopIsAJump(int length, int dimension) {
+        for (int i = 1; i < length; i++) {
+            int rowChange = PackedMove.squareRow(path[i] - 1, dimension) - PackedMove.squareRow(path[i - 1] - 1, dimension);
+            if (Math.abs(rowChange) != 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the reader's board of a size, reset to the starting position with player one to move.
+     */
+    private ICheckerBoard startBoard(int dimension) throws IOException {
+        if (dimension < ICheckerBoard.BOARD_MIN_SIZE || dimension > ICheckerBoard.BOARD_MAX_SIZE
+                || dimension % 2 != 0) {
+            throw invalid("unsupported board size " + dimension);
+        }
+        ICheckerBoard board = boards[dimension];
+        if (board == null) {
+            board = boardFactory.apply(dimension);
+            ByteBuffer start = ByteBuffer.allocate(BoardCodec.encodedSize(dimension));
+            BoardCodec.encode(board, start);
+            boards[dimension] = board;
+            startPositions[dimension] = start;
+        }
+        startPositions[dimension].rewind();
+        BoardCodec.decode(startPositions[dimension], board);
+        return board;
+    }
+
+    /**
+     * Sets up the position of the FEN tag: the player to move, then for each colour its squares, with K before a
+     * king's square and a dash between the ends of a range.
+     */
+    private void setUpFen(ICheckerBoard board) throws IOException {
+        int dimension = board.getRowNum();
+        for (int row = 0; row < dimension; row++) {
+            for (int col = row % 2; col < dimension; col += 2) {
+                BoardPosition pos = BoardPosition.of(row, col);
+                if (board.whatsAtPos(pos) != ICheckerBoard.EMPTY_POS) {
+                    board.placePiece(pos, ICheckerBoard.EMPTY_POS);
+                }
+            }
+        }
+
+        int i = skipFenSpaces(0);
+        if (i == fenLength || (fen[i] != 'W' && fen[i] != 'B')) {
+            throw invalid("FEN doesn't start with the player to move");
+        }
+        board.setPlayerToMove(fen[i] == 'W' ? board.getPlayerTwo() : board.getPlayerOne());
+        i++;
+        char man = 0;
+        while (i < fenLength) {
+            byte c = fen[i];
+            if (c == ':') {
+                i = skipFenSpaces(i + 1);
+                if (i == fenLength || (fen[i] != 'W' && fen[i] != 'B')) {
+                    throw invalid("FEN colour missing");
+                }
+                man = fen[i] == 'W' ? board.getPlayerTwo() : board.getPlayerOne();
+                i++;
+            } else if (c == ',' || c == ' ' || c == '.') {
+                i++;
+            } else if (man == 0) {
+                throw invalid("FEN square before a colour");
+            } else {
+                boolean king = c == 'K';
+                if (king) {
+                    i++;
+                }
+                int first = 0;
+                int start = i;
+                for (; i < fenLength && fen[i] >= '0' && fen[i] <= '9'; i++) {
+                    first = first * 10 + fen[i] - '0';
+                }
+                int last = first;
+                if (i < fenLength && fen[i] == '-') {
+                    last = 0;
+                    for (i++; i < fenLength && fen[i] >= '0' && fen[i] <= '9'; i++) {
+                        last = last * 10 + fen[i] - '0';
+                    }
+                }
+                if (i == start || first < 1 || last < first || last > dimension * dimension / 2) {
+                    throw invalid("invalid FEN square");
+                }
+                char piece = king ? Character.toUpperCase(man) : man;
+                for (int square = first; square <= last; square++) {
+                    board.placePiece(squarePosition(packedSquare(square, dimension), dimension), piece);
+                }
+            }
+        }
+    }
+
+    private int skipFenSpaces(int i) {
+        while (i < fenLength && fen[i] == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Reads the board size from the third field of the GameType tag.
+     */
+    private int gameTypeSize() throws IOException {
+        int field = 0;
+        int size = 0;
+        boolean found = false;
+        for (int i = 0; i < tagValueLength; i++) {
+            byte c = tagValue[i];
+            if (c == ',') {
+                field++;
+            } else if (field == 2 && c >= '0' && c <= '9') {
+                size = size * 10 + c - '0';
+                found = true;
+            }
+        }
+        return found ? size : 8;
+    }
+
+    /**
+     * Reads a tag, from its opening bracket to its closing one, into tagName and tagValue.
+     */
+    private void readTag() throws IOException {
+        next();
+        while (peek() == ' ') {
+            next();
+        }
+        tagNameLength = 0;
+        for (int c = peek(); c > ' ' && c != '"' && c != ']'; c = peek()) {
+            if (tagNameLength == MAX_TAG_LENGTH) {
+                throw invalid("tag name too long");
+            }
+            tagName[tagNameLength++] = (byte) next();
+        }
+        tagValueLength = 0;
+        int c = next();
+        while (c == ' ') {
+            c = next();
+        }
+        if (c == '"') {
+            for (c = next(); c != '"'; c = next()) {
+                if (c < 0) {
+                    throw invalid("unterminated tag value");
+                }
+                if (c == '\\') {
+                    c = next();
+                }
+                if (tagValueLength == MAX_TAG_LENGTH) {
+                    throw invalid("tag value too long");
+                }
+                tagValue[tagValueLength++] = (byte) c;
+            }
+            c = next();
+        }
+        while (c != ']') {
+            if (c < 0 || c == '\n') {
+                throw invalid("unterminated tag");
+            }
+            c = next();
+        }
+    }
+
+    private boolean isTag(byte[] name) {
+        if (tagNameLength != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (tagName[i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Skips white space, comments, variations and escaped lines.
+     *
+     * @return The next byte, which is left unread, or -1 at the end of the channel.
+     */
+    private int skipSeparators() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == '{') {
+                skipPast('}');
+            } else if (c == ';' || (c == '%' && atLineStart())) {
+                skipPast('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c >= 0 && c <= ' ') {
+                next();
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private boolean atLineStart() {
+        return position == 0 || bytes[position - 1] == '\n';
+    }
+
+    private void skipPast(int end) throws IOException {
+        for (int c = next(); c != end && c >= 0; c = next()) {
+            // Skipped
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        for (int c = next(); c >= 0; c = next()) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return;
+            } else if (c == '{') {
+                skipPast('}');
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of a token, such as an annotation after a move.
+     */
+    private void skipToken() throws IOException {
+        for (int c = peek(); c > ' ' && c != '{' && c != '(' && c != '[' && c != ';'; c = peek()) {
+            next();
+        }
+    }
+
+    private int readNumber(int firstDigit) throws IOException {
+        if (firstDigit < '0' || firstDigit > '9') {
+            throw invalid("number expected");
+        }
+        int number = firstDigit - '0';
+        for (int c = peek(); c >= '0' && c <= '9'; c = peek()) {
+            next();
+            number = number * 10 + c - '0';
+            if (number > 1_000_000) {
+                throw invalid("number too large");
+            }
+        }
+        return number;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return bytes[position] & 0xFF;
+    }
+
+    private int next() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    /**
+     * Reads the next bytes of the channel into the buffer, once every byte in it has been parsed.
+     *
+     * @return false at the end of the channel.
+     */
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int count;
+        do {
+            count = channel.read(buffer);
+        } while (count == 0);
+        position = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+
+    private IOException invalid(String message) {
+        return new IOException("Invalid PDN in game " + gameCount + ": " + message + ".");
+    }
+
+    /**
+     * Converts a PDN square number to a PackedMove square index by numbering the square's row from the other end.
+     *
+     * @pre 1 <= number <= dimension * dimension / 2
+     * @post packedSquare = [the PackedMove square index of PDN square number]
+     */
+    static int packedSquare(int number, int dimension) {
+        int perRow = dimension / 2;
+        int square = number - 1;
+        return square - square % perRow + perRow - 1 - square % perRow;
+    }
+
+    /**
+     * Converts a PackedMove square index to its PDN square number, the inverse of packedSquare.
+     *
+     * @pre 0 <= square < dimension * dimension / 2
+     * @post pdnSquare = [the PDN number of PackedMove square index square]
+     */
+    static int pdnSquare(int square, int dimension) {
+        int perRow = dimension / 2;
+        return square - square % perRow + perRow - square % perRow;
+    }
+
+    private static BoardPosition squarePosition(int square, int dimension) {
+        return BoardPosition.of(PackedMove.squareRow(square, dimension), PackedMove.squareColumn(square, dimension));
+    }
+
+    private static DirectionEnum direction(int rowChange, int colChange) {
+        if (rowChange < 0) {
+            return colChange > 0 ? DirectionEnum.NE : DirectionEnum.NW;
+        }
+        return colChange > 0 ? DirectionEnum.SE : DirectionEnum.SW;
+    }
+}
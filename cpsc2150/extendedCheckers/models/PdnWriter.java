@@ -0,0 +1,327 @@
+package cpsc2150.extendedCheckers.models;
+
+import cpsc2150.extendedCheckers.util.PackedMove;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes games in Portable Draughts Notation to a channel, in the notation PdnReader reads. Each game is a GameType
+ * tag with the board size, a FEN tag if the game doesn't start from the starting position, its moves and its result.
+ * The text is built in a fixed buffer that is written to the channel whenever it fills, without making a String for
+ * any move.
+ *
+ * A game is written by calling startGame with its starting board, writeMove with each move before it is made, and
+ * endGame with its result.
+ *
+ * @invariant [buffer holds the text written since the last flush] AND lineLength <= LINE_LENGTH
+ */
+public class PdnWriter implements Closeable {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The longest line of moves written.
+     */
+    static final int LINE_LENGTH = 79;
+
+    private static final byte[] GAME_TYPE_START = ascii("[GameType \"21,B,");
+    private static final byte[] GAME_TYPE_END = ascii(",N2,0\"]\n");
+    private static final byte[] FEN_START = ascii("[FEN \"");
+    private static final byte[] TAG_END = ascii("\"]\n");
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * The encoded starting position of each board size, made when a game of that size is first written.
+     */
+    private final ByteBuffer[] startPositions = new ByteBuffer[ICheckerBoard.BOARD_MAX_SIZE + 1];
+    private final ByteBuffer position = ByteBuffer.allocate(BoardCodec.encodedSize(ICheckerBoard.BOARD_MAX_SIZE));
+
+    /**
+     * The board the game is played on, read for the steps of each move as it is written.
+     */
+    private ICheckerBoard board;
+    private final int[] steps = new int[ICheckerBoard.BOARD_MAX_SIZE * ICheckerBoard.BOARD_MAX_SIZE / 2];
+
+    private int dimension;
+    private boolean playerOneToMove;
+    private int moveNumber;
+    private int lineLength;
+
+    /**
+     * Constructs a writer.
+     *
+     * @param channel the channel to write games to
+     *
+     * @pre channel != null AND [channel is open]
+     *
+     * @post [the writer is ready to write the first game]
+     */
+    public PdnWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes a game's tags.
+     *
+     * @param board the board the game starts on, with its player to move, and is played on
+     *
+     * @pre [the last game written has been ended] AND [each move of the game is written before it is made on board]
+     *
+     * @post [the GameType tag, and a FEN tag unless board holds the starting position with player one to move, are
+     *       written]
+     *
+     * @throws IOException if the channel can't be written
+     */
+    public void startGame(ICheckerBoard board) throws IOException {
+        this.board = board;
+        dimension = board.getRowNum();
+        playerOneToMove = board.getPlayerToMove() == board.getPlayerOne();
+        moveNumber = 1;
+        lineLength = 0;
+
+        ensureRoom(64);
+        buffer.put(GAME_TYPE_START);
+        putNumber(dimension);
+        buffer.put((byte) ',');
+        putNumber(dimension);
+        buffer.put(GAME_TYPE_END);
+        if (!isStartPosition(board)) {
+            writeFen(board);
+        }
+    }
+
+    /**
+     * Writes a move of the player to move, before it is made.
+     *
+     * @param move a packed move, as listed by generateMoves for the player to move
+     *
+     * @pre [a game has been started] AND move is a legal move of the player to move on the game's board
+     *
+     * @post [the move, after its move number if it is player one's or the game's first, is written]
+     *
+     * @throws IOException if the channel can't be written
+     */
+    public void writeMove(int move) throws IOException {
+        board.getMoveSteps(move, steps);
+        ensureRoom(16 * (PackedMove.getStepCount(move) + 2));
+        if (playerOneToMove || lineLength == 0) {
+            int length = digits(moveNumber) + (playerOneToMove ? 1 : 3);
+            separate(length + 1 + moveLength(move));
+            putNumber(moveNumber);
+            buffer.put((byte) '.');
+            if (!playerOneToMove) {
+                buffer.put((byte) '.').put((byte) '.');
+            }
+            buffer.put((byte) ' ');
+            lineLength += length + 1;
+        } else {
+            separate(moveLength(move));
+        }
+
+        int from = PackedMove.getFrom(move);
+        putNumber(PdnReader.pdnSquare(from, dimension));
+        if (PackedMove.getCaptureCount(move) == 0) {
+            buffer.put((byte) '-');
+            putNumber(PdnReader.pdnSquare(PackedMove.getTo(move), dimension));
+        } else {
+            int row = PackedMove.squareRow(from, dimension);
+            int col = PackedMove.squareColumn(from, dimension);
+            for (int step = 0; step < PackedMove.getStepCount(move); step++) {
+                int direction = steps[step];
+                row += 2 * PackedMove.rowStep(direction);
+                col += 2 * PackedMove.colStep(direction);
+                buffer.put((byte) 'x');
+                putNumber(PdnReader.pdnSquare(PackedMove.squareIndex(row, col, dimension), dimension));
+            }
+        }
+        lineLength += moveLength(move);
+
+        if (!playerOneToMove) {
+            moveNumber++;
+        }
+        playerOneToMove = !playerOneToMove;
+    }
+
+    /**
+     * Writes a game's result and the blank line that ends it.
+     *
+     * @param result one of the PdnReader RESULT constants
+     *
+     * @pre [a game has been started]
+     *
+     * @post [the result is written]
+     *
+     * @throws IOException if the channel can't be written
+     */
+    public void endGame(int result) throws IOException {
+        ensureRoom(16);
+        String text;
+        switch (result) {
+            case PdnReader.RESULT_PLAYER_ONE_WIN:
+                text = "0-1";
+                break;
+            case PdnReader.RESULT_PLAYER_TWO_WIN:
+                text = "1-0";
+                break;
+            case PdnReader.RESULT_DRAW:
+                text = "1/2-1/2";
+                break;
+            default:
+                text = "*";
+        }
+        separate(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+        buffer.put((byte) '\n').put((byte) '\n');
+    }
+
+    /**
+     * Writes everything buffered to the channel.
+     *
+     * @pre None
+     *
+     * @post [every game written so far is in the channel]
+     *
+     * @throws IOException if the channel can't be written
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Writes the position as a FEN tag, with ranges for runs of men on consecutive squares.
+     */
+    private void writeFen(ICheckerBoard board) throws IOException {
+        ensureRoom(FEN_START.length + TAG_END.length + 6 * dimension * dimension / 2 + 8);
+        buffer.put(FEN_START);
+        buffer.put((byte) (playerOneToMove ? 'B' : 'W'));
+        writeFenPieces(board, 'W', board.getPlayerTwo());
+        writeFenPieces(board, 'B', board.getPlayerOne());
+        buffer.put(TAG_END);
+    }
+
+    private void writeFenPieces(ICheckerBoard board, char colour, char man) {
+        buffer.put((byte) ':').put((byte) colour);
+        char king = Character.toUpperCase(man);
+        boolean first = true;
+        int squares = dimension * dimension / 2;
+        for (int square = 1; square <= squares; square++) {
+            char piece = board.whatsAtPos(squarePosition(square));
+            if (piece != man && piece != king) {
+                continue;
+            }
+            if (!first) {
+                buffer.put((byte) ',');
+            }
+            first = false;
+            if (piece == king) {
+                buffer.put((byte) 'K');
+                putNumber(square);
+                continue;
+            }
+            int last = square;
+            while (last < squares && board.whatsAtPos(squarePosition(last + 1)) == man) {
+                last++;
+            }
+            putNumber(square);
+            if (last > square + 1) {
+                buffer.put((byte) '-');
+                putNumber(last);
+                square = last;
+            }
+        }
+    }
+
+    private boolean isStartPosition(ICheckerBoard board) {
+        if (startPositions[dimension] == null) {
+            ByteBuffer start = ByteBuffer.allocate(BoardCodec.encodedSize(dimension));
+            BoardCodec.encode(new CheckerBoard(dimension), start);
+            startPositions[dimension] = start;
+        }
+        position.clear();
+        BoardCodec.encode(board, position);
+        position.flip();
+        startPositions[dimension].rewind();
+        return position.equals(startPositions[dimension]);
+    }
+
+    /**
+     * Starts a new line before a token if it wouldn't fit on the current one, or writes a space before it otherwise.
+     */
+    private void separate(int tokenLength) {
+        if (lineLength > 0 && lineLength + 1 + tokenLength > LINE_LENGTH) {
+            buffer.put((byte) '\n');
+            lineLength = 0;
+        } else if (lineLength > 0) {
+            buffer.put((byte) ' ');
+            lineLength++;
+        }
+    }
+
+    /**
+     * Counts the characters of a move whose steps are in steps.
+     */
+    private int moveLength(int move) {
+        int length = digits(PdnReader.pdnSquare(PackedMove.getFrom(move), dimension));
+        if (PackedMove.getCaptureCount(move) == 0) {
+            return length + 1 + digits(PdnReader.pdnSquare(PackedMove.getTo(move), dimension));
+        }
+        int row = PackedMove.squareRow(PackedMove.getFrom(move), dimension);
+        int col = PackedMove.squareColumn(PackedMove.getFrom(move), dimension);
+        for (int step = 0; step < PackedMove.getStepCount(move); step++) {
+            int direction = steps[step];
+            row += 2 * PackedMove.rowStep(direction);
+            col += 2 * PackedMove.colStep(direction);
+            length += 1 + digits(PdnReader.pdnSquare(PackedMove.squareIndex(row, col, dimension), dimension));
+        }
+        return length;
+    }
+
+    private void ensureRoom(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    private void putNumber(int number) {
+        if (number >= 10) {
+            putNumber(number / 10);
+        }
+        buffer.put((byte) ('0' + number % 10));
+    }
+
+    /**
+     * Returns the position of a PDN square number.
+     */
+    private BoardPosition squarePosition(int number) {
+        int square = PdnReader.packedSquare(number, dimension);
+        return BoardPosition.of(PackedMove.squareRow(square, dimension), PackedMove.squareColumn(square, dimension));
+    }
+
+    private static int digits(int number) {
+        return number >= 100 ? 3 : number >= 10 ? 2 : 1;
+    }
+
+    private static byte[] ascii(String text) {
+        byte[] bytes = new byte[text.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) text.charAt(i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,65 @@
+package cpsc2150.extendedCheckers.models;
+
+import java.util.SplittableRandom;
+
+/**
+ * Holds the random keys used to hash a board position. A position's key is the XOR of the key of every piece on its
+ * square, plus SIDE_KEY when player two is to move, so a board can keep its key up to date by XORing out the key of
+ * the piece leaving a square and XORing in the key of the piece arriving.
+ * The keys come from a fixed seed, so the same position has the same key in every run.
+ */
+final class ZobristKeys {
+    /**
+     * The piece kinds that have their own keys.
+     */
+    static final int PLAYER_ONE_MAN = 0;
+    static final int PLAYER_ONE_KING = 1;
+    static final int PLAYER_TWO_MAN = 2;
+    static final int PLAYER_TWO_KING = 3;
+    static final int NO_KIND = -1;
+
+    private static final long SEED = 0x2150C4EC4E25L;
+
+    /**
+     * A key for every piece kind on every square of the largest board, indexed by [kind][row * BOARD_MAX_SIZE + col].
+     */
+    private static final long[][] PIECE_KEYS = new long[4][ICheckerBoard.BOARD_MAX_SIZE * ICheckerBoard.BOARD_MAX_SIZE];
+
+    /**
+     * The key XORed in while player two is to move.
+     */
+    static final long SIDE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] kindKeys : PIECE_KEYS) {
+            for (int square = 0; square < kindKeys.length; square++) {
+                kindKeys[square] = random.nextLong();
+            }
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+    private ZobristKeys() {
+    }
+
+    /**
+     * Gets the key of a piece kind on a square.
+     *
+     * @param kind one of the piece kinds, or NO_KIND
+     * @param row the row of the square
+     * @param col the column of the square
+     *
+     * @pre 0 <= row < BOARD_MAX_SIZE AND 0 <= col < BOARD_MAX_SIZE
+     *
+     * @post pieceKey = [the key of kind on (row, col), or 0 for NO_KIND]
+     *
+     * @return The key to XOR into a position's key.
+     */
+    static long pieceKey(int kind, int row, int col) {
+        if (kind == NO_KIND) {
+            return 0;
+        }
+        return PIECE_KEYS[kind][row * ICheckerBoard.BOARD_MAX_SIZE + col];
+    }
+}
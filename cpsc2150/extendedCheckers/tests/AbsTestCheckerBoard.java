@@ -0,0 +1,601 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.models.AbsCheckerBoard;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.CheckerBoardBit;
+import cpsc2150.extendedCheckers.models.CheckerBoardMem;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.util.*;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that every ICheckerBoard implementation has to pass. The test class of each implementation extends this one
+ * and makes its own kind of board in makeBoard, so each of these tests runs once per implementation.
+ */
+public abstract class AbsTestCheckerBoard {
+
+    protected abstract ICheckerBoard makeBoard(int dimension);
+
+    protected ICheckerBoard makeEmptyBoard(int dimension) {
+        ICheckerBoard board = makeBoard(dimension);
+        for (int row = 0; row < dimension; row++) {
+            for (int col = row % 2; col < dimension; col += 2) {
+                board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+            }
+        }
+        return board;
+    }
+
+    @Test
+    public void testPieceCountsAfterJumpAndCrown(){
+        ICheckerBoard board = makeBoard(8);
+
+        // Open a path for an 'x' piece to jump into the last row
+        board.placePiece(new BoardPosition(7, 1), ICheckerBoard.EMPTY_POS);
+        board.placePiece(new BoardPosition(5, 3), 'x');
+        board.jumpPiece(new BoardPosition(5, 3), DirectionEnum.SW);
+        board.crownPiece(new BoardPosition(7, 1));
+
+        assertEquals('X', board.whatsAtPos(new BoardPosition(7, 1)));
+        assertEquals(13, board.getPieceCount('x'));
+        assertEquals(1, board.getKingCount('x'));
+        assertEquals(9, board.getPieceCount('o'));
+        assertEquals(0, board.getKingCount('o'));
+        assertEquals(9, (int) board.getPieceCounts().get('o'));
+    }
+
+    @Test
+    public void testPieceCountsAfterEmptyingEmptySquares(){
+        ICheckerBoard board = makeEmptyBoard(16);
+
+        // Clearing squares that are already empty mustn't change any count
+        board.placePiece(new BoardPosition(0, 0), ICheckerBoard.EMPTY_POS);
+        board.placePiece(new BoardPosition(0, 0), 'x');
+        board.placePiece(new BoardPosition(15, 15), 'O');
+        board.placePiece(new BoardPosition(2, 2), ICheckerBoard.EMPTY_POS);
+        board.placePiece(new BoardPosition(2, 2), ICheckerBoard.EMPTY_POS);
+
+        assertEquals(1, board.getPieceCount('x'));
+        assertEquals(0, board.getKingCount('x'));
+        assertEquals(1, board.getPieceCount('o'));
+        assertEquals(1, board.getKingCount('o'));
+    }
+
+    @Test
+    public void testGenerateMovesFromStartingPosition(){
+        ICheckerBoard board = makeBoard(8);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+
+        assertEquals(7, board.generateMoves('x', moves));
+        assertEquals(7, board.generateMoves('o', moves));
+    }
+
+    @Test
+    public void testGenerateMovesCaptureIsMandatory(){
+        ICheckerBoard board = makeEmptyBoard(8);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        board.placePiece(new BoardPosition(2, 2), 'x');
+        board.placePiece(new BoardPosition(3, 3), 'o');
+        board.placePiece(new BoardPosition(2, 6), 'x');
+
+        assertEquals(1, board.generateMoves('x', moves));
+        assertEquals("2,2 x 4,4", PackedMove.toString(moves[0], 8));
+        assertEquals(1, PackedMove.getCaptureCount(moves[0]));
+    }
+
+    @Test
+    public void testGenerateMovesMultiJump(){
+        ICheckerBoard board = makeEmptyBoard(8);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        board.placePiece(new BoardPosition(0, 0), 'x');
+        board.placePiece(new BoardPosition(1, 1), 'o');
+        board.placePiece(new BoardPosition(3, 3), 'o');
+        board.placePiece(new BoardPosition(7, 7), 'o');
+
+        assertEquals(1, board.generateMoves('x', moves));
+        assertEquals(2, PackedMove.getCaptureCount(moves[0]));
+        assertEquals(PackedMove.squareIndex(4, 4, 8), PackedMove.getTo(moves[0]));
+        assertEquals(PackedMove.squareIndex(1, 1, 8), PackedMove.getCapturedSquare(moves[0], 0, 8));
+        assertEquals(PackedMove.squareIndex(3, 3, 8), PackedMove.getCapturedSquare(moves[0], 1, 8));
+        assertFalse(PackedMove.isPromotion(moves[0]));
+    }
+
+    @Test
+    public void testGenerateMovesCrowningEndsJump(){
+        ICheckerBoard board = makeEmptyBoard(8);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        board.placePiece(new BoardPosition(5, 1), 'x');
+        board.placePiece(new BoardPosition(6, 2), 'o');
+        board.placePiece(new BoardPosition(6, 4), 'o');
+
+        assertEquals(1, board.generateMoves('x', moves));
+        assertEquals("5,1 x 7,3", PackedMove.toString(moves[0], 8));
+        assertTrue(PackedMove.isPromotion(moves[0]));
+    }
+
+    @Test
+    public void testJumpOnlyOverOpponent(){
+        ICheckerBoard board = makeEmptyBoard(8);
+        BoardPosition start = new BoardPosition(2, 4);
+        BoardPosition over = new BoardPosition(3, 3);
+        char[][] rejected = {{'x', 'X'}, {'X', 'x'}, {'o', 'O'}, {'O', 'o'}, {ICheckerBoard.EMPTY_POS, 'o'}};
+        for (char[] pieces : rejected) {
+            board.placePiece(start, pieces[0]);
+            board.placePiece(over, pieces[1]);
+            assertEquals(start, board.jumpPiece(start, DirectionEnum.SW));
+            assertEquals(pieces[0], board.whatsAtPos(start));
+            assertEquals(pieces[1], board.whatsAtPos(over));
+        }
+
+        board.placePiece(start, 'x');
+        board.placePiece(over, 'O');
+        assertEquals(new BoardPosition(4, 2), board.jumpPiece(start, DirectionEnum.SW));
+        assertEquals(ICheckerBoard.EMPTY_POS, board.whatsAtPos(over));
+        assertEquals(0, board.getPieceCount('o'));
+    }
+
+    @Test
+    public void testGenerateMovesLongKingChain(){
+        ICheckerBoard board = makeEmptyBoard(16);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        board.placePiece(new BoardPosition(0, 0), 'X');
+        int[][] jumped = {{1, 1}, {3, 3}, {5, 5}, {7, 7}, {9, 9}, {9, 11}, {7, 13}, {5, 13}, {3, 11}, {1, 9}};
+        for (int[] pos : jumped) {
+            board.placePiece(new BoardPosition(pos[0], pos[1]), 'o');
+        }
+        board.placePiece(new BoardPosition(15, 15), 'o');
+        String before = board.toString();
+        long key = board.getPositionKey();
+
+        assertEquals(1, board.generateMoves('x', moves));
+        int move = moves[0];
+        assertTrue(PackedMove.isLongChain(move));
+        assertEquals(10, PackedMove.getCaptureCount(move));
+        assertEquals(PackedMove.squareIndex(0, 8, 16), PackedMove.getTo(move));
+        int[] steps = new int[ICheckerBoard.BOARD_MAX_SIZE * ICheckerBoard.BOARD_MAX_SIZE / 2];
+        assertEquals(10, board.getMoveSteps(move, steps));
+        assertEquals("0,0 x 2,2 x 4,4 x 6,6 x 8,8 x 10,10 x 8,12 x 6,14 x 4,12 x 2,10 x 0,8",
+                PackedMove.toString(move, steps, 16));
+        assertEquals("0,0 x ... x 0,8", PackedMove.toString(move, 16));
+        // The chain is packed from the position alone, so it is the same int in every run
+        assertEquals(PackedMove.encodeLongChain(0, PackedMove.squareIndex(0, 8, 16), false, 10, 0), move);
+        assertEquals(before, board.toString());
+
+        board.makeMove(move);
+        assertEquals(1, board.getPieceCount('o'));
+        assertEquals('X', board.whatsAtPos(new BoardPosition(0, 8)));
+        assertEquals(move, board.unmakeMove());
+        assertEquals(before, board.toString());
+        assertEquals(key, board.getPositionKey());
+    }
+
+    @Test
+    public void testGenerateMovesLongChainsBetweenSameSquares(){
+        // The king can go round the four pieces next to it either way before leaving along the other four
+        ICheckerBoard board = makeEmptyBoard(16);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        board.placePiece(new BoardPosition(2, 2), 'X');
+        int[][] jumped = {{1, 3}, {1, 5}, {3, 5}, {3, 3}, {3, 1}, {5, 1}, {7, 3}, {9, 5}};
+        for (int[] pos : jumped) {
+            board.placePiece(new BoardPosition(pos[0], pos[1]), 'o');
+        }
+        String before = board.toString();
+
+        assertEquals(3, board.generateMoves('x', moves));
+        int from = PackedMove.squareIndex(2, 2, 16);
+        int to = PackedMove.squareIndex(10, 6, 16);
+        assertEquals(PackedMove.encodeLongChain(from, to, false, 8, 0), moves[0]);
+        assertEquals(PackedMove.encodeLongChain(from, to, false, 8, 1), moves[1]);
+        assertEquals(4, PackedMove.getCaptureCount(moves[2]));
+
+        int[] steps = new int[ICheckerBoard.BOARD_MAX_SIZE * ICheckerBoard.BOARD_MAX_SIZE / 2];
+        board.getMoveSteps(moves[0], steps);
+        assertEquals("2,2 x 0,4 x 2,6 x 4,4 x 2,2 x 4,0 x 6,2 x 8,4 x 10,6", PackedMove.toString(moves[0], steps, 16));
+        board.getMoveSteps(moves[1], steps);
+        assertEquals("2,2 x 4,4 x 2,6 x 0,4 x 2,2 x 4,0 x 6,2 x 8,4 x 10,6", PackedMove.toString(moves[1], steps, 16));
+
+        for (int i = 0; i < 2; i++) {
+            board.makeMove(moves[i]);
+            assertEquals(0, board.getPieceCount('o'));
+            assertEquals('X', board.whatsAtPos(new BoardPosition(10, 6)));
+            assertEquals(moves[i], board.unmakeMove());
+            assertEquals(before, board.toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetMoveStepsOfChainNotInPosition(){
+        ICheckerBoard board = makeEmptyBoard(16);
+        board.placePiece(new BoardPosition(2, 2), 'X');
+        board.getMoveSteps(PackedMove.encodeLongChain(PackedMove.squareIndex(2, 2, 16),
+                PackedMove.squareIndex(10, 6, 16), false, 8, 0), new int[ICheckerBoard.MOVE_BUFFER_SIZE]);
+    }
+
+    @Test
+    public void testGenerateMovesSevenCaptureManChain(){
+        ICheckerBoard board = makeEmptyBoard(16);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        board.placePiece(new BoardPosition(0, 0), 'x');
+        for (int i = 1; i < 14; i += 2) {
+            board.placePiece(new BoardPosition(i, i), 'o');
+        }
+
+        assertEquals(1, board.generateMoves('x', moves));
+        assertEquals(7, PackedMove.getCaptureCount(moves[0]));
+        assertEquals(PackedMove.squareIndex(14, 14, 16), PackedMove.getTo(moves[0]));
+        assertFalse(PackedMove.isPromotion(moves[0]));
+
+        // A man's long chain is made and undone like a king's
+        board.makeMove(moves[0]);
+        assertEquals(0, board.getPieceCount('o'));
+        assertEquals('x', board.whatsAtPos(new BoardPosition(14, 14)));
+        board.unmakeMove();
+        assertEquals(7, board.getPieceCount('o'));
+        assertEquals('x', board.whatsAtPos(new BoardPosition(0, 0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGenerateMovesBufferTooShort(){
+        makeBoard(8).generateMoves('x', new int[6]);
+    }
+
+    @Test
+    public void testMakeAndUnmakeMoveRestoresBoard(){
+        ICheckerBoard board = makeBoard(8);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        String before = board.toString();
+        long key = board.getPositionKey();
+
+        board.generateMoves('x', moves);
+        board.makeMove(moves[0]);
+        board.generateMoves('o', moves);
+        board.makeMove(moves[0]);
+        assertEquals(2, board.getUndoCount());
+
+        board.unmakeMove();
+        board.unmakeMove();
+        assertEquals(0, board.getUndoCount());
+        assertEquals(before, board.toString());
+        assertEquals(key, board.getPositionKey());
+        assertEquals(12, board.getPieceCount('x'));
+        assertEquals(12, board.getPieceCount('o'));
+    }
+
+    @Test
+    public void testUnmakeCrowningJump(){
+        ICheckerBoard board = makeBoard(8);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        board.placePiece(new BoardPosition(5, 1), 'x');
+        board.placePiece(new BoardPosition(7, 3), ICheckerBoard.EMPTY_POS);
+        String before = board.toString();
+
+        assertEquals(1, board.generateMoves('x', moves));
+        board.makeMove(moves[0]);
+        assertEquals('X', board.whatsAtPos(new BoardPosition(7, 3)));
+        assertEquals(' ', board.whatsAtPos(new BoardPosition(6, 2)));
+        assertEquals(1, board.getKingCount('x'));
+
+        assertEquals(moves[0], board.unmakeMove());
+        assertEquals(before, board.toString());
+        assertEquals(0, board.getKingCount('x'));
+    }
+
+    @Test
+    public void testMoveAndJumpStopAtEdgesOfLargestBoard(){
+        ICheckerBoard board = makeBoard(16);
+        BoardPosition corner = new BoardPosition(15, 15);
+        board.placePiece(corner, 'O');
+        assertEquals(corner, board.movePiece(corner, DirectionEnum.SE));
+        assertEquals(corner, board.jumpPiece(corner, DirectionEnum.SW));
+
+        board.placePiece(new BoardPosition(14, 14), 'x');
+        board.placePiece(new BoardPosition(13, 13), ICheckerBoard.EMPTY_POS);
+        assertEquals(new BoardPosition(13, 13), board.jumpPiece(corner, DirectionEnum.NW));
+        assertEquals(ICheckerBoard.EMPTY_POS, board.whatsAtPos(new BoardPosition(14, 14)));
+        assertEquals('O', board.whatsAtPos(new BoardPosition(13, 13)));
+
+        // The jumped square is on the board but the landing square isn't
+        BoardPosition edge = new BoardPosition(1, 1);
+        board.placePiece(new BoardPosition(0, 0), 'o');
+        assertEquals(edge, board.jumpPiece(edge, DirectionEnum.NW));
+        assertEquals('o', board.whatsAtPos(new BoardPosition(0, 0)));
+    }
+
+    @Test
+    public void testScanSurroundingPackedMatchesMap(){
+        ICheckerBoard board = makeBoard(10);
+        board.placePiece(new BoardPosition(3, 3), 'X');
+        board.placePiece(new BoardPosition(6, 4), 'O');
+        for (int row = 0; row < 10; row++) {
+            for (int col = row % 2; col < 10; col += 2) {
+                BoardPosition pos = new BoardPosition(row, col);
+                long surrounding = board.scanSurroundingPacked(pos);
+                HashMap<DirectionEnum, Character> expected = board.scanSurroundingPositions(pos);
+                for (DirectionEnum dir : DirectionEnum.values()) {
+                    assertEquals((char) expected.get(dir), ICheckerBoard.surroundingPiece(surrounding, dir));
+                }
+            }
+        }
+
+        long surrounding = board.scanSurroundingPacked(new BoardPosition(4, 4));
+        assertEquals(ICheckerBoard.packSurrounding('x', 'X', ICheckerBoard.EMPTY_POS,
+                ICheckerBoard.EMPTY_POS), surrounding);
+        assertEquals('x', ICheckerBoard.surroundingPiece(board.scanSurroundingPacked(new BoardPosition(1, 1)),
+                DirectionEnum.SE));
+    }
+
+    private int expectedOccupancy(ICheckerBoard board, int row, int col, char man) {
+        int size = board.getRowNum();
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            return PackedNeighborhood.OFF_BOARD;
+        }
+        char piece = board.whatsAtPos(new BoardPosition(row, col));
+        if (piece == ICheckerBoard.EMPTY_POS) {
+            return PackedNeighborhood.EMPTY;
+        }
+        return Character.toLowerCase(piece) == man ? PackedNeighborhood.OWN : PackedNeighborhood.OPPONENT;
+    }
+
+    @Test
+    public void testScanNeighborhoodsOfRandomPositions(){
+        char[] pieces = {ICheckerBoard.EMPTY_POS, 'x', 'X', 'o', 'O'};
+        Random random = new Random(23);
+        int[] neighborhoods = new int[ICheckerBoard.NEIGHBORHOOD_BUFFER_SIZE];
+        for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+            for (int trial = 0; trial < 20; trial++) {
+                ICheckerBoard board = makeBoard(size);
+                for (int row = 0; row < size; row++) {
+                    for (int col = row % 2; col < size; col += 2) {
+                        board.placePiece(new BoardPosition(row, col), pieces[random.nextInt(pieces.length)]);
+                    }
+                }
+                for (char man : new char[]{'x', 'o'}) {
+                    int count = board.scanNeighborhoods(man, neighborhoods);
+                    assertEquals(board.getPieceCount(man), count);
+                    int entry = 0;
+                    for (int row = 0; row < size; row++) {
+                        for (int col = row % 2; col < size; col += 2) {
+                            if (Character.toLowerCase(board.whatsAtPos(new BoardPosition(row, col))) != man) {
+                                continue;
+                            }
+                            int neighborhood = neighborhoods[entry++];
+                            assertEquals(PackedMove.squareIndex(row, col, size), PackedNeighborhood.getSquare(neighborhood));
+                            for (int dir = 0; dir < 4; dir++) {
+                                int rowStep = PackedMove.rowStep(dir);
+                                int colStep = PackedMove.colStep(dir);
+                                assertEquals(expectedOccupancy(board, row + rowStep, col + colStep, man),
+                                        PackedNeighborhood.getNeighbor(neighborhood, dir));
+                                assertEquals(expectedOccupancy(board, row + 2 * rowStep, col + 2 * colStep, man),
+                                        PackedNeighborhood.getLanding(neighborhood, dir));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(0, makeBoard(8).scanNeighborhoods('q', neighborhoods));
+    }
+
+    private boolean mayMove(ICheckerBoard board, char piece, int dir) {
+        boolean movesDown = dir == DirectionEnum.SE.ordinal() || dir == DirectionEnum.SW.ordinal();
+        return Character.isUpperCase(piece) || movesDown == (piece == board.getPlayerOne());
+    }
+
+    private char pieceAt(ICheckerBoard board, int row, int col) {
+        int size = board.getRowNum();
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            return '*';
+        }
+        return board.whatsAtPos(new BoardPosition(row, col));
+    }
+
+    @Test
+    public void testMoveMasksOfRandomPositions(){
+        char[] pieces = {ICheckerBoard.EMPTY_POS, ICheckerBoard.EMPTY_POS, 'x', 'X', 'o', 'O'};
+        Random random = new Random(24);
+        long[] movable = new long[ICheckerBoard.SQUARE_MASK_WORDS];
+        long[] capturing = new long[ICheckerBoard.SQUARE_MASK_WORDS];
+        long[] threatened = new long[ICheckerBoard.SQUARE_MASK_WORDS];
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+            for (int trial = 0; trial < 20; trial++) {
+                ICheckerBoard board = makeBoard(size);
+                for (int row = 0; row < size; row++) {
+                    for (int col = row % 2; col < size; col += 2) {
+                        board.placePiece(new BoardPosition(row, col), pieces[random.nextInt(pieces.length)]);
+                    }
+                }
+                for (char man : new char[]{'x', 'o'}) {
+                    char opponent = board.getOpponent(man);
+                    long[] expectedMovable = new long[ICheckerBoard.SQUARE_MASK_WORDS];
+                    long[] expectedCapturing = new long[ICheckerBoard.SQUARE_MASK_WORDS];
+                    long[] expectedThreatened = new long[ICheckerBoard.SQUARE_MASK_WORDS];
+                    for (int row = 0; row < size; row++) {
+                        for (int col = row % 2; col < size; col += 2) {
+                            char piece = pieceAt(board, row, col);
+                            for (int dir = 0; dir < 4; dir++) {
+                                int rowStep = PackedMove.rowStep(dir);
+                                int colStep = PackedMove.colStep(dir);
+                                char next = pieceAt(board, row + rowStep, col + colStep);
+                                char landing = pieceAt(board, row + 2 * rowStep, col + 2 * colStep);
+                                boolean jump = landing == ICheckerBoard.EMPTY_POS;
+                                if (Character.toLowerCase(piece) == man && mayMove(board, piece, dir)) {
+                                    int square = PackedMove.squareIndex(row, col, size);
+                                    if (next == ICheckerBoard.EMPTY_POS
+                                            || jump && Character.toLowerCase(next) == opponent) {
+                                        expectedMovable[square / 64] |= 1L << square;
+                                    }
+                                    if (jump && Character.toLowerCase(next) == opponent) {
+                                        expectedCapturing[square / 64] |= 1L << square;
+                                    }
+                                }
+                                if (Character.toLowerCase(piece) == opponent && mayMove(board, piece, dir)
+                                        && jump && Character.toLowerCase(next) == man) {
+                                    int square = PackedMove.squareIndex(row + rowStep, col + colStep, size);
+                                    expectedThreatened[square / 64] |= 1L << square;
+                                }
+                            }
+                        }
+                    }
+                    board.getMovablePieces(man, movable);
+                    board.getCapturingPieces(man, capturing);
+                    board.getThreatenedPieces(man, threatened);
+                    assertArrayEquals(expectedMovable, movable);
+                    assertArrayEquals(expectedCapturing, capturing);
+                    assertArrayEquals(expectedThreatened, threatened);
+
+                    // Captures are forced, so when there are any the generated moves start on the capturing pieces
+                    if (capturing[0] != 0 || capturing[1] != 0) {
+                        long[] starts = new long[ICheckerBoard.SQUARE_MASK_WORDS];
+                        int count = board.generateMoves(man, moves);
+                        for (int i = 0; i < count; i++) {
+                            int from = PackedMove.getFrom(moves[i]);
+                            starts[from / 64] |= 1L << from;
+                        }
+                        assertArrayEquals(capturing, starts);
+                    }
+                }
+            }
+        }
+    }
+
+    private int countMobility(ICheckerBoard board, char man) {
+        int count = 0;
+        for (int row = 0; row < board.getRowNum(); row++) {
+            for (int col = row % 2; col < board.getRowNum(); col += 2) {
+                char piece = pieceAt(board, row, col);
+                if (Character.toLowerCase(piece) != man) {
+                    continue;
+                }
+                for (int dir = 0; dir < 4; dir++) {
+                    char next = pieceAt(board, row + PackedMove.rowStep(dir), col + PackedMove.colStep(dir));
+                    char landing = pieceAt(board, row + 2 * PackedMove.rowStep(dir), col + 2 * PackedMove.colStep(dir));
+                    if (mayMove(board, piece, dir) && (next == ICheckerBoard.EMPTY_POS
+                            || Character.toLowerCase(next) == board.getOpponent(man) && landing == ICheckerBoard.EMPTY_POS)) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testMobilityFollowsMovesAndUndo(){
+        Random random = new Random(25);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 4) {
+            AbsCheckerBoard board = (AbsCheckerBoard) makeBoard(size);
+            int made = 0;
+            for (int ply = 0; ply < 150; ply++) {
+                for (char man : new char[]{'x', 'o'}) {
+                    assertEquals(countMobility(board, man), board.getMobility(man));
+                    assertEquals(board.generateMoves(man, moves) > 0, board.hasLegalMove(man));
+                }
+                int count = board.generateMoves(board.getPlayerToMove(), moves);
+                if (count == 0) {
+                    break;
+                }
+                board.makeMove(moves[random.nextInt(count)]);
+                made++;
+            }
+            for (int i = 0; i < made; i++) {
+                board.unmakeMove();
+            }
+            assertEquals(countMobility(board, 'x'), board.getMobility('x'));
+            assertEquals(countMobility(board, 'o'), board.getMobility('o'));
+            assertEquals(0, board.getMobility('q'));
+        }
+    }
+
+    @Test
+    public void testMobilityFollowsPieceEdits(){
+        char[] pieces = {ICheckerBoard.EMPTY_POS, 'x', 'X', 'o', 'O'};
+        DirectionEnum[] directions = DirectionEnum.values();
+        Random random = new Random(26);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 4) {
+            AbsCheckerBoard board = (AbsCheckerBoard) makeBoard(size);
+            int[] edits = new int[4];
+            for (int edit = 0; edit < 2000; edit++) {
+                int kind = random.nextInt(4);
+                int row = kind == 2 ? (random.nextBoolean() ? 0 : size - 1) : random.nextInt(size);
+                int col = 2 * random.nextInt(size / 2) + row % 2;
+                BoardPosition pos = new BoardPosition(row, col);
+                char piece = board.whatsAtPos(pos);
+                int dir = random.nextInt(4);
+                int rowStep = PackedMove.rowStep(dir);
+                int colStep = PackedMove.colStep(dir);
+                char next = pieceAt(board, row + rowStep, col + colStep);
+                char landing = pieceAt(board, row + 2 * rowStep, col + 2 * colStep);
+                boolean mayStep = piece != ICheckerBoard.EMPTY_POS && mayMove(board, piece, dir);
+
+                if (kind == 0 && mayStep && next == ICheckerBoard.EMPTY_POS) {
+                    board.movePiece(pos, directions[dir]);
+                } else if (kind == 1 && mayStep && landing == ICheckerBoard.EMPTY_POS
+                        && Character.toLowerCase(next) == board.getOpponent(Character.toLowerCase(piece))) {
+                    board.jumpPiece(pos, directions[dir]);
+                } else if (kind == 2 && Character.isLowerCase(piece)) {
+                    board.crownPiece(pos);
+                } else if (kind == 3) {
+                    board.placePiece(pos, pieces[random.nextInt(pieces.length)]);
+                } else {
+                    continue;
+                }
+                edits[kind]++;
+
+                for (char man : new char[]{'x', 'o'}) {
+                    int count = board.generateMoves(man, moves);
+                    assertEquals(countMobility(board, man), board.getMobility(man));
+                    assertEquals(count > 0, board.hasLegalMove(man));
+                    assertEquals(count > 0, board.getMobility(man) > 0);
+                }
+            }
+            for (int kind = 0; kind < edits.length; kind++) {
+                assertTrue(edits[kind] > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testPositionKeyMatchesAcrossModels(){
+        ICheckerBoard board = makeBoard(10);
+        ICheckerBoard[] others = {new CheckerBoard(10), new CheckerBoardMem(10), new CheckerBoardBit(10)};
+        for (ICheckerBoard other : others) {
+            assertEquals(board.getPositionKey(), other.getPositionKey());
+        }
+
+        BoardPosition start = new BoardPosition(3, 1);
+        board.movePiece(start, DirectionEnum.SE);
+        board.setPlayerToMove('o');
+        for (ICheckerBoard other : others) {
+            other.movePiece(start, DirectionEnum.SE);
+            other.setPlayerToMove('o');
+
+            assertEquals(board.getPositionKey(), other.getPositionKey());
+            assertEquals(board, other);
+            assertEquals(board.hashCode(), other.hashCode());
+        }
+        assertNotEquals(board.getPositionKey(), makeBoard(10).getPositionKey());
+    }
+
+    @Test
+    public void testPositionKeySameForTransposedMoves(){
+        ICheckerBoard first = makeBoard(8);
+        ICheckerBoard second = makeBoard(8);
+
+        first.movePiece(new BoardPosition(2, 0), DirectionEnum.SE);
+        first.movePiece(new BoardPosition(2, 4), DirectionEnum.SE);
+        second.movePiece(new BoardPosition(2, 4), DirectionEnum.SE);
+        second.movePiece(new BoardPosition(2, 0), DirectionEnum.SE);
+
+        assertEquals(first.getPositionKey(), second.getPositionKey());
+        assertEquals(first, second);
+    }
+}
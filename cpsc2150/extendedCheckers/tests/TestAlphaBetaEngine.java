@@ -0,0 +1,122 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.engine.AlphaBetaEngine;
+import cpsc2150.extendedCheckers.engine.ParallelSearchEngine;
+import cpsc2150.extendedCheckers.engine.TranspositionTable;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestAlphaBetaEngine {
+    private static final int WIN_SCORE_NEAR = AlphaBetaEngine.WIN_SCORE - 7;
+
+    private ICheckerBoard makeEmptyBoard(int dimension) {
+        ICheckerBoard board = new CheckerBoard(dimension);
+        for (int row = 0; row < dimension; row++) {
+            for (int col = row % 2; col < dimension; col += 2) {
+                board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+            }
+        }
+        return board;
+    }
+
+    @Test
+    public void testFindBestMoveLeavesBoardUnchanged(){
+        ICheckerBoard board = new CheckerBoard(8);
+        String before = board.toString();
+        long key = board.getPositionKey();
+
+        AlphaBetaEngine engine = new AlphaBetaEngine(0, 20000);
+        int move = engine.findBestMove(board, 'x');
+
+        assertNotEquals(AlphaBetaEngine.NO_MOVE, move);
+        assertEquals(before, board.toString());
+        assertEquals(key, board.getPositionKey());
+        assertEquals(0, board.getUndoCount());
+    }
+
+    @Test
+    public void testFindBestMoveNoMoves(){
+        ICheckerBoard board = makeEmptyBoard(8);
+        board.placePiece(new BoardPosition(7, 1), 'x');
+
+        AlphaBetaEngine engine = new AlphaBetaEngine(0, 1000);
+        assertEquals(AlphaBetaEngine.NO_MOVE, engine.findBestMove(board, 'x'));
+    }
+
+    @Test
+    public void testFindBestMoveWinsMaterial(){
+        // 'x' can move into a square where 'o' must jump it, or move the other piece safely
+        ICheckerBoard board = makeEmptyBoard(8);
+        board.placePiece(new BoardPosition(2, 2), 'x');
+        board.placePiece(new BoardPosition(0, 6), 'x');
+        board.placePiece(new BoardPosition(4, 4), 'o');
+        board.placePiece(new BoardPosition(7, 7), 'o');
+
+        AlphaBetaEngine engine = new AlphaBetaEngine(0, 200000);
+        int move = engine.findBestMove(board, 'x');
+
+        assertNotEquals("2,2 -> 3,3", PackedMove.toString(move, 8));
+        assertNotEquals("2,2 -> 3,5", PackedMove.toString(move, 8));
+    }
+
+    @Test
+    public void testTranspositionTableStoreAndProbe(){
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x123456789ABCDEFL;
+        assertEquals(0, table.probe(key));
+
+        table.store(key, 0x3FFFF, -WIN_SCORE_NEAR, 9, TranspositionTable.UPPER);
+        long data = table.probe(key);
+        assertEquals(0x3FFFF, TranspositionTable.getMove(data));
+        assertEquals(-WIN_SCORE_NEAR, TranspositionTable.getScore(data));
+        assertEquals(9, TranspositionTable.getDepth(data));
+        assertEquals(TranspositionTable.UPPER, TranspositionTable.getBound(data));
+
+        // A shallower search of the same position doesn't replace a deeper one
+        table.store(key, 1, 5, 3, TranspositionTable.EXACT);
+        assertEquals(9, TranspositionTable.getDepth(table.probe(key)));
+        assertEquals(0, table.probe(key + 1));
+    }
+
+    @Test
+    public void testParallelFindBestMoveLeavesBoardUnchanged(){
+        ICheckerBoard board = new CheckerBoard(8);
+        String before = board.toString();
+        long key = board.getPositionKey();
+
+        ParallelSearchEngine engine = new ParallelSearchEngine(3, 0, 20000, 1);
+        int move = engine.findBestMove(board, 'x');
+        engine.shutdown();
+
+        assertNotEquals(AlphaBetaEngine.NO_MOVE, move);
+        assertEquals(before, board.toString());
+        assertEquals(key, board.getPositionKey());
+        assertEquals(0, board.getUndoCount());
+    }
+
+    @Test
+    public void testParallelHelpersSearchBoardsWithOtherPlayers(){
+        ICheckerBoard board = new CheckerBoard(8, 'a', 'b');
+        long nodeLimit = 100000;
+
+        ParallelSearchEngine engine = new ParallelSearchEngine(4, 0, nodeLimit, 1);
+        int move = engine.findBestMove(board, 'a');
+        long nodes = engine.getNodeCount();
+        engine.shutdown();
+
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        int count = board.generateMoves('a', moves);
+        boolean legal = false;
+        for (int i = 0; i < count; i++) {
+            legal |= moves[i] == move;
+        }
+        assertTrue(legal);
+        // The main thread stops within one limit check of nodeLimit, so the rest were searched by the helpers
+        assertTrue(nodes > nodeLimit + 2048);
+    }
+}
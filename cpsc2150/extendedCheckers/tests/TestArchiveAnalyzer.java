@@ -0,0 +1,187 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.engine.ArchiveAnalyzer;
+import cpsc2150.extendedCheckers.engine.RandomMovePolicy;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.models.PdnReader;
+import cpsc2150.extendedCheckers.models.PdnWriter;
+import cpsc2150.extendedCheckers.util.PackedMove;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TestArchiveAnalyzer {
+    private static final int GAMES = 120;
+
+    private long[] games = new long[ICheckerBoard.BOARD_MAX_SIZE + 1];
+    private long[] moves = new long[ICheckerBoard.BOARD_MAX_SIZE + 1];
+    private long[] captures = new long[ICheckerBoard.BOARD_MAX_SIZE + 1];
+    private long[] draws = new long[ICheckerBoard.BOARD_MAX_SIZE + 1];
+    private long[] balanceAt10 = new long[ICheckerBoard.BOARD_MAX_SIZE + 1];
+
+    /**
+     * Writes random games of every size, counting what the analyzer should find while they are played.
+     */
+    private byte[] writeArchive() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PdnWriter writer = new PdnWriter(Channels.newChannel(out))) {
+            RandomMovePolicy policy = new RandomMovePolicy(11);
+            for (int game = 0; game < GAMES; game++) {
+                int size = 8 + 2 * (game % 5);
+                ICheckerBoard board = new CheckerBoard(size);
+                writer.startGame(board);
+                for (int ply = 0; ply < 250; ply++) {
+                    int move = policy.chooseMove(board, board.getPlayerToMove());
+                    if (move == RandomMovePolicy.NO_MOVE) {
+                        break;
+                    }
+                    writer.writeMove(move);
+                    board.makeMove(move);
+                    moves[size]++;
+                    captures[size] += PackedMove.getCaptureCount(move);
+                    if (ply == 9) {
+                        balanceAt10[size] += board.getPieceCount(board.getPlayerOne())
+                                - board.getPieceCount(board.getPlayerTwo());
+                    }
+                }
+                int result = game % 3 == 0 ? PdnReader.RESULT_DRAW : PdnReader.RESULT_PLAYER_ONE_WIN;
+                writer.endGame(result);
+                games[size]++;
+                draws[size] += result == PdnReader.RESULT_DRAW ? 1 : 0;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private void assertCounts(ArchiveAnalyzer.Result result) {
+        for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+            assertEquals(games[size], result.getGames(size));
+            assertEquals(moves[size], result.getMoves(size));
+            assertEquals(captures[size], result.getCaptures(size));
+            assertEquals(draws[size], result.getResultCount(size, PdnReader.RESULT_DRAW));
+            assertEquals(games[size] - draws[size], result.getResultCount(size, PdnReader.RESULT_PLAYER_ONE_WIN));
+            assertEquals(0, result.getResultCount(size, PdnReader.RESULT_PLAYER_TWO_WIN));
+            assertEquals(0, result.getAverageBalance(size, 0), 0);
+            assertEquals((double) balanceAt10[size] / games[size], result.getAverageBalance(size, 10), 1e-9);
+        }
+    }
+
+    @Test
+    public void testSmallChunksCountEveryGameOnce() throws IOException {
+        byte[] archive = writeArchive();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Parts of a few hundred bytes split the archive between most of its games
+            assertCounts(ArchiveAnalyzer.analyze(ByteBuffer.wrap(archive), pool, 300));
+            assertCounts(ArchiveAnalyzer.analyze(ByteBuffer.wrap(archive), pool, 1));
+            assertCounts(ArchiveAnalyzer.analyze(ByteBuffer.wrap(archive), pool, archive.length));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSameCountsOnAnyPoolSize() throws IOException {
+        byte[] archive = writeArchive();
+        String expected = null;
+        for (int threads = 1; threads <= 8; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                String report = ArchiveAnalyzer.analyze(ByteBuffer.wrap(archive), pool, 500).toString();
+                if (expected == null) {
+                    expected = report;
+                }
+                assertEquals(expected, report);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        assertEquals(5, expected.split("\n").length);
+    }
+
+    @Test
+    public void testAnalyzeFile() throws IOException {
+        byte[] archive = writeArchive();
+        Path file = Files.createTempFile("archive", ".pdn");
+        try {
+            Files.write(file, archive);
+            ForkJoinPool pool = new ForkJoinPool(2);
+            try {
+                assertCounts(ArchiveAnalyzer.analyze(file, pool));
+            } finally {
+                pool.shutdown();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testAnalyzeFileInSmallWindows() throws IOException {
+        byte[] archive = writeArchive();
+        Path file = Files.createTempFile("archive", ".pdn");
+        try {
+            Files.write(file, archive);
+            ForkJoinPool pool = new ForkJoinPool(2);
+            try {
+                // Each window ends at the last game starting in it, so the file is read in many windows
+                assertCounts(ArchiveAnalyzer.analyze(file, pool, 16 * 1024));
+                assertCounts(ArchiveAnalyzer.analyze(file, pool, archive.length / 3));
+                try {
+                    ArchiveAnalyzer.analyze(file, pool, 64);
+                    fail();
+                } catch (IOException e) {
+                    assertTrue(e.getMessage(), e.getMessage().contains("too long"));
+                }
+            } finally {
+                pool.shutdown();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTagsOfOneGameStayTogether() throws IOException {
+        String pdn = "[Event \"one\"]\n[GameType \"21\"]\n\n1. 10-14 23-19 *\n\n"
+                + "[Event \"two\"]\n\n[GameType \"21,B,10,10,N2,0\"]\n1. 16-21 *\n\n"
+                + "[Event \"three\"]\n[FEN \"B:W18:B14\"]\n1. 14x23 *\n";
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ArchiveAnalyzer.Result result = ArchiveAnalyzer.analyze(
+                    ByteBuffer.wrap(pdn.getBytes(StandardCharsets.US_ASCII)), pool, 1);
+            assertEquals(2, result.getGames(8));
+            assertEquals(1, result.getGames(10));
+            assertEquals(1, result.getCaptures(8));
+            assertEquals(4, result.getMoves(8) + result.getMoves(10));
+            assertEquals(3, result.getResultCount(8, PdnReader.RESULT_UNKNOWN)
+                    + result.getResultCount(10, PdnReader.RESULT_UNKNOWN));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testInvalidGameReported() {
+        String pdn = "[GameType \"21\"]\n1. 10-14 *\n\n[GameType \"21\"]\n1. 10-19 *\n";
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ArchiveAnalyzer.analyze(ByteBuffer.wrap(pdn.getBytes(StandardCharsets.US_ASCII)), pool, 1);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("at byte 28"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
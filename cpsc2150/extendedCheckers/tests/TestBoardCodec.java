@@ -0,0 +1,110 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.engine.RandomMovePolicy;
+import cpsc2150.extendedCheckers.models.BoardCodec;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.CheckerBoardBit;
+import cpsc2150.extendedCheckers.models.CheckerBoardMem;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class TestBoardCodec {
+
+    private ByteBuffer encode(ICheckerBoard board) {
+        ByteBuffer buffer = ByteBuffer.allocate(BoardCodec.encodedSize(board.getRowNum()));
+        BoardCodec.encode(board, buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        return buffer;
+    }
+
+    private void playRandomly(ICheckerBoard board, int plies, long seed) {
+        RandomMovePolicy policy = new RandomMovePolicy(seed);
+        for (int ply = 0; ply < plies; ply++) {
+            int move = policy.chooseMove(board, board.getPlayerToMove());
+            if (move == RandomMovePolicy.NO_MOVE) {
+                return;
+            }
+            board.makeMove(move);
+        }
+    }
+
+    @Test
+    public void testEncodedSize(){
+        assertEquals(14, BoardCodec.encodedSize(8));
+        assertEquals(50, BoardCodec.encodedSize(16));
+        assertEquals(10, BoardCodec.peekDimension(encode(new CheckerBoard(10))));
+    }
+
+    @Test
+    public void testRoundTripEveryImplementation(){
+        for (int dimension = ICheckerBoard.BOARD_MIN_SIZE; dimension <= ICheckerBoard.BOARD_MAX_SIZE; dimension += 2) {
+            ICheckerBoard played = new CheckerBoardBit(dimension);
+            playRandomly(played, 60, dimension);
+            ByteBuffer buffer = encode(played);
+
+            ICheckerBoard[] targets = {new CheckerBoard(dimension), new CheckerBoardMem(dimension),
+                    new CheckerBoardBit(dimension)};
+            for (ICheckerBoard target : targets) {
+                BoardCodec.decode(buffer.duplicate(), target);
+                assertEquals(played, target);
+                assertEquals(played.getPositionKey(), target.getPositionKey());
+                assertEquals(played.getPlayerToMove(), target.getPlayerToMove());
+                assertEquals(played.toString(), target.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testKingsAndSideToMove(){
+        ICheckerBoard board = new CheckerBoard(8);
+        board.placePiece(new BoardPosition(4, 4), 'X');
+        board.placePiece(new BoardPosition(3, 3), 'O');
+        board.setPlayerToMove('o');
+
+        ICheckerBoard copy = new CheckerBoardMem(8);
+        BoardCodec.decode(encode(board), copy);
+        assertEquals('X', copy.whatsAtPos(new BoardPosition(4, 4)));
+        assertEquals('O', copy.whatsAtPos(new BoardPosition(3, 3)));
+        assertEquals('o', copy.getPlayerToMove());
+        assertEquals(1, copy.getKingCount('x'));
+    }
+
+    @Test
+    public void testDecodeIntoOtherPlayers(){
+        ICheckerBoard board = new CheckerBoard(8);
+        board.placePiece(new BoardPosition(4, 4), 'X');
+        ICheckerBoard copy = new CheckerBoardBit(8, 'r', 'w');
+        BoardCodec.decode(encode(board), copy);
+
+        assertEquals('R', copy.whatsAtPos(new BoardPosition(4, 4)));
+        assertEquals('w', copy.whatsAtPos(new BoardPosition(7, 7)));
+        assertEquals('r', copy.getPlayerToMove());
+    }
+
+    @Test
+    public void testDecodeWrongSize(){
+        ByteBuffer buffer = encode(new CheckerBoard(8));
+        ICheckerBoard board = new CheckerBoard(10);
+        String before = board.toString();
+        try {
+            BoardCodec.decode(buffer, board);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, buffer.position());
+            assertEquals(before, board.toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeInvalidCode(){
+        ByteBuffer buffer = encode(new CheckerBoard(8));
+        buffer.put(2, (byte) 0b111);
+        BoardCodec.decode(buffer, new CheckerBoard(8));
+    }
+}
@@ -12,9 +12,10 @@ import java.util.Map;
 
 import static org.junit.Assert.*;
 
-public class TestCheckerBoard {
+public class TestCheckerBoard extends AbsTestCheckerBoard {
 
-    private ICheckerBoard makeBoard(int dimension) {
+    @Override
+    protected ICheckerBoard makeBoard(int dimension) {
         return new CheckerBoard(dimension);
     }
 
@@ -245,8 +246,8 @@ public class TestCheckerBoard {
     public void testGetInitialPieceCounts(){
         ICheckerBoard board = makeBoard(8);
         HashMap<Character, Integer> expected = new HashMap<>();
-        expected.put('x', 24);
-        expected.put('o', 24);
+        expected.put('x', 12);
+        expected.put('o', 12);
         HashMap<Character, Integer> observed = board.getPieceCounts();
         assertEquals(expected, observed);
 
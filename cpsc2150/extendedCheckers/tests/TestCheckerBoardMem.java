@@ -12,9 +12,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
-public class TestCheckerBoardMem {
+public class TestCheckerBoardMem extends AbsTestCheckerBoard {
 
-    private ICheckerBoard makeBoard(int dimension) {
+    @Override
+    protected ICheckerBoard makeBoard(int dimension) {
         return new CheckerBoardMem(dimension);
     }
 
@@ -321,6 +322,21 @@ public class TestCheckerBoardMem {
             assertEquals(expectedColNum, actualColNum);
         }
 
+        @Test
+        public void testGetRowNumAfterClearingBottomRows(){
+            ICheckerBoard board = makeBoard(8);
+
+            for (int row = 5; row < 8; row++) {
+                for (int col = 0; col < 8; col++) {
+                    board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+                }
+            }
+
+            assertEquals(8, board.getRowNum());
+            assertEquals(8, board.getColNum());
+            assertEquals(' ', board.whatsAtPos(new BoardPosition(7, 7)));
+        }
+
         @Test
         public void testCheckPlayerOneWins(){
             ICheckerBoard board = makeBoard(8);
@@ -821,4 +837,4 @@ public class TestCheckerBoardMem {
             assertEquals(new BoardPosition(1, 1), ICheckerBoard.getDirection(DirectionEnum.SE));
             assertEquals(new BoardPosition(1, -1), ICheckerBoard.getDirection(DirectionEnum.SW));
         }
-    }
+}
@@ -0,0 +1,288 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.models.BoardCodec;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.CheckerBoardBit;
+import cpsc2150.extendedCheckers.models.GameSessionRegistry;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.views.CheckersServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestCheckersServer {
+    private GameSessionRegistry registry;
+    private CheckersServer server;
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @Before
+    public void startServer() throws IOException {
+        registry = new GameSessionRegistry(16);
+        server = new CheckersServer(0, 2, registry);
+        server.start();
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        server.close();
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("localhost", server.getPort());
+        socket.setSoTimeout(10000);
+        sockets.add(socket);
+        return socket;
+    }
+
+    private void send(Socket socket, String text) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(text.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testNewGameAndBoard() throws IOException {
+        Socket socket = connect();
+        BufferedReader in = reader(socket);
+        send(socket, "NEW 8\nBOARD\n");
+
+        assertEquals("GAME 1", in.readLine());
+        assertEquals("BOARD 1 8 x -", in.readLine());
+        assertEquals("x*x*x*x*", in.readLine());
+        assertEquals("*x*x*x*x", in.readLine());
+        assertEquals("x*x*x*x*", in.readLine());
+        assertEquals("*.*.*.*.", in.readLine());
+        assertEquals(".*.*.*.*", in.readLine());
+        assertEquals("*o*o*o*o", in.readLine());
+        assertEquals("o*o*o*o*", in.readLine());
+        assertEquals("*o*o*o*o", in.readLine());
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testSelectAndMove() throws IOException {
+        Socket socket = connect();
+        BufferedReader in = reader(socket);
+        send(socket, "new 8 b\nselect 2 2\nselect 5 1\nmove 2 2 se\n");
+
+        assertEquals("GAME 1", in.readLine());
+        assertEquals("PIECE x SE SW", in.readLine());
+        assertEquals("ERR not your piece", in.readLine());
+        assertEquals("BOARD 1 8 o -", in.readLine());
+        in.readLine();
+        in.readLine();
+        assertEquals("x*.*x*x*", in.readLine());
+        assertEquals("*.*x*.*.", in.readLine());
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        Socket socket = connect();
+        send(socket, "NEW 8\nMOVE 2 2 SE\nSNAPSHOT\n");
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        assertEquals("GAME 1", readAsciiLine(in));
+        for (int line = 0; line < 9; line++) {
+            readAsciiLine(in);
+        }
+        assertEquals("SNAPSHOT 1 14", readAsciiLine(in));
+        byte[] snapshot = new byte[14];
+        in.readFully(snapshot);
+
+        ICheckerBoard expected = new CheckerBoard(8);
+        expected.placePiece(new BoardPosition(2, 2), ICheckerBoard.EMPTY_POS);
+        expected.placePiece(new BoardPosition(3, 3), 'x');
+        expected.setPlayerToMove('o');
+        ICheckerBoard board = new CheckerBoardBit(8);
+        BoardCodec.decode(ByteBuffer.wrap(snapshot), board);
+        assertEquals(expected, board);
+    }
+
+    private String readAsciiLine(DataInputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int b = in.read(); b >= 0 && b != '\n'; b = in.read()) {
+            sb.append((char) b);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testInvalidMoves() throws IOException {
+        Socket socket = connect();
+        BufferedReader in = reader(socket);
+        send(socket, "BOARD\nNEW 9\nNEW 8\nMOVE 2 2 NE\nMOVE 0 0 SE\nMOVE 2 2 UP\nMOVE 20 2 SE\nMOVE 2\nFLY\n");
+
+        assertEquals("ERR no game", in.readLine());
+        assertEquals("ERR invalid board size", in.readLine());
+        assertEquals("GAME 1", in.readLine());
+        assertEquals("ERR invalid move", in.readLine());
+        assertEquals("ERR invalid move", in.readLine());
+        assertEquals("ERR unknown direction", in.readLine());
+        assertEquals("ERR off the board", in.readLine());
+        assertEquals("ERR bad arguments", in.readLine());
+        assertEquals("ERR unknown command", in.readLine());
+    }
+
+    @Test
+    public void testTwoConnectionsShareGame() throws IOException {
+        Socket first = connect();
+        Socket second = connect();
+        BufferedReader firstIn = reader(first);
+        BufferedReader secondIn = reader(second);
+
+        send(first, "NEW 10 M\n");
+        String game = firstIn.readLine();
+        send(second, "JOIN " + game.substring(5) + "\nJOIN 99\n");
+        assertEquals(game, secondIn.readLine());
+        assertEquals("ERR no such game", secondIn.readLine());
+
+        send(first, "MOVE 3 1 SE\n");
+        assertTrue(firstIn.readLine().endsWith(" 10 o -"));
+        send(second, "SELECT 3 1\nQUIT\n");
+        assertEquals("ERR not your piece", secondIn.readLine());
+        assertEquals("BYE", secondIn.readLine());
+        assertNull(secondIn.readLine());
+    }
+
+    @Test
+    public void testGameRemovedWhenLastConnectionLeaves() throws Exception {
+        Socket first = connect();
+        Socket second = connect();
+        BufferedReader firstIn = reader(first);
+        BufferedReader secondIn = reader(second);
+
+        send(first, "NEW 8\n");
+        String game = firstIn.readLine();
+        send(second, "JOIN " + game.substring(5) + "\n");
+        assertEquals(game, secondIn.readLine());
+        send(first, "QUIT\n");
+        assertEquals("BYE", firstIn.readLine());
+        assertNull(firstIn.readLine());
+        assertEquals(1, registry.size());
+
+        send(second, "NEW 10\n");
+        assertEquals("GAME 2", secondIn.readLine());
+        assertFalse(registry.contains(1));
+        // Closing the socket without QUIT leaves the game too
+        second.close();
+        assertEquals(0, waitForGames(0));
+    }
+
+    /**
+     * Waits up to ten seconds for the registry to hold a number of games.
+     *
+     * @return The number of games the registry holds when the wait ends.
+     */
+    private int waitForGames(int count) throws InterruptedException {
+        for (int attempt = 0; attempt < 1000 && registry.size() != count; attempt++) {
+            Thread.sleep(10);
+        }
+        return registry.size();
+    }
+
+    @Test
+    public void testGameRemovedWhenItEnds() throws IOException {
+        ICheckerBoard board = new CheckerBoard(8);
+        for (int row = 0; row < 8; row++) {
+            for (int col = row % 2; col < 8; col += 2) {
+                board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+            }
+        }
+        board.placePiece(new BoardPosition(2, 2), 'x');
+        board.placePiece(new BoardPosition(3, 3), 'o');
+        long id = registry.create(board);
+
+        Socket socket = connect();
+        BufferedReader in = reader(socket);
+        send(socket, "JOIN " + id + "\nMOVE 2 2 SE\nBOARD\n");
+        assertEquals("GAME " + id, in.readLine());
+        assertEquals("BOARD " + id + " 8 o x", in.readLine());
+        for (int row = 0; row < 8; row++) {
+            in.readLine();
+        }
+        assertEquals("ERR no game", in.readLine());
+        assertFalse(registry.contains(id));
+    }
+
+    @Test
+    public void testGameRemovedElsewhere() throws IOException {
+        Socket socket = connect();
+        BufferedReader in = reader(socket);
+        send(socket, "NEW 8\n");
+        assertEquals("GAME 1", in.readLine());
+        registry.remove(1);
+
+        // The connection stays open and can start another game
+        send(socket, "BOARD\nSELECT 2 2\nMOVE 2 2 SE\nSNAPSHOT\nNEW 8\n");
+        assertEquals("ERR no such game", in.readLine());
+        assertEquals("ERR no such game", in.readLine());
+        assertEquals("ERR no such game", in.readLine());
+        assertEquals("ERR no such game", in.readLine());
+        assertEquals("GAME 2", in.readLine());
+    }
+
+    @Test
+    public void testCommandSplitAcrossReads() throws Exception {
+        Socket socket = connect();
+        BufferedReader in = reader(socket);
+        send(socket, "NE");
+        Thread.sleep(50);
+        send(socket, "W 8\r\nSEL");
+        Thread.sleep(50);
+        send(socket, "ECT 2 0\r\n");
+
+        assertEquals("GAME 1", in.readLine());
+        assertEquals("PIECE x SE SW", in.readLine());
+    }
+
+    @Test
+    public void testLineTooLong() throws IOException {
+        Socket socket = connect();
+        BufferedReader in = reader(socket);
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            line.append('A');
+        }
+        send(socket, line.toString());
+
+        assertEquals("ERR line too long", in.readLine());
+        assertNull(in.readLine());
+    }
+
+    @Test
+    public void testManyConnections() throws IOException {
+        int clients = 200;
+        List<Socket> open = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Socket socket = connect();
+            send(socket, "NEW 8\nMOVE 2 0 SE\n");
+            open.add(socket);
+        }
+        for (Socket socket : open) {
+            BufferedReader in = reader(socket);
+            assertTrue(in.readLine().startsWith("GAME "));
+            assertTrue(in.readLine().endsWith(" 8 o -"));
+        }
+        assertEquals(clients, registry.size());
+    }
+}
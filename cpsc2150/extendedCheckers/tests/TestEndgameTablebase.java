@@ -0,0 +1,116 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.engine.AlphaBetaEngine;
+import cpsc2150.extendedCheckers.engine.EndgameGenerator;
+import cpsc2150.extendedCheckers.engine.EndgameTablebase;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class TestEndgameTablebase {
+    private static EndgameTablebase tablebase;
+
+    @BeforeClass
+    public static void generateTables() throws IOException {
+        Path directory = Files.createTempDirectory("endgame");
+        EndgameGenerator.generate(directory, 2, 2, false);
+        tablebase = new EndgameTablebase(directory);
+    }
+
+    private ICheckerBoard makeEmptyBoard(int dimension) {
+        ICheckerBoard board = new CheckerBoard(dimension);
+        for (int row = 0; row < dimension; row++) {
+            for (int col = row % 2; col < dimension; col += 2) {
+                board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+            }
+        }
+        return board;
+    }
+
+    @Test
+    public void testGetMaxPieces(){
+        assertEquals(2, tablebase.getMaxPieces());
+    }
+
+    @Test
+    public void testProbeCaptureWinsInOne(){
+        ICheckerBoard board = makeEmptyBoard(8);
+        board.placePiece(new BoardPosition(3, 3), 'X');
+        board.placePiece(new BoardPosition(4, 4), 'O');
+
+        int value = tablebase.probe(board, 'x');
+        assertTrue(EndgameTablebase.isWin(value));
+        assertEquals(1, EndgameTablebase.getDistance(value));
+    }
+
+    @Test
+    public void testProbeNoMovesLosesNow(){
+        // The man can't step onto the king or jump it off the board
+        ICheckerBoard board = makeEmptyBoard(8);
+        board.placePiece(new BoardPosition(6, 0), 'x');
+        board.placePiece(new BoardPosition(7, 1), 'O');
+
+        int value = tablebase.probe(board, 'x');
+        assertTrue(EndgameTablebase.isLoss(value));
+        assertEquals(0, EndgameTablebase.getDistance(value));
+    }
+
+    @Test
+    public void testProbeDoubleCornerIsDraw(){
+        ICheckerBoard board = makeEmptyBoard(8);
+        board.placePiece(new BoardPosition(4, 4), 'X');
+        board.placePiece(new BoardPosition(7, 1), 'O');
+
+        assertEquals(EndgameTablebase.DRAW, tablebase.probe(board, 'x'));
+        assertEquals(EndgameTablebase.DRAW, tablebase.probe(board, 'o'));
+    }
+
+    @Test
+    public void testProbeLongWin(){
+        // A king that starts in a single corner can be driven out and caught
+        ICheckerBoard board = makeEmptyBoard(8);
+        board.placePiece(new BoardPosition(0, 0), 'X');
+        board.placePiece(new BoardPosition(7, 7), 'O');
+
+        int value = tablebase.probe(board, 'x');
+        assertTrue(EndgameTablebase.isWin(value));
+        assertEquals(11, EndgameTablebase.getDistance(value));
+    }
+
+    @Test
+    public void testProbeNotCovered(){
+        ICheckerBoard board = makeEmptyBoard(8);
+        board.placePiece(new BoardPosition(0, 0), 'X');
+        board.placePiece(new BoardPosition(2, 2), 'x');
+        board.placePiece(new BoardPosition(7, 7), 'O');
+        assertEquals(EndgameTablebase.NOT_FOUND, tablebase.probe(board, 'x'));
+
+        ICheckerBoard larger = makeEmptyBoard(10);
+        larger.placePiece(new BoardPosition(0, 0), 'X');
+        larger.placePiece(new BoardPosition(9, 9), 'O');
+        assertEquals(EndgameTablebase.NOT_FOUND, tablebase.probe(larger, 'x'));
+    }
+
+    @Test
+    public void testEnginePlaysTablebaseWin(){
+        ICheckerBoard board = makeEmptyBoard(8);
+        board.placePiece(new BoardPosition(0, 0), 'X');
+        board.placePiece(new BoardPosition(7, 7), 'O');
+
+        AlphaBetaEngine engine = new AlphaBetaEngine(0, 20000);
+        engine.setTablebase(tablebase);
+        board.makeMove(engine.findBestMove(board, 'x'));
+
+        int value = tablebase.probe(board, 'o');
+        assertTrue(EndgameTablebase.isLoss(value));
+        assertEquals(10, EndgameTablebase.getDistance(value));
+    }
+}
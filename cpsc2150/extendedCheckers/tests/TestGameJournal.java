@@ -0,0 +1,234 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.engine.RandomMovePolicy;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.CheckerBoardMem;
+import cpsc2150.extendedCheckers.models.GameJournal;
+import cpsc2150.extendedCheckers.models.GameSessionRegistry;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.util.DirectionEnum;
+import cpsc2150.extendedCheckers.util.PackedMove;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestGameJournal {
+
+    private List<Path> segments(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "journal-*.seg")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Plays random moves in every game of a registry, a move per game at a time, and returns copies of the boards.
+     */
+    private ICheckerBoard[] playGames(GameSessionRegistry registry, long[] ids, int moves, long seed) {
+        RandomMovePolicy policy = new RandomMovePolicy(seed);
+        for (int m = 0; m < moves; m++) {
+            for (long id : ids) {
+                registry.withSession(id, session -> {
+                    int move = policy.chooseMove(session.getBoard(), session.getCurrentPlayer());
+                    if (move == RandomMovePolicy.NO_MOVE) {
+                        session.passTurn();
+                    } else {
+                        session.makeMove(move);
+                    }
+                    return null;
+                });
+            }
+        }
+        ICheckerBoard[] boards = new ICheckerBoard[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            boards[i] = registry.withSession(ids[i], session -> {
+                ICheckerBoard copy = new CheckerBoard(session.getBoard().getRowNum());
+                for (int row = 0; row < copy.getRowNum(); row++) {
+                    for (int col = row % 2; col < copy.getColNum(); col += 2) {
+                        BoardPosition pos = BoardPosition.of(row, col);
+                        copy.placePiece(pos, session.getBoard().whatsAtPos(pos));
+                    }
+                }
+                copy.setPlayerToMove(session.getCurrentPlayer());
+                return copy;
+            });
+        }
+        return boards;
+    }
+
+    @Test
+    public void testRecoverGames() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        long[] ids = new long[20];
+        ICheckerBoard[] expected;
+        try (GameJournal journal = new GameJournal(directory, 64 * 1024, 10)) {
+            GameSessionRegistry registry = new GameSessionRegistry(8, journal);
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = registry.create(new CheckerBoardMem(8 + 2 * (i % 5)));
+            }
+            expected = playGames(registry, ids, 150, 3);
+        }
+
+        try (GameJournal journal = new GameJournal(directory, 64 * 1024, 10)) {
+            GameSessionRegistry registry = new GameSessionRegistry(8, journal);
+            assertEquals(ids.length, registry.recover("F"));
+            for (int i = 0; i < ids.length; i++) {
+                ICheckerBoard board = registry.withSession(ids[i], session -> session.getBoard());
+                assertTrue(board instanceof CheckerBoard);
+                assertEquals(expected[i], board);
+            }
+            assertTrue(registry.create(new CheckerBoard(8)) > ids[ids.length - 1]);
+            assertEquals(1, segments(directory).size());
+        }
+    }
+
+    @Test
+    public void testRecoverSteps() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        long id;
+        try (GameJournal journal = new GameJournal(directory)) {
+            GameSessionRegistry registry = new GameSessionRegistry(1, journal);
+            id = registry.create(new CheckerBoard(8, 'r', 'w'));
+            registry.withSession(id, session -> {
+                assertTrue(session.movePiece(new BoardPosition(2, 2), DirectionEnum.SE));
+                assertTrue(session.movePiece(new BoardPosition(5, 5), DirectionEnum.NW));
+                assertTrue(session.movePiece(new BoardPosition(3, 3), DirectionEnum.SE));
+                return null;
+            });
+        }
+
+        try (GameJournal journal = new GameJournal(directory)) {
+            Map<Long, ICheckerBoard> boards = journal.recover("M");
+            ICheckerBoard board = boards.get(id);
+            assertEquals('r', board.whatsAtPos(new BoardPosition(5, 5)));
+            assertEquals(ICheckerBoard.EMPTY_POS, board.whatsAtPos(new BoardPosition(4, 4)));
+            assertEquals(ICheckerBoard.EMPTY_POS, board.whatsAtPos(new BoardPosition(3, 3)));
+            assertEquals(11, board.getPieceCount('w'));
+            assertEquals('w', board.getPlayerToMove());
+        }
+    }
+
+    @Test
+    public void testRecoverLongChain() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        long id;
+        ICheckerBoard board = new CheckerBoard(16);
+        for (int row = 0; row < 16; row++) {
+            for (int col = row % 2; col < 16; col += 2) {
+                board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+            }
+        }
+        board.placePiece(new BoardPosition(0, 0), 'X');
+        for (int i = 1; i < 14; i += 2) {
+            board.placePiece(new BoardPosition(i, i), 'o');
+        }
+        board.placePiece(new BoardPosition(15, 1), 'o');
+        try (GameJournal journal = new GameJournal(directory)) {
+            GameSessionRegistry registry = new GameSessionRegistry(1, journal);
+            id = registry.create(board);
+            registry.withSession(id, session -> {
+                int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+                assertEquals(1, session.getBoard().generateMoves('x', moves));
+                assertTrue(PackedMove.isLongChain(moves[0]));
+                session.makeMove(moves[0]);
+                return null;
+            });
+        }
+
+        // The long chain is journaled as a move and found again from the recovered position
+        try (GameJournal journal = new GameJournal(directory)) {
+            ICheckerBoard recovered = journal.recover("B").get(id);
+            assertEquals('X', recovered.whatsAtPos(new BoardPosition(14, 14)));
+            assertEquals(1, recovered.getPieceCount('o'));
+            assertEquals('o', recovered.getPlayerToMove());
+        }
+    }
+
+    @Test
+    public void testEndedGamesNotRecovered() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        long kept;
+        try (GameJournal journal = new GameJournal(directory)) {
+            GameSessionRegistry registry = new GameSessionRegistry(4, journal);
+            long ended = registry.create(new CheckerBoard(8));
+            kept = registry.create(new CheckerBoard(10));
+            assertTrue(registry.remove(ended));
+        }
+
+        try (GameJournal journal = new GameJournal(directory)) {
+            Map<Long, ICheckerBoard> boards = journal.recover("F");
+            assertEquals(1, boards.size());
+            assertEquals(10, boards.get(kept).getRowNum());
+        }
+    }
+
+    @Test
+    public void testTornRecordIgnored() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        long id;
+        try (GameJournal journal = new GameJournal(directory, 4096, 10)) {
+            GameSessionRegistry registry = new GameSessionRegistry(1, journal);
+            id = registry.create(new CheckerBoard(8));
+            registry.withSession(id, session -> {
+                session.movePiece(new BoardPosition(2, 2), DirectionEnum.SE);
+                session.movePiece(new BoardPosition(5, 5), DirectionEnum.SW);
+                return null;
+            });
+        }
+
+        // The snapshot takes slots 1 to 2 and the moves slots 3 and 4. Damage the id of the last move.
+        try (RandomAccessFile file = new RandomAccessFile(segments(directory).get(0).toFile(), "rw")) {
+            file.seek(4 * 16 + 8);
+            file.writeLong(id + 1);
+        }
+
+        try (GameJournal journal = new GameJournal(directory, 4096, 10)) {
+            ICheckerBoard board = journal.recover("F").get(id);
+            assertEquals('x', board.whatsAtPos(new BoardPosition(3, 3)));
+            assertEquals('o', board.whatsAtPos(new BoardPosition(5, 5)));
+            assertEquals('o', board.getPlayerToMove());
+        }
+    }
+
+    @Test
+    public void testSegmentsRollOver() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        long[] ids = new long[10];
+        ICheckerBoard[] expected;
+        try (GameJournal journal = new GameJournal(directory, 4096, 10)) {
+            GameSessionRegistry registry = new GameSessionRegistry(4, journal);
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = registry.create(new CheckerBoard(12));
+            }
+            expected = playGames(registry, ids, 200, 11);
+        }
+        assertTrue(segments(directory).size() > 5);
+
+        try (GameJournal journal = new GameJournal(directory, 4096, 10)) {
+            Map<Long, ICheckerBoard> boards = journal.recover("M");
+            for (int i = 0; i < ids.length; i++) {
+                assertEquals(expected[i], boards.get(ids[i]));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedJournal() throws IOException {
+        GameJournal journal = new GameJournal(Files.createTempDirectory("journal"));
+        journal.close();
+        journal.end(1);
+    }
+}
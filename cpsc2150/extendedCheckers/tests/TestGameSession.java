@@ -0,0 +1,216 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.engine.Perft;
+import cpsc2150.extendedCheckers.engine.RandomMovePolicy;
+import cpsc2150.extendedCheckers.models.AbsCheckerBoard;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.CheckerBoardBit;
+import cpsc2150.extendedCheckers.models.CheckerBoardMem;
+import cpsc2150.extendedCheckers.models.GameSession;
+import cpsc2150.extendedCheckers.models.GameSessionRegistry;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.util.DirectionEnum;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class TestGameSession {
+
+    @Test
+    public void testSessionStartsWithPlayerOne(){
+        GameSession session = new GameSession(7, new CheckerBoard(8));
+        assertEquals(7, session.getId());
+        assertEquals('x', session.getCurrentPlayer());
+        assertFalse(session.isGameOver());
+        assertEquals(0, session.getWinner());
+    }
+
+    @Test
+    public void testMovePiecePassesTurn(){
+        GameSession session = new GameSession(1, new CheckerBoard(8));
+        assertTrue(session.movePiece(new BoardPosition(2, 2), DirectionEnum.SE));
+        assertEquals('x', session.getBoard().whatsAtPos(new BoardPosition(3, 3)));
+        assertEquals('o', session.getCurrentPlayer());
+    }
+
+    @Test
+    public void testMovePieceOtherPlayersPiece(){
+        GameSession session = new GameSession(1, new CheckerBoard(8));
+        assertFalse(session.movePiece(new BoardPosition(5, 1), DirectionEnum.NE));
+        assertEquals('x', session.getCurrentPlayer());
+        assertEquals('o', session.getBoard().whatsAtPos(new BoardPosition(5, 1)));
+    }
+
+    @Test
+    public void testPassTurn(){
+        GameSession session = new GameSession(1, new CheckerBoardMem(10));
+        session.passTurn();
+        assertEquals('o', session.getCurrentPlayer());
+        session.passTurn();
+        assertEquals('x', session.getCurrentPlayer());
+    }
+
+    @Test
+    public void testCustomPlayersOnEveryImplementation(){
+        ICheckerBoard[] boards = {new CheckerBoard(8, 'a', 'b'), new CheckerBoardMem(8, 'a', 'b'),
+                new CheckerBoardBit(8, 'a', 'b')};
+        for (ICheckerBoard board : boards) {
+            GameSession session = new GameSession(1, board);
+            assertEquals('a', session.getPlayerOne());
+            assertEquals('b', session.getPlayerTwo());
+            assertEquals('a', board.whatsAtPos(new BoardPosition(0, 0)));
+            assertEquals('b', board.getOpponent('A'));
+            assertEquals(7, board.generateMoves('a', new int[ICheckerBoard.MOVE_BUFFER_SIZE]));
+            assertEquals(302, Perft.perft(board, 'a', 3));
+        }
+        assertEquals(new CheckerBoard(8).getPositionKey(), new CheckerBoard(8, 'a', 'b').getPositionKey());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSamePlayersRejected(){
+        new CheckerBoard(8, 'a', 'a');
+    }
+
+    @Test
+    public void testGameEndsWithWinner(){
+        ICheckerBoard board = new CheckerBoard(8, 'r', 'w');
+        for (int row = 0; row < 8; row++) {
+            for (int col = row % 2; col < 8; col += 2) {
+                board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+            }
+        }
+        board.placePiece(new BoardPosition(2, 2), 'r');
+        board.placePiece(new BoardPosition(3, 3), 'w');
+        GameSession session = new GameSession(1, board);
+
+        assertTrue(session.movePiece(new BoardPosition(2, 2), DirectionEnum.SE));
+        assertTrue(session.isGameOver());
+        assertEquals('r', session.getWinner());
+    }
+
+    @Test
+    public void testGameEndsWhenPlayerToMoveIsBlocked(){
+        for (String impl : new String[]{"F", "M", "B"}) {
+            ICheckerBoard board = Perft.boardFactory(impl).apply(8);
+            for (int row = 0; row < 8; row++) {
+                for (int col = row % 2; col < 8; col += 2) {
+                    board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+                }
+            }
+            // Player two's man on 7,1 can neither step nor jump once player one has moved
+            board.placePiece(new BoardPosition(0, 0), 'x');
+            board.placePiece(new BoardPosition(6, 0), 'x');
+            board.placePiece(new BoardPosition(6, 2), 'x');
+            board.placePiece(new BoardPosition(5, 3), 'x');
+            board.placePiece(new BoardPosition(7, 1), 'o');
+            GameSession session = new GameSession(1, board);
+            assertFalse(impl, session.isGameOver());
+            assertFalse(impl, board.hasLegalMove('o'));
+
+            assertTrue(impl, session.movePiece(new BoardPosition(0, 0), DirectionEnum.SE));
+            assertTrue(impl, session.isGameOver());
+            assertEquals(impl, 'x', session.getWinner());
+
+            // Clearing the square beyond 6,2 opens a jump for the blocked man
+            board.placePiece(new BoardPosition(5, 3), ICheckerBoard.EMPTY_POS);
+            assertTrue(impl, board.hasLegalMove('o'));
+            assertFalse(impl, session.isGameOver());
+        }
+    }
+
+    @Test
+    public void testGameEndsWhenMoveBlocksLastPiece(){
+        for (String impl : new String[]{"F", "M", "B"}) {
+            ICheckerBoard board = Perft.boardFactory(impl).apply(8);
+            for (int row = 0; row < 8; row++) {
+                for (int col = row % 2; col < 8; col += 2) {
+                    board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+                }
+            }
+            // Player two's man on 7,1 can step to 6,2 until player one's man on 5,1 moves there
+            board.placePiece(new BoardPosition(5, 1), 'x');
+            board.placePiece(new BoardPosition(6, 0), 'x');
+            board.placePiece(new BoardPosition(5, 3), 'x');
+            board.placePiece(new BoardPosition(7, 1), 'o');
+            GameSession session = new GameSession(1, board);
+            assertTrue(impl, board.hasLegalMove('o'));
+            assertFalse(impl, session.isGameOver());
+
+            assertTrue(impl, session.movePiece(new BoardPosition(5, 1), DirectionEnum.SE));
+            assertEquals(impl, 'o', session.getCurrentPlayer());
+            assertFalse(impl, board.hasLegalMove('o'));
+            assertEquals(impl, 0, ((AbsCheckerBoard) board).getMobility('o'));
+            assertTrue(impl, session.isGameOver());
+            assertEquals(impl, 'x', session.getWinner());
+        }
+    }
+
+    @Test
+    public void testRegistryCreateAndRemove(){
+        GameSessionRegistry registry = new GameSessionRegistry(4);
+        long first = registry.create(new CheckerBoard(8));
+        long second = registry.create(new CheckerBoardBit(12));
+
+        assertNotEquals(first, second);
+        assertEquals(2, registry.size());
+        assertEquals(12, (int) registry.withSession(second, session -> session.getBoard().getRowNum()));
+        assertTrue(registry.remove(first));
+        assertFalse(registry.remove(first));
+        assertFalse(registry.contains(first));
+        assertEquals(1, registry.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegistryUnknownGame(){
+        new GameSessionRegistry().withSession(42, GameSession::getId);
+    }
+
+    @Test
+    public void testRegistryConcurrentGames() throws Exception {
+        GameSessionRegistry registry = new GameSessionRegistry(16);
+        int games = 2000;
+        long[] ids = new long[games];
+        for (int i = 0; i < games; i++) {
+            ids[i] = registry.create(new CheckerBoardBit(8));
+        }
+
+        // Every thread makes moves in every game, so each game gets moves from several threads
+        int threads = 4;
+        int movesPerThread = 3;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                workers.add(executor.submit(() -> {
+                    RandomMovePolicy policy = new RandomMovePolicy(seed);
+                    for (int m = 0; m < movesPerThread; m++) {
+                        for (long id : ids) {
+                            registry.withSession(id, session -> {
+                                session.makeMove(policy.chooseMove(session.getBoard(), session.getCurrentPlayer()));
+                                return null;
+                            });
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(games, registry.size());
+        for (long id : ids) {
+            assertEquals(threads * movesPerThread, (int) registry.withSession(id, s -> s.getBoard().getUndoCount()));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.engine.AlphaBetaEngine;
+import cpsc2150.extendedCheckers.engine.OpeningBook;
+import cpsc2150.extendedCheckers.engine.OpeningBookBuilder;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.CheckerBoardMem;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class TestOpeningBook {
+    private static OpeningBook book;
+
+    @BeforeClass
+    public static void buildBook() throws IOException {
+        Path directory = Files.createTempDirectory("opening");
+        OpeningBookBuilder.build(directory, 8, 10, 2, 1);
+        book = new OpeningBook(directory);
+    }
+
+    private boolean isLegal(ICheckerBoard board, char player, int move) {
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        int count = board.generateMoves(player, moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testHasBook(){
+        assertTrue(book.hasBook(8));
+        assertFalse(book.hasBook(10));
+    }
+
+    @Test
+    public void testBestMoveFromStartIsLegal(){
+        ICheckerBoard board = new CheckerBoard(8);
+        int move = book.getBestMove(board, 'x');
+
+        assertNotEquals(AlphaBetaEngine.NO_MOVE, move);
+        assertTrue(isLegal(board, 'x', move));
+    }
+
+    @Test
+    public void testBookIsSharedByImplementations(){
+        assertEquals(book.getBestMove(new CheckerBoard(8), 'x'), book.getBestMove(new CheckerBoardMem(8), 'x'));
+    }
+
+    @Test
+    public void testGetMovesHeaviestFirst(){
+        ICheckerBoard board = new CheckerBoard(8);
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        int[] weights = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        int count = book.getMoves(board, 'x', moves, weights);
+
+        assertTrue(count >= 1);
+        assertEquals(book.getBestMove(board, 'x'), moves[0]);
+        for (int i = 0; i < count; i++) {
+            assertTrue(weights[i] > 0);
+            assertTrue(isLegal(board, 'x', moves[i]));
+            if (i > 0) {
+                assertTrue(weights[i - 1] >= weights[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testPositionNotInBook(){
+        ICheckerBoard board = new CheckerBoard(8);
+        board.placePiece(new BoardPosition(2, 2), ICheckerBoard.EMPTY_POS);
+        board.placePiece(new BoardPosition(5, 1), ICheckerBoard.EMPTY_POS);
+        assertEquals(AlphaBetaEngine.NO_MOVE, book.getBestMove(board, 'x'));
+
+        assertEquals(AlphaBetaEngine.NO_MOVE, book.getBestMove(new CheckerBoard(10), 'x'));
+    }
+
+    @Test
+    public void testEnginePlaysBookMove(){
+        ICheckerBoard board = new CheckerBoard(8);
+        long key = board.getPositionKey();
+
+        AlphaBetaEngine engine = new AlphaBetaEngine(0, 20000);
+        engine.setOpeningBook(book);
+
+        assertEquals(book.getBestMove(board, 'x'), engine.findBestMove(board, 'x'));
+        assertEquals(key, board.getPositionKey());
+    }
+}
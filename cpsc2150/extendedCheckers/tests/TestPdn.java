@@ -0,0 +1,260 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.engine.RandomMovePolicy;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.CheckerBoardMem;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.models.IGameListener;
+import cpsc2150.extendedCheckers.models.PdnReader;
+import cpsc2150.extendedCheckers.models.PdnWriter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestPdn {
+
+    /**
+     * Keeps a copy of the final board and the result of every game read.
+     */
+    private static class Recorder implements IGameListener {
+        final List<String> boards = new ArrayList<>();
+        final List<Integer> results = new ArrayList<>();
+        int moves;
+        int captures;
+        int crownings;
+
+        @Override
+        public void moveMade(ICheckerBoard board, int from, int to, int captureCount, boolean crowned) {
+            moves++;
+            captures += captureCount;
+            crownings += crowned ? 1 : 0;
+        }
+
+        @Override
+        public void gameEnded(ICheckerBoard board, int result) {
+            boards.add(board.toString() + board.getPlayerToMove());
+            results.add(result);
+        }
+    }
+
+    private Recorder read(String pdn, int bytesPerRead) throws IOException {
+        byte[] bytes = pdn.getBytes(StandardCharsets.US_ASCII);
+        ReadableByteChannel channel = new ReadableByteChannel() {
+            private int position;
+
+            @Override
+            public int read(ByteBuffer dst) {
+                if (position == bytes.length) {
+                    return -1;
+                }
+                int count = Math.min(Math.min(bytesPerRead, dst.remaining()), bytes.length - position);
+                dst.put(bytes, position, count);
+                position += count;
+                return count;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Recorder recorder = new Recorder();
+        try (PdnReader reader = new PdnReader(channel)) {
+            while (reader.readGame(recorder)) {
+                // Every game is recorded by the listener
+            }
+        }
+        return recorder;
+    }
+
+    @Test
+    public void testRoundTripRandomGames() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<String> expected = new ArrayList<>();
+        int moves = 0;
+        try (PdnWriter writer = new PdnWriter(Channels.newChannel(out))) {
+            RandomMovePolicy policy = new RandomMovePolicy(5);
+            for (int game = 0; game < 40; game++) {
+                ICheckerBoard board = new CheckerBoard(8 + 2 * (game % 5));
+                writer.startGame(board);
+                for (int ply = 0; ply < 300; ply++) {
+                    int move = policy.chooseMove(board, board.getPlayerToMove());
+                    if (move == RandomMovePolicy.NO_MOVE) {
+                        break;
+                    }
+                    writer.writeMove(move);
+                    board.makeMove(move);
+                    moves++;
+                }
+                writer.endGame(game % 2 == 0 ? PdnReader.RESULT_DRAW : PdnReader.RESULT_PLAYER_ONE_WIN);
+                expected.add(board.toString() + board.getPlayerToMove());
+            }
+        }
+
+        String pdn = out.toString("US-ASCII");
+        for (String line : pdn.split("\n")) {
+            assertTrue(line.length() <= 79);
+        }
+        Recorder recorder = read(pdn, 1 << 20);
+        assertEquals(expected, recorder.boards);
+        assertEquals(moves, recorder.moves);
+        assertEquals(PdnReader.RESULT_DRAW, (int) recorder.results.get(0));
+        assertEquals(PdnReader.RESULT_PLAYER_ONE_WIN, (int) recorder.results.get(1));
+
+        // Reading a byte at a time crosses the buffer's end at every byte
+        assertEquals(expected, read(pdn, 1).boards);
+    }
+
+    @Test
+    public void testReadAnnotatedGame() throws IOException {
+        String pdn = "[Event \"Club \\\"final\\\"\"]\n[GameType \"21\"]\n"
+                + "1. 11-15 {a quiet start} 22-18 (1... 23-19 2. 8-11) 2. 15x22! 25x18 $1\n"
+                + "; a line comment\n3. 12-16 18-14 4. 9x18 1-0\n\n"
+                + "[Event \"second\"]\n9-13 22-18 0-1\n";
+        Recorder recorder = read(pdn, 7);
+
+        assertEquals(2, recorder.boards.size());
+        assertEquals(PdnReader.RESULT_PLAYER_TWO_WIN, (int) recorder.results.get(0));
+        assertEquals(PdnReader.RESULT_PLAYER_ONE_WIN, (int) recorder.results.get(1));
+        assertEquals(9, recorder.moves);
+        assertEquals(3, recorder.captures);
+    }
+
+    @Test
+    public void testReadShortJumpAndFen() throws IOException {
+        // In the first game White's man is crowned on 1, in the second Black's king jumps twice, written without the
+        // middle square
+        String pdn = "[GameType \"21,W,8,8,N2,0\"]\n[FEN \"W:W5:B20\"]\n"
+                + "1... 5-1 2. 20-24 1-5 *\n"
+                + "[FEN \"B:W9,18:BK5\"]\n1. 5x23 1/2-1/2";
+        Recorder recorder = read(pdn, 1 << 20);
+        assertEquals(PdnReader.RESULT_UNKNOWN, (int) recorder.results.get(0));
+        assertEquals(PdnReader.RESULT_DRAW, (int) recorder.results.get(1));
+
+        ICheckerBoard board = new CheckerBoardMem(8);
+        for (int row = 0; row < 8; row++) {
+            for (int col = row % 2; col < 8; col += 2) {
+                board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+            }
+        }
+        board.placePiece(new BoardPosition(5, 3), 'X');
+        assertEquals(board.toString() + 'o', recorder.boards.get(1));
+        assertEquals(1, recorder.crownings);
+        assertEquals(2, recorder.captures);
+    }
+
+    @Test
+    public void testWriteFenForOtherPositions() throws IOException {
+        ICheckerBoard board = new CheckerBoard(8);
+        board.placePiece(new BoardPosition(2, 2), ICheckerBoard.EMPTY_POS);
+        board.placePiece(new BoardPosition(7, 7), 'O');
+        board.setPlayerToMove('o');
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PdnWriter writer = new PdnWriter(Channels.newChannel(out))) {
+            writer.startGame(board);
+            writer.endGame(PdnReader.RESULT_UNKNOWN);
+        }
+        assertEquals("[GameType \"21,B,8,8,N2,0\"]\n[FEN \"W:W21-28,K29,30-32:B1-10,12\"]\n*\n\n",
+                out.toString("US-ASCII"));
+
+        Recorder recorder = read(out.toString("US-ASCII"), 1 << 20);
+        assertEquals(board.toString() + 'o', recorder.boards.get(0));
+    }
+
+    @Test
+    public void testReadPublishedGame() throws IOException {
+        // The trunk of the Old Fourteenth as printed in the opening books, and three-move openings from 9, 10 and 11,
+        // which only replay if each row is numbered from Black's right-hand side
+        String pdn = "[Event \"Old Fourteenth\"]\n"
+                + "1. 11-15 23-19 2. 8-11 22-17 3. 4-8 17-13 4. 15-18 24-20 5. 11-15 28-24 6. 8-11 26-23\n"
+                + "7. 9-14 31-26 8. 6-9 13x6 9. 2x9 *\n\n"
+                + "1. 9-14 22-17 2. 11-15 *\n\n1. 10-15 21-17 2. 9-13 *\n\n1. 11-16 22-18 2. 16-20 *\n\n"
+                + "[FEN \"W:W19-21,23-27,29,30,32:B1,3,5,7,9-12,14,15,18\"]\n*\n";
+        Recorder recorder = read(pdn, 1 << 20);
+
+        assertEquals(5, recorder.boards.size());
+        assertEquals(26, recorder.moves);
+        assertEquals(2, recorder.captures);
+        assertEquals(recorder.boards.get(4), recorder.boards.get(0));
+
+        // Square 9 is b6, the third row's last playable square from the tree's side
+        ICheckerBoard board = new CheckerBoard(8);
+        board.placePiece(new BoardPosition(2, 6), ICheckerBoard.EMPTY_POS);
+        board.placePiece(new BoardPosition(3, 5), 'x');
+        board.placePiece(new BoardPosition(5, 5), ICheckerBoard.EMPTY_POS);
+        board.placePiece(new BoardPosition(4, 6), 'o');
+        board.placePiece(new BoardPosition(2, 2), ICheckerBoard.EMPTY_POS);
+        board.placePiece(new BoardPosition(3, 3), 'x');
+        board.setPlayerToMove('o');
+        assertEquals(board.toString() + 'o', recorder.boards.get(1));
+    }
+
+    @Test
+    public void testLongChainRoundTrip() throws IOException {
+        ICheckerBoard board = new CheckerBoard(16);
+        for (int row = 0; row < 16; row++) {
+            for (int col = row % 2; col < 16; col += 2) {
+                board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+            }
+        }
+        board.placePiece(new BoardPosition(2, 2), 'X');
+        int[][] jumped = {{1, 3}, {1, 5}, {3, 5}, {3, 3}, {3, 1}, {5, 1}, {7, 3}, {9, 5}, {15, 15}};
+        for (int[] pos : jumped) {
+            board.placePiece(new BoardPosition(pos[0], pos[1]), 'o');
+        }
+        int[] moves = new int[ICheckerBoard.MOVE_BUFFER_SIZE];
+        board.generateMoves('x', moves);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PdnWriter writer = new PdnWriter(Channels.newChannel(out))) {
+            writer.startGame(board);
+            // The second way round the four pieces, every landing square written out
+            writer.writeMove(moves[1]);
+            board.makeMove(moves[1]);
+            writer.endGame(PdnReader.RESULT_UNKNOWN);
+        }
+        String pdn = out.toString("US-ASCII");
+        assertTrue(pdn, pdn.contains("1. 23x38x21x6x23x40x55x70x85 *"));
+
+        Recorder recorder = read(pdn, 1 << 20);
+        assertEquals(board.toString() + 'o', recorder.boards.get(0));
+        assertEquals(8, recorder.captures);
+    }
+
+    @Test
+    public void testIllegalMoveRejected() {
+        String[] games = {"1. 10-16 *", "1. 10-19 *", "1. 22-18 *", "1. 10x19 *", "[GameType \"21,B,9,9\"] *",
+                "1. 10-14 2-6 *"};
+        for (String game : games) {
+            try {
+                read(game, 1 << 20);
+                fail(game);
+            } catch (IOException e) {
+                assertTrue(e.getMessage().startsWith("Invalid PDN in game 1"));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyChannel() throws IOException {
+        try (PdnReader reader = new PdnReader(Channels.newChannel(new ByteArrayInputStream(new byte[0])))) {
+            assertFalse(reader.readGame(new IGameListener() { }));
+            assertEquals(0, reader.getGameCount());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.engine.Perft;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.CheckerBoardBit;
+import cpsc2150.extendedCheckers.models.CheckerBoardMem;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestPerft {
+
+    /**
+     * The perft counts from the starting position of every board size, indexed by [(size - 8) / 2][depth - 1].
+     * The 8x8 counts are the published counts for English draughts.
+     */
+    private static final long[][] REFERENCE_COUNTS = {
+            {7, 49, 302, 1469, 7361, 36768},
+            {9, 81, 658, 4265, 26875},
+            {11, 121, 1222, 10053, 78629},
+            {13, 169, 2042, 20513, 194687},
+            {15, 225, 3166, 37709, 424393},
+    };
+
+    private void assertReferenceCounts(ICheckerBoard board, int size) {
+        long[] expected = REFERENCE_COUNTS[(size - ICheckerBoard.BOARD_MIN_SIZE) / 2];
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals("size " + size + " depth " + depth, expected[depth - 1], Perft.perft(board, 'x', depth));
+        }
+    }
+
+    @Test
+    public void testPerftCheckerBoard_8(){
+        assertReferenceCounts(new CheckerBoard(8), 8);
+    }
+
+    @Test
+    public void testPerftCheckerBoardMem_8(){
+        assertReferenceCounts(new CheckerBoardMem(8), 8);
+    }
+
+    @Test
+    public void testPerftCheckerBoardBit_8(){
+        assertReferenceCounts(new CheckerBoardBit(8), 8);
+    }
+
+    @Test
+    public void testPerftAllSizes(){
+        for (int size = ICheckerBoard.BOARD_MIN_SIZE; size <= ICheckerBoard.BOARD_MAX_SIZE; size += 2) {
+            assertReferenceCounts(new CheckerBoard(size), size);
+        }
+    }
+
+    @Test
+    public void testPerftImplementationsAgree_16(){
+        long expected = Perft.perft(new CheckerBoard(16), 'x', 4);
+        assertEquals(expected, Perft.perft(new CheckerBoardMem(16), 'x', 4));
+        assertEquals(expected, Perft.perft(new CheckerBoardBit(16), 'x', 4));
+    }
+
+    @Test
+    public void testPerftLeavesBoardUnchanged(){
+        ICheckerBoard board = new CheckerBoardMem(10);
+        String before = board.toString();
+        long key = board.getPositionKey();
+
+        Perft.perft(board, 'x', 4);
+
+        assertEquals(before, board.toString());
+        assertEquals(key, board.getPositionKey());
+        assertEquals(0, board.getUndoCount());
+    }
+
+    @Test
+    public void testParallelPerftMatchesReference(){
+        assertEquals(7361, Perft.parallelPerft(Perft.boardFactory("B"), 8, 5, 3));
+        assertEquals(26875, Perft.parallelPerft(Perft.boardFactory("f"), 10, 5, 2));
+    }
+}
@@ -0,0 +1,89 @@
+package cpsc2150.extendedCheckers.tests;
+import cpsc2150.extendedCheckers.engine.GreedyCapturePolicy;
+import cpsc2150.extendedCheckers.engine.IMovePolicy;
+import cpsc2150.extendedCheckers.engine.Perft;
+import cpsc2150.extendedCheckers.engine.RandomMovePolicy;
+import cpsc2150.extendedCheckers.engine.SelfPlaySimulator;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.CheckerBoard;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.util.PackedMove;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class TestSelfPlaySimulator {
+
+    private ICheckerBoard makeEmptyBoard(int dimension) {
+        ICheckerBoard board = new CheckerBoard(dimension);
+        for (int row = 0; row < dimension; row++) {
+            for (int col = row % 2; col < dimension; col += 2) {
+                board.placePiece(new BoardPosition(row, col), ICheckerBoard.EMPTY_POS);
+            }
+        }
+        return board;
+    }
+
+    private SelfPlaySimulator.Result run(int threads, int dimension, int games, String one, String two) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            return SelfPlaySimulator.run(executor, Perft.boardFactory("F"), dimension, games,
+                    SelfPlaySimulator.policyFactory(one), SelfPlaySimulator.policyFactory(two));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRunCountsEveryGame(){
+        SelfPlaySimulator.Result result = run(2, 8, 40, "random", "greedy");
+
+        assertEquals(8, result.getDimension());
+        assertEquals(40, result.getGames());
+        assertEquals(40, result.getPlayerOneWins() + result.getPlayerTwoWins() + result.getDraws());
+        assertTrue(result.getAverageLength() > 0);
+        assertTrue(result.getAverageLength() <= SelfPlaySimulator.MAX_GAME_PLIES);
+    }
+
+    @Test
+    public void testRunSameCountsOnAnyThreadCount(){
+        SelfPlaySimulator.Result one = run(1, 10, 35, "random", "random");
+        SelfPlaySimulator.Result three = run(3, 10, 35, "random", "random");
+
+        assertEquals(one.getPlayerOneWins(), three.getPlayerOneWins());
+        assertEquals(one.getPlayerTwoWins(), three.getPlayerTwoWins());
+        assertEquals(one.getAverageLength(), three.getAverageLength(), 0);
+    }
+
+    @Test
+    public void testEngineBeatsRandom(){
+        SelfPlaySimulator.Result result = run(2, 8, 8, "engine", "random");
+        assertTrue(result.getPlayerOneWins() > result.getPlayerTwoWins());
+    }
+
+    @Test
+    public void testRandomPolicyNoMoves(){
+        ICheckerBoard board = makeEmptyBoard(8);
+        board.placePiece(new BoardPosition(7, 1), 'x');
+        assertEquals(IMovePolicy.NO_MOVE, new RandomMovePolicy(1).chooseMove(board, 'x'));
+    }
+
+    @Test
+    public void testGreedyPolicyTakesMostPieces(){
+        // Jumping from (2,2) takes one piece, jumping from (2,6) takes two
+        ICheckerBoard board = makeEmptyBoard(8);
+        board.placePiece(new BoardPosition(2, 2), 'x');
+        board.placePiece(new BoardPosition(3, 1), 'o');
+        board.placePiece(new BoardPosition(2, 6), 'x');
+        board.placePiece(new BoardPosition(3, 5), 'o');
+        board.placePiece(new BoardPosition(5, 3), 'o');
+
+        int move = new GreedyCapturePolicy(1).chooseMove(board, 'x');
+        assertEquals(2, PackedMove.getCaptureCount(move));
+        assertEquals("2,6 x 4,4 x 6,2", PackedMove.toString(move, 8));
+    }
+}
@@ -0,0 +1,344 @@
+package cpsc2150.extendedCheckers.util;
+
+/**
+ * Packs a whole checkers move into a single int so moves can be listed in a plain int array.
+ * Squares are numbered over the playable squares only, row by row, so the square at (row, col) on a board of size
+ * dimension has the index row * (dimension / 2) + col / 2. Every playable square of a 16x16 board fits in 7 bits.
+ *
+ * The bits of a packed move are laid out as:
+ *  0-6   the square the piece starts on
+ *  7-13  the square the piece ends on
+ *  14    set if the piece is crowned by the move
+ *  15-17 the number of pieces captured, at most MAX_PATH_CAPTURES, or LONG_CHAIN
+ *  18-31 the DirectionEnum ordinal of each step, two bits per step. A simple move has one step and no captures.
+ *
+ * A capture of more than MAX_PATH_CAPTURES pieces, which a king or a man can make on the bigger boards, doesn't fit
+ * in the path bits. Its capture field holds LONG_CHAIN, bits 18-23 hold the number of pieces captured and bits 24-31
+ * tell it apart from the other long chains with the same squares and length: it is the chain's place among them in
+ * the order generateMoves lists them. Its steps are found again from the position by ICheckerBoard.getMoveSteps.
+ * Like every packed move, a long chain only means something in the position it was listed for, but it needs nothing
+ * else, so it is the same int in every run and can be saved.
+ *
+ * The squares of the captured pieces are found by walking the steps from the starting square.
+ */
+public final class PackedMove {
+    /**
+     * The most captures a packed move can hold in its own path bits.
+     */
+    public static final int MAX_PATH_CAPTURES = 6;
+
+    /**
+     * The capture field of a move whose steps don't fit in its path bits.
+     */
+    public static final int LONG_CHAIN = 7;
+
+    /**
+     * The most captures a long chain can hold, more than any board has pieces to jump in one move.
+     */
+    public static final int MAX_CAPTURES = 63;
+
+    /**
+     * The most long chains that can share their squares and length in one position.
+     */
+    public static final int MAX_CHAIN_ORDINALS = 1 << 8;
+
+    private static final int SQUARE_BITS = 7;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    private static final int TO_SHIFT = SQUARE_BITS;
+    private static final int PROMOTION_BIT = 1 << (2 * SQUARE_BITS);
+    private static final int CAPTURE_SHIFT = 2 * SQUARE_BITS + 1;
+    private static final int CAPTURE_MASK = 0b111;
+    private static final int PATH_SHIFT = CAPTURE_SHIFT + 3;
+    private static final int STEP_MASK = 0b11;
+    private static final int LONG_CAPTURE_MASK = 0b111111;
+    private static final int ORDINAL_SHIFT = PATH_SHIFT + 6;
+
+    /**
+     * The row and column change of one step in each direction, indexed by DirectionEnum ordinal.
+     */
+    private static final int[] ROW_STEP = {-1, -1, 1, 1};
+    private static final int[] COL_STEP = {1, -1, 1, -1};
+
+    /**
+     * The directions indexed by ordinal, kept so decoding a step does not copy DirectionEnum.values().
+     */
+    private static final DirectionEnum[] DIRECTIONS = DirectionEnum.values();
+
+    private PackedMove() {
+    }
+
+    /**
+     * Packs a move into an int.
+     *
+     * @param from the square the piece starts on
+     * @param to the square the piece ends on
+     * @param promotion true if the piece is crowned by the move
+     * @param captures the number of pieces captured
+     * @param path the steps of the move, as built by withStep
+     *
+     * @pre 0 <= from, to < 128 AND 0 <= captures <= MAX_PATH_CAPTURES
+     *
+     * @post encode = [an int holding every field of the move]
+     *
+     * @return The packed move.
+     */
+    public static int encode(int from, int to, boolean promotion, int captures, int path) {
+        int move = from | (to << TO_SHIFT) | (captures << CAPTURE_SHIFT) | path;
+        return promotion ? move | PROMOTION_BIT : move;
+    }
+
+    /**
+     * Adds one step to the path of a move.
+     *
+     * @param path the steps of the move so far
+     * @param step the number of the step being added, starting at 0
+     * @param direction the DirectionEnum ordinal of the step
+     *
+     * @pre 0 <= step < MAX_PATH_CAPTURES AND 0 <= direction < 4
+     *
+     * @post withStep = [path with the step stored in its place]
+     *
+     * @return The path with the new step.
+     */
+    public static int withStep(int path, int step, int direction) {
+        return path | (direction << (PATH_SHIFT + 2 * step));
+    }
+
+    /**
+     * Packs a capture too long for the path bits into an int.
+     *
+     * @param from the square the piece starts on
+     * @param to the square the piece ends on
+     * @param promotion true if the piece is crowned by the move
+     * @param captures the number of pieces captured
+     * @param ordinal the number of long chains with the same from, to, promotion and captures listed before this one
+     *
+     * @pre 0 <= from, to < 128 AND MAX_PATH_CAPTURES < captures <= MAX_CAPTURES AND
+     *      0 <= ordinal < MAX_CHAIN_ORDINALS
+     *
+     * @post encodeLongChain = [an int holding from, to, promotion, captures and ordinal, marked as a long chain]
+     *
+     * @return The packed move.
+     */
+    public static int encodeLongChain(int from, int to, boolean promotion, int captures, int ordinal) {
+        int move = from | (to << TO_SHIFT) | (LONG_CHAIN << CAPTURE_SHIFT) | (captures << PATH_SHIFT)
+                | (ordinal << ORDINAL_SHIFT);
+        return promotion ? move | PROMOTION_BIT : move;
+    }
+
+    /**
+     * Checks if a move is a capture too long to keep its steps in its path bits.
+     *
+     * @param move a packed move
+     *
+     * @pre None
+     *
+     * @post isLongChain = [true if the capture field of move is LONG_CHAIN]
+     *
+     * @return true if move is a long chain.
+     */
+    public static boolean isLongChain(int move) {
+        return ((move >>> CAPTURE_SHIFT) & CAPTURE_MASK) == LONG_CHAIN;
+    }
+
+    /**
+     * Gets the place of a long chain among the long chains with the same squares, crowning and captures.
+     *
+     * @param move a packed move
+     *
+     * @pre isLongChain(move)
+     *
+     * @post getChainOrdinal = [the ordinal stored in move]
+     *
+     * @return The ordinal of the chain.
+     */
+    public static int getChainOrdinal(int move) {
+        return move >>> ORDINAL_SHIFT;
+    }
+
+    public static int getFrom(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION_BIT) != 0;
+    }
+
+    /**
+     * Gets the number of pieces a move captures.
+     *
+     * @param move a packed move
+     *
+     * @pre None
+     *
+     * @post getCaptureCount = [the captures stored for the move's long chain if it is one, otherwise its capture
+     *       field]
+     *
+     * @return The number of captures.
+     */
+    public static int getCaptureCount(int move) {
+        int captures = (move >>> CAPTURE_SHIFT) & CAPTURE_MASK;
+        return captures == LONG_CHAIN ? (move >>> PATH_SHIFT) & LONG_CAPTURE_MASK : captures;
+    }
+
+    /**
+     * Gets the number of steps a move takes.
+     *
+     * @param move a packed move
+     *
+     * @pre None
+     *
+     * @post getStepCount = [the number of captures, or 1 for a simple move]
+     *
+     * @return The number of steps in the move.
+     */
+    public static int getStepCount(int move) {
+        return Math.max(getCaptureCount(move), 1);
+    }
+
+    /**
+     * Gets the DirectionEnum ordinal of one step of a move.
+     *
+     * @param move a packed move
+     * @param step the number of the step, starting at 0
+     *
+     * @pre 0 <= step < getStepCount(move)
+     *
+     * @post getStepOrdinal = [the direction ordinal stored for step]
+     *
+     * @return The direction ordinal of the step.
+     *
+     * @throws IllegalArgumentException if move is a long chain, whose steps only the board can find
+     */
+    public static int getStepOrdinal(int move, int step) {
+        if (isLongChain(move)) {
+            throw new IllegalArgumentException("A long chain's steps aren't in the move.");
+        }
+        return (move >>> (PATH_SHIFT + 2 * step)) & STEP_MASK;
+    }
+
+    public static DirectionEnum getStep(int move, int step) {
+        return DIRECTIONS[getStepOrdinal(move, step)];
+    }
+
+    public static int rowStep(int direction) {
+        return ROW_STEP[direction];
+    }
+
+    public static int colStep(int direction) {
+        return COL_STEP[direction];
+    }
+
+    /**
+     * Gets the square of a captured piece.
+     *
+     * @param move a packed move
+     * @param capture the number of the capture, starting at 0
+     * @param dimension the number of rows on the board
+     *
+     * @pre 0 <= capture < getCaptureCount(move) AND [move isn't a long chain]
+     *
+     * @post getCapturedSquare = [the square jumped by step capture of the move]
+     *
+     * @return The square index of the captured piece.
+     *
+     * @throws IllegalArgumentException if move is a long chain, whose steps only the board can find
+     */
+    public static int getCapturedSquare(int move, int capture, int dimension) {
+        int from = getFrom(move);
+        int row = squareRow(from, dimension);
+        int col = squareColumn(from, dimension);
+        for (int step = 0; step < capture; step++) {
+            int direction = getStepOrdinal(move, step);
+            row += 2 * ROW_STEP[direction];
+            col += 2 * COL_STEP[direction];
+        }
+        int direction = getStepOrdinal(move, capture);
+        return squareIndex(row + ROW_STEP[direction], col + COL_STEP[direction], dimension);
+    }
+
+    /**
+     * Gets the index of a playable square.
+     *
+     * @param row the row of the square
+     * @param col the column of the square
+     * @param dimension the number of rows on the board
+     *
+     * @pre (row + col) % 2 == 0 AND the square is on the board
+     *
+     * @post squareIndex = row * (dimension / 2) + col / 2
+     *
+     * @return The index of the square.
+     */
+    public static int squareIndex(int row, int col, int dimension) {
+        return row * (dimension / 2) + col / 2;
+    }
+
+    public static int squareRow(int square, int dimension) {
+        return square / (dimension / 2);
+    }
+
+    public static int squareColumn(int square, int dimension) {
+        int row = squareRow(square, dimension);
+        return 2 * (square - row * (dimension / 2)) + row % 2;
+    }
+
+    /**
+     * Returns a readable form of a move, such as "2,0 -> 3,1" or "5,1 x 3,3 x 1,5". A long chain's steps aren't in
+     * the move, so only its first and last squares are shown, as in "0,0 x ... x 0,8".
+     *
+     * @param move a packed move
+     * @param dimension the number of rows on the board
+     *
+     * @pre None
+     *
+     * @post toString = [the positions the piece passes through, separated by -> for a move or x for captures]
+     *
+     * @return A String describing the move.
+     */
+    public static String toString(int move, int dimension) {
+        if (!isLongChain(move)) {
+            return toString(move, null, dimension);
+        }
+        int from = getFrom(move);
+        int to = getTo(move);
+        return squareRow(from, dimension) + "," + squareColumn(from, dimension) + " x ... x "
+                + squareRow(to, dimension) + "," + squareColumn(to, dimension);
+    }
+
+    /**
+     * Returns a readable form of a move whose steps have been found by ICheckerBoard.getMoveSteps.
+     *
+     * @param move a packed move
+     * @param steps the DirectionEnum ordinal of each step of the move, or null to read them from move
+     * @param dimension the number of rows on the board
+     *
+     * @pre steps.length >= getStepCount(move) if steps != null, otherwise move isn't a long chain
+     *
+     * @post toString = [the positions the piece passes through, separated by -> for a move or x for captures]
+     *
+     * @return A String describing the move.
+     */
+    public static String toString(int move, int[] steps, int dimension) {
+        int from = getFrom(move);
+        int row = squareRow(from, dimension);
+        int col = squareColumn(from, dimension);
+        StringBuilder sb = new StringBuilder().append(row).append(",").append(col);
+        int captures = getCaptureCount(move);
+        if (captures == 0) {
+            int to = getTo(move);
+            return sb.append(" -> ").append(squareRow(to, dimension)).append(",").append(squareColumn(to, dimension)).toString();
+        }
+        for (int step = 0; step < captures; step++) {
+            int direction = steps != null ? steps[step] : getStepOrdinal(move, step);
+            row += 2 * ROW_STEP[direction];
+            col += 2 * COL_STEP[direction];
+            sb.append(" x ").append(row).append(",").append(col);
+        }
+        return sb.toString();
+    }
+}
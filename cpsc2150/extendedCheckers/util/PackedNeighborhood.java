@@ -0,0 +1,89 @@
+package cpsc2150.extendedCheckers.util;
+
+/**
+ * Packs what surrounds one piece into a single int, so the surroundings of all of a player's pieces can be listed in a
+ * plain int array. Squares are numbered as in PackedMove and directions by their DirectionEnum ordinal.
+ *
+ * For each direction an entry holds the occupancy of the adjacent square and of the square a jump in that direction
+ * lands on, each as one of EMPTY, OWN, OPPONENT or OFF_BOARD, seen from the piece's player.
+ *
+ * The bits of a packed neighborhood are laid out as:
+ *  0-6   the square the piece is on
+ *  8-23  four bits per direction, in DirectionEnum order: the adjacent square's occupancy in the low two bits and the
+ *        landing square's occupancy in the high two
+ */
+public final class PackedNeighborhood {
+    /**
+     * The occupancy of a square, seen from the player whose piece is scanned.
+     */
+    public static final int EMPTY = 0;
+    public static final int OWN = 1;
+    public static final int OPPONENT = 2;
+    public static final int OFF_BOARD = 3;
+
+    private static final int SQUARE_MASK = 0x7F;
+    private static final int DIRECTION_SHIFT = 8;
+    private static final int DIRECTION_BITS = 4;
+    private static final int LANDING_SHIFT = 2;
+    private static final int OCCUPANCY_MASK = 0b11;
+
+    private PackedNeighborhood() {
+    }
+
+    /**
+     * Packs the square of a piece, with every neighbor EMPTY.
+     *
+     * @pre 0 <= square < 128
+     *
+     * @post encode = [an entry for square with EMPTY in every field]
+     *
+     * @return The packed neighborhood.
+     */
+    public static int encode(int square) {
+        return square;
+    }
+
+    /**
+     * Sets the occupancy of the adjacent and landing squares in one direction.
+     *
+     * @param entry a packed neighborhood with EMPTY in direction's fields
+     * @param direction the DirectionEnum ordinal
+     * @param neighbor the adjacent square's occupancy
+     * @param landing the landing square's occupancy
+     *
+     * @pre 0 <= direction < 4 AND neighbor and landing are occupancy constants
+     *
+     * @post withDirection = [entry with neighbor and landing in direction's fields]
+     *
+     * @return The packed neighborhood.
+     */
+    public static int withDirection(int entry, int direction, int neighbor, int landing) {
+        return entry | (neighbor | landing << LANDING_SHIFT) << (DIRECTION_SHIFT + DIRECTION_BITS * direction);
+    }
+
+    public static int getSquare(int entry) {
+        return entry & SQUARE_MASK;
+    }
+
+    public static int getNeighbor(int entry, int direction) {
+        return entry >>> (DIRECTION_SHIFT + DIRECTION_BITS * direction) & OCCUPANCY_MASK;
+    }
+
+    public static int getLanding(int entry, int direction) {
+        return entry >>> (DIRECTION_SHIFT + DIRECTION_BITS * direction + LANDING_SHIFT) & OCCUPANCY_MASK;
+    }
+
+    /**
+     * Checks whether the piece can jump in a direction: an opponent's piece is next to it and the landing square is
+     * empty. Whether a man may move that way isn't checked.
+     *
+     * @pre 0 <= direction < 4
+     *
+     * @post canJump = [getNeighbor(entry, direction) = OPPONENT AND getLanding(entry, direction) = EMPTY]
+     *
+     * @return true if the jump is open.
+     */
+    public static boolean canJump(int entry, int direction) {
+        return getNeighbor(entry, direction) == OPPONENT && getLanding(entry, direction) == EMPTY;
+    }
+}
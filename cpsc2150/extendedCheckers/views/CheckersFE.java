@@ -1,44 +1,58 @@
 package cpsc2150.extendedCheckers.views;
 
+import cpsc2150.extendedCheckers.engine.EndgameTablebase;
+import cpsc2150.extendedCheckers.engine.IMovePolicy;
+import cpsc2150.extendedCheckers.engine.OpeningBook;
+import cpsc2150.extendedCheckers.engine.ParallelSearchEngine;
 import cpsc2150.extendedCheckers.models.*;
 import cpsc2150.extendedCheckers.util.DirectionEnum;
+import cpsc2150.extendedCheckers.util.PackedMove;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Scanner;
 import java.util.ArrayList;
 
 /**
  * This class is the front end of the Checkers game. It allows players to take turns moving pieces until one of the players
- * has won the game. The game board is represented by an instance of the ICheckerBoard interface. Player one is represented
- * with an 'x' and player two is represented with an 'o'.
+ * has won the game. The game, its board and its players' characters are held by a GameSession, so the front end keeps no
+ * game state of its own. Boards made without player characters use 'x' for player one and 'o' for player two.
  */
 public class CheckersFE {
-    private static char PLAYER_ONE = 'x';
-    private static char PLAYER_TWO = 'o';
-    private static ICheckerBoard checkerBoard;
-    private static char currentPlayer;
+    private static final char PLAYER_ONE = 'x';
+    private static final char PLAYER_TWO = 'o';
+    private static GameSession session;
     private static Scanner scanner;
+    private static ParallelSearchEngine engine;
 
     /**
-     * Returns the character representing Player One.
+     * The size of the position table the computer player shares between its threads, in megabytes.
+     */
+    private static final int ENGINE_TABLE_MEGABYTES = 64;
+
+    /**
+     * Returns the character representing Player One on boards made without player characters.
      * 
      * @pre None.
      * 
-     * @return The character representing Player One.
+     * @return The default character representing Player One.
      * 
-     * @post The returned character represents Player One.
+     * @post The returned character represents Player One unless a board was given another one.
      */
     public static char getPlayerOne() {
         return PLAYER_ONE;
     }
 
     /**
-     * Returns the character representing Player Two.
+     * Returns the character representing Player Two on boards made without player characters.
      * 
      * @pre None.
      * 
-     * @return The character representing Player Two.
+     * @return The default character representing Player Two.
      * 
-     * @post The returned character represents Player Two.
+     * @post The returned character represents Player Two unless a board was given another one.
      */
     public static char getPlayerTwo() {
         return PLAYER_TWO;
@@ -51,20 +65,21 @@ public class CheckersFE {
         scanner = new Scanner(System.in);
 
         System.out.println("Player 1, enter your piece: ");
-        PLAYER_ONE = scanner.nextLine().trim().charAt(0);
+        char playerOne = readPieceCharacter();
         
+        char playerTwo;
         do {
             System.out.println("Player 2, enter your piece: ");
-            PLAYER_TWO = scanner.nextLine().trim().charAt(0);
-            if (PLAYER_TWO == PLAYER_ONE) {
+            playerTwo = readPieceCharacter();
+            if (playerTwo == playerOne) {
                 System.out.println("Piece already taken by Player One. Please select a different piece.");
             }
-        } while (PLAYER_TWO == PLAYER_ONE);
+        } while (playerTwo == playerOne);
 
-        System.out.println("Do you want a fast game (F/f) or a memory efficient game (M/m)?");
+        System.out.println("Do you want a fast game (F/f), a memory efficient game (M/m), or a bitboard game (B/b)?");
         String userChoice = scanner.nextLine().toUpperCase();
-        while (!userChoice.equals("F") && !userChoice.equals("M")) {
-         System.out.println("Please enter F or M");
+        while (!userChoice.equals("F") && !userChoice.equals("M") && !userChoice.equals("B")) {
+         System.out.println("Please enter F, M, or B");
          userChoice = scanner.nextLine().toUpperCase();
         }
 
@@ -85,19 +100,62 @@ public class CheckersFE {
             }
         }
 
+        if (engine != null) {
+            engine.shutdown();
+        }
+        engine = null;
+        System.out.println("Do you want player 2 to be played by the computer? Enter Y or N: ");
+        if (scanner.nextLine().trim().toUpperCase().equals("Y")) {
+            int thinkTime = 0;
+            while (thinkTime <= 0) {
+                System.out.println("How many milliseconds may the computer think per move? Enter one number: ");
+                if (scanner.hasNextInt()) {
+                    thinkTime = scanner.nextInt();
+                } else {
+                    scanner.next();
+                }
+                scanner.nextLine();
+                if (thinkTime <= 0) {
+                    System.out.println("Please enter a positive integer.");
+                }
+            }
+            int threads = 0;
+            int maxThreads = Math.min(Runtime.getRuntime().availableProcessors(), ParallelSearchEngine.MAX_THREADS);
+            while (threads < 1 || threads > maxThreads) {
+                System.out.println("How many threads may the computer use? Enter a number from 1 to " + maxThreads + ": ");
+                if (scanner.hasNextInt()) {
+                    threads = scanner.nextInt();
+                } else {
+                    scanner.next();
+                }
+                scanner.nextLine();
+                if (threads < 1 || threads > maxThreads) {
+                    System.out.println("Please enter a number from 1 to " + maxThreads + ".");
+                }
+            }
+            engine = new ParallelSearchEngine(threads, thinkTime, 0, ENGINE_TABLE_MEGABYTES);
+            loadTablebase();
+            loadOpeningBook();
+        }
+
+        ICheckerBoard checkerBoard;
         if (userChoice.equals("F")) {
-            checkerBoard = new CheckerBoard(boardSize);
+            checkerBoard = new CheckerBoard(boardSize, playerOne, playerTwo);
+        } else if (userChoice.equals("B")) {
+            checkerBoard = new CheckerBoardBit(boardSize, playerOne, playerTwo);
         } else {
-            checkerBoard = new CheckerBoardMem(boardSize);
+            checkerBoard = new CheckerBoardMem(boardSize, playerOne, playerTwo);
         }
-        
-       
-        currentPlayer = PLAYER_ONE;
+        session = new GameSession(0, checkerBoard);
 
         System.out.println(checkerBoard.toString());
 
-        while (!gameOver()) {
-            promptAndMakeMove();
+        while (!session.isGameOver()) {
+            if (engine != null && session.getCurrentPlayer() == session.getPlayerTwo()) {
+                makeEngineMove();
+            } else {
+                promptAndMakeMove();
+            }
         }
         displayResult();
     }
@@ -111,10 +169,12 @@ public class CheckersFE {
      * 
      * @return True if player selected a valid piece and direction, false otherwise.
      * 
-     * @post promptAndMakeMove = [True if player selected a valid piece and direction, if true checkerBoard 
-     * is updated with the new position of the piece]
+     * @post promptAndMakeMove = [True if player selected a valid piece and direction, if true the session's board
+     * is updated with the new position of the piece and the turn is passed]
      */
     private static void promptAndMakeMove() {
+        ICheckerBoard checkerBoard = session.getBoard();
+        char currentPlayer = session.getCurrentPlayer();
         boolean validPieceSelected = false;
         BoardPosition startPos = null;
 
@@ -125,7 +185,7 @@ public class CheckersFE {
             try {
                 int row = Integer.parseInt(position[0]);
                 int col = Integer.parseInt(position[1]);
-                startPos = new BoardPosition(row, col);
+                startPos = BoardPosition.of(row, col);
 
                 char piece = checkerBoard.whatsAtPos(startPos);
 
@@ -171,57 +231,104 @@ public class CheckersFE {
             return;
         }
 
-        if (makeMove(startPos, dir)) {
+        if (session.movePiece(startPos, dir)) {
             System.out.println(checkerBoard.toString());
-            currentPlayer = (currentPlayer == PLAYER_ONE) ? PLAYER_TWO : PLAYER_ONE;
         } else {
             System.out.println("Invalid move. Please try again.");
         }
     }
 
     /**
-     * Moves a piece in a given direction on the checkerboard. Ensures the piece is the current player's piece
-     * If the move is successful, updates the checkerboard.
-     * 
-     * @pre the piece to move is the current player's piece.
-     * 
-     * @param startPos is the starting position of the piece to move.
-     * @param dir is the direction to move the piece in.
-     * 
-     * @return true if move is successful, false otherwise.
-     * 
-     * @post makeMove = [True if move is successful, if true checkerBoard is updated]
+     * Gives the computer player the endgame tables in EndgameTablebase.DEFAULT_DIRECTORY, if they have been generated.
+     *
+     * @pre engine != null
+     *
+     * @return None.
+     *
+     * @post loadTablebase = [engine searches with the endgame tables if the directory exists and they could be read]
      */
-    private static boolean makeMove(BoardPosition startPos, DirectionEnum dir) {
-        char piece = checkerBoard.whatsAtPos(startPos);
-        if (Character.toLowerCase(piece) != Character.toLowerCase(currentPlayer)) {
-            return false;
+    private static void loadTablebase() {
+        Path directory = Paths.get(EndgameTablebase.DEFAULT_DIRECTORY);
+        if (!Files.isDirectory(directory)) {
+            return;
         }
-
-        BoardPosition newPos = checkerBoard.movePiece(startPos, dir);
-        if (newPos.equals(startPos)) {
-            newPos = checkerBoard.jumpPiece(startPos, dir);
+        try {
+            EndgameTablebase tablebase = new EndgameTablebase(directory);
+            engine.setTablebase(tablebase);
+            System.out.println("Loaded endgame tables for up to " + tablebase.getMaxPieces() + " pieces on 8x8 boards.");
+        } catch (IOException e) {
+            System.out.println("The endgame tables couldn't be read: " + e.getMessage());
         }
+    }
 
-        if (!newPos.equals(startPos)) {
-            checkerBoard.crownPiece(newPos);
-            return true;
+    /**
+     * Gives the computer player the opening books in OpeningBook.DEFAULT_DIRECTORY, if they have been built.
+     *
+     * @pre engine != null
+     *
+     * @return None.
+     *
+     * @post loadOpeningBook = [engine plays from the opening books if the directory exists and they could be read]
+     */
+    private static void loadOpeningBook() {
+        Path directory = Paths.get(OpeningBook.DEFAULT_DIRECTORY);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            engine.setOpeningBook(new OpeningBook(directory));
+            System.out.println("Loaded the opening books.");
+        } catch (IOException e) {
+            System.out.println("The opening books couldn't be read: " + e.getMessage());
         }
+    }
 
-        return false;
+    /**
+     * Lets the computer pick and make a move for the current player, then passes the turn.
+     *
+     * @pre engine != null
+     *
+     * @return None.
+     *
+     * @post makeEngineMove = [the computer's move is made on the session's board and the board is printed, or the
+     * turn is passed if the computer has no move]
+     */
+    private static void makeEngineMove() {
+        ICheckerBoard checkerBoard = session.getBoard();
+        char currentPlayer = session.getCurrentPlayer();
+        int move = engine.findBestMove(checkerBoard, currentPlayer);
+        if (move == IMovePolicy.NO_MOVE) {
+            System.out.println("player " + currentPlayer + " has no move.");
+            session.passTurn();
+        } else {
+            // A long chain's steps are found from the position before the move is made
+            int[] steps = new int[ICheckerBoard.BOARD_MAX_SIZE * ICheckerBoard.BOARD_MAX_SIZE / 2];
+            checkerBoard.getMoveSteps(move, steps);
+            String text = PackedMove.toString(move, steps, checkerBoard.getRowNum());
+            session.makeMove(move);
+            System.out.println("player " + currentPlayer + " moves " + text);
+            System.out.println(checkerBoard.toString());
+        }
     }
 
     /**
-     * Checks to see if the game is over by determining if either player has won.
-     * 
+     * Reads a player's piece character, asking again until it is a letter. The character is kept in lowercase,
+     * since the uppercase letter is the player's king.
+     *
      * @pre None.
-     * 
-     * @return True if either player has won, false otherwise.
-     * 
-     * @post gameOver = [True if either player has won]
+     *
+     * @return The lowercase piece character.
+     *
+     * @post readPieceCharacter = [the first letter the player entered, in lowercase]
      */
-    private static boolean gameOver() {
-        return checkerBoard.checkPlayerWin(PLAYER_ONE) || checkerBoard.checkPlayerWin(PLAYER_TWO);
+    private static char readPieceCharacter() {
+        while (true) {
+            String line = scanner.nextLine().trim();
+            if (!line.isEmpty() && Character.isLetter(line.charAt(0))) {
+                return Character.toLowerCase(line.charAt(0));
+            }
+            System.out.println("Please enter a letter.");
+        }
     }
 
     /**
@@ -235,16 +342,10 @@ public class CheckersFE {
      * @post displayResult = [Displays the result of the game, restarts game if user chooses, terminates program otherwise]
      */
     private static void displayResult() {
-        if (checkerBoard.checkPlayerWin(PLAYER_ONE)) {
-            System.out.println("Player x has won!");
-        } else {
-            System.out.println("Player o has won!");
-        }
+        System.out.println("Player " + session.getWinner() + " has won!");
         System.out.print("Would you like to play again? Enter Y or N: ");
         String choice = scanner.nextLine().toUpperCase();
         if (choice.equals("Y")) {
-            //checkerBoard = new CheckerBoard();
-            currentPlayer = PLAYER_ONE;
             main(null);
         } else {
             System.out.println("Thanks for playing!");
@@ -0,0 +1,674 @@
+package cpsc2150.extendedCheckers.views;
+
+import cpsc2150.extendedCheckers.engine.Perft;
+import cpsc2150.extendedCheckers.models.BoardCodec;
+import cpsc2150.extendedCheckers.models.BoardPosition;
+import cpsc2150.extendedCheckers.models.GameSession;
+import cpsc2150.extendedCheckers.models.GameSessionRegistry;
+import cpsc2150.extendedCheckers.models.ICheckerBoard;
+import cpsc2150.extendedCheckers.util.DirectionEnum;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A network front end that hosts many games in one process. Clients connect over TCP and send one command per line;
+ * the server answers every command with one or more lines. A few event-loop threads serve every connection with a
+ * java.nio Selector each, so no thread waits on any single client. The first loop also accepts connections and hands
+ * them to the loops in turn.
+ *
+ * Commands, in any case, with their answers:
+ *  NEW size [F|M|B]     GAME id                    starts a game and makes it this connection's game
+ *  JOIN id              GAME id                    makes an existing game this connection's game
+ *  SELECT row col       PIECE piece dir...         lists the directions a piece of that kind moves in
+ *  MOVE row col dir     BOARD ...                  moves the current player's piece and answers with the board
+ *  BOARD                BOARD id size turn winner  followed by size lines of size squares
+ *  SNAPSHOT             SNAPSHOT id length         followed by length bytes of the position, as written by BoardCodec
+ *  QUIT                 BYE                        closes the connection
+ * A command that can't be carried out is answered with a line starting with ERR. In a board, an empty square is '.',
+ * an unplayable one is '*', and the winner is '-' while the game goes on.
+ *
+ * A game is removed from the registry once a move ends it, or once the last connection playing it leaves it or
+ * closes, and any other connection still playing it is then answered ERR no such game. Stopping the server leaves
+ * every game in the registry.
+ *
+ * Each connection has two direct buffers that are reused for every answer, one for the first line and one for the
+ * board, and answers are sent with a gathering write of both. A connection reads no more commands until its last
+ * answer has been sent.
+ *
+ * @invariant loops.length >= 1 AND [every open connection is registered with exactly one loop's selector]
+ */
+public class CheckersServer implements Closeable {
+    public static final int DEFAULT_PORT = 2150;
+
+    /**
+     * The longest command line a client may send, not counting the line break.
+     */
+    static final int MAX_LINE = 128;
+
+    /**
+     * The size of the buffer each loop reads into before copying the bytes to the connection they came from.
+     */
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private static final int HEADER_BUFFER_SIZE = 256;
+    private static final int BODY_BUFFER_SIZE = ICheckerBoard.BOARD_MAX_SIZE * (ICheckerBoard.BOARD_MAX_SIZE + 1);
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] loops;
+    private final Thread[] threads;
+    private final GameSessionRegistry registry;
+    private volatile boolean running;
+
+    /**
+     * The number of connections playing each game, shared by every loop.
+     */
+    private final ConcurrentHashMap<Long, Integer> connectionCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The loop the next accepted connection is handed to. Only the first loop's thread uses it.
+     */
+    private int nextLoop;
+
+    /**
+     * Opens a server socket. No connection is accepted until start is called.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @param loopCount the number of event-loop threads
+     * @param registry the games the server hosts, which may be shared with other front ends
+     *
+     * @pre 0 <= port <= 65535 AND loopCount >= 1 AND registry != null
+     *
+     * @post [the server socket is bound to port and the loops are ready to run]
+     *
+     * @throws IOException if the socket can't be opened
+     */
+    public CheckersServer(int port, int loopCount, GameSessionRegistry registry) throws IOException {
+        if (loopCount < 1) {
+            throw new IllegalArgumentException("Invalid event loop count.");
+        }
+        this.registry = registry;
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        loops = new EventLoop[loopCount];
+        threads = new Thread[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new EventLoop();
+        }
+        serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Starts the event-loop threads.
+     *
+     * @pre start hasn't been called
+     *
+     * @post [every loop runs on its own daemon thread]
+     */
+    public void start() {
+        running = true;
+        for (int i = 0; i < loops.length; i++) {
+            threads[i] = new Thread(loops[i], "checkers-loop-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops the loops and closes the server socket and every connection.
+     *
+     * @pre None
+     *
+     * @post [every loop thread has ended and every channel is closed]
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        for (Thread thread : threads) {
+            if (thread != null) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        serverChannel.close();
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     *
+     * @param args the port (default DEFAULT_PORT) and the number of event loops (default 2)
+     *
+     * @pre None
+     *
+     * @post [the server answers connections on the port until the process ends]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int loopCount = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        CheckersServer server = new CheckersServer(port, loopCount, new GameSessionRegistry());
+        server.start();
+        System.out.println("Serving checkers on port " + server.getPort() + " with " + loopCount + " event loops.");
+        for (Thread thread : server.threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * One event-loop thread and the connections registered with its selector.
+     */
+    private final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        /**
+         * Connections accepted by the first loop and waiting to be registered with this one.
+         */
+        private final ConcurrentLinkedQueue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+
+        EventLoop() throws IOException {
+            selector = Selector.open();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    registerAccepted();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handle(key);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Event loop failed: " + e.getMessage());
+            } finally {
+                // The games outlive the server, so the connections are closed without leaving them
+                for (SelectionKey key : new ArrayList<>(selector.keys())) {
+                    if (key.attachment() instanceof Connection) {
+                        ((Connection) key.attachment()).closeChannel();
+                    }
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // Nothing is left to clean up
+                }
+            }
+        }
+
+        void hand(SocketChannel channel) {
+            accepted.add(channel);
+            selector.wakeup();
+        }
+
+        private void registerAccepted() throws IOException {
+            for (SocketChannel channel = accepted.poll(); channel != null; channel = accepted.poll()) {
+                Connection connection = new Connection(channel);
+                try {
+                    connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                } catch (ClosedChannelException e) {
+                    // The client left before it was registered
+                }
+            }
+        }
+
+        private void handle(SelectionKey key) throws IOException {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isWritable() && connection.flush()) {
+                    // Commands that arrived with the one just answered are handled now
+                    connection.handleLines();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.read(readBuffer);
+                }
+            } catch (IOException e) {
+                connection.close();
+            } catch (RuntimeException e) {
+                // A failure in one connection only ends that connection
+                System.err.println("Connection failed: " + e);
+                connection.close();
+            }
+        }
+
+        private void accept() throws IOException {
+            for (SocketChannel channel = serverChannel.accept(); channel != null; channel = serverChannel.accept()) {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                loops[nextLoop].hand(channel);
+                nextLoop = (nextLoop + 1) % loops.length;
+            }
+        }
+    }
+
+    /**
+     * The state of one client: the bytes of the commands it hasn't finished sending, the game it plays and the
+     * buffers its answers are written from.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private SelectionKey key;
+
+        /**
+         * Bytes received but not yet handled, holding at most one whole line plus part of the next.
+         */
+        private final byte[] input = new byte[2 * (MAX_LINE + 2)];
+        private int inputLength;
+
+        /**
+         * The id of this connection's game, or 0 before it starts or joins one. Ids start at 1.
+         */
+        private long gameId;
+
+        /**
+         * Set by a move that ends this connection's game.
+         */
+        private boolean gameEnded;
+
+        /**
+         * The answer buffers, made on the first answer so idle connections hold no direct memory.
+         */
+        private ByteBuffer header;
+        private ByteBuffer body;
+        private final ByteBuffer[] answer = new ByteBuffer[2];
+        private int answerParts;
+        private boolean closeAfterAnswer;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads what the client sent and handles every whole command in it.
+         *
+         * @pre [no answer is waiting to be sent]
+         *
+         * @post [every whole line received has been answered, unless an answer is still being sent]
+         */
+        void read(ByteBuffer readBuffer) throws IOException {
+            readBuffer.clear();
+            readBuffer.limit(Math.min(readBuffer.capacity(), input.length - inputLength));
+            int count = channel.read(readBuffer);
+            if (count < 0) {
+                close();
+                return;
+            }
+            readBuffer.flip();
+            readBuffer.get(input, inputLength, count);
+            inputLength += count;
+            handleLines();
+        }
+
+        /**
+         * Sends as much of the waiting answer as the socket takes.
+         *
+         * @pre None
+         *
+         * @post flush = [true if the whole answer was sent and the connection reads again] AND [if some of the answer
+         *       is left, the connection waits for the socket to be writable; if it was asked to close, it is closed]
+         *
+         * @return true if the connection is ready for its next command.
+         */
+        boolean flush() throws IOException {
+            if (answerParts > 0) {
+                channel.write(answer, 0, answerParts);
+                if (answer[answerParts - 1].hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                    return false;
+                }
+                answerParts = 0;
+            }
+            if (closeAfterAnswer) {
+                close();
+                return false;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            return true;
+        }
+
+        /**
+         * Leaves this connection's game and closes the connection.
+         */
+        void close() {
+            leaveGame();
+            closeChannel();
+        }
+
+        void closeChannel() {
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // The channel is gone either way
+            }
+        }
+
+        /**
+         * Answers the whole commands received, one at a time, until one answer can't be sent at once.
+         */
+        void handleLines() throws IOException {
+            int start = 0;
+            while (true) {
+                int end = indexOfLineBreak(start);
+                if (end < 0) {
+                    break;
+                }
+                int length = end - start;
+                if (length > 0 && input[end - 1] == '\r') {
+                    length--;
+                }
+                String line = new String(input, start, length, StandardCharsets.US_ASCII);
+                start = end + 1;
+                handleCommand(line.trim());
+                if (!flush()) {
+                    break;
+                }
+            }
+            System.arraycopy(input, start, input, 0, inputLength - start);
+            inputLength -= start;
+            if (answerParts == 0 && channel.isOpen() && inputLength > MAX_LINE + 1 && indexOfLineBreak(0) < 0) {
+                inputLength = 0;
+                startAnswer().put(bytes("ERR line too long\n")).flip();
+                closeAfterAnswer = true;
+                send(false);
+                flush();
+            }
+        }
+
+        private int indexOfLineBreak(int from) {
+            for (int i = from; i < inputLength; i++) {
+                if (input[i] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Carries out one command and fills the answer buffers.
+         */
+        private void handleCommand(String line) {
+            String[] words = line.split(" +");
+            String command = words[0].toUpperCase();
+            try {
+                switch (command) {
+                    case "NEW":
+                        newGame(words);
+                        break;
+                    case "JOIN":
+                        joinGame(Long.parseLong(words[1]));
+                        break;
+                    case "SELECT":
+                        select(Integer.parseInt(words[1]), Integer.parseInt(words[2]));
+                        break;
+                    case "MOVE":
+                        move(Integer.parseInt(words[1]), Integer.parseInt(words[2]), words[3]);
+                        break;
+                    case "BOARD":
+                        board();
+                        break;
+                    case "SNAPSHOT":
+                        snapshot();
+                        break;
+                    case "QUIT":
+                        closeAfterAnswer = true;
+                        reply("BYE");
+                        break;
+                    default:
+                        reply("ERR unknown command");
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                reply("ERR bad arguments");
+            } catch (IllegalArgumentException e) {
+                if (registry.contains(gameId)) {
+                    throw e;
+                }
+                // Another connection ended the game since this one joined it
+                reply("ERR no such game");
+            }
+        }
+
+        private void newGame(String[] words) {
+            int size = Integer.parseInt(words[1]);
+            if (size < ICheckerBoard.BOARD_MIN_SIZE || size > ICheckerBoard.BOARD_MAX_SIZE || size % 2 != 0) {
+                reply("ERR invalid board size");
+                return;
+            }
+            String implementation = words.length > 2 ? words[2] : "F";
+            if (!implementation.matches("[FfMmBb]")) {
+                reply("ERR unknown board implementation");
+                return;
+            }
+            enterGame(registry.create(Perft.boardFactory(implementation).apply(size)));
+            reply("GAME " + gameId);
+        }
+
+        private void joinGame(long id) {
+            if (!registry.contains(id)) {
+                reply("ERR no such game");
+                return;
+            }
+            enterGame(id);
+            reply("GAME " + gameId);
+        }
+
+        /**
+         * Makes a game this connection's game, leaving the one it played before.
+         */
+        private void enterGame(long id) {
+            leaveGame();
+            connectionCounts.merge(id, 1, Integer::sum);
+            gameId = id;
+        }
+
+        /**
+         * Stops playing this connection's game, removing the game if no other connection plays it.
+         */
+        private void leaveGame() {
+            if (gameId == 0) {
+                return;
+            }
+            long id = gameId;
+            gameId = 0;
+            if (connectionCounts.computeIfPresent(id, (game, count) -> count == 1 ? null : count - 1) == null) {
+                registry.remove(id);
+            }
+        }
+
+        /**
+         * Removes this connection's game once a move has ended it. Other connections playing it find it gone.
+         */
+        private void endGame() {
+            long id = gameId;
+            gameId = 0;
+            connectionCounts.remove(id);
+            registry.remove(id);
+        }
+
+        private void select(int row, int col) {
+            if (!hasGame()) {
+                return;
+            }
+            reply(registry.withSession(gameId, session -> {
+                ICheckerBoard board = session.getBoard();
+                if (!onBoard(board, row, col)) {
+                    return "ERR off the board";
+                }
+                char piece = board.whatsAtPos(BoardPosition.of(row, col));
+                if (Character.toLowerCase(piece) != session.getCurrentPlayer()) {
+                    return "ERR not your piece";
+                }
+                StringBuilder sb = new StringBuilder("PIECE ").append(piece);
+                for (DirectionEnum dir : board.getViableDirections().get(piece)) {
+                    sb.append(' ').append(dir);
+                }
+                return sb.toString();
+            }));
+        }
+
+        private void move(int row, int col, String direction) {
+            if (!hasGame()) {
+                return;
+            }
+            DirectionEnum dir;
+            try {
+                dir = DirectionEnum.valueOf(direction.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                reply("ERR unknown direction");
+                return;
+            }
+            String error = registry.withSession(gameId, session -> {
+                ICheckerBoard board = session.getBoard();
+                if (!onBoard(board, row, col)) {
+                    return "ERR off the board";
+                }
+                BoardPosition startPos = BoardPosition.of(row, col);
+                char piece = board.whatsAtPos(startPos);
+                if (Character.toLowerCase(piece) != session.getCurrentPlayer()) {
+                    return "ERR not your piece";
+                }
+                if (session.isGameOver() || !board.getViableDirections().get(piece).contains(dir)
+                        || !session.movePiece(startPos, dir)) {
+                    return "ERR invalid move";
+                }
+                writeBoard(session);
+                gameEnded = session.isGameOver();
+                return null;
+            });
+            if (error != null) {
+                reply(error);
+                return;
+            }
+            send(true);
+            if (gameEnded) {
+                // The board with the winner is the game's last answer
+                endGame();
+            }
+        }
+
+        private void board() {
+            if (!hasGame()) {
+                return;
+            }
+            registry.withSession(gameId, session -> {
+                writeBoard(session);
+                return null;
+            });
+            send(true);
+        }
+
+        private void snapshot() {
+            if (!hasGame()) {
+                return;
+            }
+            registry.withSession(gameId, session -> {
+                ICheckerBoard board = session.getBoard();
+                startAnswer().put(bytes("SNAPSHOT " + session.getId() + " "
+                        + BoardCodec.encodedSize(board.getRowNum()) + "\n")).flip();
+                body.clear();
+                BoardCodec.encode(board, body);
+                body.flip();
+                return null;
+            });
+            send(true);
+        }
+
+        private boolean hasGame() {
+            if (gameId == 0) {
+                reply("ERR no game");
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Writes a game's board header into the header buffer and its squares into the body buffer.
+         *
+         * @pre [the caller holds the game's lock]
+         *
+         * @post [header and body hold the board answer, ready to be written]
+         */
+        private void writeBoard(GameSession session) {
+            ICheckerBoard board = session.getBoard();
+            int size = board.getRowNum();
+            char winner = session.getWinner();
+            startAnswer().put(bytes("BOARD " + session.getId() + " " + size + " " + session.getCurrentPlayer() + " "
+                    + (winner == 0 ? '-' : winner) + "\n")).flip();
+            body.clear();
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    char square = board.whatsAtPos(BoardPosition.of(row, col));
+                    body.put((byte) (square == ICheckerBoard.EMPTY_POS ? '.' : square));
+                }
+                body.put((byte) '\n');
+            }
+            body.flip();
+        }
+
+        private void reply(String text) {
+            startAnswer().put(bytes(text + "\n")).flip();
+            send(false);
+        }
+
+        private ByteBuffer startAnswer() {
+            if (header == null) {
+                header = ByteBuffer.allocateDirect(HEADER_BUFFER_SIZE);
+                body = ByteBuffer.allocateDirect(BODY_BUFFER_SIZE);
+            }
+            header.clear();
+            return header;
+        }
+
+        /**
+         * Queues the filled buffers to be written by the next flush.
+         */
+        private void send(boolean withBody) {
+            answer[0] = header;
+            answer[1] = body;
+            answerParts = withBody ? 2 : 1;
+        }
+
+        private boolean onBoard(ICheckerBoard board, int row, int col) {
+            return row >= 0 && row < board.getRowNum() && col >= 0 && col < board.getColNum();
+        }
+
+        private byte[] bytes(String text) {
+            return text.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+}